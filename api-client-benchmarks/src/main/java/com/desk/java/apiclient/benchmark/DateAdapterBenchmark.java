@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.benchmark;
+
+import com.desk.java.apiclient.util.ISO8601DateAdapter;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Measures parsing and formatting dates with the shared {@link ISO8601DateAdapter#TYPE_ADAPTER}. The
+ *     {@code Contended} variants run on several threads to show the cost of sharing the adapter.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DateAdapterBenchmark {
+
+    private static final int CONTENDING_THREADS = 4;
+
+    private final ISO8601DateAdapter adapter = ISO8601DateAdapter.TYPE_ADAPTER;
+    private final JsonElement json = new JsonPrimitive("2016-01-04T18:42:03Z");
+    private final Date date = new Date(1451932923000L);
+
+    @Benchmark
+    public Date parse() {
+        return adapter.deserialize(json, Date.class, null);
+    }
+
+    @Benchmark
+    public JsonElement format() {
+        return adapter.serialize(date, Date.class, null);
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public Date parseContended() {
+        return adapter.deserialize(json, Date.class, null);
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public JsonElement formatContended() {
+        return adapter.serialize(date, Date.class, null);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ *     Loads the mock JSON fixtures of the api-client tests and builds API pages of them.
+ * </p>
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Reads a fixture from the api-client test resources
+     *
+     * @param name the file name such as {@code mock_case.json}
+     * @return the parsed JSON
+     */
+    static JsonElement read(String name) {
+        InputStream in = Fixtures.class.getResourceAsStream("/" + name);
+        if (in == null) {
+            throw new IllegalStateException("Fixture " + name + " is not on the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read fixture " + name, e);
+        }
+    }
+
+    /**
+     * Builds the JSON of a page as returned by the list endpoints, holding copies of the entity with distinct ids
+     *
+     * @param name the file name of the entity fixture
+     * @param collection the collection in the links such as {@code cases}
+     * @param size the number of entries
+     * @return the page JSON
+     */
+    static String page(String name, String collection, int size) {
+        JsonObject entity = read(name).getAsJsonObject();
+        JsonArray entries = new JsonArray();
+        for (int i = 1; i <= size; i++) {
+            JsonObject entry = copy(entity);
+            entry.addProperty("id", i);
+            entries.add(entry);
+        }
+        JsonObject embedded = new JsonObject();
+        embedded.add("entries", entries);
+
+        JsonObject links = new JsonObject();
+        links.add("self", link("/api/v2/" + collection + "?page=1&per_page=" + size, "page"));
+        links.add("first", link("/api/v2/" + collection + "?page=1&per_page=" + size, "page"));
+        links.add("next", link("/api/v2/" + collection + "?page=2&per_page=" + size, "page"));
+
+        JsonObject page = new JsonObject();
+        page.addProperty("total_entries", size * 10);
+        page.addProperty("page", 1);
+        page.add("_links", links);
+        page.add("_embedded", embedded);
+        return page.toString();
+    }
+
+    private static JsonObject link(String href, String className) {
+        JsonObject link = new JsonObject();
+        link.addProperty("href", href);
+        link.addProperty("class", className);
+        return link;
+    }
+
+    private static JsonObject copy(JsonObject object) {
+        return new JsonParser().parse(object.toString()).getAsJsonObject();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.benchmark;
+
+import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
+import com.desk.java.apiclient.util.OAuthSigner;
+import com.desk.java.apiclient.util.OAuthSigningInterceptor;
+import com.desk.java.apiclient.util.RetrofitHttpOAuthConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Connection;
+import okhttp3.FormBody;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * <p>
+ *     Measures signing a request with signpost, with the native {@link OAuthSigner} and with an API token, each
+ *     through its interceptor and a chain that answers without touching the network.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SigningBenchmark {
+
+    private static final String CONSUMER_KEY = "Xq6lqGkVVaBJ5W2z0Nmv";
+    private static final String CONSUMER_SECRET = "zK3c0OH2bYmPRhR8Ssfq1cDyYw3h7EJ6yT9c2Lwn";
+    private static final String ACCESS_TOKEN = "f0pPBWiU6mOVrYRtC8oZ";
+    private static final String ACCESS_TOKEN_SECRET = "Hk2E7pAqUWd8fSx5NlmJ3oQvBzRyGc1tLr9aTe4i";
+
+    /** Whether the request has a query or a form body, both of which are signed */
+    @Param({"get", "post"})
+    public String method;
+
+    private Interceptor signpost;
+    private Interceptor oauth;
+    private Interceptor apiToken;
+    private Chain chain;
+
+    @Setup
+    public void setUp() {
+        RetrofitHttpOAuthConsumer consumer = new RetrofitHttpOAuthConsumer(CONSUMER_KEY, CONSUMER_SECRET);
+        consumer.setTokenWithSecret(ACCESS_TOKEN, ACCESS_TOKEN_SECRET);
+        signpost = new OAuthSigningInterceptor(consumer);
+        oauth = new OAuthSigningInterceptor(
+                new OAuthSigner(CONSUMER_KEY, CONSUMER_SECRET, ACCESS_TOKEN, ACCESS_TOKEN_SECRET));
+        apiToken = new ApiTokenSigningInterceptor("dGVzdEBleGFtcGxlLmNvbTpzZWNyZXQ=");
+
+        Request.Builder request = new Request.Builder()
+                .url("https://example.desk.com/api/v2/cases/search?status=open,pending&sort_field=updated_at");
+        if ("post".equals(method)) {
+            request.post(new FormBody.Builder()
+                    .add("subject", "Printer on fire")
+                    .add("labels", "hardware,urgent")
+                    .build());
+        }
+        chain = new Chain(request.build());
+    }
+
+    @Benchmark
+    public Response signpost() throws IOException {
+        return signpost.intercept(chain);
+    }
+
+    @Benchmark
+    public Response oauthSigner() throws IOException {
+        return oauth.intercept(chain);
+    }
+
+    @Benchmark
+    public Response apiToken() throws IOException {
+        return apiToken.intercept(chain);
+    }
+
+    /**
+     * Answers every request with an empty response
+     */
+    static final class Chain implements Interceptor.Chain {
+
+        private static final ResponseBody EMPTY = ResponseBody.create(MediaType.parse("application/json"), "{}");
+
+        private final Request request;
+
+        Chain(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .body(EMPTY)
+                    .build();
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.benchmark.vthread;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.RxDeskClient;
+import com.desk.java.apiclient.VirtualThreadDeskClient;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.vthread.Calls;
+import com.desk.java.apiclient.vthread.StructuredFanOut;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+/**
+ * <p>
+ *     Compares reading many cases by id on virtual threads with {@link StructuredFanOut}, on a fixed pool of
+ *     platform threads and with RxJava on its io scheduler.
+ * </p>
+ *
+ * <p>
+ *     No request leaves the process: an application interceptor sleeps for the simulated latency and answers with
+ *     a small case, so the numbers show the cost of waiting on many requests at once rather than the network.
+ *     Only built on JDK 21, run it with the other benchmarks or on its own with {@link #main(String[])}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--enable-preview", "--add-opens=java.base/sun.security.ssl=ALL-UNNAMED" })
+public class FanOutBenchmark {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String CASE = "{\"id\":1,\"subject\":\"Printer on fire\",\"status\":\"open\"}";
+
+    @Param({ "1000" })
+    public int ids;
+
+    @Param({ "16", "256" })
+    public int concurrency;
+
+    @Param({ "20" })
+    public int latencyMillis;
+
+    private DeskClient virtualThreadClient;
+    private RxDeskClient rxClient;
+    private ExecutorService platformThreads;
+    private long[] caseIds;
+    private List<Long> caseIdList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        virtualThreadClient = VirtualThreadDeskClient.create(builder());
+        rxClient = RxDeskClient.create(builder());
+        platformThreads = Executors.newFixedThreadPool(concurrency);
+        caseIds = new long[ids];
+        caseIdList = new ArrayList<>(ids);
+        for (int i = 0; i < ids; i++) {
+            caseIds[i] = i + 1;
+            caseIdList.add(caseIds[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Case> virtualThreads() throws Exception {
+        return StructuredFanOut.byIds(caseIds, concurrency,
+                id -> virtualThreadClient.cases().getCaseById(id, null, null));
+    }
+
+    @Benchmark
+    public List<Case> platformThreads() throws Exception {
+        List<Callable<Case>> tasks = new ArrayList<>(ids);
+        for (long id : caseIds) {
+            tasks.add(() -> Calls.execute(rxClient.cases().getCaseById(id, null, null)));
+        }
+        List<Case> cases = new ArrayList<>(ids);
+        for (Future<Case> future : platformThreads.invokeAll(tasks)) {
+            cases.add(future.get());
+        }
+        return cases;
+    }
+
+    @Benchmark
+    public List<Case> rx() {
+        return Observable.from(caseIdList)
+                .flatMap(id -> rxClient.casesRx().getCaseByIdObservable(id, null, null)
+                        .subscribeOn(Schedulers.io()), concurrency)
+                .toList()
+                .toBlocking()
+                .single();
+    }
+
+    private DeskClientBuilder builder() {
+        return new DeskClientBuilder("benchmark.desk.com", "token")
+                .applicationInterceptors(Collections.singletonList(simulatedLatency()));
+    }
+
+    private Interceptor simulatedLatency() {
+        return chain -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Response.Builder()
+                    .request(chain.request())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(JSON, CASE))
+                    .build();
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FanOutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -27,6 +27,18 @@
 package com.desk.java.apiclient;
 
 import com.desk.java.apiclient.DeskClientBuilder.AuthType;
+import com.desk.java.apiclient.attachment.Attachments;
+import com.desk.java.apiclient.cache.CachingCaseService;
+import com.desk.java.apiclient.cache.CachingCustomerService;
+import com.desk.java.apiclient.cache.CachingUserService;
+import com.desk.java.apiclient.cache.GsonEntryCodec;
+import com.desk.java.apiclient.cache.OffHeapCache;
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.metrics.Endpoint;
+import com.desk.java.apiclient.metrics.EndpointMetrics;
+import com.desk.java.apiclient.metrics.ListeningConverterFactory;
+import com.desk.java.apiclient.metrics.MetricsConverterFactory;
+import com.desk.java.apiclient.metrics.NetworkTimings;
 import com.desk.java.apiclient.model.CaseLock;
 import com.desk.java.apiclient.model.IOpportunityActivity;
 import com.desk.java.apiclient.service.ArticleService;
@@ -52,30 +64,53 @@ import com.desk.java.apiclient.service.UserService;
 import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
 import com.desk.java.apiclient.util.DeskClientUtils;
 import com.desk.java.apiclient.util.ISO8601DateAdapter;
+import com.desk.java.apiclient.util.IdentityMap;
+import com.desk.java.apiclient.util.IdentityMapConverterFactory;
+import com.desk.java.apiclient.util.IdentityMapTypeAdapterFactory;
+import com.desk.java.apiclient.util.OAuthSigner;
 import com.desk.java.apiclient.util.OAuthSigningInterceptor;
 import com.desk.java.apiclient.util.OpportunityActivityAdapter;
 import com.desk.java.apiclient.util.RetrofitHttpOAuthConsumer;
+import com.desk.java.apiclient.util.StringPool;
+import com.desk.java.apiclient.util.StringPoolTypeAdapterFactory;
 import com.desk.java.apiclient.util.StringUtils;
 import com.desk.java.apiclient.util.UserAgentInterceptor;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import oauth.signpost.exception.OAuthCommunicationException;
 import oauth.signpost.exception.OAuthExpectationFailedException;
 import oauth.signpost.exception.OAuthMessageSignerException;
 import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.CallAdapter;
+import retrofit2.Converter;
 import retrofit2.converter.gson.GsonConverterFactory;
 import retrofit2.Retrofit;
+import retrofit2.http.Body;
 
 import static com.desk.java.apiclient.DeskClientBuilder.API_BASE_PATH;
 import static com.desk.java.apiclient.DeskClientBuilder.AuthType.OAUTH;
@@ -85,11 +120,41 @@ import static com.desk.java.apiclient.DeskClientBuilder.AuthType.OAUTH;
  * Client which interfaces with the Desk API.
  * </p>
  *
+ * <p>
+ * Service instances are created once per client and are safe to share across threads.
+ * </p>
+ *
  * Created by Matt Kranzler on 4/27/15.
  * Copyright (c) 2016 Desk.com. All rights reserved.
  */
 public class DeskClient {
 
+    /**
+     * The Retrofit service interfaces exposed by {@link DeskClient}
+     */
+    static final Class<?>[] SERVICES = {
+            UserService.class,
+            SiteService.class,
+            LabelService.class,
+            CustomFieldsService.class,
+            GroupService.class,
+            MacroService.class,
+            OutboundMailboxService.class,
+            FilterService.class,
+            CaseService.class,
+            CompanyService.class,
+            CustomerService.class,
+            PermissionService.class,
+            TwitterUserService.class,
+            TopicService.class,
+            ArticleService.class,
+            InboundMailboxService.class,
+            OpportunityStageService.class,
+            OpportunityService.class,
+            TwitterAccountService.class,
+            JobService.class
+    };
+
     private final String hostname;
     private final String apiToken;
     private final String consumerKey;
@@ -101,29 +166,28 @@ public class DeskClient {
     private final List<Interceptor> applicationInterceptors;
     private final List<Interceptor> networkInterceptors;
     private final AuthType authType;
-
+    private final boolean validateEagerly;
+    private final boolean primeTypeAdapters;
+    private final boolean identityMapPerResponse;
+    private final IdentityMap identityMap;
+    private final StringPool stringPool;
+    private final long offHeapCacheCapacity;
+    private final long offHeapCacheMaxAgeMillis;
+    private final Dispatcher dispatcher;
+    private final EndpointMetrics metrics;
+    private final NetworkTimings networkTimings;
+    // the listener made by the builder's factory once the client is constructed
+    private volatile DeskEventListener eventListener = DeskEventListener.NONE;
+    // what the calls, converters and cache report to, forwarding to the eventListener
+    private final DeskEventListener reportingListener;
+    private final ConcurrentMap<Class<?>, Object> services = new ConcurrentHashMap<>();
+
+    private Gson gson;
     private Retrofit restAdapter;
+    private OkHttpClient okHttpClient;
     private RetrofitHttpOAuthConsumer oAuthConsumer;
-    private UserService userService;
-    private SiteService siteService;
-    private LabelService labelService;
-    private CustomFieldsService customFieldsService;
-    private GroupService groupService;
-    private MacroService macroService;
-    private OutboundMailboxService outboundMailboxService;
-    private FilterService filterService;
-    private CaseService caseService;
-    private CompanyService companyService;
-    private CustomerService customerService;
-    private PermissionService permissionService;
-    private TwitterUserService twitterUserService;
-    private TopicService topicService;
-    private ArticleService articleService;
-    private InboundMailboxService inboundMailboxService;
-    private OpportunityStageService opportunityStageService;
-    private OpportunityService opportunityService;
-    private TwitterAccountService twitterAccountService;
-    private JobService jobService;
+    private OffHeapCache offHeapCache;
+    private Attachments attachments;
 
     /**
      * Creates a {@link DeskClient} using the provided {@link DeskClientBuilder}.
@@ -149,16 +213,44 @@ public class DeskClient {
         this.responseCache = builder.responseCache;
         this.applicationInterceptors = builder.applicationInterceptors;
         this.networkInterceptors = builder.networkInterceptors;
+        this.validateEagerly = builder.validateEagerly;
+        this.primeTypeAdapters = builder.primeTypeAdapters;
+        this.identityMapPerResponse = builder.identityMapPerResponse;
+        this.identityMap = builder.identityMap;
+        this.stringPool = builder.stringPool;
+        this.offHeapCacheCapacity = builder.offHeapCacheCapacity;
+        this.offHeapCacheMaxAgeMillis = builder.offHeapCacheMaxAgeMillis;
+        this.dispatcher = builder.dispatcher;
+        this.metrics = builder.metrics;
+        this.networkTimings = builder.networkTimings;
+        this.reportingListener = builder.eventListenerFactory != null
+                ? new ForwardingEventListener() : DeskEventListener.NONE;
         this.oAuthConsumer = createOAuthConsumer();
 
         Retrofit.Builder retrofitBuilder = createRestAdapter();
+        if (offHeapCacheCapacity > 0) {
+            this.offHeapCache = new OffHeapCache(offHeapCacheCapacity, new GsonEntryCodec(gson));
+            offHeapCache.setMaxAge(offHeapCacheMaxAgeMillis, TimeUnit.MILLISECONDS);
+            offHeapCache.setEventListener(reportingListener);
+        }
+        if (metrics != null || reportingListener != DeskEventListener.NONE) {
+            // first, so it wraps the calls before any other adapter sees them
+            retrofitBuilder.addCallAdapterFactory(EndpointMetrics.callAdapterFactory(metrics,
+                    reportingListener != DeskEventListener.NONE ? reportingListener : null));
+        }
         if (builder.callAdapters != null && !builder.callAdapters.isEmpty()) {
             for (CallAdapter.Factory callAdapter : builder.callAdapters) {
                 retrofitBuilder.addCallAdapterFactory(callAdapter);
             }
         }
 
-        this.restAdapter = retrofitBuilder.build();
+        this.restAdapter = retrofitBuilder.validateEagerly(validateEagerly).build();
+        this.attachments = new Attachments(okHttpClient, restAdapter.baseUrl(), getService(CaseService.class));
+        warmUp(SERVICES);
+        if (builder.eventListenerFactory != null) {
+            // last, so the factory sees a fully constructed client
+            this.eventListener = builder.eventListenerFactory.create(this);
+        }
     }
 
     /**
@@ -217,10 +309,7 @@ public class DeskClient {
      */
     @NotNull
     public UserService users() {
-        if (userService == null) {
-            userService = restAdapter.create(UserService.class);
-        }
-        return userService;
+        return getService(UserService.class);
     }
 
     /**
@@ -230,10 +319,7 @@ public class DeskClient {
      */
     @NotNull
     public SiteService sites() {
-        if (siteService == null) {
-            siteService = restAdapter.create(SiteService.class);
-        }
-        return siteService;
+        return getService(SiteService.class);
     }
 
     /**
@@ -243,10 +329,7 @@ public class DeskClient {
      */
     @NotNull
     public LabelService labels() {
-        if (labelService == null) {
-            labelService = restAdapter.create(LabelService.class);
-        }
-        return labelService;
+        return getService(LabelService.class);
     }
 
     /**
@@ -256,10 +339,7 @@ public class DeskClient {
      */
     @NotNull
     public CustomFieldsService customFields() {
-        if (customFieldsService == null) {
-            customFieldsService = restAdapter.create(CustomFieldsService.class);
-        }
-        return customFieldsService;
+        return getService(CustomFieldsService.class);
     }
 
     /**
@@ -269,10 +349,7 @@ public class DeskClient {
      */
     @NotNull
     public GroupService groups() {
-        if (groupService == null) {
-            groupService = restAdapter.create(GroupService.class);
-        }
-        return groupService;
+        return getService(GroupService.class);
     }
 
     /**
@@ -282,10 +359,7 @@ public class DeskClient {
      */
     @NotNull
     public MacroService macros() {
-        if (macroService == null) {
-            macroService = restAdapter.create(MacroService.class);
-        }
-        return macroService;
+        return getService(MacroService.class);
     }
 
     /**
@@ -295,10 +369,7 @@ public class DeskClient {
      */
     @NotNull
     public OutboundMailboxService outboundMailboxes() {
-        if (outboundMailboxService == null) {
-            outboundMailboxService = restAdapter.create(OutboundMailboxService.class);
-        }
-        return outboundMailboxService;
+        return getService(OutboundMailboxService.class);
     }
 
     /**
@@ -308,10 +379,7 @@ public class DeskClient {
      */
     @NotNull
     public FilterService filters() {
-        if (filterService == null) {
-            filterService = restAdapter.create(FilterService.class);
-        }
-        return filterService;
+        return getService(FilterService.class);
     }
 
     /**
@@ -321,10 +389,7 @@ public class DeskClient {
      */
     @NotNull
     public CaseService cases() {
-        if (caseService == null) {
-            caseService = restAdapter.create(CaseService.class);
-        }
-        return caseService;
+        return getService(CaseService.class);
     }
 
     /**
@@ -334,10 +399,7 @@ public class DeskClient {
      */
     @NotNull
     public CompanyService companies() {
-        if (companyService == null) {
-            companyService = restAdapter.create(CompanyService.class);
-        }
-        return companyService;
+        return getService(CompanyService.class);
     }
 
     /**
@@ -347,10 +409,7 @@ public class DeskClient {
      */
     @NotNull
     public CustomerService customers() {
-        if (customerService == null) {
-            customerService = restAdapter.create(CustomerService.class);
-        }
-        return customerService;
+        return getService(CustomerService.class);
     }
 
     /**
@@ -360,10 +419,7 @@ public class DeskClient {
      */
     @NotNull
     public PermissionService permissions() {
-        if (permissionService == null) {
-            permissionService = restAdapter.create(PermissionService.class);
-        }
-        return permissionService;
+        return getService(PermissionService.class);
     }
 
     /**
@@ -373,10 +429,7 @@ public class DeskClient {
      */
     @NotNull
     public TwitterUserService twitterUsers() {
-        if (twitterUserService == null) {
-            twitterUserService = restAdapter.create(TwitterUserService.class);
-        }
-        return twitterUserService;
+        return getService(TwitterUserService.class);
     }
 
     /**
@@ -386,10 +439,7 @@ public class DeskClient {
      */
     @NotNull
     public TopicService topics() {
-        if (topicService == null) {
-            topicService = restAdapter.create(TopicService.class);
-        }
-        return topicService;
+        return getService(TopicService.class);
     }
 
     /**
@@ -399,10 +449,7 @@ public class DeskClient {
      */
     @NotNull
     public ArticleService articles() {
-        if (articleService == null) {
-            articleService = restAdapter.create(ArticleService.class);
-        }
-        return articleService;
+        return getService(ArticleService.class);
     }
 
     /**
@@ -412,10 +459,7 @@ public class DeskClient {
      */
     @NotNull
     public InboundMailboxService inboundMailboxes() {
-        if (inboundMailboxService == null) {
-            inboundMailboxService = restAdapter.create(InboundMailboxService.class);
-        }
-        return inboundMailboxService;
+        return getService(InboundMailboxService.class);
     }
 
     /**
@@ -425,10 +469,7 @@ public class DeskClient {
      */
     @NotNull
     public OpportunityStageService opportunityStages() {
-        if (opportunityStageService == null) {
-            opportunityStageService = restAdapter.create(OpportunityStageService.class);
-        }
-        return opportunityStageService;
+        return getService(OpportunityStageService.class);
     }
 
     /**
@@ -438,10 +479,7 @@ public class DeskClient {
      */
     @NotNull
     public OpportunityService opportunities() {
-        if (opportunityService == null) {
-            opportunityService = restAdapter.create(OpportunityService.class);
-        }
-        return opportunityService;
+        return getService(OpportunityService.class);
     }
 
     /**
@@ -451,10 +489,7 @@ public class DeskClient {
      */
     @NotNull
     public TwitterAccountService twitterAccounts() {
-        if (twitterAccountService == null) {
-            twitterAccountService = restAdapter.create(TwitterAccountService.class);
-        }
-        return twitterAccountService;
+        return getService(TwitterAccountService.class);
     }
 
   /**
@@ -464,30 +499,200 @@ public class DeskClient {
    */
   @NotNull
     public JobService jobs() {
-        if (jobService == null) {
-            jobService = restAdapter.create(JobService.class);
-        }
-        return jobService;
+        return getService(JobService.class);
+    }
+
+    /**
+     * Get the attachment helper which downloads attachment files through this client's authenticated http
+     * client and uploads case attachments
+     *
+     * @return the attachment helper
+     */
+    @NotNull
+    public Attachments attachments() {
+        return attachments;
     }
 
     protected Retrofit getRestAdapter() {
         return restAdapter;
     }
 
+    protected OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * Gets the off heap cache used to read cases, customers and users by id
+     *
+     * @return the cache or null if {@link DeskClientBuilder#offHeapCache(long)} was not set
+     */
+    @Nullable
+    public OffHeapCache getOffHeapCache() {
+        return offHeapCache;
+    }
+
+    /**
+     * Gets the endpoint metrics the calls of this client are recorded into
+     *
+     * @return the metrics or null if {@link DeskClientBuilder#metrics(EndpointMetrics)} was not set
+     */
+    @Nullable
+    public EndpointMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the network timings the HTTP exchanges of this client are recorded into
+     *
+     * @return the timings or null if {@link DeskClientBuilder#networkTimings(NetworkTimings)} was not set
+     */
+    @Nullable
+    public NetworkTimings getNetworkTimings() {
+        return networkTimings;
+    }
+
+    /**
+     * Gets the listener the activity of this client is reported to
+     *
+     * @return the listener, {@link DeskEventListener#NONE} if {@link DeskClientBuilder#eventListener} was not set
+     */
+    @NotNull
+    public DeskEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * Gets the single instance of the provided service interface for this client, creating it on first use.
+     * Concurrent first callers all receive the same instance.
+     *
+     * @param service the Retrofit service interface
+     * @param <T> the service type
+     * @return the service instance
+     */
+    @NotNull
+    protected <T> T getService(@NotNull Class<T> service) {
+        Object instance = services.get(service);
+        if (instance == null) {
+            if (metrics != null) {
+                metrics.register(service);
+            }
+            Object created = decorate(service, restAdapter.create(service));
+            instance = services.putIfAbsent(service, created);
+            if (instance == null) {
+                instance = created;
+            }
+        }
+        return service.cast(instance);
+    }
+
+    private Object decorate(Class<?> service, Object instance) {
+        if (offHeapCache == null) {
+            return instance;
+        } else if (service == CaseService.class) {
+            return new CachingCaseService((CaseService) instance, offHeapCache);
+        } else if (service == CustomerService.class) {
+            return new CachingCustomerService((CustomerService) instance, offHeapCache);
+        } else if (service == UserService.class) {
+            return new CachingUserService((UserService) instance, offHeapCache);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the provided services up front when {@link DeskClientBuilder#validateEagerly(boolean)} is set and
+     * resolves the Gson type adapters of their request and response bodies when
+     * {@link DeskClientBuilder#primeTypeAdapters(boolean)} is set. Does nothing if neither is set.
+     *
+     * @param serviceClasses the Retrofit service interfaces to warm up
+     */
+    protected void warmUp(Class<?>... serviceClasses) {
+        for (Class<?> service : serviceClasses) {
+            if (validateEagerly) {
+                getService(service);
+            }
+            if (primeTypeAdapters) {
+                primeTypeAdapters(service);
+            }
+        }
+    }
+
+    private void primeTypeAdapters(Class<?> service) {
+        for (Method method : service.getDeclaredMethods()) {
+            primeTypeAdapter(responseBodyType(method.getGenericReturnType()));
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                for (Annotation annotation : parameterAnnotations[i]) {
+                    if (annotation instanceof Body) {
+                        primeTypeAdapter(parameterTypes[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void primeTypeAdapter(Type type) {
+        if (type == null || type == ResponseBody.class || type == RequestBody.class || type == Void.class) {
+            return;
+        }
+        gson.getAdapter(TypeToken.get(type));
+    }
+
+    /**
+     * Unwraps the body type of a service method return type such as {@code Call<ApiResponse<Case>>}
+     * or {@code Observable<Response<Case>>}.
+     */
+    private static Type responseBodyType(Type returnType) {
+        if (!(returnType instanceof ParameterizedType)) {
+            return null;
+        }
+        Type type = unwrapWildcard(((ParameterizedType) returnType).getActualTypeArguments()[0]);
+        if (type instanceof ParameterizedType
+                && ((ParameterizedType) type).getRawType() == retrofit2.Response.class) {
+            type = unwrapWildcard(((ParameterizedType) type).getActualTypeArguments()[0]);
+        }
+        return type;
+    }
+
+    private static Type unwrapWildcard(Type type) {
+        return type instanceof WildcardType ? ((WildcardType) type).getUpperBounds()[0] : type;
+    }
+
     private Retrofit.Builder createRestAdapter() {
+        gson = createGson();
+        Converter.Factory converterFactory = GsonConverterFactory.create(gson);
+        if (isIdentityMapEnabled()) {
+            converterFactory = new IdentityMapConverterFactory(converterFactory, identityMap);
+        }
+        if (metrics != null && metrics.isRecordingDeserialization()) {
+            converterFactory = new MetricsConverterFactory(converterFactory, metrics);
+        }
+        if (reportingListener != DeskEventListener.NONE) {
+            converterFactory = new ListeningConverterFactory(converterFactory, reportingListener);
+        }
         return new Retrofit.Builder()
                 .baseUrl(getUrl(API_BASE_PATH))
-                .client(createOkHttpClient())
-                .addConverterFactory(GsonConverterFactory.create(createGson()));
+                .client(okHttpClient = createOkHttpClient())
+                .addConverterFactory(converterFactory);
     }
 
     private Gson createGson() {
-        return new GsonBuilder()
+        GsonBuilder builder = new GsonBuilder()
                 .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
                 .registerTypeAdapter(CaseLock.class, CaseLock.TYPE_ADAPTER)
                 .registerTypeAdapter(IOpportunityActivity.class, new OpportunityActivityAdapter())
-                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-                .create();
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
+        if (isIdentityMapEnabled()) {
+            builder.registerTypeAdapterFactory(new IdentityMapTypeAdapterFactory());
+        }
+        if (stringPool != null) {
+            builder.registerTypeAdapterFactory(new StringPoolTypeAdapterFactory(stringPool));
+        }
+        return builder.create();
+    }
+
+    private boolean isIdentityMapEnabled() {
+        return identityMapPerResponse || identityMap != null;
     }
 
     private OkHttpClient createOkHttpClient() {
@@ -498,13 +703,15 @@ public class DeskClient {
             builder.cache(responseCache);
         }
 
+        if (dispatcher != null) {
+            builder.dispatcher(dispatcher);
+        }
+
         // add auth interceptors
         switch (authType) {
             case OAUTH:
-                if (oAuthConsumer == null) {
-                    throw new IllegalStateException("a RetrofitHttpOAuthConsumer must be created before creating OKClient");
-                }
-                builder.interceptors().add(new OAuthSigningInterceptor(oAuthConsumer));
+                builder.interceptors().add(new OAuthSigningInterceptor(
+                        new OAuthSigner(consumerKey, consumerSecret, accessToken, accessTokenSecret)));
                 break;
             case API_TOKEN:
                 builder.interceptors().add(new ApiTokenSigningInterceptor(apiToken));
@@ -528,9 +735,28 @@ public class DeskClient {
             builder.networkInterceptors().addAll(networkInterceptors);
         }
 
+        // last, so the timings cover the network exchange without the other interceptors
+        if (networkTimings != null) {
+            networkTimings.install(builder);
+        }
+
         return builder.build();
     }
 
+    /**
+     * Gets the Gson instance converting the bodies
+     */
+    Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Gets the services created so far
+     */
+    Set<Class<?>> getCreatedServices() {
+        return Collections.unmodifiableSet(services.keySet());
+    }
+
     private RetrofitHttpOAuthConsumer createOAuthConsumer() {
         if (OAUTH == authType) {
             RetrofitHttpOAuthConsumer consumer = new RetrofitHttpOAuthConsumer(consumerKey, consumerSecret);
@@ -540,4 +766,52 @@ public class DeskClient {
             return null;
         }
     }
+
+    /**
+     * Reports to the listener of the client, which is only created once the client is constructed
+     */
+    private final class ForwardingEventListener extends DeskEventListener {
+
+        @Override
+        public Object callStart(@NotNull Endpoint endpoint) {
+            return eventListener.callStart(endpoint);
+        }
+
+        @Override
+        public void callEnd(@Nullable Object call, @NotNull Endpoint endpoint, int status, long requestBytes,
+                            long responseBytes, boolean retry) {
+            eventListener.callEnd(call, endpoint, status, requestBytes, responseBytes, retry);
+        }
+
+        @Override
+        public void callFailed(@Nullable Object call, @NotNull Endpoint endpoint, @NotNull Throwable error,
+                               boolean retry) {
+            eventListener.callFailed(call, endpoint, error, retry);
+        }
+
+        @Override
+        public Object deserializeStart(@NotNull Type type) {
+            return eventListener.deserializeStart(type);
+        }
+
+        @Override
+        public void deserializeEnd(@Nullable Object deserialization, @NotNull Type type, long bytes) {
+            eventListener.deserializeEnd(deserialization, type, bytes);
+        }
+
+        @Override
+        public void rateLimitWait(long waitNanos) {
+            eventListener.rateLimitWait(waitNanos);
+        }
+
+        @Override
+        public void cacheHit(@NotNull Class<?> type, long id) {
+            eventListener.cacheHit(type, id);
+        }
+
+        @Override
+        public void cacheMiss(@NotNull Class<?> type, long id) {
+            eventListener.cacheMiss(type, id);
+        }
+    }
 }
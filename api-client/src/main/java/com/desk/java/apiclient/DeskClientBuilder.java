@@ -1,12 +1,20 @@
 package com.desk.java.apiclient;
 
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.metrics.EndpointMetrics;
+import com.desk.java.apiclient.metrics.NetworkTimings;
+import com.desk.java.apiclient.util.IdentityMap;
+import com.desk.java.apiclient.util.StringPool;
+
 import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import retrofit2.CallAdapter;
 import retrofit2.Retrofit;
@@ -47,6 +55,17 @@ public class DeskClientBuilder {
     String userAgent;
     AuthType authType;
     List<CallAdapter.Factory> callAdapters;
+    boolean validateEagerly;
+    boolean primeTypeAdapters;
+    boolean identityMapPerResponse;
+    IdentityMap identityMap;
+    StringPool stringPool;
+    long offHeapCacheCapacity;
+    long offHeapCacheMaxAgeMillis;
+    Dispatcher dispatcher;
+    EndpointMetrics metrics;
+    NetworkTimings networkTimings;
+    DeskEventListener.Factory eventListenerFactory;
 
     /**
      * Creates a builder to create a desk client that uses api token authentication
@@ -117,6 +136,17 @@ public class DeskClientBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link Dispatcher} running asynchronous calls, which bounds how many run at once in total and per
+     * host and on which threads
+     * @param dispatcher the dispatcher
+     * @return the builder instance
+     */
+    public DeskClientBuilder dispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
     /**
      * Adds the provided list of {@link CallAdapter.Factory}s to {@link Retrofit}.
      * @param callAdapters the list of {@link CallAdapter.Factory}s
@@ -126,4 +156,118 @@ public class DeskClientBuilder {
         this.callAdapters = callAdapters;
         return this;
     }
+
+    /**
+     * When enabled, every service is created and all of its annotated methods are parsed while the client is
+     * being created rather than on the first request of each method.
+     * @param validateEagerly true to create and validate all services up front
+     * @return the builder instance
+     */
+    public DeskClientBuilder validateEagerly(boolean validateEagerly) {
+        this.validateEagerly = validateEagerly;
+        return this;
+    }
+
+    /**
+     * When enabled, the Gson type adapters for the request and response bodies of every service method are
+     * created while the client is being created rather than on first use.
+     * @param primeTypeAdapters true to create all type adapters up front
+     * @return the builder instance
+     */
+    public DeskClientBuilder primeTypeAdapters(boolean primeTypeAdapters) {
+        this.primeTypeAdapters = primeTypeAdapters;
+        return this;
+    }
+
+    /**
+     * When enabled, embedded users, groups, customers and companies that appear more than once within a response
+     * are deserialized into a single shared instance per id.
+     * @param identityMapPerResponse true to de-duplicate embedded entities within each response
+     * @return the builder instance
+     */
+    public DeskClientBuilder identityMapPerResponse(boolean identityMapPerResponse) {
+        this.identityMapPerResponse = identityMapPerResponse;
+        return this;
+    }
+
+    /**
+     * De-duplicates embedded users, groups, customers and companies across all responses using the provided
+     * {@link IdentityMap}, which replaces a shared instance when a later response returns it changed. Takes
+     * precedence over {@link #identityMapPerResponse(boolean)}.
+     * @param identityMap the identity map shared by all responses
+     * @return the builder instance
+     */
+    public DeskClientBuilder identityMap(IdentityMap identityMap) {
+        this.identityMap = identityMap;
+        return this;
+    }
+
+    /**
+     * Interns repetitive values such as labels, priorities, custom field names and link classes through the
+     * provided {@link StringPool} while responses are deserialized. The pool reports its hit rate and savings.
+     * @param stringPool the string pool
+     * @return the builder instance
+     */
+    public DeskClientBuilder stringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+        return this;
+    }
+
+    /**
+     * Reads cases, customers and users by id through an off heap cache of the given capacity. Cached entities are
+     * stored outside of the Java heap and removed when they are modified through the client.
+     * @param capacityBytes the off heap capacity in bytes, 0 to disable the cache
+     * @return the builder instance
+     */
+    public DeskClientBuilder offHeapCache(long capacityBytes) {
+        this.offHeapCacheCapacity = capacityBytes;
+        return this;
+    }
+
+    /**
+     * Reads cases, customers and users by id through an off heap cache of the given capacity, fetching entities
+     * again once they are older than the max age so changes made outside of the client are seen
+     * @param capacityBytes the off heap capacity in bytes, 0 to disable the cache
+     * @param maxAge how long an entity is served from the cache, 0 to keep it until it is evicted or modified
+     * @param unit the unit of the max age
+     * @return the builder instance
+     */
+    public DeskClientBuilder offHeapCache(long capacityBytes, long maxAge, TimeUnit unit) {
+        this.offHeapCacheCapacity = capacityBytes;
+        this.offHeapCacheMaxAgeMillis = unit.toMillis(maxAge);
+        return this;
+    }
+
+    /**
+     * Records latency, status code, byte and retry metrics of every call per endpoint template and service, and the
+     * cost of converting the response bodies if the metrics record deserialization
+     * @param metrics the metrics to record into, which may be shared by several clients
+     * @return the builder instance
+     */
+    public DeskClientBuilder metrics(EndpointMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Records the DNS, connect, TLS, first byte and body time of every HTTP exchange and whether it reused a
+     * pooled connection
+     * @param networkTimings the timings to record into, which may be shared by several clients
+     * @return the builder instance
+     */
+    public DeskClientBuilder networkTimings(NetworkTimings networkTimings) {
+        this.networkTimings = networkTimings;
+        return this;
+    }
+
+    /**
+     * Reports API calls, deserialization, rate limit waits and off heap cache lookups to a listener created for
+     * the client
+     * @param factory the factory creating the listener of the client
+     * @return the builder instance
+     */
+    public DeskClientBuilder eventListener(DeskEventListener.Factory factory) {
+        this.eventListenerFactory = factory;
+        return this;
+    }
 }
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.analytics;
+
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.CaseType;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ *     Parallel group-by, count and percentile operators over a {@link CaseColumns} snapshot. Work is split into row
+ *     ranges that run as fork-join tasks and read the primitive columns directly.
+ * </p>
+ *
+ * <p>
+ *     Every operator takes an optional set of rows to restrict it to, for instance the result of
+ *     {@link CaseColumns#rowsWithStatus(CaseStatus)} intersected with {@link CaseColumns#rowsWithLabel(long)}. A null
+ *     set selects all rows. Instances are thread safe.
+ * </p>
+ */
+public final class CaseAggregations {
+
+    /**
+     * Value returned for percentiles when no selected row has the age
+     */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    static final int DEFAULT_THRESHOLD = 16 * 1024;
+
+    /**
+     * Column to group rows by
+     */
+    public enum GroupBy {
+        /** the status ordinal, {@link CaseColumns#NO_ORDINAL} if not set */
+        STATUS {
+            @Override
+            long key(CaseColumns columns, int row) {
+                return columns.getStatusOrdinal(row);
+            }
+        },
+        /** the type ordinal, {@link CaseColumns#NO_ORDINAL} if not set */
+        TYPE {
+            @Override
+            long key(CaseColumns columns, int row) {
+                return columns.getTypeOrdinal(row);
+            }
+        },
+        /** the assigned group id, 0 if unassigned */
+        ASSIGNED_GROUP {
+            @Override
+            long key(CaseColumns columns, int row) {
+                return columns.getAssignedGroupId(row);
+            }
+        },
+        /** the assigned user id, 0 if unassigned */
+        ASSIGNED_USER {
+            @Override
+            long key(CaseColumns columns, int row) {
+                return columns.getAssignedUserId(row);
+            }
+        };
+
+        abstract long key(CaseColumns columns, int row);
+    }
+
+    /**
+     * Age of a case in millis
+     */
+    public enum Age {
+        /** time between creation and now */
+        SINCE_CREATED {
+            @Override
+            long of(CaseColumns columns, int row, long now) {
+                long createdAt = columns.getCreatedAt(row);
+                return createdAt == CaseColumns.NO_DATE ? NO_VALUE : now - createdAt;
+            }
+        },
+        /** time between the last update and now */
+        SINCE_UPDATED {
+            @Override
+            long of(CaseColumns columns, int row, long now) {
+                long updatedAt = columns.getUpdatedAt(row);
+                return updatedAt == CaseColumns.NO_DATE ? NO_VALUE : now - updatedAt;
+            }
+        },
+        /** time between creation and the last update */
+        CREATED_TO_UPDATED {
+            @Override
+            long of(CaseColumns columns, int row, long now) {
+                long createdAt = columns.getCreatedAt(row);
+                long updatedAt = columns.getUpdatedAt(row);
+                return createdAt == CaseColumns.NO_DATE || updatedAt == CaseColumns.NO_DATE
+                        ? NO_VALUE : updatedAt - createdAt;
+            }
+        };
+
+        abstract long of(CaseColumns columns, int row, long now);
+    }
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates operators running on a shared pool with one thread per processor
+     */
+    public CaseAggregations() {
+        this(DefaultPool.INSTANCE);
+    }
+
+    /**
+     * Creates operators running on the given pool
+     *
+     * @param pool the fork join pool
+     */
+    public CaseAggregations(@NotNull ForkJoinPool pool) {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    CaseAggregations(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Counts the selected rows
+     *
+     * @param columns the snapshot
+     * @param rows the rows to count or null for all rows
+     * @return the number of rows
+     */
+    public long count(@NotNull CaseColumns columns, @Nullable BitSet rows) {
+        return rows == null ? columns.size() : rows.get(0, columns.size()).cardinality();
+    }
+
+    /**
+     * Counts the selected rows per value of a column
+     *
+     * @param columns the snapshot
+     * @param groupBy the column to group by
+     * @param rows the rows to count or null for all rows
+     * @return the counts by key, see {@link GroupBy} for the keys
+     */
+    @NotNull
+    public Map<Long, Long> countBy(@NotNull CaseColumns columns, @NotNull GroupBy groupBy, @Nullable BitSet rows) {
+        return pool.invoke(new CountTask(columns, groupBy, rows, 0, columns.size())).toMap();
+    }
+
+    /**
+     * Counts the selected rows per status, rows without a status are not counted
+     */
+    @NotNull
+    public EnumMap<CaseStatus, Long> countByStatus(@NotNull CaseColumns columns, @Nullable BitSet rows) {
+        EnumMap<CaseStatus, Long> counts = new EnumMap<>(CaseStatus.class);
+        CaseStatus[] statuses = CaseStatus.values();
+        for (Map.Entry<Long, Long> entry : countBy(columns, GroupBy.STATUS, rows).entrySet()) {
+            if (entry.getKey() != CaseColumns.NO_ORDINAL) {
+                counts.put(statuses[entry.getKey().intValue()], entry.getValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the selected rows per type, rows without a type are not counted
+     */
+    @NotNull
+    public EnumMap<CaseType, Long> countByType(@NotNull CaseColumns columns, @Nullable BitSet rows) {
+        EnumMap<CaseType, Long> counts = new EnumMap<>(CaseType.class);
+        CaseType[] types = CaseType.values();
+        for (Map.Entry<Long, Long> entry : countBy(columns, GroupBy.TYPE, rows).entrySet()) {
+            if (entry.getKey() != CaseColumns.NO_ORDINAL) {
+                counts.put(types[entry.getKey().intValue()], entry.getValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the selected rows per label. A row with several labels is counted once per label.
+     *
+     * @param columns the snapshot
+     * @param rows the rows to count or null for all rows
+     * @return the counts by label id, labels without selected rows are left out
+     */
+    @NotNull
+    public Map<Long, Long> countByLabel(@NotNull CaseColumns columns, @Nullable BitSet rows) {
+        long[] labelIds = columns.getLabelIds();
+        long[] counts = new long[labelIds.length];
+        pool.invoke(new LabelCountTask(columns, rows, counts, 0, labelIds.length));
+        Map<Long, Long> result = new HashMap<>(labelIds.length * 2);
+        for (int i = 0; i < labelIds.length; i++) {
+            if (counts[i] > 0) {
+                result.put(labelIds[i], counts[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes nearest rank percentiles of the age of the selected rows. Rows without the needed dates are ignored.
+     *
+     * @param columns the snapshot
+     * @param age the age to compute
+     * @param now the current time in epoch millis
+     * @param rows the rows to include or null for all rows
+     * @param percentiles the percentiles between 0 and 100
+     * @return the ages in millis in the order of the percentiles, {@link #NO_VALUE} if no row has the age
+     */
+    @NotNull
+    public long[] percentiles(@NotNull CaseColumns columns, @NotNull Age age, long now, @Nullable BitSet rows,
+                              double... percentiles) {
+        long[] values = new long[columns.size()];
+        int count = 0;
+        for (int row = first(rows, 0); row >= 0 && row < columns.size(); row = next(rows, row)) {
+            long value = age.of(columns, row, now);
+            if (value != NO_VALUE) {
+                values[count++] = value;
+            }
+        }
+        values = Arrays.copyOf(values, count);
+        pool.invoke(new SortTask(values, new long[count], 0, count, threshold));
+        return ranks(values, percentiles);
+    }
+
+    /**
+     * Computes nearest rank percentiles of the age of the selected rows per value of a column
+     *
+     * @param columns the snapshot
+     * @param groupBy the column to group by
+     * @param age the age to compute
+     * @param now the current time in epoch millis
+     * @param rows the rows to include or null for all rows
+     * @param percentiles the percentiles between 0 and 100
+     * @return the ages in millis in the order of the percentiles by key, see {@link GroupBy} for the keys
+     */
+    @NotNull
+    public Map<Long, long[]> percentilesBy(@NotNull CaseColumns columns, @NotNull GroupBy groupBy, @NotNull Age age,
+                                           long now, @Nullable BitSet rows, double... percentiles) {
+        Map<Long, Long> counts = countBy(columns, groupBy, rows);
+        long[] keys = new long[counts.size()];
+        int k = 0;
+        for (Long key : counts.keySet()) {
+            keys[k++] = key;
+        }
+        Arrays.sort(keys);
+        long[][] values = new long[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = new long[counts.get(keys[i]).intValue()];
+        }
+        int[] sizes = new int[keys.length];
+        for (int row = first(rows, 0); row >= 0 && row < columns.size(); row = next(rows, row)) {
+            long value = age.of(columns, row, now);
+            if (value != NO_VALUE) {
+                int index = Arrays.binarySearch(keys, groupBy.key(columns, row));
+                values[index][sizes[index]++] = value;
+            }
+        }
+        List<SortTask> sorts = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = Arrays.copyOf(values[i], sizes[i]);
+            sorts.add(new SortTask(values[i], new long[sizes[i]], 0, sizes[i], threshold));
+        }
+        pool.invoke(new SortAllTask(sorts));
+        Map<Long, long[]> result = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            result.put(keys[i], ranks(values[i], percentiles));
+        }
+        return result;
+    }
+
+    private static long[] ranks(long[] sorted, double[] percentiles) {
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (percentiles[i] < 0 || percentiles[i] > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentiles[i]);
+            }
+            if (sorted.length == 0) {
+                result[i] = NO_VALUE;
+            } else {
+                int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length);
+                result[i] = sorted[Math.max(0, rank - 1)];
+            }
+        }
+        return result;
+    }
+
+    private static int first(@Nullable BitSet rows, int from) {
+        return rows == null ? from : rows.nextSetBit(from);
+    }
+
+    private static int next(@Nullable BitSet rows, int row) {
+        return rows == null ? row + 1 : rows.nextSetBit(row + 1);
+    }
+
+    private final class CountTask extends RecursiveTask<LongCountMap> {
+
+        private final CaseColumns columns;
+        private final GroupBy groupBy;
+        private final BitSet rows;
+        private final int from;
+        private final int to;
+
+        CountTask(CaseColumns columns, GroupBy groupBy, BitSet rows, int from, int to) {
+            this.columns = columns;
+            this.groupBy = groupBy;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongCountMap compute() {
+            if (to - from <= threshold) {
+                LongCountMap counts = new LongCountMap();
+                for (int row = first(rows, from); row >= 0 && row < to; row = next(rows, row)) {
+                    counts.add(groupBy.key(columns, row), 1);
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(columns, groupBy, rows, from, middle);
+            left.fork();
+            LongCountMap counts = new CountTask(columns, groupBy, rows, middle, to).compute();
+            counts.addAll(left.join());
+            return counts;
+        }
+    }
+
+    private static final class LabelCountTask extends RecursiveAction {
+
+        private static final int LABELS_PER_TASK = 8;
+
+        private final CaseColumns columns;
+        private final BitSet rows;
+        private final long[] counts;
+        private final int from;
+        private final int to;
+
+        LabelCountTask(CaseColumns columns, BitSet rows, long[] counts, int from, int to) {
+            this.columns = columns;
+            this.rows = rows;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LABELS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    BitSet labelRows = columns.labelRowsAt(i);
+                    if (rows == null) {
+                        counts[i] = labelRows.cardinality();
+                    } else {
+                        BitSet selected = (BitSet) labelRows.clone();
+                        selected.and(rows);
+                        counts[i] = selected.cardinality();
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new LabelCountTask(columns, rows, counts, from, middle),
+                    new LabelCountTask(columns, rows, counts, middle, to));
+        }
+    }
+
+    /**
+     * Merge sort sorting both halves in parallel
+     */
+    private static final class SortTask extends RecursiveAction {
+
+        private final long[] values;
+        private final long[] buffer;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SortTask(long[] values, long[] buffer, int from, int to, int threshold) {
+            this.values = values;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                Arrays.sort(values, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(values, buffer, from, middle, threshold),
+                    new SortTask(values, buffer, middle, to, threshold));
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                buffer[i] = right >= to || (left < middle && values[left] <= values[right])
+                        ? values[left++] : values[right++];
+            }
+            System.arraycopy(buffer, from, values, from, to - from);
+        }
+    }
+
+    private static final class SortAllTask extends RecursiveAction {
+
+        private final List<SortTask> sorts;
+
+        SortAllTask(List<SortTask> sorts) {
+            this.sorts = sorts;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(sorts);
+        }
+    }
+
+    private static final class DefaultPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool();
+    }
+}
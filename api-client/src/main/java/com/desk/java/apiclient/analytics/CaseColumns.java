@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.analytics;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.CaseType;
+import com.desk.java.apiclient.model.CompactCase;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Immutable column oriented snapshot of cases for analytics. Every case is a row and every attribute a primitive
+ *     array: ids and timestamps as longs, status and type as enum ordinals, assigned user and group as int ids and
+ *     labels as one {@link BitSet} of rows per label id. The snapshot holds no {@link Case} objects, so pages can be
+ *     streamed into a {@link Builder} and dropped right away.
+ * </p>
+ *
+ * <p>
+ *     Use {@link CaseAggregations} to group, count and compute percentiles over the columns.
+ * </p>
+ */
+public final class CaseColumns {
+
+    /**
+     * Value of the timestamp columns when the date is not set
+     */
+    public static final long NO_DATE = CompactCase.NO_DATE;
+
+    /**
+     * Value of the ordinal columns when the status or type is not set
+     */
+    public static final byte NO_ORDINAL = -1;
+
+    /**
+     * Largest page size accepted by the API
+     */
+    public static final int MAX_PER_PAGE = 100;
+
+    /**
+     * Fields needed to fill the columns, links are always returned
+     */
+    public static final String[] FIELDS = {
+            CaseService.FIELD_ID, CaseService.FIELD_STATUS, CaseService.FIELD_TYPE, CaseService.FIELD_CREATED_AT,
+            CaseService.FIELD_UPDATED_AT, CaseService.FIELD_LABEL_IDS
+    };
+
+    private static final CaseStatus[] STATUSES = CaseStatus.values();
+    private static final CaseType[] TYPES = CaseType.values();
+
+    private final int size;
+    private final long[] ids;
+    private final long[] createdAt;
+    private final long[] updatedAt;
+    private final byte[] statuses;
+    private final byte[] types;
+    private final int[] assignedGroupIds;
+    private final int[] assignedUserIds;
+    private final long[] labelIds;
+    private final BitSet[] labelRows;
+
+    private CaseColumns(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.createdAt = Arrays.copyOf(builder.createdAt, size);
+        this.updatedAt = Arrays.copyOf(builder.updatedAt, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.types = Arrays.copyOf(builder.types, size);
+        this.assignedGroupIds = Arrays.copyOf(builder.assignedGroupIds, size);
+        this.assignedUserIds = Arrays.copyOf(builder.assignedUserIds, size);
+        this.labelIds = new long[builder.labelRows.size()];
+        int i = 0;
+        for (Long labelId : builder.labelRows.keySet()) {
+            labelIds[i++] = labelId;
+        }
+        Arrays.sort(labelIds);
+        this.labelRows = new BitSet[labelIds.length];
+        for (i = 0; i < labelIds.length; i++) {
+            labelRows[i] = (BitSet) builder.labelRows.get(labelIds[i]).clone();
+        }
+    }
+
+    /**
+     * Streams all cases of a filter into a snapshot, requesting only the fields the columns need
+     *
+     * @param service the case service
+     * @param filterId the filter id
+     * @return the snapshot
+     * @throws IOException if a page cannot be retrieved
+     */
+    public static CaseColumns fromFilter(CaseService service, long filterId) throws IOException {
+        Builder builder = new Builder();
+        for (int page = 1; ; page++) {
+            if (!builder.addPage(service.getCasesByFilter(filterId, MAX_PER_PAGE, page, null, null, null,
+                    Fields.include(FIELDS)))) {
+                return builder.build();
+            }
+        }
+    }
+
+    /**
+     * Streams all cases matching a search query into a snapshot, requesting only the fields the columns need
+     *
+     * @param service the case service
+     * @param query the search query
+     * @return the snapshot
+     * @throws IOException if a page cannot be retrieved
+     */
+    public static CaseColumns fromSearch(CaseService service, String query) throws IOException {
+        Builder builder = new Builder();
+        for (int page = 1; ; page++) {
+            if (!builder.addPage(service.searchCases(query, MAX_PER_PAGE, page, null, null, null,
+                    Fields.include(FIELDS)))) {
+                return builder.build();
+            }
+        }
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @return the creation time in epoch millis or {@link #NO_DATE}
+     */
+    public long getCreatedAt(int row) {
+        return createdAt[row];
+    }
+
+    /**
+     * @return the last update time in epoch millis or {@link #NO_DATE}
+     */
+    public long getUpdatedAt(int row) {
+        return updatedAt[row];
+    }
+
+    /**
+     * @return the status ordinal or {@link #NO_ORDINAL}
+     */
+    public byte getStatusOrdinal(int row) {
+        return statuses[row];
+    }
+
+    @Nullable
+    public CaseStatus getStatus(int row) {
+        return statuses[row] == NO_ORDINAL ? null : STATUSES[statuses[row]];
+    }
+
+    /**
+     * @return the type ordinal or {@link #NO_ORDINAL}
+     */
+    public byte getTypeOrdinal(int row) {
+        return types[row];
+    }
+
+    @Nullable
+    public CaseType getType(int row) {
+        return types[row] == NO_ORDINAL ? null : TYPES[types[row]];
+    }
+
+    /**
+     * @return the assigned group id or 0 if unassigned
+     */
+    public int getAssignedGroupId(int row) {
+        return assignedGroupIds[row];
+    }
+
+    /**
+     * @return the assigned user id or 0 if unassigned
+     */
+    public int getAssignedUserId(int row) {
+        return assignedUserIds[row];
+    }
+
+    /**
+     * @return the ids of all labels applied to at least one row in ascending order
+     */
+    @NotNull
+    public long[] getLabelIds() {
+        return labelIds.clone();
+    }
+
+    public boolean hasLabel(int row, long labelId) {
+        int index = Arrays.binarySearch(labelIds, labelId);
+        return index >= 0 && labelRows[index].get(row);
+    }
+
+    /**
+     * @return a new set of the rows with the label
+     */
+    @NotNull
+    public BitSet rowsWithLabel(long labelId) {
+        int index = Arrays.binarySearch(labelIds, labelId);
+        return index < 0 ? new BitSet() : (BitSet) labelRows[index].clone();
+    }
+
+    /**
+     * @return a new set of the rows with the status
+     */
+    @NotNull
+    public BitSet rowsWithStatus(@NotNull CaseStatus status) {
+        return rowsWithOrdinal(statuses, (byte) status.ordinal());
+    }
+
+    /**
+     * @return a new set of the rows with the type
+     */
+    @NotNull
+    public BitSet rowsWithType(@NotNull CaseType type) {
+        return rowsWithOrdinal(types, (byte) type.ordinal());
+    }
+
+    /**
+     * @return a new set of the rows assigned to the group
+     */
+    @NotNull
+    public BitSet rowsWithAssignedGroup(int groupId) {
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (assignedGroupIds[row] == groupId) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    private BitSet rowsWithOrdinal(byte[] column, byte ordinal) {
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (column[row] == ordinal) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Shared with the aggregations to avoid copying label rows, which must not be modified
+     */
+    BitSet labelRowsAt(int index) {
+        return labelRows[index];
+    }
+
+    /**
+     * Collects rows into growing primitive arrays. Not thread safe.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] createdAt = new long[INITIAL_CAPACITY];
+        private long[] updatedAt = new long[INITIAL_CAPACITY];
+        private byte[] statuses = new byte[INITIAL_CAPACITY];
+        private byte[] types = new byte[INITIAL_CAPACITY];
+        private int[] assignedGroupIds = new int[INITIAL_CAPACITY];
+        private int[] assignedUserIds = new int[INITIAL_CAPACITY];
+        private final Map<Long, BitSet> labelRows = new HashMap<>();
+
+        /**
+         * Adds a case as the next row
+         *
+         * @param c the case
+         * @return the builder instance
+         */
+        public Builder add(@NotNull Case c) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = c.getId();
+            createdAt[size] = c.getCreatedAt() == null ? NO_DATE : c.getCreatedAt().getTime();
+            updatedAt[size] = c.getUpdatedAt() == null ? NO_DATE : c.getUpdatedAt().getTime();
+            statuses[size] = c.getStatus() == null ? NO_ORDINAL : (byte) c.getStatus().ordinal();
+            types[size] = c.getType() == null ? NO_ORDINAL : (byte) c.getType().ordinal();
+            assignedGroupIds[size] = (int) c.getAssignedGroupId();
+            assignedUserIds[size] = (int) c.getAssignedUserId();
+            if (c.getLabelIds() != null) {
+                for (long labelId : c.getLabelIds()) {
+                    BitSet rows = labelRows.get(labelId);
+                    if (rows == null) {
+                        labelRows.put(labelId, rows = new BitSet());
+                    }
+                    rows.set(size);
+                }
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds all cases as rows
+         *
+         * @param cases the cases
+         * @return the builder instance
+         */
+        public Builder addAll(@NotNull Iterable<Case> cases) {
+            for (Case c : cases) {
+                add(c);
+            }
+            return this;
+        }
+
+        /**
+         * Executes the page call and adds its cases
+         *
+         * @param call the call retrieving a page of cases
+         * @return true if there is a next page
+         * @throws IOException if the page cannot be retrieved
+         */
+        public boolean addPage(@NotNull Call<ApiResponse<Case>> call) throws IOException {
+            Response<ApiResponse<Case>> response = call.execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Retrieving cases failed with HTTP " + response.code());
+            }
+            ApiResponse<Case> page = response.body();
+            List<Case> entries = page.getEntriesAsList();
+            addAll(entries);
+            return page.hasNextPage() && !entries.isEmpty();
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            types = Arrays.copyOf(types, capacity);
+            assignedGroupIds = Arrays.copyOf(assignedGroupIds, capacity);
+            assignedUserIds = Arrays.copyOf(assignedUserIds, capacity);
+        }
+
+        /**
+         * @return the snapshot of the rows added so far
+         */
+        public CaseColumns build() {
+            return new CaseColumns(this);
+        }
+    }
+}
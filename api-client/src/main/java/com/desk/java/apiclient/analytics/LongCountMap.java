@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open addressing map from long keys to counts that does not box keys while counting. Counts are always positive,
+ * so a zero count marks an empty slot. Not thread safe.
+ */
+final class LongCountMap {
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    LongCountMap() {
+        keys = new long[16];
+        counts = new long[16];
+    }
+
+    void add(long key, long count) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (counts[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (counts[index] == 0) {
+            keys[index] = key;
+            if (++size * 2 > keys.length) {
+                counts[index] = count;
+                resize();
+                return;
+            }
+        }
+        counts[index] += count;
+    }
+
+    void addAll(LongCountMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.counts[i] != 0) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    Map<Long, Long> toMap() {
+        Map<Long, Long> map = new HashMap<>(size * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                map.put(keys[i], counts[i]);
+            }
+        }
+        return map;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldCounts.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
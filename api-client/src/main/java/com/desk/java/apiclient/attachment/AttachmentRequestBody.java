@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.attachment;
+
+import com.google.gson.JsonPrimitive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * <p>
+ *     The JSON body of the case attachment create endpoint, {@code {"file_name":..,"content_type":..,"content":..}}
+ *     with the file base64 encoded into {@code content} while it is written to the sink.
+ * </p>
+ *
+ * <p>
+ *     Only two fixed size buffers are held no matter how large the file is, instead of the file bytes, their base64
+ *     string and Gson's copy of it. The exact content length is known up front so the body is sent with a
+ *     {@code Content-Length} rather than chunked, and the file is reopened on every write so the body can be
+ *     retried. Being JSON it is never read by the OAuth signer, which only signs form bodies.
+ * </p>
+ */
+public final class AttachmentRequestBody extends RequestBody {
+
+    static final MediaType JSON = MediaType.parse("application/json; charset=UTF-8");
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(UTF_8);
+    private static final byte PAD = '=';
+    /** A multiple of 3 so that only the last block of the file is padded */
+    private static final int READ_BUFFER_SIZE = 48 * 1024;
+    private static final byte[] SUFFIX = "\"}".getBytes(UTF_8);
+
+    private final Path file;
+    private final long fileSize;
+    private final byte[] prefix;
+
+    private AttachmentRequestBody(Path file, long fileSize, byte[] prefix) {
+        this.file = file;
+        this.fileSize = fileSize;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates the body for the file, named after its file name
+     *
+     * @param file the file to upload
+     * @param contentType the mime type of the file
+     * @return the request body
+     * @throws IOException if the file size cannot be read
+     */
+    public static AttachmentRequestBody create(Path file, String contentType) throws IOException {
+        return create(file, file.getFileName().toString(), contentType);
+    }
+
+    /**
+     * Creates the body for the file
+     *
+     * @param file the file to upload
+     * @param fileName the name the attachment is given
+     * @param contentType the mime type of the file
+     * @return the request body
+     * @throws IOException if the file size cannot be read
+     */
+    public static AttachmentRequestBody create(Path file, String fileName, String contentType) throws IOException {
+        String prefix = "{\"file_name\":" + new JsonPrimitive(fileName)
+                + ",\"content_type\":" + new JsonPrimitive(contentType)
+                + ",\"content\":\"";
+        return new AttachmentRequestBody(file, Files.size(file), prefix.getBytes(UTF_8));
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        return prefix.length + encodedLength(fileSize) + SUFFIX.length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        sink.write(prefix);
+        byte[] in = new byte[READ_BUFFER_SIZE];
+        byte[] out = new byte[READ_BUFFER_SIZE / 3 * 4];
+        long total = 0;
+        try (InputStream input = Files.newInputStream(file)) {
+            int filled = 0;
+            int read;
+            while ((read = input.read(in, filled, in.length - filled)) != -1) {
+                filled += read;
+                if (filled == in.length) {
+                    sink.write(out, 0, encode(in, filled, out));
+                    total += filled;
+                    filled = 0;
+                }
+            }
+            if (filled > 0) {
+                sink.write(out, 0, encode(in, filled, out));
+                total += filled;
+            }
+        }
+        if (total != fileSize) {
+            // the content length was already sent, a different length would corrupt the request
+            throw new IOException(file + " changed size from " + fileSize + " to " + total
+                    + " bytes during the upload");
+        }
+        sink.write(SUFFIX);
+    }
+
+    /**
+     * Gets the length of the padded base64 encoding of the given number of bytes
+     */
+    static long encodedLength(long length) {
+        return (length + 2) / 3 * 4;
+    }
+
+    /**
+     * Base64 encodes the first bytes of the input, padding a trailing partial block
+     *
+     * @return the number of bytes written to the output
+     */
+    static int encode(byte[] in, int length, byte[] out) {
+        int o = 0;
+        int i = 0;
+        for (int end = length - length % 3; i < end; i += 3) {
+            int block = (in[i] & 0xff) << 16 | (in[i + 1] & 0xff) << 8 | (in[i + 2] & 0xff);
+            out[o++] = ALPHABET[block >>> 18];
+            out[o++] = ALPHABET[(block >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(block >>> 6) & 0x3f];
+            out[o++] = ALPHABET[block & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int block = (in[i] & 0xff) << 16;
+            out[o++] = ALPHABET[block >>> 18];
+            out[o++] = ALPHABET[(block >>> 12) & 0x3f];
+            out[o++] = PAD;
+            out[o++] = PAD;
+        } else if (remaining == 2) {
+            int block = (in[i] & 0xff) << 16 | (in[i + 1] & 0xff) << 8;
+            out[o++] = ALPHABET[block >>> 18];
+            out[o++] = ALPHABET[(block >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(block >>> 6) & 0x3f];
+            out[o++] = PAD;
+        }
+        return o;
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.attachment;
+
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
+import com.desk.java.apiclient.util.OAuthSigningInterceptor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     Downloads attachment files through the http client of a {@link com.desk.java.apiclient.DeskClient},
+ *     streaming the response straight into a {@link FileChannel} so the file is never held in memory.
+ * </p>
+ *
+ * <p>
+ *     Only urls on the host of the api are fetched with the client as is. Attachment urls on other hosts are
+ *     usually pre-signed storage links, so they are fetched without the interceptors signing api requests to
+ *     keep the site's credentials from going to a third party, which would also reject the request.
+ * </p>
+ *
+ * <p>
+ *     Files larger than the chunk size are fetched as parallel {@code Range} requests, each written at its own
+ *     offset. Data goes to a {@code .part} file next to the target together with a small state file recording the
+ *     completed chunks, so calling download again after a failure or a crash only fetches what is missing. Servers
+ *     which ignore ranges are handled by falling back to a single request. Once every byte is there the length is
+ *     checked against the expected size and the part file is moved to the target.
+ * </p>
+ *
+ * <p>
+ *     Created with a {@link CaseService} it also uploads case attachments, streaming the file into the request.
+ * </p>
+ *
+ * <p>
+ *     Instances are immutable and safe to share across threads, but two downloads to the same target must not
+ *     run at the same time.
+ * </p>
+ */
+public class Attachments {
+
+    public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    static final String PART_SUFFIX = ".part";
+    static final String STATE_SUFFIX = ".part.state";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String HEADER_RANGE = "Range";
+    private static final String HEADER_IF_RANGE = "If-Range";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "desk-attachment-download-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final OkHttpClient client;
+    private final OkHttpClient unsignedClient;
+    private final HttpUrl baseUrl;
+    private final long chunkSize;
+    private final int parallelism;
+    private final CaseService cases;
+
+    /**
+     * Creates a downloader with the default chunk size and parallelism
+     *
+     * @param client the http client, which should be the one signing the api requests, it only signs requests
+     *               to the host of the base url
+     * @param baseUrl the url relative attachment urls are resolved against
+     */
+    public Attachments(OkHttpClient client, HttpUrl baseUrl) {
+        this(client, baseUrl, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates a downloader with the default chunk size and parallelism which also uploads case attachments
+     *
+     * @param client the http client, which should be the one signing the api requests, it only signs requests
+     *               to the host of the base url
+     * @param baseUrl the url relative attachment urls are resolved against
+     * @param cases the case service attachments are uploaded with
+     */
+    public Attachments(OkHttpClient client, HttpUrl baseUrl, CaseService cases) {
+        this(client, baseUrl, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM, cases);
+    }
+
+    /**
+     * Creates a downloader
+     *
+     * @param client the http client, which should be the one signing the api requests, it only signs requests
+     *               to the host of the base url
+     * @param baseUrl the url relative attachment urls are resolved against
+     * @param chunkSize the size of each range request, files no larger than this are fetched in one request
+     * @param parallelism the number of range requests in flight per download, 1 disables chunking
+     */
+    public Attachments(OkHttpClient client, HttpUrl baseUrl, long chunkSize, int parallelism) {
+        this(client, baseUrl, chunkSize, parallelism, null);
+    }
+
+    private Attachments(OkHttpClient client, HttpUrl baseUrl, long chunkSize, int parallelism, CaseService cases) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive but was " + chunkSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive but was " + parallelism);
+        }
+        this.client = client;
+        this.unsignedClient = unsigned(client);
+        this.baseUrl = baseUrl;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.cases = cases;
+    }
+
+    /**
+     * Returns a downloader sharing this one's client but splitting files differently
+     *
+     * @param chunkSize the size of each range request
+     * @param parallelism the number of range requests in flight per download, 1 disables chunking
+     * @return the new downloader
+     */
+    public Attachments withChunking(long chunkSize, int parallelism) {
+        return new Attachments(client, baseUrl, chunkSize, parallelism, cases);
+    }
+
+    /**
+     * Creates the call uploading the file as an attachment of the case. The file is base64 encoded while the
+     * request is written, see {@link AttachmentRequestBody}.
+     *
+     * @param caseId the id of the case
+     * @param file the file to upload, named after its file name
+     * @param contentType the mime type of the file
+     * @return the call creating the attachment
+     * @throws IOException if the file size cannot be read
+     * @throws IllegalStateException if this instance was created without a case service
+     */
+    public Call<Attachment> uploadAttachment(long caseId, Path file, String contentType) throws IOException {
+        if (cases == null) {
+            throw new IllegalStateException("Uploads need an Attachments created with a CaseService");
+        }
+        return cases.createAttachment(caseId, AttachmentRequestBody.create(file, contentType));
+    }
+
+    /**
+     * Downloads the attachment file to the target, resuming a previous attempt if one was interrupted
+     *
+     * @param attachment the attachment, whose size is used to verify the download
+     * @param target the file to write, replaced if it exists
+     * @return the target
+     * @throws IOException if the download fails or does not match the attachment size, in which case calling
+     *                     this again resumes it
+     */
+    public Path download(Attachment attachment, Path target) throws IOException {
+        return download(attachment.getUrl(), attachment.getSize(), target);
+    }
+
+    /**
+     * Downloads the file at the url to the target, resuming a previous attempt if one was interrupted
+     *
+     * @param url the absolute url or the url relative to the api base url
+     * @param expectedSize the size of the file or 0 if unknown, in which case it is neither chunked nor verified
+     * @param target the file to write, replaced if it exists
+     * @return the target
+     * @throws IOException if the download fails or does not match the expected size, in which case calling this
+     *                     again resumes it
+     */
+    public Path download(String url, long expectedSize, Path target) throws IOException {
+        HttpUrl httpUrl = resolve(url);
+        Path part = sibling(target, PART_SUFFIX);
+        Path statePath = sibling(target, STATE_SUFFIX);
+        long size = Math.max(expectedSize, 0);
+        long plannedChunkSize = size > chunkSize && parallelism > 1 ? chunkSize : 0;
+
+        DownloadState state = DownloadState.load(statePath);
+        // a download which already fell back to a single request carries on that way
+        boolean resume = state != null && state.size == size
+                && (state.chunkSize == plannedChunkSize || state.chunkSize == 0) && Files.exists(part);
+        if (!resume) {
+            state = new DownloadState(statePath, size, plannedChunkSize);
+        }
+
+        long length;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (!resume) {
+                channel.truncate(0);
+            }
+            if (state.chunkSize == 0) {
+                downloadSequential(httpUrl, channel, state);
+            } else if (!downloadChunks(httpUrl, channel, state)) {
+                // ranges are not supported or the file changed, start over with a single request
+                state = new DownloadState(statePath, size, 0);
+                channel.truncate(0);
+                downloadSequential(httpUrl, channel, state);
+            }
+            channel.force(false);
+            length = channel.size();
+        }
+
+        if (size > 0 && length != size) {
+            Files.deleteIfExists(part);
+            state.delete();
+            throw new IOException("Downloaded " + length + " bytes from " + httpUrl + " but expected " + size);
+        }
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        state.delete();
+        return target;
+    }
+
+    private void downloadSequential(HttpUrl url, FileChannel channel, DownloadState state) throws IOException {
+        long offset = channel.size();
+        String validator = state.getValidator();
+        if (offset > 0 && validator == null) {
+            // without a validator there is no telling whether the part still matches the file
+            channel.truncate(0);
+            offset = 0;
+        }
+
+        Request.Builder request = new Request.Builder().url(url);
+        if (offset > 0) {
+            request.header(HEADER_RANGE, "bytes=" + offset + "-").header(HEADER_IF_RANGE, validator);
+        }
+        Response response = client(url).newCall(request.build()).execute();
+        try {
+            boolean complete = offset > 0 && (state.size == 0 || offset == state.size);
+            if (response.code() == HTTP_RANGE_NOT_SATISFIABLE && complete) {
+                // the previous attempt got every byte
+                return;
+            } else if (response.code() == HTTP_PARTIAL_CONTENT && offset > 0) {
+                if (contentRangeStart(response) != offset) {
+                    throw new IOException("Expected content from byte " + offset + " of " + url + " but got "
+                            + response.header(HEADER_CONTENT_RANGE));
+                }
+            } else if (response.isSuccessful()) {
+                channel.truncate(0);
+                offset = 0;
+                state.reset(validator(response));
+            } else {
+                throw new IOException("Unexpected response " + response.code() + " downloading " + url);
+            }
+            state.save();
+            copy(response.body().source(), channel, offset, -1);
+        } finally {
+            response.body().close();
+        }
+    }
+
+    /**
+     * Downloads all chunks not completed yet
+     *
+     * @return false if the server answered a range request with the whole file
+     */
+    private boolean downloadChunks(final HttpUrl url, final FileChannel channel, final DownloadState state)
+            throws IOException {
+        List<Integer> remaining = new ArrayList<>();
+        for (int chunk = 0, count = state.chunkCount(); chunk < count; chunk++) {
+            if (!state.isCompleted(chunk)) {
+                remaining.add(chunk);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return true;
+        }
+        state.save();
+
+        final Set<okhttp3.Call> calls = Collections.newSetFromMap(new ConcurrentHashMap<okhttp3.Call, Boolean>());
+        final AtomicBoolean stopped = new AtomicBoolean();
+        int threads = Math.min(parallelism, remaining.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, THREAD_FACTORY);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        for (final int chunk : remaining) {
+            completion.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    if (!stopped.get()) {
+                        downloadChunk(url, channel, state, chunk, calls, stopped);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (int i = 0; i < remaining.size(); i++) {
+                completion.take().get();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted downloading " + url);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RangeIgnoredException) {
+                return false;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            // cancelling the calls rather than interrupting the threads, an interrupt would close the channel
+            stopped.set(true);
+            executor.shutdown();
+            for (okhttp3.Call call : calls) {
+                call.cancel();
+            }
+            awaitTermination(executor);
+        }
+    }
+
+    private void downloadChunk(HttpUrl url, FileChannel channel, DownloadState state, int chunk,
+                               Set<okhttp3.Call> calls, AtomicBoolean stopped) throws IOException {
+        long start = chunk * state.chunkSize;
+        long length = Math.min(state.chunkSize, state.size - start);
+        Request.Builder request = new Request.Builder()
+                .url(url)
+                .header(HEADER_RANGE, "bytes=" + start + "-" + (start + length - 1));
+        String validator = state.getValidator();
+        if (validator != null) {
+            request.header(HEADER_IF_RANGE, validator);
+        }
+
+        okhttp3.Call call = client(url).newCall(request.build());
+        calls.add(call);
+        if (stopped.get()) {
+            // raced with a failing chunk
+            call.cancel();
+        }
+        Response response = call.execute();
+        try {
+            if (response.code() != HTTP_PARTIAL_CONTENT) {
+                if (response.isSuccessful()) {
+                    throw new RangeIgnoredException();
+                }
+                throw new IOException("Unexpected response " + response.code() + " downloading " + url);
+            }
+            if (contentRangeStart(response) != start) {
+                throw new IOException("Expected content from byte " + start + " of " + url + " but got "
+                        + response.header(HEADER_CONTENT_RANGE));
+            }
+            if (!state.acceptValidator(validator(response))) {
+                throw new RangeIgnoredException();
+            }
+            long written = copy(response.body().source(), channel, start, length);
+            if (written != length) {
+                throw new IOException("Chunk " + chunk + " of " + url + " ended after " + written + " of "
+                        + length + " bytes");
+            }
+            state.complete(chunk);
+        } finally {
+            response.body().close();
+            calls.remove(call);
+        }
+    }
+
+    /**
+     * Writes the source to the channel at the position through one reused buffer. okio 1.6 cannot read into a
+     * {@link ByteBuffer} so the buffer wraps a heap array, but nothing beyond that array is ever held.
+     *
+     * @param limit the maximum number of bytes to copy or -1 to copy until the source is exhausted
+     * @return the number of bytes written
+     */
+    private static long copy(BufferedSource source, FileChannel channel, long position, long limit)
+            throws IOException {
+        byte[] bytes = new byte[COPY_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long written = 0;
+        while (limit < 0 || written < limit) {
+            int max = limit < 0 ? bytes.length : (int) Math.min(bytes.length, limit - written);
+            int read = source.read(bytes, 0, max);
+            if (read == -1) {
+                break;
+            }
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit(read);
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, position + written);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Gets the first byte position of a {@code Content-Range: bytes first-last/length} header
+     *
+     * @return the position or -1 if the header is missing or malformed
+     */
+    static long contentRangeStart(Response response) {
+        String contentRange = response.header(HEADER_CONTENT_RANGE);
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return -1;
+        }
+        int dash = contentRange.indexOf('-', 6);
+        if (dash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(6, dash).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the value to send back in {@code If-Range}. Weak entity tags cannot be used there, so the last
+     * modified date is used instead.
+     */
+    private static String validator(Response response) {
+        String etag = response.header(HEADER_ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.header(HEADER_LAST_MODIFIED);
+    }
+
+    private HttpUrl resolve(String url) {
+        HttpUrl resolved = url == null ? null : baseUrl.resolve(url);
+        if (resolved == null) {
+            throw new IllegalArgumentException("Invalid attachment url: " + url);
+        }
+        return resolved;
+    }
+
+    /**
+     * Gets the client to fetch the url with, only urls on the api host are signed
+     */
+    private OkHttpClient client(HttpUrl url) {
+        return url.host().equals(baseUrl.host()) ? client : unsignedClient;
+    }
+
+    /**
+     * Copies the client without the interceptors adding the {@code Authorization} header of api requests
+     */
+    private static OkHttpClient unsigned(OkHttpClient client) {
+        OkHttpClient.Builder builder = client.newBuilder();
+        removeSigning(builder.interceptors());
+        removeSigning(builder.networkInterceptors());
+        return builder.build();
+    }
+
+    private static void removeSigning(List<Interceptor> interceptors) {
+        for (Iterator<Interceptor> iterator = interceptors.iterator(); iterator.hasNext(); ) {
+            Interceptor interceptor = iterator.next();
+            if (interceptor instanceof OAuthSigningInterceptor || interceptor instanceof ApiTokenSigningInterceptor) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Thrown by a chunk when the server sent the whole file instead of the range, either because it does not
+     * support ranges or because the file changed
+     */
+    private static final class RangeIgnoredException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Properties;
+
+/**
+ * <p>
+ *     Progress of a partial attachment download, kept next to the part file so that an interrupted download can
+ *     pick up where it left off.
+ * </p>
+ *
+ * <p>
+ *     The validator is the entity tag, or the last modified date when the server sends no entity tag, and is
+ *     passed back in {@code If-Range} so that a file changed on the server is downloaded again from the start
+ *     instead of being stitched together from two versions. Chunk updates are synchronized since chunks complete
+ *     on different threads.
+ * </p>
+ *
+ * <p>
+ *     A chunk size of zero marks a sequential download, which resumes from the length of the part file rather
+ *     than from a set of completed chunks.
+ * </p>
+ */
+final class DownloadState {
+
+    private static final String SIZE = "size";
+    private static final String CHUNK_SIZE = "chunkSize";
+    private static final String VALIDATOR = "validator";
+    private static final String COMPLETED = "completed";
+
+    final long size;
+    final long chunkSize;
+    private final Path path;
+    private final BitSet completed;
+    private String validator;
+
+    DownloadState(Path path, long size, long chunkSize) {
+        this(path, size, chunkSize, new BitSet(), null);
+    }
+
+    private DownloadState(Path path, long size, long chunkSize, BitSet completed, String validator) {
+        this.path = path;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.completed = completed;
+        this.validator = validator;
+    }
+
+    /**
+     * Loads the state stored at the path
+     *
+     * @param path the state file
+     * @return the state or null if there is none or it cannot be read
+     */
+    static DownloadState load(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // missing or unreadable, either way there is nothing to resume
+            return null;
+        }
+        try {
+            long size = Long.parseLong(properties.getProperty(SIZE));
+            long chunkSize = Long.parseLong(properties.getProperty(CHUNK_SIZE));
+            BitSet completed = new BitSet();
+            String chunks = properties.getProperty(COMPLETED, "");
+            for (String chunk : chunks.split(",")) {
+                if (!chunk.isEmpty()) {
+                    completed.set(Integer.parseInt(chunk));
+                }
+            }
+            return new DownloadState(path, size, chunkSize, completed, properties.getProperty(VALIDATOR));
+        } catch (RuntimeException e) {
+            // a damaged state file only costs a fresh download
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of chunks the download is split into
+     */
+    int chunkCount() {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    synchronized boolean isCompleted(int chunk) {
+        return completed.get(chunk);
+    }
+
+    synchronized int completedCount() {
+        return completed.cardinality();
+    }
+
+    synchronized String getValidator() {
+        return validator;
+    }
+
+    /**
+     * Remembers the validator of the first response. Returns false if a different validator was already seen,
+     * meaning the file changed between two requests.
+     */
+    synchronized boolean acceptValidator(String responseValidator) {
+        if (validator == null) {
+            validator = responseValidator;
+            return true;
+        }
+        return responseValidator == null || validator.equals(responseValidator);
+    }
+
+    /**
+     * Starts over with the validator of a full response, forgetting all completed chunks
+     */
+    synchronized void reset(String responseValidator) {
+        completed.clear();
+        validator = responseValidator;
+    }
+
+    /**
+     * Marks the chunk as written and stores the state
+     *
+     * @param chunk the chunk index
+     * @throws IOException if the state cannot be stored
+     */
+    synchronized void complete(int chunk) throws IOException {
+        completed.set(chunk);
+        save();
+    }
+
+    /**
+     * Stores the state, replacing the previous file in one step where the file system allows it so a crash never
+     * leaves a half written state behind
+     *
+     * @throws IOException if the state cannot be stored
+     */
+    synchronized void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(SIZE, Long.toString(size));
+        properties.setProperty(CHUNK_SIZE, Long.toString(chunkSize));
+        if (validator != null) {
+            properties.setProperty(VALIDATOR, validator);
+        }
+        StringBuilder chunks = new StringBuilder();
+        for (int i = completed.nextSetBit(0); i >= 0; i = completed.nextSetBit(i + 1)) {
+            if (chunks.length() > 0) {
+                chunks.append(',');
+            }
+            chunks.append(i);
+        }
+        properties.setProperty(COMPLETED, chunks.toString());
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Removes the stored state
+     *
+     * @throws IOException if the state file exists but cannot be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.batch;
+
+import com.desk.java.apiclient.model.Case;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cases read by {@link CaseBatchReader#getCasesByIds(long[], com.desk.java.apiclient.model.Embed,
+ * com.desk.java.apiclient.model.Fields)}, in the order their ids were requested.
+ */
+public final class CaseBatch {
+
+    private final long[] ids;
+    private final Map<Long, Case> found;
+    private final long[] missingIds;
+    private final int requestCount;
+
+    CaseBatch(long[] ids, Map<Long, Case> found, long[] missingIds, int requestCount) {
+        this.ids = ids;
+        this.found = found;
+        this.missingIds = missingIds;
+        this.requestCount = requestCount;
+    }
+
+    /**
+     * Gets the cases found, in the order of the requested ids. A case requested twice is listed twice.
+     *
+     * @return the cases
+     */
+    @NotNull
+    public List<Case> getCases() {
+        List<Case> cases = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Case deskCase = found.get(id);
+            if (deskCase != null) {
+                cases.add(deskCase);
+            }
+        }
+        return cases;
+    }
+
+    /**
+     * Gets the case with the id
+     *
+     * @param id the case id
+     * @return the case or null if it was not requested or not found
+     */
+    @Nullable
+    public Case get(long id) {
+        return found.get(id);
+    }
+
+    /**
+     * Gets the requested ids no case was found for, in the order they were requested
+     *
+     * @return the missing ids
+     */
+    @NotNull
+    public long[] getMissingIds() {
+        return missingIds.clone();
+    }
+
+    /**
+     * Whether every requested case was found
+     *
+     * @return true if no id is missing
+     */
+    public boolean isComplete() {
+        return missingIds.length == 0;
+    }
+
+    /**
+     * Gets the number of requests the batch took
+     *
+     * @return the request count
+     */
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CaseBatch{requested=" + ids.length + ", found=" + found.size()
+                + ", missing=" + (missingIds.length <= 10 ? Arrays.toString(missingIds) : missingIds.length + " ids")
+                + ", requests=" + requestCount + '}';
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.batch;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.CaseService;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Reads many cases by id with few requests by packing the ids into {@code case_id:} search queries, each
+ *     holding as many ids as a page returns and the query length allows. Reading 5,000 ids takes 50 searches
+ *     rather than 5,000 single reads.
+ * </p>
+ *
+ * <p>
+ *     The searches run concurrently with at most the parallelism in flight. A search whose query the server rejects
+ *     falls back to reading its ids one at a time, while a search failing because the server is rate limiting or
+ *     failing fails the batch rather than making up to a hundred more requests. As the search index may lag
+ *     behind, ids a search did not return can optionally be double checked with single reads before they are
+ *     reported missing.
+ * </p>
+ *
+ * <p>
+ *     Instances are immutable and safe to share across threads.
+ * </p>
+ */
+public class CaseBatchReader {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    /** The page size limit of the search endpoint and therefore the most ids one query can return */
+    public static final int MAX_IDS_PER_QUERY = 100;
+    /** The longest url encoded query, leaving room for the rest of the url within common 2 KB limits */
+    public static final int MAX_QUERY_LENGTH = 1500;
+
+    static final String QUERY_PREFIX = "case_id:";
+    /** A comma in the url encoded query */
+    private static final int ENCODED_SEPARATOR_LENGTH = 3;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_URI_TOO_LONG = 414;
+    private static final int HTTP_UNPROCESSABLE_ENTITY = 422;
+
+    private final CaseService cases;
+    private final int parallelism;
+    private final boolean recheckMissing;
+
+    /**
+     * Creates a reader with the default parallelism which does not double check missing ids
+     *
+     * @param cases the case service
+     */
+    public CaseBatchReader(CaseService cases) {
+        this(cases, DEFAULT_PARALLELISM, false);
+    }
+
+    private CaseBatchReader(CaseService cases, int parallelism, boolean recheckMissing) {
+        this.cases = cases;
+        this.parallelism = parallelism;
+        this.recheckMissing = recheckMissing;
+    }
+
+    /**
+     * Returns a reader running at most the given number of requests at a time
+     *
+     * @param parallelism the maximum number of requests in flight
+     * @return the new reader
+     */
+    public CaseBatchReader withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive but was " + parallelism);
+        }
+        return new CaseBatchReader(cases, parallelism, recheckMissing);
+    }
+
+    /**
+     * Returns a reader which reads ids the searches did not return one at a time before reporting them missing,
+     * for cases so recent that the search index may not know them yet
+     *
+     * @param recheckMissing whether to double check missing ids
+     * @return the new reader
+     */
+    public CaseBatchReader withMissingRecheck(boolean recheckMissing) {
+        return new CaseBatchReader(cases, parallelism, recheckMissing);
+    }
+
+    /**
+     * Reads the cases with the given ids
+     *
+     * @param ids the case ids, duplicates are read once
+     * @param embed what to embed or null
+     * @param fields the fields requested or null for all, the id is always added
+     * @return the cases in the order of the ids and the ids which were not found
+     * @throws IOException if a request fails other than by the server rejecting a search
+     */
+    public CaseBatch getCasesByIds(long[] ids, Embed embed, Fields fields) throws IOException {
+        Batch batch = new Batch(embed, withId(fields));
+        Set<Long> unique = new LinkedHashSet<>();
+        for (long id : ids) {
+            unique.add(id);
+        }
+        for (long[] chunk : chunk(unique)) {
+            batch.work.add(new Search(chunk, 1));
+        }
+        batch.run();
+        if (recheckMissing) {
+            for (long id : unique) {
+                if (!batch.found.containsKey(id) && !batch.readSingly.contains(id)) {
+                    batch.work.add(new Get(id));
+                }
+            }
+            batch.run();
+        }
+
+        List<Long> missing = new ArrayList<>();
+        for (long id : unique) {
+            if (!batch.found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        long[] missingIds = new long[missing.size()];
+        for (int i = 0; i < missingIds.length; i++) {
+            missingIds[i] = missing.get(i);
+        }
+        return new CaseBatch(ids.clone(), batch.found, missingIds, batch.requestCount);
+    }
+
+    /**
+     * Splits the ids into queries of at most {@link #MAX_IDS_PER_QUERY} ids and {@link #MAX_QUERY_LENGTH}
+     * encoded characters
+     */
+    static List<long[]> chunk(Iterable<Long> ids) {
+        List<long[]> chunks = new ArrayList<>();
+        long[] chunk = new long[MAX_IDS_PER_QUERY];
+        int size = 0;
+        int length = QUERY_PREFIX.length();
+        for (long id : ids) {
+            int idLength = Long.toString(id).length();
+            int added = size == 0 ? idLength : idLength + ENCODED_SEPARATOR_LENGTH;
+            if (size == MAX_IDS_PER_QUERY || (size > 0 && length + added > MAX_QUERY_LENGTH)) {
+                chunks.add(Arrays.copyOf(chunk, size));
+                size = 0;
+                length = QUERY_PREFIX.length();
+                added = idLength;
+            }
+            chunk[size++] = id;
+            length += added;
+        }
+        if (size > 0) {
+            chunks.add(Arrays.copyOf(chunk, size));
+        }
+        return chunks;
+    }
+
+    static String query(long[] ids) {
+        StringBuilder query = new StringBuilder(QUERY_PREFIX.length() + ids.length * 8).append(QUERY_PREFIX);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                query.append(',');
+            }
+            query.append(ids[i]);
+        }
+        return query.toString();
+    }
+
+    private static Fields withId(Fields fields) {
+        if (fields == null) {
+            return null;
+        }
+        String requested = fields.toString();
+        if (Arrays.asList(requested.split(",")).contains("id")) {
+            return fields;
+        }
+        return Fields.include(requested.isEmpty() ? "id" : requested + ",id");
+    }
+
+    /**
+     * A request of a batch
+     */
+    private interface Task {
+        Call<?> call(Batch batch);
+    }
+
+    private final class Search implements Task {
+
+        final long[] ids;
+        final long[] sortedIds;
+        final int page;
+
+        Search(long[] ids, int page) {
+            this.ids = ids;
+            this.sortedIds = ids.clone();
+            this.page = page;
+            Arrays.sort(sortedIds);
+        }
+
+        boolean requested(long id) {
+            return Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+
+        @Override
+        public Call<?> call(Batch batch) {
+            return cases.searchCases(query(ids), MAX_IDS_PER_QUERY, page, null, null, batch.embed, batch.fields);
+        }
+    }
+
+    private final class Get implements Task {
+
+        final long id;
+
+        Get(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Call<?> call(Batch batch) {
+            return cases.getCaseById(id, batch.embed, batch.fields);
+        }
+    }
+
+    /**
+     * The state of one {@link #getCasesByIds(long[], Embed, Fields)} call. Responses arrive on the http client's
+     * threads and are handed to the calling thread through a queue, so only the calling thread touches the
+     * state.
+     */
+    private final class Batch {
+
+        final Embed embed;
+        final Fields fields;
+        final ArrayDeque<Task> work = new ArrayDeque<>();
+        final Map<Long, Case> found = new HashMap<>();
+        final Set<Long> readSingly = new LinkedHashSet<>();
+        final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        final List<Call<?>> inFlight = new ArrayList<>();
+        int requestCount;
+
+        Batch(Embed embed, Fields fields) {
+            this.embed = embed;
+            this.fields = fields;
+        }
+
+        void run() throws IOException {
+            boolean done = false;
+            try {
+                while (!work.isEmpty() || !inFlight.isEmpty()) {
+                    while (!work.isEmpty() && inFlight.size() < parallelism) {
+                        start(work.poll());
+                    }
+                    handle(take());
+                }
+                done = true;
+            } finally {
+                if (!done) {
+                    for (Call<?> call : inFlight) {
+                        call.cancel();
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void start(final Task task) {
+            final Call<Object> call = (Call<Object>) task.call(this);
+            inFlight.add(call);
+            requestCount++;
+            call.enqueue(new Callback<Object>() {
+                @Override
+                public void onResponse(Call<Object> ignored, Response<Object> response) {
+                    completions.add(new Completion(task, call, response, null));
+                }
+
+                @Override
+                public void onFailure(Call<Object> ignored, Throwable t) {
+                    completions.add(new Completion(task, call, null, t));
+                }
+            });
+        }
+
+        private Completion take() throws InterruptedIOException {
+            try {
+                return completions.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted reading a batch of cases");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void handle(Completion completion) throws IOException {
+            inFlight.remove(completion.call);
+            if (completion.failure != null) {
+                if (completion.failure instanceof IOException) {
+                    throw (IOException) completion.failure;
+                }
+                throw new IOException(completion.failure);
+            }
+            Response<?> response = completion.response;
+            if (completion.task instanceof Search) {
+                Search search = (Search) completion.task;
+                if (!response.isSuccessful()) {
+                    int code = response.code();
+                    if (code != HTTP_BAD_REQUEST && code != HTTP_URI_TOO_LONG && code != HTTP_UNPROCESSABLE_ENTITY) {
+                        throw new IOException("Searching " + search.ids.length + " cases failed with HTTP " + code);
+                    }
+                    // the server would not run the query, read the ids one at a time instead
+                    for (long id : search.ids) {
+                        if (!found.containsKey(id)) {
+                            work.add(new Get(id));
+                        }
+                    }
+                    return;
+                }
+                ApiResponse<Case> page = (ApiResponse<Case>) response.body();
+                List<Case> entries = page.getEntriesAsList();
+                for (Case deskCase : entries) {
+                    if (search.requested(deskCase.getId())) {
+                        found.put(deskCase.getId(), deskCase);
+                    }
+                }
+                if (page.hasNextPage() && !entries.isEmpty()) {
+                    work.add(new Search(search.ids, search.page + 1));
+                }
+            } else {
+                Get get = (Get) completion.task;
+                readSingly.add(get.id);
+                if (response.isSuccessful()) {
+                    found.put(get.id, (Case) response.body());
+                } else if (response.code() != HTTP_NOT_FOUND) {
+                    throw new IOException("Reading case " + get.id + " failed with HTTP " + response.code());
+                }
+            }
+        }
+    }
+
+    private static final class Completion {
+
+        final Task task;
+        final Call<?> call;
+        final Response<?> response;
+        final Throwable failure;
+
+        Completion(Task task, Call<?> call, Response<?> response, Throwable failure) {
+            this.task = task;
+            this.call = call;
+            this.response = response;
+            this.failure = failure;
+        }
+    }
+}
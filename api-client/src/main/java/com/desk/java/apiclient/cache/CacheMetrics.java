@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import java.util.Locale;
+
+/**
+ * Point in time snapshot of the counters and occupancy of an {@link OffHeapCache}
+ */
+public final class CacheMetrics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long rejectionCount;
+    private final long invalidationCount;
+    private final long expirationCount;
+    private final long stalePutCount;
+    private final int entryCount;
+    private final long storedBytes;
+    private final long usedBytes;
+    private final long allocatedBytes;
+    private final long capacityBytes;
+
+    CacheMetrics(long hitCount, long missCount, long putCount, long evictionCount, long rejectionCount,
+                 long invalidationCount, long expirationCount, long stalePutCount, int entryCount, long storedBytes,
+                 long usedBytes, long allocatedBytes, long capacityBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+        this.invalidationCount = invalidationCount;
+        this.expirationCount = expirationCount;
+        this.stalePutCount = stalePutCount;
+        this.entryCount = entryCount;
+        this.storedBytes = storedBytes;
+        this.usedBytes = usedBytes;
+        this.allocatedBytes = allocatedBytes;
+        this.capacityBytes = capacityBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of entries stored
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * @return the number of entries evicted to make room for new entries
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of entries not stored because they were too large or less frequent than the eviction
+     * candidate
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * @return the number of entries removed because they were older than the max age
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return the number of fetched entities not stored because their key was invalidated while they were fetched
+     */
+    public long getStalePutCount() {
+        return stalePutCount;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the encoded size of all entries
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return the size of the chunks holding entries
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return the size of the slabs allocated so far
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * @return the fraction of the capacity used by entry chunks between 0 and 1
+     */
+    public double getOccupancy() {
+        return capacityBytes == 0 ? 0 : (double) usedBytes / capacityBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "CacheMetrics{entries=%d, hits=%d, misses=%d, hitRate=%.3f, puts=%d, "
+                        + "evictions=%d, rejections=%d, invalidations=%d, expirations=%d, stalePuts=%d, stored=%d, "
+                        + "used=%d, allocated=%d, capacity=%d, occupancy=%.3f}",
+                entryCount, hitCount, missCount, getHitRate(), putCount, evictionCount, rejectionCount,
+                invalidationCount, expirationCount, stalePutCount, storedBytes, usedBytes, allocatedBytes, capacityBytes, getOccupancy());
+    }
+}
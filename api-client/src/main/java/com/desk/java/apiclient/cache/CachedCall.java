@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Call reading an entity through an {@link OffHeapCache}. A cached entity is returned without a request,
+ *     otherwise the delegate call is executed and a successful response body is stored in the cache, unless the
+ *     entity was invalidated while the call was in flight.
+ * </p>
+ *
+ * <p>
+ *     On a cache hit {@link #enqueue(Callback)} invokes the callback on the calling thread.
+ * </p>
+ */
+final class CachedCall<T> implements Call<T> {
+
+    private final Call<T> delegate;
+    private final OffHeapCache cache;
+    private final Class<T> type;
+    private final long id;
+    private boolean executed;
+    private volatile boolean canceled;
+
+    CachedCall(Call<T> delegate, OffHeapCache cache, Class<T> type, long id) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.type = type;
+        this.id = id;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        markExecuted();
+        T cached = cache.get(type, id);
+        if (cached != null) {
+            return Response.success(cached);
+        }
+        long generation = cache.generation(type, id);
+        Response<T> response = delegate.execute();
+        store(response, generation);
+        return response;
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        markExecuted();
+        T cached = cache.get(type, id);
+        if (cached != null) {
+            callback.onResponse(this, Response.success(cached));
+            return;
+        }
+        final long generation = cache.generation(type, id);
+        delegate.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                store(response, generation);
+                callback.onResponse(CachedCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                callback.onFailure(CachedCall.this, t);
+            }
+        });
+    }
+
+    private synchronized void markExecuted() {
+        if (executed) {
+            throw new IllegalStateException("Already executed.");
+        }
+        executed = true;
+    }
+
+    private void store(Response<T> response, long generation) {
+        if (response.isSuccessful() && response.body() != null) {
+            cache.put(type, id, response.body(), generation);
+        }
+    }
+
+    @Override
+    public synchronized boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public void cancel() {
+        canceled = true;
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled || delegate.isCanceled();
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @Override
+    public Call<T> clone() {
+        return new CachedCall<>(delegate.clone(), cache, type, id);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.CasePatch;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.MacroResponse;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     {@link CaseService} reading cases through an {@link OffHeapCache}.
+ * </p>
+ *
+ * <p>
+ *     {@link #getCaseById(long, Embed, Fields)} is served from the cache when neither embeds nor fields are
+ *     requested, since only complete cases are cached. Calls modifying a case or its messages remove the case from
+ *     the cache once they complete. All other calls go straight to the delegate.
+ * </p>
+ */
+public class CachingCaseService implements CaseService {
+
+    private final CaseService delegate;
+    private final OffHeapCache cache;
+
+    public CachingCaseService(CaseService delegate, OffHeapCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Call<Case> getCaseById(long caseId, Embed embed, Fields fields) {
+        Call<Case> call = delegate.getCaseById(caseId, embed, fields);
+        return embed == null && fields == null ? new CachedCall<>(call, cache, Case.class, caseId) : call;
+    }
+
+    @Override
+    public Call<Case> updateCaseLock(long caseId, CaseLock caseLock) {
+        return invalidating(delegate.updateCaseLock(caseId, caseLock), caseId);
+    }
+
+    @Override
+    public Call<Case> updateCaseLock(long caseId, CaseLock caseLock, Embed embed, Fields fields) {
+        return invalidating(delegate.updateCaseLock(caseId, caseLock, embed, fields), caseId);
+    }
+
+    @Override
+    public Call<Case> updateCase(long caseId, Case updatedCase) {
+        return invalidating(delegate.updateCase(caseId, updatedCase), caseId);
+    }
+
+    @Override
+    public Call<Case> updateCase(long caseId, Case updatedCase, Embed embed, Fields fields) {
+        return invalidating(delegate.updateCase(caseId, updatedCase, embed, fields), caseId);
+    }
+
+    @Override
+    public Call<Case> updateCase(long caseId, CasePatch patch) {
+        return invalidating(delegate.updateCase(caseId, patch), caseId);
+    }
+
+    @Override
+    public Call<Case> updateCase(long caseId, CasePatch patch, Embed embed, Fields fields) {
+        return invalidating(delegate.updateCase(caseId, patch, embed, fields), caseId);
+    }
+
+    @Override
+    public Call<Message> updateCaseMessage(long caseId, Message updatedMessage) {
+        return invalidating(delegate.updateCaseMessage(caseId, updatedMessage), caseId);
+    }
+
+    @Override
+    public Call<Message> updateCaseReply(long caseId, long replyId, Message updatedReply) {
+        return invalidating(delegate.updateCaseReply(caseId, replyId, updatedReply), caseId);
+    }
+
+    @Override
+    public Call<Message> createDraft(long caseId) {
+        return invalidating(delegate.createDraft(caseId), caseId);
+    }
+
+    @Override
+    public Call<Message> updateDraft(long caseId, Message draft) {
+        return invalidating(delegate.updateDraft(caseId, draft), caseId);
+    }
+
+    @Override
+    public Call<Message> createNote(long caseId, Message note) {
+        return invalidating(delegate.createNote(caseId, note), caseId);
+    }
+
+    @Override
+    public Call<ApiResponse<Case>> getCasesByFilter(long filterId, int perPage, int page, String sortField,
+                                                    SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCasesByFilter(filterId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Case>> getCasesByCustomer(long customerId, int perPage, int page, String sortField,
+                                                      SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCasesByCustomer(customerId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Case>> getCasesByCompany(long companyId, int perPage, int page, String sortField,
+                                                     SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCasesByCompany(companyId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Case>> searchCases(String query, int perPage, int page, String sortField,
+                                               SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.searchCases(query, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ResponseBody> getCasesByFilterRaw(long filterId, int perPage, int page, String sortField,
+                                                  SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCasesByFilterRaw(filterId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ResponseBody> getCasesByCustomerRaw(long customerId, int perPage, int page, String sortField,
+                                                    SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCasesByCustomerRaw(customerId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ResponseBody> searchCasesRaw(String query, int perPage, int page, String sortField,
+                                             SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.searchCasesRaw(query, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<Case> createCase(Case newCase, Embed embed, Fields fields) {
+        return delegate.createCase(newCase, embed, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Message>> getCaseFeed(long caseId, int perPage, int page, SortDirection sortDirection) {
+        return delegate.getCaseFeed(caseId, perPage, page, sortDirection);
+    }
+
+    @Override
+    public Call<Message> getDraft(long caseId, Embed embed) {
+        return delegate.getDraft(caseId, embed);
+    }
+
+    @Override
+    public Call<MacroResponse> previewMacro(long caseId, Case body) {
+        return delegate.previewMacro(caseId, body);
+    }
+
+    @Override
+    public Call<ApiResponse<Attachment>> getAttachments(long caseId, int perPage, int page) {
+        return delegate.getAttachments(caseId, perPage, page);
+    }
+
+    @Override
+    public Call<Attachment> createAttachment(long caseId, RequestBody attachment) {
+        return invalidating(delegate.createAttachment(caseId, attachment), caseId);
+    }
+
+    private <T> Call<T> invalidating(Call<T> call, long caseId) {
+        return new InvalidatingCall<>(call, cache, Case.class, caseId);
+    }
+}
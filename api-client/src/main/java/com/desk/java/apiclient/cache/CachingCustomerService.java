@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.CustomerPatch;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.FeatureCheck;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CustomerService;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     {@link CustomerService} reading customers through an {@link OffHeapCache}.
+ * </p>
+ *
+ * <p>
+ *     {@link #getCustomer(long, Embed)} is served from the cache when no embeds are requested and
+ *     {@link #updateCustomer(long, Customer)} and {@link #updateCustomer(long, CustomerPatch)} remove the
+ *     customer from the cache once they complete. All other calls
+ *     go straight to the delegate.
+ * </p>
+ */
+public class CachingCustomerService implements CustomerService {
+
+    private final CustomerService delegate;
+    private final OffHeapCache cache;
+
+    public CachingCustomerService(CustomerService delegate, OffHeapCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Call<Customer> getCustomer(long customerId, Embed embed) {
+        Call<Customer> call = delegate.getCustomer(customerId, embed);
+        return embed == null ? new CachedCall<>(call, cache, Customer.class, customerId) : call;
+    }
+
+    @Override
+    public Call<Customer> updateCustomer(long customerId, Customer updatedCustomer) {
+        return new InvalidatingCall<>(delegate.updateCustomer(customerId, updatedCustomer), cache, Customer.class,
+                customerId);
+    }
+
+    @Override
+    public Call<Customer> updateCustomer(long customerId, CustomerPatch patch) {
+        return new InvalidatingCall<>(delegate.updateCustomer(customerId, patch), cache, Customer.class, customerId);
+    }
+
+    @Override
+    public Call<FeatureCheck> areEnhancementsEnabled() {
+        return delegate.areEnhancementsEnabled();
+    }
+
+    @Override
+    public Call<ApiResponse<Customer>> getCustomersByFilterObservable(long filterId, int perPage, int page,
+                                                                      String sortField, SortDirection sortDirection,
+                                                                      Embed embed, Fields fields) {
+        return delegate.getCustomersByFilterObservable(filterId, perPage, page, sortField, sortDirection, embed,
+                fields);
+    }
+
+    @Override
+    public Call<ResponseBody> getCustomersByFilterRaw(long filterId, int perPage, int page, String sortField,
+                                                      SortDirection sortDirection, Embed embed, Fields fields) {
+        return delegate.getCustomersByFilterRaw(filterId, perPage, page, sortField, sortDirection, embed, fields);
+    }
+
+    @Override
+    public Call<ResponseBody> searchCustomersRaw(String query, Embed embed, int perPage, int page, String sortField,
+                                                 SortDirection sortDirection) {
+        return delegate.searchCustomersRaw(query, embed, perPage, page, sortField, sortDirection);
+    }
+
+    @Override
+    public Call<Customer> createCustomer(Customer newCustomer) {
+        return delegate.createCustomer(newCustomer);
+    }
+
+    @Override
+    public Call<Case> createCaseForCustomer(long customerId, Case deskCase) {
+        return delegate.createCaseForCustomer(customerId, deskCase);
+    }
+
+    @Override
+    public Call<ApiResponse<Customer>> searchCustomers(String query, Embed embed, int perPage, int page,
+                                                       String sortField, SortDirection sortDirection) {
+        return delegate.searchCustomers(query, embed, perPage, page, sortField, sortDirection);
+    }
+
+    @Override
+    public Call<ApiResponse<Customer>> getCustomersByCompany(long companyId, int perPage, int page) {
+        return delegate.getCustomersByCompany(companyId, perPage, page);
+    }
+}
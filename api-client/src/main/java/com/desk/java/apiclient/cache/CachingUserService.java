@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Filter;
+import com.desk.java.apiclient.model.MobileDevice;
+import com.desk.java.apiclient.model.Setting;
+import com.desk.java.apiclient.model.SettingUpdate;
+import com.desk.java.apiclient.model.User;
+import com.desk.java.apiclient.service.UserService;
+
+import retrofit2.Call;
+
+/**
+ * {@link UserService} reading users by id through an {@link OffHeapCache}. All other calls go straight to the
+ * delegate.
+ */
+public class CachingUserService implements UserService {
+
+    private final UserService delegate;
+    private final OffHeapCache cache;
+
+    public CachingUserService(UserService delegate, OffHeapCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Call<User> getUser(long userId) {
+        return new CachedCall<>(delegate.getUser(userId), cache, User.class, userId);
+    }
+
+    @Override
+    public Call<ApiResponse<User>> getUsers(int perPage, int page) {
+        return delegate.getUsers(perPage, page);
+    }
+
+    @Override
+    public Call<User> getCurrentUser() {
+        return delegate.getCurrentUser();
+    }
+
+    @Override
+    public Call<Void> logoutCurrentUser() {
+        return delegate.logoutCurrentUser();
+    }
+
+    @Override
+    public Call<ApiResponse<MobileDevice>> getMobileDevicesForUser(long userId, int perPage, int page) {
+        return delegate.getMobileDevicesForUser(userId, perPage, page);
+    }
+
+    @Override
+    public Call<MobileDevice> createMobileDevice(MobileDevice device) {
+        return delegate.createMobileDevice(device);
+    }
+
+    @Override
+    public Call<Void> deleteMobileDevice(long id) {
+        return delegate.deleteMobileDevice(id);
+    }
+
+    @Override
+    public Call<ApiResponse<Setting>> getMobileDevicesSettings(long userId, int deviceId) {
+        return delegate.getMobileDevicesSettings(userId, deviceId);
+    }
+
+    @Override
+    public Call<Setting> updateMobileDeviceSetting(long userId, long deviceId, long settingId, SettingUpdate update) {
+        return delegate.updateMobileDeviceSetting(userId, deviceId, settingId, update);
+    }
+
+    @Override
+    public Call<ApiResponse<Filter>> getCaseFilters(int perPage, int page, Fields fields) {
+        return delegate.getCaseFilters(perPage, page, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Filter>> getCompanyFilters(int perPage, int page, Fields fields) {
+        return delegate.getCompanyFilters(perPage, page, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Filter>> getCustomerFilters(int perPage, int page, Fields fields) {
+        return delegate.getCustomerFilters(perPage, page, fields);
+    }
+
+    @Override
+    public Call<ApiResponse<Filter>> getOpportunityFilters(int perPage, int page, Fields fields) {
+        return delegate.getOpportunityFilters(perPage, page, fields);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * <p>
+ *     Encodes entities as UTF-8 JSON using the same {@link Gson} instance as the client, so cached entities decode
+ *     exactly like API responses. Null fields are omitted which keeps the encoding compact.
+ * </p>
+ */
+public class GsonEntryCodec implements EntryCodec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Gson gson;
+
+    public GsonEntryCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return gson.toJson(value).getBytes(UTF_8);
+    }
+
+    @Override
+    public <T> T decode(Class<T> type, byte[] bytes) throws IOException {
+        try {
+            return gson.fromJson(new String(bytes, UTF_8), type);
+        } catch (JsonParseException e) {
+            throw new IOException("Cannot decode cached " + type.getSimpleName(), e);
+        }
+    }
+}
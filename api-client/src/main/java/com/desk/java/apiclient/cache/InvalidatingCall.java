@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Call modifying an entity that removes the entity from an {@link OffHeapCache} once the call completes, whether
+ * it succeeded or not
+ */
+final class InvalidatingCall<T> implements Call<T> {
+
+    private final Call<T> delegate;
+    private final OffHeapCache cache;
+    private final Class<?> type;
+    private final long id;
+
+    InvalidatingCall(Call<T> delegate, OffHeapCache cache, Class<?> type, long id) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.type = type;
+        this.id = id;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        try {
+            return delegate.execute();
+        } finally {
+            cache.invalidate(type, id);
+        }
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        delegate.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                cache.invalidate(type, id);
+                callback.onResponse(InvalidatingCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                cache.invalidate(type, id);
+                callback.onFailure(InvalidatingCall.this, t);
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @Override
+    public Call<T> clone() {
+        return new InvalidatingCall<>(delegate.clone(), cache, type, id);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Cache of encoded entities keyed by entity type and id whose values live in direct memory outside of the Java
+ *     heap, so large working sets of cases, customers or users do not add to garbage collection pauses. Only a small
+ *     index entry per cached entity stays on the heap.
+ * </p>
+ *
+ * <p>
+ *     Values are encoded by an {@link EntryCodec} on {@link #put(Class, long, Object)} and only decoded when they
+ *     are read with {@link #get(Class, long)}. Memory is handed out by a slab allocator with size classes; when a
+ *     size class is full its least recently used entry is evicted, but only if the new entry was accessed more
+ *     often recently (TinyLFU admission), so one-off reads cannot flush frequently used entries. Once all slabs are
+ *     in use a full size class first takes over the slab of a class left without entries. A class without an entry
+ *     to evict takes over a slab of the class holding the most slabs, evicting the entries in the slab of that
+ *     class's least recently used entry under the same admission rule, so the cache follows entity sizes as they
+ *     drift.
+ * </p>
+ *
+ * <p>
+ *     Entries older than the {@link #setMaxAge(long, TimeUnit) max age} are treated as missing, so changes made
+ *     outside of the client are seen eventually. A read that fetches an entity to cache it captures the
+ *     {@link #generation(Class, long) generation} of its key before the request and stores the response with
+ *     {@link #put(Class, long, Object, long)}, which drops it when the key was invalidated in the meantime, so a
+ *     slow read cannot cache the state from before a concurrent update.
+ * </p>
+ *
+ * <p>
+ *     Instances are thread safe. Encoding and decoding happen outside of the lock.
+ * </p>
+ */
+public class OffHeapCache {
+
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private static final int EXPECTED_ENTRY_SIZE = 1024;
+    // invalidation generations are kept per stripe of keys so they take constant memory, a collision only drops
+    // a put which would have been safe
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final EntryCodec codec;
+    private final SlabAllocator allocator;
+    private final FrequencySketch sketch;
+    private final long capacityBytes;
+    private final Map<Key, Entry> index = new HashMap<>();
+    // sentinel per size class, head.next is the most and head.previous the least recently used entry
+    private final Entry[] lru;
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private volatile DeskEventListener listener = DeskEventListener.NONE;
+    private volatile long maxAgeNanos;
+
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+    private long rejectionCount;
+    private long invalidationCount;
+    private long expirationCount;
+    private long stalePutCount;
+    private long storedBytes;
+    private long usedBytes;
+
+    /**
+     * Creates a cache with the default slab size
+     *
+     * @param capacityBytes the off heap capacity in bytes
+     * @param codec the codec encoding the entities
+     */
+    public OffHeapCache(long capacityBytes, @NotNull EntryCodec codec) {
+        this(capacityBytes, DEFAULT_SLAB_SIZE, codec);
+    }
+
+    /**
+     * Creates a cache
+     *
+     * @param capacityBytes the off heap capacity in bytes, rounded down to a multiple of the slab size
+     * @param slabSize the slab size in bytes, which is also the maximum size of an encoded entity
+     * @param codec the codec encoding the entities
+     */
+    public OffHeapCache(long capacityBytes, int slabSize, @NotNull EntryCodec codec) {
+        long slabCount = capacityBytes / slabSize;
+        if (slabCount < 1 || slabCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity must hold between 1 and " + Integer.MAX_VALUE + " slabs");
+        }
+        this.codec = codec;
+        this.allocator = new SlabAllocator(slabSize, (int) slabCount);
+        this.capacityBytes = slabCount * slabSize;
+        this.sketch = new FrequencySketch((int) Math.min(1 << 26, this.capacityBytes / EXPECTED_ENTRY_SIZE));
+        this.lru = new Entry[allocator.sizeClassCount()];
+        for (int i = 0; i < lru.length; i++) {
+            Entry sentinel = new Entry(null, 0, 0, i, 0);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            lru[i] = sentinel;
+        }
+    }
+
+    /**
+     * Sets the listener told about every hit and miss, called outside of the lock
+     *
+     * @param listener the listener
+     */
+    public void setEventListener(@NotNull DeskEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets how long entries are served after they were stored, so entities changed by other agents or
+     * integrations are fetched again
+     *
+     * @param maxAge the maximum age, 0 to keep entries until they are evicted or invalidated
+     * @param unit the unit of the maximum age
+     */
+    public void setMaxAge(long maxAge, @NotNull TimeUnit unit) {
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("Max age must not be negative");
+        }
+        this.maxAgeNanos = unit.toNanos(maxAge);
+    }
+
+    /**
+     * @return the maximum age of entries in milliseconds, 0 if entries do not expire
+     */
+    public long getMaxAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAgeNanos);
+    }
+
+    /**
+     * Returns the cached entity
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param <T> the entity type
+     * @return a newly decoded instance or null if not cached or older than the max age
+     */
+    @Nullable
+    public <T> T get(@NotNull Class<T> type, long id) {
+        Key key = new Key(type, id);
+        long maxAge = maxAgeNanos;
+        long now = maxAge > 0 ? nanoTime() : 0;
+        byte[] bytes;
+        synchronized (this) {
+            sketch.increment(key.hash);
+            Entry entry = index.get(key);
+            if (entry != null && maxAge > 0 && now - entry.storedAt > maxAge) {
+                index.remove(key);
+                release(entry);
+                expirationCount++;
+                entry = null;
+            }
+            if (entry == null) {
+                missCount++;
+                bytes = null;
+            } else {
+                unlink(entry);
+                linkFirst(entry);
+                bytes = allocator.read(entry.address, entry.length);
+                hitCount++;
+            }
+        }
+        if (bytes == null) {
+            listener.cacheMiss(type, id);
+            return null;
+        }
+        listener.cacheHit(type, id);
+        try {
+            return codec.decode(type, bytes);
+        } catch (IOException e) {
+            invalidate(type, id);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the invalidation generation of the key, to be passed to {@link #put(Class, long, Object, long)} when
+     * the value is stored after fetching it
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @return the current generation
+     */
+    public synchronized long generation(@NotNull Class<?> type, long id) {
+        return generations[new Key(type, id).stripe()];
+    }
+
+    /**
+     * Caches an entity, replacing any cached value for the same type and id
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param value the entity
+     * @param <T> the entity type
+     * @return true if the entity was stored, false if it was rejected by the admission policy or too large
+     */
+    public <T> boolean put(@NotNull Class<T> type, long id, @NotNull T value) {
+        return put(type, id, value, -1);
+    }
+
+    /**
+     * Caches an entity fetched after reading the {@link #generation(Class, long) generation} of its key, unless the
+     * key was invalidated since, in which case the entity may predate a change and is not stored
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param value the entity
+     * @param generation the generation read before the entity was fetched
+     * @param <T> the entity type
+     * @return true if the entity was stored, false if the key was invalidated or the entity was rejected by the
+     * admission policy or too large
+     */
+    public <T> boolean put(@NotNull Class<T> type, long id, @NotNull T value, long generation) {
+        byte[] bytes;
+        try {
+            bytes = codec.encode(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot encode " + type.getSimpleName() + " " + id, e);
+        }
+        Key key = new Key(type, id);
+        long storedAt = nanoTime();
+        synchronized (this) {
+            if (generation >= 0 && generations[key.stripe()] != generation) {
+                stalePutCount++;
+                return false;
+            }
+            sketch.increment(key.hash);
+            Entry existing = index.remove(key);
+            if (existing != null) {
+                release(existing);
+            }
+            int sizeClass = allocator.sizeClass(bytes.length);
+            if (sizeClass < 0) {
+                rejectionCount++;
+                return false;
+            }
+            long address = allocator.allocate(sizeClass);
+            if (address < 0) {
+                Entry victim = lru[sizeClass].previous;
+                if (takeUnusedSlab(sizeClass)) {
+                    // nothing had to be evicted
+                } else if (victim == lru[sizeClass]) {
+                    if (!rebalance(sizeClass, key)) {
+                        rejectionCount++;
+                        return false;
+                    }
+                } else if (sketch.frequency(key.hash) <= sketch.frequency(victim.key.hash)) {
+                    rejectionCount++;
+                    return false;
+                } else {
+                    index.remove(victim.key);
+                    release(victim);
+                    evictionCount++;
+                }
+                address = allocator.allocate(sizeClass);
+            }
+            allocator.write(address, bytes);
+            Entry entry = new Entry(key, address, bytes.length, sizeClass, storedAt);
+            index.put(key, entry);
+            linkFirst(entry);
+            storedBytes += bytes.length;
+            usedBytes += allocator.chunkSize(sizeClass);
+            putCount++;
+            return true;
+        }
+    }
+
+    /**
+     * @return true if an entity of the type and id is cached
+     */
+    public synchronized boolean contains(@NotNull Class<?> type, long id) {
+        return index.containsKey(new Key(type, id));
+    }
+
+    /**
+     * Removes the cached entity of the type and id if present and advances the generation of the key, so reads
+     * in flight do not store what they fetched
+     *
+     * @param type the entity type
+     * @param id the entity id
+     */
+    public synchronized void invalidate(@NotNull Class<?> type, long id) {
+        Key key = new Key(type, id);
+        generations[key.stripe()]++;
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            release(entry);
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * Removes all entries. Slabs stay allocated and are reused.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < generations.length; i++) {
+            generations[i]++;
+        }
+        for (Entry entry : index.values()) {
+            release(entry);
+        }
+        invalidationCount += index.size();
+        index.clear();
+    }
+
+    /**
+     * @return a snapshot of the cache metrics
+     */
+    public synchronized CacheMetrics getMetrics() {
+        return new CacheMetrics(hitCount, missCount, putCount, evictionCount, rejectionCount, invalidationCount,
+                expirationCount, stalePutCount, index.size(), storedBytes, usedBytes,
+                (long) allocator.getAllocatedSlabs() * allocator.getSlabSize(), capacityBytes);
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Moves a slab of another size class whose entries were all removed to the size class
+     *
+     * @return true if the size class got a slab
+     */
+    private boolean takeUnusedSlab(int sizeClass) {
+        for (int donor = 0; donor < lru.length; donor++) {
+            if (donor != sizeClass && lru[donor].previous == lru[donor] && allocator.slabCount(donor) > 0) {
+                allocator.reassign(allocator.lastSlab(donor), sizeClass);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves a slab to a size class without entries. The slab comes from the class with the most slabs, it is the
+     * one holding the least recently used entry of that class and its entries are evicted if the new key is used
+     * more often than that entry.
+     *
+     * @return true if the size class got a slab
+     */
+    private boolean rebalance(int sizeClass, Key key) {
+        int donor = allocator.donorClass(sizeClass);
+        if (donor < 0) {
+            return false;
+        }
+        Entry head = lru[donor];
+        if (sketch.frequency(key.hash) <= sketch.frequency(head.previous.key.hash)) {
+            return false;
+        }
+        int slab = SlabAllocator.slabIndex(head.previous.address);
+        for (Entry entry = head.next; entry != head; ) {
+            Entry next = entry.next;
+            if (SlabAllocator.slabIndex(entry.address) == slab) {
+                index.remove(entry.key);
+                release(entry);
+                evictionCount++;
+            }
+            entry = next;
+        }
+        allocator.reassign(slab, sizeClass);
+        return true;
+    }
+
+    private void release(Entry entry) {
+        unlink(entry);
+        allocator.free(entry.sizeClass, entry.address);
+        storedBytes -= entry.length;
+        usedBytes -= allocator.chunkSize(entry.sizeClass);
+    }
+
+    private void linkFirst(Entry entry) {
+        Entry head = lru[entry.sizeClass];
+        entry.previous = head;
+        entry.next = head.next;
+        head.next.previous = entry;
+        head.next = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private static final class Key {
+
+        final Class<?> type;
+        final long id;
+        final long hash;
+
+        Key(Class<?> type, long id) {
+            this.type = type;
+            this.id = id;
+            this.hash = type.getName().hashCode() * 0x9e3779b97f4a7c15L + id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return id == key.id && type == key.type;
+        }
+
+        int stripe() {
+            return (int) ((hash ^ (hash >>> 32)) & (GENERATION_STRIPES - 1));
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    private static final class Entry {
+
+        final Key key;
+        final long address;
+        final int length;
+        final int sizeClass;
+        final long storedAt;
+        Entry previous;
+        Entry next;
+
+        Entry(Key key, long address, int length, int sizeClass, long storedAt) {
+            this.key = key;
+            this.address = address;
+            this.length = length;
+            this.sizeClass = sizeClass;
+            this.storedAt = storedAt;
+        }
+    }
+}
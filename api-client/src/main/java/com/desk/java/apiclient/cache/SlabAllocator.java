@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     Allocates fixed size chunks out of direct {@link ByteBuffer} slabs. Chunk sizes grow geometrically from
+ *     {@link #MIN_CHUNK_SIZE} up to the slab size and every slab is dedicated to a single size class when it is first
+ *     needed, so freed chunks can always be reused by the next entry of the same class.
+ * </p>
+ *
+ * <p>
+ *     Once every slab is in use a size class without a free chunk can only get one by taking over a slab of another
+ *     class with {@link #reassign(int, int)}, after the owner of the slab freed all of its chunks.
+ * </p>
+ *
+ * <p>
+ *     Chunks are addressed by a long holding the slab index in the upper and the offset in the lower 32 bits. The
+ *     allocator is not thread safe, {@link OffHeapCache} serializes all access.
+ * </p>
+ */
+final class SlabAllocator {
+
+    static final int MIN_CHUNK_SIZE = 64;
+    static final double GROWTH_FACTOR = 1.25;
+
+    private final int slabSize;
+    private final ByteBuffer[] slabs;
+    private final int[] chunkSizes;
+    private final long[][] freeChunks;
+    private final int[] freeCounts;
+    /** The size class each allocated slab is dedicated to */
+    private final int[] slabClasses;
+    private final int[] slabCounts;
+    private int allocatedSlabs;
+
+    SlabAllocator(int slabSize, int slabCount) {
+        if (slabSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Slab size must be at least " + MIN_CHUNK_SIZE + " bytes");
+        }
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[slabCount];
+        this.chunkSizes = chunkSizes(slabSize);
+        this.freeChunks = new long[chunkSizes.length][];
+        this.freeCounts = new int[chunkSizes.length];
+        this.slabClasses = new int[slabCount];
+        this.slabCounts = new int[chunkSizes.length];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            freeChunks[i] = new long[0];
+        }
+    }
+
+    private static int[] chunkSizes(int slabSize) {
+        int[] sizes = new int[64];
+        int count = 0;
+        int size = MIN_CHUNK_SIZE;
+        while (size < slabSize) {
+            sizes[count++] = size;
+            size = (int) Math.min(slabSize, ((long) Math.ceil(size * GROWTH_FACTOR) + 7) & ~7L);
+        }
+        sizes[count++] = slabSize;
+        return Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * Returns the smallest size class that fits the length
+     *
+     * @param length the entry length in bytes
+     * @return the size class or -1 if the entry is larger than a slab
+     */
+    int sizeClass(int length) {
+        if (length > slabSize) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(chunkSizes, length);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    int sizeClassCount() {
+        return chunkSizes.length;
+    }
+
+    int chunkSize(int sizeClass) {
+        return chunkSizes[sizeClass];
+    }
+
+    /**
+     * Allocates a chunk of the size class, dedicating a new slab to the class if it has no free chunk left
+     *
+     * @param sizeClass the size class
+     * @return the chunk address or -1 if the class has no free chunk and all slabs are in use
+     */
+    long allocate(int sizeClass) {
+        if (freeCounts[sizeClass] == 0 && !grow(sizeClass)) {
+            return -1;
+        }
+        return freeChunks[sizeClass][--freeCounts[sizeClass]];
+    }
+
+    void free(int sizeClass, long address) {
+        long[] stack = freeChunks[sizeClass];
+        if (freeCounts[sizeClass] == stack.length) {
+            stack = freeChunks[sizeClass] = Arrays.copyOf(stack, Math.max(16, stack.length * 2));
+        }
+        stack[freeCounts[sizeClass]++] = address;
+    }
+
+    private boolean grow(int sizeClass) {
+        if (allocatedSlabs == slabs.length) {
+            return false;
+        }
+        int slab = allocatedSlabs++;
+        slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+        carve(slab, sizeClass);
+        return true;
+    }
+
+    private void carve(int slab, int sizeClass) {
+        slabClasses[slab] = sizeClass;
+        slabCounts[sizeClass]++;
+        int chunkSize = chunkSizes[sizeClass];
+        for (int offset = slabSize / chunkSize * chunkSize - chunkSize; offset >= 0; offset -= chunkSize) {
+            free(sizeClass, ((long) slab << 32) | offset);
+        }
+    }
+
+    int slabCount(int sizeClass) {
+        return slabCounts[sizeClass];
+    }
+
+    /**
+     * Returns the size class with the most slabs other than the excluded one, the one which can best spare a slab
+     *
+     * @param excluded the size class in need of a slab
+     * @return the size class or -1 if no other class has a slab
+     */
+    int donorClass(int excluded) {
+        int donor = -1;
+        for (int sizeClass = 0; sizeClass < slabCounts.length; sizeClass++) {
+            if (sizeClass != excluded && slabCounts[sizeClass] > 0
+                    && (donor < 0 || slabCounts[sizeClass] > slabCounts[donor])) {
+                donor = sizeClass;
+            }
+        }
+        return donor;
+    }
+
+    /**
+     * Returns the last allocated slab of the size class
+     *
+     * @return the slab or -1 if the class has none
+     */
+    int lastSlab(int sizeClass) {
+        for (int slab = allocatedSlabs - 1; slab >= 0; slab--) {
+            if (slabClasses[slab] == sizeClass) {
+                return slab;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Dedicates a slab to another size class. Every chunk of the slab must have been freed.
+     *
+     * @param slab the slab
+     * @param sizeClass the size class taking the slab over
+     * @throws IllegalStateException if a chunk of the slab is still allocated
+     */
+    void reassign(int slab, int sizeClass) {
+        int previous = slabClasses[slab];
+        long[] stack = freeChunks[previous];
+        int kept = 0;
+        for (int i = 0; i < freeCounts[previous]; i++) {
+            if (slabIndex(stack[i]) != slab) {
+                stack[kept++] = stack[i];
+            }
+        }
+        int chunks = slabSize / chunkSizes[previous];
+        if (freeCounts[previous] - kept != chunks) {
+            throw new IllegalStateException((chunks - freeCounts[previous] + kept) + " chunks of slab " + slab
+                    + " are in use");
+        }
+        freeCounts[previous] = kept;
+        slabCounts[previous]--;
+        carve(slab, sizeClass);
+    }
+
+    void write(long address, byte[] bytes) {
+        ByteBuffer slab = slab(address);
+        ((Buffer) slab).position(offset(address));
+        slab.put(bytes);
+    }
+
+    byte[] read(long address, int length) {
+        ByteBuffer slab = slab(address);
+        ((Buffer) slab).position(offset(address));
+        byte[] bytes = new byte[length];
+        slab.get(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs[slabIndex(address)];
+    }
+
+    /**
+     * @return the index of the slab holding the chunk
+     */
+    static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    int getAllocatedSlabs() {
+        return allocatedSlabs;
+    }
+
+    int getSlabSize() {
+        return slabSize;
+    }
+}
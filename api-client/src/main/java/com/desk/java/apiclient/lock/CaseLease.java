@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Date;
+
+/**
+ * <p>
+ *     A case lock held by a {@link CaseLockManager}, which renews it until it is released or lost.
+ * </p>
+ *
+ * <p>
+ *     A lease is lost when the server refuses a renewal or no renewal succeeds before the lock expires. Check
+ *     {@link #isHeld()} before acting on the case.
+ * </p>
+ */
+public final class CaseLease {
+
+    enum State {
+        HELD, RELEASED, LOST
+    }
+
+    private final CaseLockManager manager;
+    private final long caseId;
+
+    // guarded by the manager
+    long lockedUntilMillis;
+    State state = State.HELD;
+    TimerWheel.Timeout<CaseLease> timeout;
+    boolean renewing;
+
+    CaseLease(CaseLockManager manager, long caseId, long lockedUntilMillis) {
+        this.manager = manager;
+        this.caseId = caseId;
+        this.lockedUntilMillis = lockedUntilMillis;
+    }
+
+    public long getCaseId() {
+        return caseId;
+    }
+
+    /**
+     * Gets when the lock currently expires unless renewed
+     *
+     * @return the expiry or null if the lease is no longer held
+     */
+    @Nullable
+    public Date getLockedUntil() {
+        synchronized (manager) {
+            return state == State.HELD ? new Date(lockedUntilMillis) : null;
+        }
+    }
+
+    /**
+     * Whether the lock is still held by this lease
+     *
+     * @return true until the lease is released or lost
+     */
+    public boolean isHeld() {
+        synchronized (manager) {
+            return state == State.HELD && manager.currentTimeMillis() < lockedUntilMillis;
+        }
+    }
+
+    /**
+     * Stops renewing the lock and unlocks the case in the background. Does nothing if the lease is no longer
+     * held.
+     */
+    public void release() {
+        manager.release(this);
+    }
+
+    @Override
+    public String toString() {
+        return "CaseLease{caseId=" + caseId + '}';
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Holds case locks on behalf of a user and keeps them alive until they are released. All leases share one
+ *     hashed timer wheel ticking on a single thread, so holding thousands of locks costs one timer rather than one
+ *     per lock, and the leases falling due in a tick are renewed together.
+ * </p>
+ *
+ * <p>
+ *     A lease is renewed between one and one and a half renewal margins before its lock expires, the exact point
+ *     picked at random so that leases acquired together do not all renew in the same tick. A renewal failing for
+ *     network or server errors is retried while the lock lasts; a renewal the server refuses, or one that never
+ *     succeeds before the lock expires, loses the lease.
+ * </p>
+ *
+ * <p>
+ *     Closing the manager unlocks every held case and waits a bounded time for the unlocks to complete. Instances
+ *     are thread safe.
+ * </p>
+ */
+public class CaseLockManager implements Closeable {
+
+    public static final long DEFAULT_LEASE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_RENEW_BEFORE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    static final long TICK_MILLIS = 100;
+    /** One turn of the wheel covers 51.2 seconds, longer leases wait out extra turns */
+    static final int SLOT_COUNT = 512;
+    static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "desk-case-lock-timer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final CaseService cases;
+    private final Link userLink;
+    private final long leaseMillis;
+    private final long renewBeforeMillis;
+    private final ScheduledExecutorService timer;
+
+    // guarded by this
+    private final TimerWheel<CaseLease> wheel;
+    private final Map<Long, CaseLease> leases = new HashMap<>();
+    private int pendingUnlocks;
+    private boolean closed;
+    private long renewalCount;
+    private long renewalFailureCount;
+    private long missCount;
+    private long lostCount;
+    private long unlockFailureCount;
+    private long totalRenewalLatencyNanos;
+    private long maxRenewalLatencyNanos;
+
+    /**
+     * Creates a manager with the default lease duration and renewal margin
+     *
+     * @param cases the case service
+     * @param userLink the link of the user holding the locks
+     */
+    public CaseLockManager(CaseService cases, Link userLink) {
+        this(cases, userLink, DEFAULT_LEASE_MILLIS, DEFAULT_RENEW_BEFORE_MILLIS);
+    }
+
+    /**
+     * Creates a manager
+     *
+     * @param cases the case service
+     * @param userLink the link of the user holding the locks
+     * @param leaseMillis how long each lock or renewal locks the case for
+     * @param renewBeforeMillis how long before a lock expires it is renewed at the latest, less than the lease
+     */
+    public CaseLockManager(CaseService cases, Link userLink, long leaseMillis, long renewBeforeMillis) {
+        this(cases, userLink, leaseMillis, renewBeforeMillis,
+                Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY));
+        timer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    tick(currentTimeMillis());
+                } catch (RuntimeException e) {
+                    // a failing tick must not cancel the timer and with it every renewal
+                }
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a manager which ticks only when {@link #tick(long)} is called unless a timer is given
+     */
+    CaseLockManager(CaseService cases, Link userLink, long leaseMillis, long renewBeforeMillis,
+                    @Nullable ScheduledExecutorService timer) {
+        if (renewBeforeMillis <= 0 || renewBeforeMillis >= leaseMillis) {
+            throw new IllegalArgumentException("renewBeforeMillis must be positive and less than leaseMillis "
+                    + leaseMillis + " but was " + renewBeforeMillis);
+        }
+        this.cases = cases;
+        this.userLink = userLink;
+        this.leaseMillis = leaseMillis;
+        this.renewBeforeMillis = renewBeforeMillis;
+        this.timer = timer;
+        this.wheel = new TimerWheel<>(TICK_MILLIS, SLOT_COUNT, currentTimeMillis());
+    }
+
+    /**
+     * Locks the case and keeps it locked until the lease is released. A case is leased once per manager, so
+     * acquiring a case already held returns its lease without a request.
+     *
+     * @param caseId the case id
+     * @return the lease
+     * @throws IOException if the lock request fails or the case is locked by another user
+     * @throws IllegalStateException if the manager is closed
+     */
+    @NotNull
+    public CaseLease acquire(long caseId) throws IOException {
+        synchronized (this) {
+            checkOpen();
+            CaseLease held = leases.get(caseId);
+            if (held != null) {
+                return held;
+            }
+        }
+        long until = currentTimeMillis() + leaseMillis;
+        Response<Case> response = cases.updateCaseLock(caseId, lock(until)).execute();
+        if (!response.isSuccessful()) {
+            throw new IOException("Locking case " + caseId + " failed with HTTP " + response.code());
+        }
+        String lockedBy = lockedByOther(response.body());
+        if (lockedBy != null) {
+            throw new IOException("Case " + caseId + " is locked by " + lockedBy);
+        }
+        long lockedUntil = lockedUntil(response.body(), until);
+        synchronized (this) {
+            if (closed) {
+                pendingUnlocks++;
+            } else {
+                CaseLease held = leases.get(caseId);
+                if (held != null) {
+                    // acquired concurrently, both requests locked the case for this user
+                    held.lockedUntilMillis = Math.max(held.lockedUntilMillis, lockedUntil);
+                    return held;
+                }
+                CaseLease lease = new CaseLease(this, caseId, lockedUntil);
+                leases.put(caseId, lease);
+                schedule(lease);
+                return lease;
+            }
+        }
+        sendUnlock(caseId);
+        throw new IllegalStateException("The case lock manager was closed while locking case " + caseId);
+    }
+
+    /**
+     * Gets the lease of the case
+     *
+     * @param caseId the case id
+     * @return the lease or null if the case is not held
+     */
+    @Nullable
+    public synchronized CaseLease getLease(long caseId) {
+        return leases.get(caseId);
+    }
+
+    /**
+     * Gets a snapshot of the lease and renewal counters
+     *
+     * @return the metrics
+     */
+    @NotNull
+    public synchronized LeaseMetrics getMetrics() {
+        return new LeaseMetrics(leases.size(), renewalCount, renewalFailureCount, missCount, lostCount,
+                unlockFailureCount, totalRenewalLatencyNanos, maxRenewalLatencyNanos);
+    }
+
+    /**
+     * Stops renewing, unlocks every held case and waits up to ten seconds for the unlocks to complete. Locks whose
+     * unlock does not complete expire on their own.
+     */
+    @Override
+    public void close() {
+        List<CaseLease> held;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            held = new ArrayList<>(leases.values());
+        }
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        for (CaseLease lease : held) {
+            release(lease);
+        }
+        synchronized (this) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+            long remaining;
+            while (pendingUnlocks > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Renews the leases which fell due
+     *
+     * @param nowMillis the current time
+     */
+    void tick(long nowMillis) {
+        List<CaseLease> due;
+        synchronized (this) {
+            due = wheel.advance(nowMillis);
+            for (CaseLease lease : due) {
+                lease.timeout = null;
+                lease.renewing = true;
+            }
+        }
+        for (CaseLease lease : due) {
+            renew(lease, nowMillis);
+        }
+    }
+
+    /**
+     * The clock of the leases, the same wall clock as the lock expiry the server compares against
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    void release(CaseLease lease) {
+        synchronized (this) {
+            if (lease.state != CaseLease.State.HELD) {
+                return;
+            }
+            lease.state = CaseLease.State.RELEASED;
+            forget(lease);
+            pendingUnlocks++;
+            if (lease.renewing) {
+                // unlocked once the renewal completes so that it cannot lock the case again
+                return;
+            }
+        }
+        sendUnlock(lease.getCaseId());
+    }
+
+    private void renew(final CaseLease lease, long nowMillis) {
+        final long until = nowMillis + leaseMillis;
+        final long started = System.nanoTime();
+        Call<Case> call;
+        try {
+            call = cases.updateCaseLock(lease.getCaseId(), lock(until));
+        } catch (RuntimeException e) {
+            renewalFailed(lease, false);
+            return;
+        }
+        call.enqueue(new Callback<Case>() {
+            @Override
+            public void onResponse(Call<Case> call, Response<Case> response) {
+                if (response.isSuccessful() && lockedByOther(response.body()) == null) {
+                    renewed(lease, System.nanoTime() - started, lockedUntil(response.body(), until));
+                } else {
+                    int code = response.code();
+                    renewalFailed(lease, code == HTTP_TOO_MANY_REQUESTS || code >= HTTP_SERVER_ERROR);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Case> call, Throwable t) {
+                renewalFailed(lease, true);
+            }
+        });
+    }
+
+    private void renewed(CaseLease lease, long latencyNanos, long lockedUntil) {
+        synchronized (this) {
+            renewalCount++;
+            totalRenewalLatencyNanos += latencyNanos;
+            maxRenewalLatencyNanos = Math.max(maxRenewalLatencyNanos, latencyNanos);
+            lease.renewing = false;
+            if (currentTimeMillis() >= lease.lockedUntilMillis) {
+                // the lock lapsed before the renewal landed, another user may have taken the case meanwhile
+                missCount++;
+            }
+            if (lease.state == CaseLease.State.HELD) {
+                lease.lockedUntilMillis = lockedUntil;
+                schedule(lease);
+                return;
+            }
+        }
+        sendUnlock(lease.getCaseId());
+    }
+
+    private void renewalFailed(CaseLease lease, boolean retryable) {
+        synchronized (this) {
+            renewalFailureCount++;
+            lease.renewing = false;
+            if (lease.state == CaseLease.State.HELD) {
+                long now = currentTimeMillis();
+                long remaining = lease.lockedUntilMillis - now;
+                if (retryable && !closed && remaining > TICK_MILLIS) {
+                    long delay = Math.max(TICK_MILLIS, Math.min(MAX_RETRY_DELAY_MILLIS, remaining / 4));
+                    lease.timeout = wheel.schedule(lease, now + delay);
+                    return;
+                }
+                if (retryable) {
+                    missCount++;
+                }
+                lease.state = CaseLease.State.LOST;
+                lostCount++;
+                forget(lease);
+                return;
+            }
+        }
+        sendUnlock(lease.getCaseId());
+    }
+
+    /**
+     * Schedules the renewal of the lease at a random point between one and one and a half margins before expiry
+     */
+    private void schedule(CaseLease lease) {
+        long jitter = ThreadLocalRandom.current().nextLong(renewBeforeMillis / 2 + 1);
+        lease.timeout = wheel.schedule(lease, lease.lockedUntilMillis - renewBeforeMillis - jitter);
+    }
+
+    private void forget(CaseLease lease) {
+        if (leases.get(lease.getCaseId()) == lease) {
+            leases.remove(lease.getCaseId());
+        }
+        if (lease.timeout != null) {
+            wheel.cancel(lease.timeout);
+            lease.timeout = null;
+        }
+    }
+
+    private void sendUnlock(long caseId) {
+        Call<Case> call;
+        try {
+            call = cases.updateCaseLock(caseId, CaseLock.unlock());
+        } catch (RuntimeException e) {
+            unlocked(false);
+            return;
+        }
+        call.enqueue(new Callback<Case>() {
+            @Override
+            public void onResponse(Call<Case> call, Response<Case> response) {
+                unlocked(response.isSuccessful());
+            }
+
+            @Override
+            public void onFailure(Call<Case> call, Throwable t) {
+                unlocked(false);
+            }
+        });
+    }
+
+    private synchronized void unlocked(boolean successful) {
+        if (!successful) {
+            unlockFailureCount++;
+        }
+        pendingUnlocks--;
+        notifyAll();
+    }
+
+    private CaseLock lock(long untilMillis) {
+        return CaseLock.lock(new Date(untilMillis), userLink);
+    }
+
+    /**
+     * Gets the user holding the lock on the case if it is not the user of this manager
+     */
+    @Nullable
+    private String lockedByOther(@Nullable Case lockedCase) {
+        if (lockedCase == null || userLink == null) {
+            return null;
+        }
+        String lockedBy = lockedCase.getLockedByLinkUrl();
+        String user = userLink.getUrl();
+        if (lockedBy == null || lockedBy.isEmpty() || user == null || user.isEmpty() || lockedBy.equals(user)) {
+            return null;
+        }
+        return lockedBy;
+    }
+
+    private static long lockedUntil(@Nullable Case lockedCase, long requestedMillis) {
+        Date lockedUntil = lockedCase != null ? lockedCase.getLockedUntil() : null;
+        return lockedUntil != null ? lockedUntil.getTime() : requestedMillis;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The case lock manager is closed");
+        }
+    }
+}
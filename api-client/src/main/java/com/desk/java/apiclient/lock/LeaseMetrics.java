@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import java.util.Locale;
+
+/**
+ * Point in time snapshot of the leases and renewals of a {@link CaseLockManager}
+ */
+public final class LeaseMetrics {
+
+    private final int heldCount;
+    private final long renewalCount;
+    private final long renewalFailureCount;
+    private final long missCount;
+    private final long lostCount;
+    private final long unlockFailureCount;
+    private final long totalRenewalLatencyNanos;
+    private final long maxRenewalLatencyNanos;
+
+    LeaseMetrics(int heldCount, long renewalCount, long renewalFailureCount, long missCount, long lostCount,
+                 long unlockFailureCount, long totalRenewalLatencyNanos, long maxRenewalLatencyNanos) {
+        this.heldCount = heldCount;
+        this.renewalCount = renewalCount;
+        this.renewalFailureCount = renewalFailureCount;
+        this.missCount = missCount;
+        this.lostCount = lostCount;
+        this.unlockFailureCount = unlockFailureCount;
+        this.totalRenewalLatencyNanos = totalRenewalLatencyNanos;
+        this.maxRenewalLatencyNanos = maxRenewalLatencyNanos;
+    }
+
+    /**
+     * @return the number of leases currently held
+     */
+    public int getHeldCount() {
+        return heldCount;
+    }
+
+    /**
+     * @return the number of successful renewals
+     */
+    public long getRenewalCount() {
+        return renewalCount;
+    }
+
+    /**
+     * @return the number of renewal attempts which failed, including those retried
+     */
+    public long getRenewalFailureCount() {
+        return renewalFailureCount;
+    }
+
+    /**
+     * @return the number of times a lock expired before its renewal succeeded, whether or not the lease survived
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of leases lost to refused or missed renewals
+     */
+    public long getLostCount() {
+        return lostCount;
+    }
+
+    /**
+     * @return the number of releases whose unlock request failed, leaving the lock to expire
+     */
+    public long getUnlockFailureCount() {
+        return unlockFailureCount;
+    }
+
+    /**
+     * @return the mean latency of successful renewals in milliseconds, 0 if there were none
+     */
+    public double getMeanRenewalLatencyMillis() {
+        return renewalCount == 0 ? 0 : totalRenewalLatencyNanos / 1e6 / renewalCount;
+    }
+
+    /**
+     * @return the highest latency of a successful renewal in milliseconds
+     */
+    public double getMaxRenewalLatencyMillis() {
+        return maxRenewalLatencyNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "LeaseMetrics{held=%d, renewals=%d, renewalFailures=%d, misses=%d, "
+                        + "lost=%d, unlockFailures=%d, meanRenewalLatency=%.1fms, maxRenewalLatency=%.1fms}",
+                heldCount, renewalCount, renewalFailureCount, missCount, lostCount, unlockFailureCount,
+                getMeanRenewalLatencyMillis(), getMaxRenewalLatencyMillis());
+    }
+}
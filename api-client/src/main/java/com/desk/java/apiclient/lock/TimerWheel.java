@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *     Hashed timer wheel: timeouts are kept in a ring of slots by deadline, so scheduling, cancelling and advancing
+ *     by one tick cost O(1) regardless of how many timeouts are pending. Deadlines further away than one turn of
+ *     the wheel wait out the extra turns in their slot. Timeouts fire on the first tick at or after their deadline.
+ * </p>
+ *
+ * <p>
+ *     Not thread safe.
+ * </p>
+ *
+ * @param <T> the type of the scheduled items
+ */
+final class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final Timeout<T>[] slots;
+    private final int mask;
+    /** The last tick processed */
+    private long tick;
+    private int size;
+
+    /**
+     * Creates a wheel
+     *
+     * @param tickMillis the resolution of the wheel
+     * @param slotCount the number of slots, rounded up to a power of two
+     * @param nowMillis the current time
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive but was " + tickMillis);
+        }
+        if (slotCount <= 0 || slotCount > 1 << 30) {
+            throw new IllegalArgumentException("slotCount must be between 1 and 2^30 but was " + slotCount);
+        }
+        int capacity = Integer.highestOneBit(slotCount);
+        if (capacity < slotCount) {
+            capacity <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new Timeout[capacity];
+        this.mask = capacity - 1;
+        this.tick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the item
+     *
+     * @param item the item
+     * @param deadlineMillis when the item is due, a deadline in the past fires on the next tick
+     * @return the handle to cancel the timeout with
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), tick + 1);
+        Timeout<T> timeout = new Timeout<>(item, deadlineMillis);
+        timeout.rounds = (deadlineTick - tick - 1) / slots.length;
+        timeout.slot = (int) (deadlineTick & mask);
+        Timeout<T> head = slots[timeout.slot];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[timeout.slot] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels the timeout if it is still pending
+     *
+     * @param timeout the timeout
+     * @return true if it was pending
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time
+     *
+     * @param nowMillis the current time
+     * @return the items which became due, in no particular order
+     */
+    List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        while (tick < target && size > 0) {
+            tick++;
+            Timeout<T> timeout = slots[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    unlink(timeout);
+                    expired.add(timeout.item);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+        // nothing is pending so the idle ticks need not be walked
+        tick = Math.max(tick, target);
+        return expired;
+    }
+
+    /**
+     * @return the number of pending timeouts
+     */
+    int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        size--;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        return quotient * divisor < dividend ? quotient + 1 : quotient;
+    }
+
+    /**
+     * A pending item in the wheel
+     *
+     * @param <T> the type of the item
+     */
+    static final class Timeout<T> {
+        final T item;
+        final long deadlineMillis;
+        long rounds;
+        int slot = -1;
+        Timeout<T> prev;
+        Timeout<T> next;
+
+        Timeout(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Point in time snapshot of the calls of an endpoint, or of all endpoints of a service
+ */
+public final class CallMetrics {
+
+    private final long callCount;
+    private final long failureCount;
+    private final long retryCount;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final Map<Integer, Long> statusCounts;
+    private final LatencySnapshot latency;
+
+    CallMetrics(long callCount, long failureCount, long retryCount, long requestBytes, long responseBytes,
+                Map<Integer, Long> statusCounts, LatencySnapshot latency) {
+        this.callCount = callCount;
+        this.failureCount = failureCount;
+        this.retryCount = retryCount;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+        this.latency = latency;
+    }
+
+    /**
+     * @return the number of calls that received a response or failed
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return the number of calls that failed without a response, such as on a timeout or when canceled
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return the number of calls which were a clone executed after an attempt of the same call failed
+     */
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * @return the size of the request bodies with a known length
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return the size of the response bodies with a known length, as sent over the wire
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return the number of responses per HTTP status code in ascending order of the codes
+     */
+    @NotNull
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    /**
+     * @return the number of responses with a status of 400 or above
+     */
+    public long getErrorStatusCount() {
+        long errors = 0;
+        for (Map.Entry<Integer, Long> entry : statusCounts.entrySet()) {
+            if (entry.getKey() >= 400) {
+                errors += entry.getValue();
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @return the latency of all calls including failed ones
+     */
+    @NotNull
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+
+    CallMetrics merge(CallMetrics other) {
+        Map<Integer, Long> statuses = new TreeMap<>(statusCounts);
+        for (Map.Entry<Integer, Long> entry : other.statusCounts.entrySet()) {
+            Long current = statuses.get(entry.getKey());
+            statuses.put(entry.getKey(), current == null ? entry.getValue() : current + entry.getValue());
+        }
+        return new CallMetrics(callCount + other.callCount, failureCount + other.failureCount,
+                retryCount + other.retryCount, requestBytes + other.requestBytes, responseBytes + other.responseBytes,
+                statuses, latency.merge(other.latency));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "CallMetrics{calls=%d, failures=%d, retries=%d, statuses=%s, "
+                        + "requestBytes=%d, responseBytes=%d, latency=%s}",
+                callCount, failureCount, retryCount, statusCounts, requestBytes, responseBytes, latency);
+    }
+}
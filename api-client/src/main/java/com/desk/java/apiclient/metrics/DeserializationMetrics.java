@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Point in time snapshot of the response bodies converted into one type, such as {@code ApiResponse<Case>}
+ */
+public final class DeserializationMetrics {
+
+    private final long count;
+    private final long failureCount;
+    private final long bytes;
+    private final long entryCount;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final LatencySnapshot latency;
+
+    DeserializationMetrics(long count, long failureCount, long bytes, long entryCount, long cpuNanos,
+                           long allocatedBytes, LatencySnapshot latency) {
+        this.count = count;
+        this.failureCount = failureCount;
+        this.bytes = bytes;
+        this.entryCount = entryCount;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.latency = latency;
+    }
+
+    /**
+     * @return the number of bodies converted, including failed conversions
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of bodies that could not be converted
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return the bytes read by the converter, after decompression
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the entities produced, the entries of a page or the elements of a list or 1 for a single entity
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the CPU time of the converting threads, 0 if the JVM does not measure thread CPU time
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return the bytes allocated by the converting threads, 0 if the JVM does not measure thread allocation
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the wall clock time of the conversions, including waiting for the rest of the body to arrive
+     */
+    @NotNull
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the bytes allocated per byte read, which is high for bodies of many small objects
+     */
+    public double getAllocatedBytesPerByte() {
+        return bytes == 0 ? 0 : (double) allocatedBytes / bytes;
+    }
+
+    /**
+     * @return the CPU nanoseconds spent per byte read
+     */
+    public double getCpuNanosPerByte() {
+        return bytes == 0 ? 0 : (double) cpuNanos / bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "DeserializationMetrics{count=%d, failures=%d, bytes=%d, entries=%d, "
+                        + "cpu=%dus, allocated=%d, allocatedPerByte=%.1f, latency=%s}",
+                count, failureCount, bytes, entryCount, cpuNanos / 1000, allocatedBytes,
+                getAllocatedBytesPerByte(), latency);
+    }
+}
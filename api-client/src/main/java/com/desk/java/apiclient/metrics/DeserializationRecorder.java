@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the response bodies converted into one type, updated with atomic increments only
+ */
+final class DeserializationRecorder {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    void record(long elapsedNanos, long bytesRead, int entries, long cpu, long allocated, boolean failed) {
+        count.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        bytes.addAndGet(bytesRead);
+        entryCount.addAndGet(entries);
+        if (cpu > 0) {
+            cpuNanos.addAndGet(cpu);
+        }
+        if (allocated > 0) {
+            allocatedBytes.addAndGet(allocated);
+        }
+    }
+
+    DeserializationMetrics snapshot() {
+        return new DeserializationMetrics(count.get(), failureCount.get(), bytes.get(), entryCount.get(),
+                cpuNanos.get(), allocatedBytes.get(), latency.snapshot());
+    }
+}
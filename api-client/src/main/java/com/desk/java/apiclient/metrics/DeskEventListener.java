@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import com.desk.java.apiclient.DeskClient;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+
+/**
+ * <p>
+ *     Receives the activity of a {@link DeskClient}: API calls, response deserialization, rate limit waits and off
+ *     heap cache lookups. Install a factory with {@link com.desk.java.apiclient.DeskClientBuilder#eventListener} to
+ *     feed the activity into a profiler or tracer, such as the JFR events of the jfr-api-client module.
+ * </p>
+ *
+ * <p>
+ *     Calls and deserializations are reported as a start and an end. Whatever the start method returns is handed
+ *     to the matching end method, which may run on another thread, so a listener can carry its own state without
+ *     thread locals. Return null when the activity is of no interest, for example while no recording is running,
+ *     and the client skips the extra bookkeeping such as counting the bytes of the body.
+ * </p>
+ *
+ * <p>
+ *     All methods do nothing by default. They are called on the threads doing the work and must be cheap and must
+ *     not throw.
+ * </p>
+ */
+public abstract class DeskEventListener {
+
+    /** The listener of clients without one, which ignores everything */
+    public static final DeskEventListener NONE = new DeskEventListener() {
+    };
+
+    /**
+     * Creates the listener of a client, which can read the client's hostname to tell tenants apart
+     */
+    public interface Factory {
+        @NotNull
+        DeskEventListener create(@NotNull DeskClient client);
+    }
+
+    /**
+     * Called before a call of the endpoint is executed or enqueued
+     *
+     * @param endpoint the endpoint called
+     * @return the state handed to the end of the call, or null
+     */
+    @Nullable
+    public Object callStart(@NotNull Endpoint endpoint) {
+        return null;
+    }
+
+    /**
+     * Called when the response of the call was received, whatever its status
+     *
+     * @param call the state returned by {@link #callStart(Endpoint)}
+     * @param endpoint the endpoint called
+     * @param status the HTTP status code
+     * @param requestBytes the size of the request body, 0 if unknown
+     * @param responseBytes the size of the response body as sent over the wire, 0 if unknown
+     * @param retry whether the call was a clone executed after an attempt of the same call failed
+     */
+    public void callEnd(@Nullable Object call, @NotNull Endpoint endpoint, int status, long requestBytes,
+                        long responseBytes, boolean retry) {
+    }
+
+    /**
+     * Called when the call failed without a response
+     *
+     * @param call the state returned by {@link #callStart(Endpoint)}
+     * @param endpoint the endpoint called
+     * @param error the failure
+     * @param retry whether the call was a clone executed after an attempt of the same call failed
+     */
+    public void callFailed(@Nullable Object call, @NotNull Endpoint endpoint, @NotNull Throwable error,
+                           boolean retry) {
+    }
+
+    /**
+     * Called before a response body is converted into the given type
+     *
+     * @param type the type converted into
+     * @return the state handed to {@link #deserializeEnd(Object, Type, long)}, or null to skip counting the bytes
+     */
+    @Nullable
+    public Object deserializeStart(@NotNull Type type) {
+        return null;
+    }
+
+    /**
+     * Called after the response body was converted, or failed to
+     *
+     * @param deserialization the state returned by {@link #deserializeStart(Type)}
+     * @param type the type converted into
+     * @param bytes the number of bytes read from the body
+     */
+    public void deserializeEnd(@Nullable Object deserialization, @NotNull Type type, long bytes) {
+    }
+
+    /**
+     * Called when a request is delayed to stay within a rate budget
+     *
+     * @param waitNanos the delay in nanoseconds
+     */
+    public void rateLimitWait(long waitNanos) {
+    }
+
+    /**
+     * Called when the off heap cache held the entity
+     *
+     * @param type the entity type
+     * @param id the entity id
+     */
+    public void cacheHit(@NotNull Class<?> type, long id) {
+    }
+
+    /**
+     * Called when the off heap cache did not hold the entity
+     *
+     * @param type the entity type
+     * @param id the entity id
+     */
+    public void cacheMiss(@NotNull Class<?> type, long id) {
+    }
+}
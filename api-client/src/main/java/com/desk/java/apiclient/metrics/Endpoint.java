@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A service method as declared by its Retrofit annotation, such as {@code GET cases/{id}/feed} of
+ * {@code CaseService}. Metrics are kept per endpoint so calls for different ids share one template.
+ */
+public final class Endpoint {
+
+    private final Class<?> service;
+    private final String httpMethod;
+    private final String template;
+
+    Endpoint(@Nullable Class<?> service, @NotNull String httpMethod, @NotNull String template) {
+        this.service = service;
+        this.httpMethod = httpMethod;
+        this.template = template;
+    }
+
+    /**
+     * @return the service interface declaring the method, or null if it was created outside of the client
+     */
+    @Nullable
+    public Class<?> getService() {
+        return service;
+    }
+
+    /**
+     * @return the simple name of the service interface or {@code unknown}
+     */
+    @NotNull
+    public String getServiceName() {
+        return service != null ? service.getSimpleName() : "unknown";
+    }
+
+    @NotNull
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * @return the relative URL template, such as {@code cases/{id}/feed}
+     */
+    @NotNull
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Endpoint endpoint = (Endpoint) o;
+        return service == endpoint.service && httpMethod.equals(endpoint.httpMethod)
+                && template.equals(endpoint.template);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = service != null ? service.hashCode() : 0;
+        result = 31 * result + httpMethod.hashCode();
+        return 31 * result + template.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getServiceName() + " " + httpMethod + " " + template;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import retrofit2.CallAdapter;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.HTTP;
+import retrofit2.http.OPTIONS;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * <p>
+ *     Latency, status code, byte and retry metrics per endpoint template, such as {@code GET cases/{id}/feed}, and
+ *     per service interface. Install it with {@link com.desk.java.apiclient.DeskClientBuilder#metrics}.
+ * </p>
+ *
+ * <p>
+ *     The template is read from the Retrofit annotation of the service method when Retrofit first creates the
+ *     call adapter of the method, so every call of a method records straight into the counters of its endpoint
+ *     without looking anything up. A call costs two {@link System#nanoTime()} reads and a handful of atomic
+ *     increments. Calls of every adapter are recorded, including RxJava and asynchronous ones.
+ * </p>
+ *
+ * <p>
+ *     Calls answered without a request, such as from the off heap cache, are not recorded.
+ * </p>
+ *
+ * <p>
+ *     Created with {@code recordDeserialization}, the metrics also record the cost of converting response bodies
+ *     per response type, see {@link #getDeserializationMetrics()}.
+ * </p>
+ */
+public class EndpointMetrics {
+
+    private static final Class<?> AMBIGUOUS = Void.class;
+
+    private final ConcurrentMap<Endpoint, EndpointRecorder> recorders = new ConcurrentHashMap<>();
+    /**
+     * The service declaring each HTTP annotation instance. Since Java 8 the copies of a method share the
+     * annotation instances of the method they were copied from, so the annotations Retrofit hands to a call adapter
+     * factory identify the method even when another service declares one with the same annotation and return type.
+     */
+    private final Map<Annotation, Class<?>> declaringServices =
+            Collections.synchronizedMap(new IdentityHashMap<Annotation, Class<?>>());
+    /**
+     * The service declaring each method, keyed by its HTTP annotation and return type, for runtimes which parse
+     * the annotations of every copy of a method again. Methods of different services with the same key map to
+     * {@link #AMBIGUOUS}.
+     */
+    private final ConcurrentMap<MethodKey, Class<?>> services = new ConcurrentHashMap<>();
+    private final CallAdapter.Factory callAdapterFactory = new MetricsCallAdapterFactory(this, null);
+    private final ConcurrentMap<String, DeserializationRecorder> deserializations = new ConcurrentHashMap<>();
+    private final boolean recordDeserialization;
+
+    /**
+     * Creates metrics recording the calls only
+     */
+    public EndpointMetrics() {
+        this(false);
+    }
+
+    /**
+     * Creates metrics recording the calls and optionally the conversion of their response bodies
+     *
+     * @param recordDeserialization whether to record the bytes, time, CPU time, allocation and entities of every
+     *                              response body conversion
+     */
+    public EndpointMetrics(boolean recordDeserialization) {
+        this.recordDeserialization = recordDeserialization;
+    }
+
+    /**
+     * @return whether the client should record the conversion of response bodies with a
+     * {@link MetricsConverterFactory}
+     */
+    public boolean isRecordingDeserialization() {
+        return recordDeserialization;
+    }
+
+    /**
+     * Gets the call adapter factory recording the calls, which has to be added before any other factory
+     *
+     * @return the call adapter factory
+     */
+    @NotNull
+    public CallAdapter.Factory getCallAdapterFactory() {
+        return callAdapterFactory;
+    }
+
+    /**
+     * Registers the methods of a service interface so their endpoints are attributed to it. The client does this
+     * for every service it creates.
+     *
+     * @param service the Retrofit service interface
+     */
+    public void register(@NotNull Class<?> service) {
+        // proxies invoke the public method copies while eager validation parses the declared ones, and each set
+        // carries its own annotation instances
+        register(service, service.getMethods());
+        register(service, service.getDeclaredMethods());
+    }
+
+    private void register(Class<?> service, Method[] methods) {
+        for (Method method : methods) {
+            for (Annotation annotation : method.getAnnotations()) {
+                if (httpMethod(annotation) != null) {
+                    declaringServices.put(annotation, service);
+                    MethodKey key = new MethodKey(annotation, method.getGenericReturnType());
+                    Class<?> existing = services.putIfAbsent(key, service);
+                    if (existing != null && existing != service) {
+                        services.put(key, AMBIGUOUS);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the metrics of every endpoint called so far
+     *
+     * @return the metrics per endpoint
+     */
+    @NotNull
+    public Map<Endpoint, CallMetrics> getEndpointMetrics() {
+        Map<Endpoint, CallMetrics> metrics = new LinkedHashMap<>();
+        for (Map.Entry<Endpoint, EndpointRecorder> entry : recorders.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the metrics of all endpoints of each service interface
+     *
+     * @return the metrics per simple service interface name
+     */
+    @NotNull
+    public Map<String, CallMetrics> getServiceMetrics() {
+        Map<String, CallMetrics> metrics = new TreeMap<>();
+        for (Map.Entry<Endpoint, CallMetrics> entry : getEndpointMetrics().entrySet()) {
+            String service = entry.getKey().getServiceName();
+            CallMetrics current = metrics.get(service);
+            metrics.put(service, current == null ? entry.getValue() : current.merge(entry.getValue()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the conversion cost of every response type converted so far
+     *
+     * @return the metrics per response type name, such as {@code ApiResponse<Case>}, in name order
+     */
+    @NotNull
+    public Map<String, DeserializationMetrics> getDeserializationMetrics() {
+        Map<String, DeserializationMetrics> metrics = new TreeMap<>();
+        for (Map.Entry<String, DeserializationRecorder> entry : deserializations.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return metrics;
+    }
+
+    /**
+     * Passes a snapshot of every endpoint to the exporter
+     *
+     * @param exporter the exporter
+     */
+    public void export(@NotNull MetricsExporter exporter) {
+        exporter.export(getEndpointMetrics());
+    }
+
+    /**
+     * Creates the call adapter factory reporting the calls to the metrics, the listener or both, which has to be
+     * added before any other factory
+     *
+     * @param metrics the metrics to record into or null
+     * @param listener the listener to report to or null
+     * @return the call adapter factory
+     */
+    @NotNull
+    public static CallAdapter.Factory callAdapterFactory(@Nullable EndpointMetrics metrics,
+                                                         @Nullable DeskEventListener listener) {
+        if (metrics != null && listener == null) {
+            return metrics.callAdapterFactory;
+        }
+        return new MetricsCallAdapterFactory(metrics, listener);
+    }
+
+    /**
+     * Gets the endpoint declared by the annotations of a method with the return type, attributed to its service if
+     * the metrics know it
+     *
+     * @return the endpoint or null if the method has no HTTP method annotation
+     */
+    @Nullable
+    static Endpoint endpoint(@Nullable EndpointMetrics metrics, Type returnType, Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            String httpMethod = httpMethod(annotation);
+            if (httpMethod != null) {
+                Class<?> service = metrics != null ? metrics.service(annotation, returnType) : null;
+                return new Endpoint(service, httpMethod, path(annotation));
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private Class<?> service(Annotation annotation, Type returnType) {
+        Class<?> service = declaringServices.get(annotation);
+        if (service == null) {
+            service = services.get(new MethodKey(annotation, returnType));
+        }
+        return service == AMBIGUOUS ? null : service;
+    }
+
+    /**
+     * Gets the recorder of the endpoint, creating it on first use
+     */
+    @NotNull
+    EndpointRecorder recorder(Endpoint endpoint) {
+        EndpointRecorder recorder = recorders.get(endpoint);
+        if (recorder == null) {
+            EndpointRecorder created = new EndpointRecorder();
+            recorder = recorders.putIfAbsent(endpoint, created);
+            if (recorder == null) {
+                recorder = created;
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Gets the recorder of the response type, creating it on first use
+     */
+    @NotNull
+    DeserializationRecorder deserializationRecorder(String typeName) {
+        DeserializationRecorder recorder = deserializations.get(typeName);
+        if (recorder == null) {
+            DeserializationRecorder created = new DeserializationRecorder();
+            recorder = deserializations.putIfAbsent(typeName, created);
+            if (recorder == null) {
+                recorder = created;
+            }
+        }
+        return recorder;
+    }
+
+    @Nullable
+    private static String httpMethod(Annotation annotation) {
+        if (annotation instanceof GET) {
+            return "GET";
+        } else if (annotation instanceof POST) {
+            return "POST";
+        } else if (annotation instanceof PATCH) {
+            return "PATCH";
+        } else if (annotation instanceof PUT) {
+            return "PUT";
+        } else if (annotation instanceof DELETE) {
+            return "DELETE";
+        } else if (annotation instanceof HEAD) {
+            return "HEAD";
+        } else if (annotation instanceof OPTIONS) {
+            return "OPTIONS";
+        } else if (annotation instanceof HTTP) {
+            return ((HTTP) annotation).method();
+        }
+        return null;
+    }
+
+    private static String path(Annotation annotation) {
+        if (annotation instanceof GET) {
+            return ((GET) annotation).value();
+        } else if (annotation instanceof POST) {
+            return ((POST) annotation).value();
+        } else if (annotation instanceof PATCH) {
+            return ((PATCH) annotation).value();
+        } else if (annotation instanceof PUT) {
+            return ((PUT) annotation).value();
+        } else if (annotation instanceof DELETE) {
+            return ((DELETE) annotation).value();
+        } else if (annotation instanceof HEAD) {
+            return ((HEAD) annotation).value();
+        } else if (annotation instanceof OPTIONS) {
+            return ((OPTIONS) annotation).value();
+        }
+        return ((HTTP) annotation).path();
+    }
+
+    /**
+     * Identifies a service method by value, as the annotation instances Retrofit sees differ from those of the
+     * methods registered
+     */
+    private static final class MethodKey {
+
+        private final Annotation annotation;
+        private final Type returnType;
+
+        MethodKey(Annotation annotation, Type returnType) {
+            this.annotation = annotation;
+            this.returnType = returnType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey other = (MethodKey) o;
+            return annotation.equals(other.annotation) && returnType.equals(other.returnType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * annotation.hashCode() + returnType.hashCode();
+        }
+    }
+}
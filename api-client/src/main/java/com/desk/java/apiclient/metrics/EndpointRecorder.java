@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of one endpoint, updated by every call with atomic increments only
+ */
+final class EndpointRecorder {
+
+    /** Status codes are counted from 100 to 599, anything else is counted as 0 */
+    private static final int MAX_STATUS = 600;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS);
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+
+    void recordResponse(int status, long elapsedNanos, long requestLength, long responseLength, boolean retry) {
+        statusCounts.incrementAndGet(status >= 100 && status < MAX_STATUS ? status : 0);
+        if (responseLength > 0) {
+            responseBytes.addAndGet(responseLength);
+        }
+        record(elapsedNanos, requestLength, retry);
+    }
+
+    void recordFailure(long elapsedNanos, long requestLength, boolean retry) {
+        failureCount.incrementAndGet();
+        record(elapsedNanos, requestLength, retry);
+    }
+
+    private void record(long elapsedNanos, long requestLength, boolean retry) {
+        callCount.incrementAndGet();
+        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (requestLength > 0) {
+            requestBytes.addAndGet(requestLength);
+        }
+        if (retry) {
+            retryCount.incrementAndGet();
+        }
+    }
+
+    CallMetrics snapshot() {
+        Map<Integer, Long> statuses = new TreeMap<>();
+        for (int status = 0; status < MAX_STATUS; status++) {
+            long count = statusCounts.get(status);
+            if (count > 0) {
+                statuses.put(status, count);
+            }
+        }
+        return new CallMetrics(callCount.get(), failureCount.get(), retryCount.get(), requestBytes.get(),
+                responseBytes.get(), statuses, latency.snapshot());
+    }
+}
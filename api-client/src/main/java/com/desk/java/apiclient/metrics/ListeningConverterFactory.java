@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     Wraps a converter factory so the {@link DeskEventListener} sees every response body being converted, along
+ *     with the number of bytes the converter read.
+ * </p>
+ *
+ * <p>
+ *     The bytes are only counted when the listener returns a state from
+ *     {@link DeskEventListener#deserializeStart(Type)}, otherwise the body is handed to the converter as is.
+ * </p>
+ */
+public class ListeningConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+    private final DeskEventListener listener;
+
+    /**
+     * @param delegate the factory creating the converters
+     * @param listener the listener to report to
+     */
+    public ListeningConverterFactory(@NotNull Converter.Factory delegate, @NotNull DeskEventListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        return converter == null ? null : new ListeningConverter<>(converter, type, listener);
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations, Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+
+    private static final class ListeningConverter<T> implements Converter<ResponseBody, T> {
+
+        private final Converter<ResponseBody, T> delegate;
+        private final Type type;
+        private final DeskEventListener listener;
+
+        ListeningConverter(Converter<ResponseBody, T> delegate, Type type, DeskEventListener listener) {
+            this.delegate = delegate;
+            this.type = type;
+            this.listener = listener;
+        }
+
+        @Override
+        public T convert(ResponseBody value) throws IOException {
+            Object event = listener.deserializeStart(type);
+            if (event == null) {
+                return delegate.convert(value);
+            }
+            CountingBody counting = new CountingBody(value);
+            try {
+                return delegate.convert(counting);
+            } finally {
+                listener.deserializeEnd(event, type, counting.bytesRead);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes the converter reads from the body
+     */
+    static final class CountingBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private BufferedSource source;
+        long bytesRead;
+
+        CountingBody(ResponseBody delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read > 0) {
+                            bytesRead += read;
+                        }
+                        return read;
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Call recording its latency, status and sizes into the recorder of its endpoint and reporting them to the
+ *     event listener, either of which may be null.
+ * </p>
+ *
+ * <p>
+ *     Clones share the outcome of the last attempt with the call they were cloned from. Executing a clone after
+ *     an attempt failed without a response or with a 429 or 5xx status, as retry operators and callers retrying by
+ *     hand do, counts as a retry. A clone executed after a successful attempt, such as when an RxJava observable
+ *     is subscribed again or a poll repeats the call, is not a retry.
+ * </p>
+ */
+final class MetricsCall<T> implements Call<T> {
+
+    private final Call<T> delegate;
+    private final Endpoint endpoint;
+    private final EndpointRecorder recorder;
+    private final DeskEventListener listener;
+    // whether the last completed attempt of this call or its clones failed
+    private final AtomicBoolean lastAttemptFailed;
+
+    MetricsCall(Call<T> delegate, Endpoint endpoint, EndpointRecorder recorder, DeskEventListener listener) {
+        this(delegate, endpoint, recorder, listener, new AtomicBoolean());
+    }
+
+    private MetricsCall(Call<T> delegate, Endpoint endpoint, EndpointRecorder recorder, DeskEventListener listener,
+                        AtomicBoolean lastAttemptFailed) {
+        this.delegate = delegate;
+        this.endpoint = endpoint;
+        this.recorder = recorder;
+        this.listener = listener;
+        this.lastAttemptFailed = lastAttemptFailed;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        boolean retry = lastAttemptFailed.get();
+        Object event = listener != null ? listener.callStart(endpoint) : null;
+        long start = System.nanoTime();
+        Response<T> response;
+        try {
+            response = delegate.execute();
+        } catch (IOException | RuntimeException e) {
+            failed(e, event, System.nanoTime() - start, retry);
+            throw e;
+        }
+        record(response, event, System.nanoTime() - start, retry);
+        return response;
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        final boolean retry = lastAttemptFailed.get();
+        final Object event = listener != null ? listener.callStart(endpoint) : null;
+        final long start = System.nanoTime();
+        delegate.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                record(response, event, System.nanoTime() - start, retry);
+                callback.onResponse(MetricsCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                failed(t, event, System.nanoTime() - start, retry);
+                callback.onFailure(MetricsCall.this, t);
+            }
+        });
+    }
+
+    private void record(Response<T> response, Object event, long elapsedNanos, boolean retry) {
+        int code = response.code();
+        lastAttemptFailed.set(code == 429 || code >= 500);
+        okhttp3.Response raw = response.raw();
+        long requestLength = requestLength(raw.request());
+        long responseLength = responseLength(raw);
+        if (recorder != null) {
+            recorder.recordResponse(response.code(), elapsedNanos, requestLength, responseLength, retry);
+        }
+        if (listener != null) {
+            listener.callEnd(event, endpoint, response.code(), requestLength, responseLength, retry);
+        }
+    }
+
+    private void failed(Throwable error, Object event, long elapsedNanos, boolean retry) {
+        lastAttemptFailed.set(true);
+        if (recorder != null) {
+            recorder.recordFailure(elapsedNanos, 0, retry);
+        }
+        if (listener != null) {
+            listener.callFailed(event, endpoint, error, retry);
+        }
+    }
+
+    private static long requestLength(Request request) {
+        RequestBody body = request.body();
+        if (body == null) {
+            return 0;
+        }
+        try {
+            return body.contentLength();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the length as sent over the wire from the network response, before OkHttp decompressed the body
+     */
+    private static long responseLength(okhttp3.Response raw) {
+        okhttp3.Response network = raw.networkResponse();
+        String length = (network != null ? network : raw).header("Content-Length");
+        if (length != null) {
+            try {
+                return Long.parseLong(length);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return raw.body() != null ? raw.body().contentLength() : 0;
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @Override
+    public Call<T> clone() {
+        return new MetricsCall<>(delegate.clone(), endpoint, recorder, listener, lastAttemptFailed);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Point in time snapshot of {@link NetworkTimings}. Connect and TLS times are only recorded for exchanges on a new
+ * connection, DNS times only for calls that looked up a host.
+ */
+public final class NetworkTimingSnapshot {
+
+    private final long newConnectionCount;
+    private final long reusedConnectionCount;
+    private final long failureCount;
+    private final LatencySnapshot dns;
+    private final LatencySnapshot connect;
+    private final LatencySnapshot tls;
+    private final LatencySnapshot timeToFirstByte;
+    private final LatencySnapshot body;
+    private final LatencySnapshot total;
+
+    NetworkTimingSnapshot(long newConnectionCount, long reusedConnectionCount, long failureCount,
+                          LatencySnapshot dns, LatencySnapshot connect, LatencySnapshot tls,
+                          LatencySnapshot timeToFirstByte, LatencySnapshot body, LatencySnapshot total) {
+        this.newConnectionCount = newConnectionCount;
+        this.reusedConnectionCount = reusedConnectionCount;
+        this.failureCount = failureCount;
+        this.dns = dns;
+        this.connect = connect;
+        this.tls = tls;
+        this.timeToFirstByte = timeToFirstByte;
+        this.body = body;
+        this.total = total;
+    }
+
+    /**
+     * @return the number of completed exchanges
+     */
+    public long getExchangeCount() {
+        return newConnectionCount + reusedConnectionCount;
+    }
+
+    /**
+     * @return the number of exchanges on a connection that was opened for them
+     */
+    public long getNewConnectionCount() {
+        return newConnectionCount;
+    }
+
+    /**
+     * @return the number of exchanges on a pooled connection
+     */
+    public long getReusedConnectionCount() {
+        return reusedConnectionCount;
+    }
+
+    /**
+     * @return the number of calls that failed without a response
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return the share of exchanges on a pooled connection between 0 and 1, 0 if there were none
+     */
+    public double getReuseRatio() {
+        long exchanges = getExchangeCount();
+        return exchanges == 0 ? 0 : (double) reusedConnectionCount / exchanges;
+    }
+
+    /**
+     * Gets the share of the total time spent on DNS lookups, connecting and TLS handshakes, which a larger
+     * connection pool or longer keep alive saves
+     *
+     * @return the share between 0 and 1, 0 if there were no exchanges
+     */
+    public double getSetupShare() {
+        double totalMicros = sum(total);
+        return totalMicros == 0 ? 0 : Math.min(1, (sum(dns) + sum(connect) + sum(tls)) / totalMicros);
+    }
+
+    @NotNull
+    public LatencySnapshot getDns() {
+        return dns;
+    }
+
+    @NotNull
+    public LatencySnapshot getConnect() {
+        return connect;
+    }
+
+    @NotNull
+    public LatencySnapshot getTls() {
+        return tls;
+    }
+
+    /**
+     * @return the time from sending the request until the response headers arrived
+     */
+    @NotNull
+    public LatencySnapshot getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * @return the time from the response headers until the body was read or closed, including parsing
+     */
+    @NotNull
+    public LatencySnapshot getBody() {
+        return body;
+    }
+
+    /**
+     * @return the time of the whole exchange including all phases
+     */
+    @NotNull
+    public LatencySnapshot getTotal() {
+        return total;
+    }
+
+    private static double sum(LatencySnapshot snapshot) {
+        return snapshot.getMeanMicros() * snapshot.getCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "NetworkTimingSnapshot{exchanges=%d, reuseRatio=%.2f, setupShare=%.2f, "
+                        + "failures=%d, dns=%s, connect=%s, tls=%s, ttfb=%s, body=%s, total=%s}",
+                getExchangeCount(), getReuseRatio(), getSetupShare(), failureCount, dns, connect, tls,
+                timeToFirstByte, body, total);
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.SocketFactory;
+
+import okhttp3.Connection;
+import okhttp3.Dns;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * <p>
+ *     Breaks the time of every HTTP exchange down into DNS lookup, TCP connect, TLS handshake, time to the first
+ *     byte of the response and body transfer, and counts how many exchanges reused a pooled connection. The
+ *     body phase ends when the body is fully read or closed, so it includes parsing when the body is streamed
+ *     into a converter.
+ * </p>
+ *
+ * <p>
+ *     {@link #install(OkHttpClient.Builder)} adds the interceptors, DNS and socket factory doing the
+ *     measurements. The phases run on the calling thread between the application and network interceptors, so
+ *     each call is attributed through a thread local. When created with {@code attachHeader} the timings are
+ *     also added to each response as a {@value #TIMING_HEADER} header in the Server-Timing format, for example
+ *     {@code dns;dur=1.2, connect;dur=20.5, tls;dur=48.0, ttfb;dur=95.3, reused;desc=false}, durations in
+ *     milliseconds.
+ * </p>
+ *
+ * <p>
+ *     A low {@link NetworkTimingSnapshot#getReuseRatio() reuse ratio} together with a large
+ *     {@link NetworkTimingSnapshot#getSetupShare() setup share} means calls pay for new connections and a larger
+ *     connection pool or keep alive would help.
+ * </p>
+ */
+public final class NetworkTimings {
+
+    /** The response header holding the phase timings of the exchange when enabled */
+    public static final String TIMING_HEADER = "X-Desk-Client-Timing";
+
+    private final boolean attachHeader;
+    private final ThreadLocal<CallTiming> current = new ThreadLocal<>();
+    private final Set<Connection> connections =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>()));
+
+    private final LatencyHistogram dns = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram tls = new LatencyHistogram();
+    private final LatencyHistogram firstByte = new LatencyHistogram();
+    private final LatencyHistogram body = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates timings that are only aggregated
+     */
+    public NetworkTimings() {
+        this(false);
+    }
+
+    /**
+     * Creates timings that are aggregated and optionally attached to each response
+     *
+     * @param attachHeader whether to add the {@value #TIMING_HEADER} header to the responses
+     */
+    public NetworkTimings(boolean attachHeader) {
+        this.attachHeader = attachHeader;
+    }
+
+    /**
+     * Installs the measurements into the client builder. Call it after all other interceptors were added so the
+     * timings cover the network exchange only. The builder's DNS and socket factory are replaced with the system
+     * ones wrapped for timing.
+     *
+     * @param builder the builder of the client to measure
+     * @return the builder
+     */
+    @NotNull
+    public OkHttpClient.Builder install(@NotNull OkHttpClient.Builder builder) {
+        builder.dns(new TimedDns(Dns.SYSTEM));
+        builder.socketFactory(new TimedSocketFactory());
+        builder.interceptors().add(new CallInterceptor());
+        builder.networkInterceptors().add(0, new ExchangeInterceptor());
+        return builder;
+    }
+
+    /**
+     * Takes a point in time snapshot of the timings recorded so far
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public NetworkTimingSnapshot snapshot() {
+        return new NetworkTimingSnapshot(newConnections.get(), reusedConnections.get(), failures.get(),
+                dns.snapshot(), connect.snapshot(), tls.snapshot(), firstByte.snapshot(), body.snapshot(),
+                total.snapshot());
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    void complete(CallTiming timing, long now) {
+        if (timing.reused) {
+            reusedConnections.incrementAndGet();
+        } else {
+            newConnections.incrementAndGet();
+            if (timing.connectNanos > 0) {
+                connect.record(micros(timing.connectNanos));
+            }
+            if (timing.tlsNanos > 0) {
+                tls.record(micros(timing.tlsNanos));
+            }
+        }
+        if (timing.dnsNanos > 0) {
+            dns.record(micros(timing.dnsNanos));
+        }
+        firstByte.record(micros(timing.headersAt - timing.exchangeStart));
+        body.record(micros(now - timing.headersAt));
+        total.record(micros(now - timing.callStart));
+    }
+
+    /**
+     * The phases of one call, written by the calling thread and completed by whichever thread consumes the body
+     */
+    static final class CallTiming {
+        final long callStart;
+        long dnsNanos;
+        long connectNanos;
+        long connectedAt;
+        long tlsNanos;
+        long exchangeStart;
+        long headersAt;
+        boolean reused;
+
+        CallTiming(long callStart) {
+            this.callStart = callStart;
+        }
+
+        String toHeaderValue() {
+            return String.format(Locale.US, "dns;dur=%.3f, connect;dur=%.3f, tls;dur=%.3f, ttfb;dur=%.3f, "
+                            + "reused;desc=%b",
+                    millis(dnsNanos), millis(reused ? 0 : connectNanos), millis(reused ? 0 : tlsNanos),
+                    millis(headersAt - exchangeStart), reused);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    /**
+     * Starts the timing of a call and attaches the header, placed after the other application interceptors
+     */
+    final class CallInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            CallTiming timing = new CallTiming(nanoTime());
+            current.set(timing);
+            Response response;
+            try {
+                response = chain.proceed(chain.request());
+            } catch (IOException | RuntimeException e) {
+                failures.incrementAndGet();
+                throw e;
+            } finally {
+                current.remove();
+            }
+            if (attachHeader && timing.headersAt != 0) {
+                response = response.newBuilder().header(TIMING_HEADER, timing.toHeaderValue()).build();
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Sees the connection once it is established and times the exchange, placed first of the network interceptors
+     */
+    final class ExchangeInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            CallTiming timing = current.get();
+            if (timing == null) {
+                return chain.proceed(chain.request());
+            }
+            timing.exchangeStart = nanoTime();
+            Connection connection = chain.connection();
+            timing.reused = connection != null && !connections.add(connection);
+            if (!timing.reused && timing.connectedAt != 0 && connection.handshake() != null) {
+                timing.tlsNanos = timing.exchangeStart - timing.connectedAt;
+            }
+            Response response = chain.proceed(chain.request());
+            timing.headersAt = nanoTime();
+            return response.newBuilder().body(new TimedBody(response.body(), timing)).build();
+        }
+    }
+
+    /**
+     * Completes the timing of the call when its body is exhausted or closed
+     */
+    final class TimedBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final CallTiming timing;
+        private BufferedSource source;
+        private boolean completed;
+
+        TimedBody(ResponseBody delegate, CallTiming timing) {
+            this.delegate = delegate;
+            this.timing = timing;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read == -1) {
+                            completed();
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        completed();
+                        super.close();
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            completed();
+            delegate.close();
+        }
+
+        private void completed() {
+            if (!completed) {
+                completed = true;
+                complete(timing, nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Adds the lookup time to the call running on this thread
+     */
+    final class TimedDns implements Dns {
+        private final Dns delegate;
+
+        TimedDns(Dns delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            CallTiming timing = current.get();
+            long start = nanoTime();
+            try {
+                return delegate.lookup(hostname);
+            } finally {
+                if (timing != null) {
+                    timing.dnsNanos += nanoTime() - start;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates sockets adding their connect time to the call running on this thread. OkHttp only uses the
+     * unconnected {@link #createSocket()}, the others are there to satisfy the contract.
+     */
+    final class TimedSocketFactory extends SocketFactory {
+        @Override
+        public Socket createSocket() {
+            return new TimedSocket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return connected(new InetSocketAddress(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            Socket socket = new TimedSocket();
+            socket.bind(new InetSocketAddress(localHost, localPort));
+            socket.connect(new InetSocketAddress(host, port));
+            return socket;
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return connected(new InetSocketAddress(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+                throws IOException {
+            Socket socket = new TimedSocket();
+            socket.bind(new InetSocketAddress(localAddress, localPort));
+            socket.connect(new InetSocketAddress(address, port));
+            return socket;
+        }
+
+        private Socket connected(SocketAddress address) throws IOException {
+            Socket socket = new TimedSocket();
+            socket.connect(address);
+            return socket;
+        }
+    }
+
+    final class TimedSocket extends Socket {
+        @Override
+        public void connect(SocketAddress endpoint, int timeout) throws IOException {
+            CallTiming timing = current.get();
+            long start = nanoTime();
+            try {
+                super.connect(endpoint, timeout);
+            } finally {
+                if (timing != null) {
+                    timing.connectedAt = nanoTime();
+                    timing.connectNanos += timing.connectedAt - start;
+                }
+            }
+        }
+    }
+}
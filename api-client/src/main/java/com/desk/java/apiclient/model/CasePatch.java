@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.JsonAdapter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ *     A case update holding only the fields that changed, sent with
+ *     {@link com.desk.java.apiclient.service.CaseService#updateCase(long, CasePatch)}. Either set the changes one
+ *     by one or compute them from a fetched case and a modified copy with {@link #between(Case, Case)}.
+ * </p>
+ *
+ * <p>
+ *     The API applies one label action per update, so a patch either appends, removes or replaces labels. Label
+ *     names and label ids share that action.
+ * </p>
+ */
+@JsonAdapter(CasePatch.Adapter.class)
+public final class CasePatch extends Patch<CasePatch> {
+
+    static final String LABELS = "labels";
+    static final String LABEL_IDS = "label_ids";
+    static final String LABEL_ACTION = "label_action";
+
+    public CasePatch() {
+    }
+
+    private CasePatch(JsonObject changes) {
+        super(changes);
+    }
+
+    /**
+     * Computes the patch turning the original case into the modified one. Compares the subject, priority,
+     * description, status, type, labels, custom fields and the assigned user and group.
+     *
+     * @param original the case as fetched
+     * @param modified the case with the changes applied
+     * @return the patch, empty if nothing changed
+     */
+    @NotNull
+    public static CasePatch between(@NotNull Case original, @NotNull Case modified) {
+        CasePatch patch = new CasePatch();
+        if (!Objects.equals(original.getSubject(), modified.getSubject())) {
+            patch.subject(modified.getSubject());
+        }
+        if (!Objects.equals(original.getPriority(), modified.getPriority())) {
+            patch.set("priority", priorityValue(modified.getPriority()));
+        }
+        if (!Objects.equals(original.getDescription(), modified.getDescription())) {
+            patch.description(modified.getDescription());
+        }
+        if (original.getStatus() != modified.getStatus()) {
+            patch.status(modified.getStatus());
+        }
+        if (original.getType() != modified.getType()) {
+            patch.type(modified.getType());
+        }
+        patch.diffLabels(original.getLabels(), modified.getLabels());
+        patch.diffCustomFields(orEmpty(original.getCustomFields()), orEmpty(modified.getCustomFields()));
+        if (original.getAssignedUserId() != modified.getAssignedUserId()) {
+            patch.assignUser(modified.getAssignedUserId());
+        }
+        if (original.getAssignedGroupId() != modified.getAssignedGroupId()) {
+            patch.assignGroup(modified.getAssignedGroupId());
+        }
+        return patch;
+    }
+
+    public CasePatch subject(@Nullable String subject) {
+        return set("subject", subject);
+    }
+
+    public CasePatch priority(int priority) {
+        return set("priority", Integer.valueOf(priority));
+    }
+
+    public CasePatch description(@Nullable String description) {
+        return set("description", description);
+    }
+
+    public CasePatch status(@NotNull CaseStatus status) {
+        return set("status", (Object) status);
+    }
+
+    public CasePatch type(@NotNull CaseType type) {
+        return set("type", (Object) type);
+    }
+
+    /**
+     * Assigns the case to the user
+     *
+     * @param userId the user id or 0 to unassign the user
+     * @return this patch
+     */
+    public CasePatch assignUser(long userId) {
+        return link("assigned_user", "users", "user", userId);
+    }
+
+    /**
+     * Assigns the case to the group
+     *
+     * @param groupId the group id or 0 to unassign the group
+     * @return this patch
+     */
+    public CasePatch assignGroup(long groupId) {
+        return link("assigned_group", "groups", "group", groupId);
+    }
+
+    /**
+     * Adds the labels, keeping the others
+     *
+     * @param labels the label names
+     * @return this patch
+     * @throws IllegalStateException if the patch already removes or replaces labels
+     */
+    public CasePatch addLabels(@NotNull String... labels) {
+        return labels(LabelAction.APPEND, LABELS, toArray(labels));
+    }
+
+    /**
+     * Removes the labels, keeping the others
+     *
+     * @param labels the label names
+     * @return this patch
+     * @throws IllegalStateException if the patch already adds or replaces labels
+     */
+    public CasePatch removeLabels(@NotNull String... labels) {
+        return labels(LabelAction.REMOVE, LABELS, toArray(labels));
+    }
+
+    /**
+     * Replaces all labels of the case
+     *
+     * @param labels the label names
+     * @return this patch
+     * @throws IllegalStateException if the patch already adds or removes labels
+     */
+    public CasePatch replaceLabels(@NotNull String... labels) {
+        return labels(LabelAction.REPLACE, LABELS, toArray(labels));
+    }
+
+    /**
+     * Adds the labels with the ids, keeping the others
+     *
+     * @param labelIds the label ids
+     * @return this patch
+     * @throws IllegalStateException if the patch already removes or replaces labels
+     */
+    public CasePatch addLabelIds(@NotNull long... labelIds) {
+        return labels(LabelAction.APPEND, LABEL_IDS, toArray(labelIds));
+    }
+
+    /**
+     * Removes the labels with the ids, keeping the others
+     *
+     * @param labelIds the label ids
+     * @return this patch
+     * @throws IllegalStateException if the patch already adds or replaces labels
+     */
+    public CasePatch removeLabelIds(@NotNull long... labelIds) {
+        return labels(LabelAction.REMOVE, LABEL_IDS, toArray(labelIds));
+    }
+
+    /**
+     * Gets the label action of the patch
+     *
+     * @return the label action or null if the labels are not changed
+     */
+    @Nullable
+    public LabelAction getLabelAction() {
+        if (!changes.has(LABEL_ACTION)) {
+            return null;
+        }
+        return LabelAction.valueOf(changes.get(LABEL_ACTION).getAsString().toUpperCase());
+    }
+
+    /**
+     * Patches can be merged unless they apply different label actions, or both replace labels and the later one
+     * leaves label names or ids untouched which this one replaces
+     */
+    @Override
+    public boolean canMerge(@NotNull CasePatch later) {
+        LabelAction action = getLabelAction();
+        LabelAction laterAction = later.getLabelAction();
+        if (action == null || laterAction == null) {
+            return true;
+        }
+        if (action != laterAction) {
+            return false;
+        }
+        return action != LabelAction.REPLACE
+                || ((later.changes.has(LABELS) || !changes.has(LABELS))
+                        && (later.changes.has(LABEL_IDS) || !changes.has(LABEL_IDS)));
+    }
+
+    @Override
+    CasePatch withChanges(JsonObject changes) {
+        return new CasePatch(changes);
+    }
+
+    @Override
+    void apply(CasePatch later, String name, JsonElement value) {
+        boolean accumulates = (LABELS.equals(name) || LABEL_IDS.equals(name))
+                && later.getLabelAction() != LabelAction.REPLACE && changes.has(name);
+        if (accumulates) {
+            changes.getAsJsonArray(name).addAll(copy(value).getAsJsonArray());
+        } else {
+            super.apply(later, name, value);
+        }
+    }
+
+    private CasePatch labels(LabelAction action, String field, JsonArray values) {
+        LabelAction current = getLabelAction();
+        if (current != null && current != action) {
+            throw new IllegalStateException("A case update applies one label action but this patch would "
+                    + current.name().toLowerCase() + " and " + action.name().toLowerCase() + " labels, send the "
+                    + action.name().toLowerCase() + " in a separate patch");
+        }
+        set(LABEL_ACTION, (Object) action);
+        JsonArray existing = changes.has(field) ? changes.getAsJsonArray(field) : null;
+        if (existing == null || action == LabelAction.REPLACE) {
+            changes.add(field, values);
+        } else {
+            existing.addAll(values);
+        }
+        return this;
+    }
+
+    private void diffLabels(String[] before, String[] after) {
+        Set<String> old = new LinkedHashSet<>(Arrays.asList(before));
+        Set<String> current = new LinkedHashSet<>(Arrays.asList(after));
+        if (old.equals(current)) {
+            return;
+        }
+        List<String> added = new ArrayList<>(current);
+        added.removeAll(old);
+        List<String> removed = new ArrayList<>(old);
+        removed.removeAll(current);
+        if (removed.isEmpty()) {
+            addLabels(added.toArray(new String[added.size()]));
+        } else if (added.isEmpty()) {
+            removeLabels(removed.toArray(new String[removed.size()]));
+        } else {
+            replaceLabels(current.toArray(new String[current.size()]));
+        }
+    }
+
+    /**
+     * Sends numeric priorities as numbers as the API expects
+     */
+    private static Object priorityValue(String priority) {
+        if (priority == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(priority.trim());
+        } catch (NumberFormatException e) {
+            return priority;
+        }
+    }
+
+    private static JsonArray toArray(String[] values) {
+        JsonArray array = new JsonArray();
+        for (String value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    private static JsonArray toArray(long[] values) {
+        JsonArray array = new JsonArray();
+        for (long value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    static final class Adapter extends Patch.Adapter<CasePatch> {
+        @Override
+        CasePatch create(JsonObject changes) {
+            return new CasePatch(changes);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * <p>
+ *     Immutable, memory compact variant of {@link Case} for large in-memory working sets.
+ * </p>
+ *
+ * <p>
+ *     Dates are stored as epoch millis, the type and status as enum ordinals, related resources as the primitive
+ *     ids of their links and custom fields as slots of a shared {@link CustomFieldSchema}. Embedded resources,
+ *     messages and links other than self, customer, assigned user, assigned group and locked by are not retained.
+ * </p>
+ */
+public final class CompactCase implements Serializable {
+
+    private static final long serialVersionUID = 3390716521930683921L;
+
+    /**
+     * Value of the date fields when the date is not set
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    static final String API_BASE_PATH = "/api/v2/";
+
+    private static final byte NO_ORDINAL = -1;
+    private static final CaseType[] TYPES = CaseType.values();
+    private static final CaseStatus[] STATUSES = CaseStatus.values();
+    private static final String[] NO_LABELS = new String[0];
+    private static final long[] NO_LABEL_IDS = new long[0];
+
+    private final long id;
+    private final long createdAt;
+    private final long updatedAt;
+    private final long lockedUntil;
+    private final long customerId;
+    private final long assignedUserId;
+    private final long assignedGroupId;
+    private final long lockedById;
+    private final byte type;
+    private final byte status;
+    private final String subject;
+    private final String priority;
+    private final String description;
+    private final String customerName;
+    private final String blurb;
+    private final String[] labels;
+    private final long[] labelIds;
+    private final CustomFieldSchema schema;
+    private final String[] customFields;
+
+    private CompactCase(Case c, CustomFieldSchema schema) {
+        CaseLinks links = c.getLinks();
+        this.id = c.getId();
+        this.createdAt = toMillis(c.getCreatedAt());
+        this.updatedAt = toMillis(c.getUpdatedAt());
+        this.lockedUntil = toMillis(c.getLockedUntil());
+        this.customerId = links.getCustomer().getLinkId();
+        this.assignedUserId = links.getAssignedUser().getLinkId();
+        this.assignedGroupId = links.getAssignedGroup().getLinkId();
+        this.lockedById = links.getLockedBy().getLinkId();
+        this.type = c.getType() == null ? NO_ORDINAL : (byte) c.getType().ordinal();
+        this.status = c.getStatus() == null ? NO_ORDINAL : (byte) c.getStatus().ordinal();
+        this.subject = c.getSubject();
+        this.priority = c.getPriority();
+        this.description = c.getDescription();
+        this.customerName = c.getCustomerName();
+        this.blurb = c.getBlurb();
+        this.labels = c.getLabels() == null || c.getLabels().length == 0 ? NO_LABELS : c.getLabels().clone();
+        this.labelIds = c.getLabelIds() == null || c.getLabelIds().length == 0
+                ? NO_LABEL_IDS : c.getLabelIds().clone();
+        this.schema = schema;
+        this.customFields = schema.toSlots(c.getCustomFields());
+    }
+
+    /**
+     * Creates the compact variant of a case
+     *
+     * @param c the case
+     * @param schema the custom field schema for cases shared by all compact cases
+     * @return the compact case
+     */
+    public static CompactCase from(@NotNull Case c, @NotNull CustomFieldSchema schema) {
+        return new CompactCase(c, schema);
+    }
+
+    /**
+     * Creates a regular {@link Case} with the retained fields. Links are rebuilt from the retained ids.
+     *
+     * @return a new case
+     */
+    public Case toCase() {
+        Case c = new Case();
+        c.setId(id);
+        c.setCreatedAt(toDate(createdAt));
+        c.setUpdatedAt(toDate(updatedAt));
+        c.setLockedUntil(toDate(lockedUntil));
+        c.setType(getType());
+        c.setStatus(getStatus());
+        c.setSubject(subject);
+        c.setPriority(priority);
+        c.setDescription(description);
+        c.setCustomerName(customerName);
+        c.setBlurb(blurb);
+        c.setLabels(labels.length == 0 ? null : labels.clone());
+        c.setLabelIds(labelIds.length == 0 ? null : labelIds.clone());
+        if (customFields != null) {
+            c.setCustomFields(schema.toMap(customFields));
+        }
+        CaseLinks links = c.getLinks();
+        links.setSelf(link("cases", id, "case"));
+        links.setCustomer(link("customers", customerId, "customer"));
+        links.setAssignedUser(link("users", assignedUserId, "user"));
+        links.setAssignedGroup(link("groups", assignedGroupId, "group"));
+        links.setLockedBy(link("users", lockedById, "user"));
+        return c;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the creation time in epoch millis or {@link #NO_DATE}
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the last update time in epoch millis or {@link #NO_DATE}
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * @return the lock expiration time in epoch millis or {@link #NO_DATE}
+     */
+    public long getLockedUntil() {
+        return lockedUntil;
+    }
+
+    /**
+     * @return the customer id or {@link Case#NO_ID}
+     */
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * @return the assigned user id or {@link Case#NO_ID} if unassigned
+     */
+    public long getAssignedUserId() {
+        return assignedUserId;
+    }
+
+    /**
+     * @return the assigned group id or {@link Case#NO_ID} if unassigned
+     */
+    public long getAssignedGroupId() {
+        return assignedGroupId;
+    }
+
+    /**
+     * @return the id of the user holding the lock or {@link Case#NO_ID} if unlocked
+     */
+    public long getLockedById() {
+        return lockedById;
+    }
+
+    @Nullable
+    public CaseType getType() {
+        return type == NO_ORDINAL ? null : TYPES[type];
+    }
+
+    @Nullable
+    public CaseStatus getStatus() {
+        return status == NO_ORDINAL ? null : STATUSES[status];
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getBlurb() {
+        return blurb;
+    }
+
+    /**
+     * @return a copy of the label names
+     */
+    @NotNull
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    /**
+     * @return a copy of the label ids
+     */
+    @NotNull
+    public long[] getLabelIds() {
+        return labelIds.clone();
+    }
+
+    /**
+     * Returns whether the case has the given label name without copying the labels
+     *
+     * @param label the label name
+     * @return true if the case has the label
+     */
+    public boolean hasLabel(String label) {
+        for (String l : labels) {
+            if (l.equals(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the case has the given label id without copying the label ids
+     *
+     * @param labelId the label id
+     * @return true if the case has the label
+     */
+    public boolean hasLabelId(long labelId) {
+        for (long l : labelIds) {
+            if (l == labelId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    public CustomFieldSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the value of a custom field
+     *
+     * @param name the field name
+     * @return the value or null if not set or not part of the schema
+     */
+    @Nullable
+    public String getCustomField(String name) {
+        int index = schema.indexOf(name);
+        return index < 0 || customFields == null ? null : customFields[index];
+    }
+
+    /**
+     * @return a new map with the custom field values by name
+     */
+    @NotNull
+    public HashMap<String, String> getCustomFields() {
+        return schema.toMap(customFields);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactCase)) {
+            return false;
+        }
+        CompactCase that = (CompactCase) o;
+        return id == that.id
+                && createdAt == that.createdAt
+                && updatedAt == that.updatedAt
+                && lockedUntil == that.lockedUntil
+                && customerId == that.customerId
+                && assignedUserId == that.assignedUserId
+                && assignedGroupId == that.assignedGroupId
+                && lockedById == that.lockedById
+                && type == that.type
+                && status == that.status
+                && equal(subject, that.subject)
+                && equal(priority, that.priority)
+                && equal(description, that.description)
+                && equal(customerName, that.customerName)
+                && equal(blurb, that.blurb)
+                && Arrays.equals(labels, that.labels)
+                && Arrays.equals(labelIds, that.labelIds)
+                && schema.equals(that.schema)
+                && Arrays.equals(customFields, that.customFields);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (int) (updatedAt ^ (updatedAt >>> 32));
+        result = 31 * result + status;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactCase{id=" + id + ", subject='" + subject + "', status=" + getStatus() + '}';
+    }
+
+    static long toMillis(@Nullable Date date) {
+        return date == null ? NO_DATE : date.getTime();
+    }
+
+    @Nullable
+    static Date toDate(long millis) {
+        return millis == NO_DATE ? null : new Date(millis);
+    }
+
+    @Nullable
+    static Link link(String collection, long id, String className) {
+        if (id == Case.NO_ID) {
+            return null;
+        }
+        Link link = new Link(API_BASE_PATH + collection + '/' + id);
+        link.setClassName(className);
+        return link;
+    }
+
+    static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
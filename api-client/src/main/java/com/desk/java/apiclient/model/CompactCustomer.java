@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static com.desk.java.apiclient.model.CompactCase.equal;
+import static com.desk.java.apiclient.model.CompactCase.link;
+
+/**
+ * <p>
+ *     Immutable, memory compact variant of {@link Customer} for large in-memory working sets.
+ * </p>
+ *
+ * <p>
+ *     Emails, phone numbers and addresses share one flat array of type/value pairs, the company and the user
+ *     holding the lock are stored as primitive ids and custom fields as slots of a shared
+ *     {@link CustomFieldSchema}. Embedded resources and the facebook and twitter links are not retained.
+ * </p>
+ */
+public final class CompactCustomer implements Serializable {
+
+    private static final long serialVersionUID = -6480520146620233016L;
+
+    private static final String[] NO_CONTACTS = new String[0];
+
+    private final long id;
+    private final long companyId;
+    private final long lockedById;
+    private final String firstName;
+    private final String lastName;
+    private final String avatar;
+    private final String title;
+    private final String language;
+    private final String background;
+    private final String companyName;
+    private final String displayName;
+    // emails, then phone numbers, then addresses as type/value pairs
+    private final String[] contacts;
+    private final short emailCount;
+    private final short phoneNumberCount;
+    private final CustomFieldSchema schema;
+    private final String[] customFields;
+
+    private CompactCustomer(Customer customer, CustomFieldSchema schema) {
+        CustomerLinks links = customer.getLinks();
+        this.id = customer.getId();
+        this.companyId = links.getCompany() == null ? Case.NO_ID : links.getCompany().getLinkId();
+        this.lockedById = links.getLockedBy() == null ? Case.NO_ID : links.getLockedBy().getLinkId();
+        this.firstName = customer.getFirstName();
+        this.lastName = customer.getLastName();
+        this.avatar = customer.getAvatar();
+        this.title = customer.getTitle();
+        this.language = customer.getLanguage();
+        this.background = customer.getBackground();
+        this.companyName = customer.getCompanyName();
+        this.displayName = customer.getDisplayName();
+        CustomerContact[] emails = customer.getEmails();
+        CustomerContact[] phoneNumbers = customer.getPhoneNumbers();
+        CustomerContact[] addresses = customer.getAddresses();
+        int count = emails.length + phoneNumbers.length + addresses.length;
+        if (emails.length > Short.MAX_VALUE || phoneNumbers.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many contacts for customer " + id);
+        }
+        this.contacts = count == 0 ? NO_CONTACTS : new String[count * 2];
+        int offset = copy(emails, contacts, 0);
+        offset = copy(phoneNumbers, contacts, offset);
+        copy(addresses, contacts, offset);
+        this.emailCount = (short) emails.length;
+        this.phoneNumberCount = (short) phoneNumbers.length;
+        this.schema = schema;
+        this.customFields = schema.toSlots(customer.getCustomFields());
+    }
+
+    /**
+     * Creates the compact variant of a customer
+     *
+     * @param customer the customer
+     * @param schema the custom field schema for customers shared by all compact customers
+     * @return the compact customer
+     */
+    public static CompactCustomer from(@NotNull Customer customer, @NotNull CustomFieldSchema schema) {
+        return new CompactCustomer(customer, schema);
+    }
+
+    /**
+     * Creates a regular {@link Customer} with the retained fields. Links are rebuilt from the retained ids.
+     *
+     * @return a new customer
+     */
+    public Customer toCustomer() {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setAvatar(avatar);
+        customer.setTitle(title);
+        customer.setLanguage(language);
+        customer.setBackground(background);
+        customer.setCompanyName(companyName);
+        customer.setDisplayName(displayName);
+        customer.setEmails(getEmails());
+        customer.setPhoneNumbers(getPhoneNumbers());
+        customer.setAddresses(getAddresses());
+        if (customFields != null) {
+            customer.setCustomFields(schema.toMap(customFields));
+        }
+        CustomerLinks links = customer.getLinks();
+        links.setSelf(link("customers", id, "customer"));
+        links.setCompany(link("companies", companyId, "company"));
+        links.setLockedBy(link("users", lockedById, "user"));
+        return customer;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the company id or {@link Case#NO_ID}
+     */
+    public long getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * @return the id of the user holding the lock or {@link Case#NO_ID} if unlocked
+     */
+    public long getLockedById() {
+        return lockedById;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getAvatar() {
+        return avatar;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getBackground() {
+        return background;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return new contact instances for the emails
+     */
+    @NotNull
+    public CustomerContact[] getEmails() {
+        return contacts(0, emailCount);
+    }
+
+    /**
+     * @return new contact instances for the phone numbers
+     */
+    @NotNull
+    public CustomerContact[] getPhoneNumbers() {
+        return contacts(emailCount, phoneNumberCount);
+    }
+
+    /**
+     * @return new contact instances for the addresses
+     */
+    @NotNull
+    public CustomerContact[] getAddresses() {
+        return contacts(emailCount + phoneNumberCount, contacts.length / 2 - emailCount - phoneNumberCount);
+    }
+
+    /**
+     * @return the first email address or null
+     */
+    @Nullable
+    public String getFirstEmail() {
+        return emailCount == 0 ? null : contacts[1];
+    }
+
+    /**
+     * @return the first phone number or null
+     */
+    @Nullable
+    public String getFirstPhone() {
+        return phoneNumberCount == 0 ? null : contacts[emailCount * 2 + 1];
+    }
+
+    @NotNull
+    public CustomFieldSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the value of a custom field
+     *
+     * @param name the field name
+     * @return the value or null if not set or not part of the schema
+     */
+    @Nullable
+    public String getCustomField(String name) {
+        int index = schema.indexOf(name);
+        return index < 0 || customFields == null ? null : customFields[index];
+    }
+
+    /**
+     * @return a new map with the custom field values by name
+     */
+    @NotNull
+    public HashMap<String, String> getCustomFields() {
+        return schema.toMap(customFields);
+    }
+
+    private CustomerContact[] contacts(int first, int count) {
+        CustomerContact[] result = new CustomerContact[count];
+        for (int i = 0; i < count; i++) {
+            int index = (first + i) * 2;
+            result[i] = new CustomerContact(contacts[index], contacts[index + 1]);
+        }
+        return result;
+    }
+
+    private static int copy(CustomerContact[] source, String[] target, int offset) {
+        for (CustomerContact contact : source) {
+            target[offset++] = contact.getType();
+            target[offset++] = contact.getValue();
+        }
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactCustomer)) {
+            return false;
+        }
+        CompactCustomer that = (CompactCustomer) o;
+        return id == that.id
+                && companyId == that.companyId
+                && lockedById == that.lockedById
+                && emailCount == that.emailCount
+                && phoneNumberCount == that.phoneNumberCount
+                && equal(firstName, that.firstName)
+                && equal(lastName, that.lastName)
+                && equal(avatar, that.avatar)
+                && equal(title, that.title)
+                && equal(language, that.language)
+                && equal(background, that.background)
+                && equal(companyName, that.companyName)
+                && equal(displayName, that.displayName)
+                && Arrays.equals(contacts, that.contacts)
+                && schema.equals(that.schema)
+                && Arrays.equals(customFields, that.customFields);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (displayName != null ? displayName.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactCustomer{id=" + id + ", displayName='" + displayName + "'}";
+    }
+}
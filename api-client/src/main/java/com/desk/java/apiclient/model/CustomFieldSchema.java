@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Maps custom field names to fixed slot indexes so that compact models can store custom field values in a
+ *     {@code String[]} instead of a {@link HashMap} per instance. A schema is built once from the
+ *     {@link com.desk.java.apiclient.service.CustomFieldsService} metadata and shared by every compact instance.
+ * </p>
+ *
+ * <p>
+ *     Values of fields that are not part of the schema are not retained by the compact models.
+ * </p>
+ */
+public final class CustomFieldSchema implements Serializable {
+
+    private static final long serialVersionUID = -2817303969475523380L;
+
+    /**
+     * Schema without any fields
+     */
+    public static final CustomFieldSchema EMPTY = new CustomFieldSchema(new String[0]);
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    private CustomFieldSchema(String[] names) {
+        this.names = names;
+        Map<String, Integer> indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+        this.indexes = Collections.unmodifiableMap(indexes);
+    }
+
+    /**
+     * Creates a schema from the given field names in slot order. Duplicate names are ignored.
+     *
+     * @param names the field names
+     * @return the schema
+     */
+    public static CustomFieldSchema of(String... names) {
+        List<String> unique = new ArrayList<>(names.length);
+        for (String name : names) {
+            if (name != null && !unique.contains(name)) {
+                unique.add(name);
+            }
+        }
+        return new CustomFieldSchema(unique.toArray(new String[unique.size()]));
+    }
+
+    /**
+     * Creates a schema from the custom field metadata returned by the custom fields service, keeping only the
+     * active fields of the given type
+     *
+     * @param fields the custom field metadata
+     * @param type the type of the fields to include
+     * @return the schema
+     */
+    public static CustomFieldSchema from(Iterable<CustomField> fields, CustomFieldType type) {
+        List<String> names = new ArrayList<>();
+        for (CustomField field : fields) {
+            if (field.getActive() && type.equals(field.getType()) && !names.contains(field.getName())) {
+                names.add(field.getName());
+            }
+        }
+        return new CustomFieldSchema(names.toArray(new String[names.size()]));
+    }
+
+    /**
+     * @return the number of slots in the schema
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the slot index of the field
+     *
+     * @param name the field name
+     * @return the index or -1 if the field is not part of the schema
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the name of the field in the given slot
+     *
+     * @param index the slot index
+     * @return the field name
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * @return the field names in slot order
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Copies the values of the schema fields into slots
+     *
+     * @param customFields the custom field values by name
+     * @return the slot values or null if none of the schema fields has a value
+     */
+    @Nullable
+    String[] toSlots(@Nullable Map<String, String> customFields) {
+        if (customFields == null || customFields.isEmpty()) {
+            return null;
+        }
+        String[] slots = null;
+        for (int i = 0; i < names.length; i++) {
+            String value = customFields.get(names[i]);
+            if (value != null) {
+                if (slots == null) {
+                    slots = new String[names.length];
+                }
+                slots[i] = value;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Copies slot values back into a map keyed by field name, skipping empty slots
+     *
+     * @param slots the slot values or null
+     * @return the custom field values by name
+     */
+    @NotNull
+    HashMap<String, String> toMap(@Nullable String[] slots) {
+        HashMap<String, String> customFields = new HashMap<>();
+        if (slots != null) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null) {
+                    customFields.put(names[i], slots[i]);
+                }
+            }
+        }
+        return customFields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CustomFieldSchema && Arrays.equals(names, ((CustomFieldSchema) o).names));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomFieldSchema" + Arrays.toString(names);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.JsonAdapter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A customer update holding only the fields that changed, sent with
+ * {@link com.desk.java.apiclient.service.CustomerService#updateCustomer(long, CustomerPatch)}. Either set the
+ * changes one by one or compute them from a fetched customer and a modified copy with
+ * {@link #between(Customer, Customer)}.
+ */
+@JsonAdapter(CustomerPatch.Adapter.class)
+public final class CustomerPatch extends Patch<CustomerPatch> {
+
+    public CustomerPatch() {
+    }
+
+    private CustomerPatch(JsonObject changes) {
+        super(changes);
+    }
+
+    /**
+     * Computes the patch turning the original customer into the modified one. Compares the names, title,
+     * background, language, company name, custom fields and the company link.
+     *
+     * @param original the customer as fetched
+     * @param modified the customer with the changes applied
+     * @return the patch, empty if nothing changed
+     */
+    @NotNull
+    public static CustomerPatch between(@NotNull Customer original, @NotNull Customer modified) {
+        CustomerPatch patch = new CustomerPatch();
+        if (!Objects.equals(original.getFirstName(), modified.getFirstName())) {
+            patch.firstName(modified.getFirstName());
+        }
+        if (!Objects.equals(original.getLastName(), modified.getLastName())) {
+            patch.lastName(modified.getLastName());
+        }
+        if (!Objects.equals(original.getTitle(), modified.getTitle())) {
+            patch.title(modified.getTitle());
+        }
+        if (!Objects.equals(original.getBackground(), modified.getBackground())) {
+            patch.background(modified.getBackground());
+        }
+        if (!Objects.equals(original.getLanguage(), modified.getLanguage())) {
+            patch.language(modified.getLanguage());
+        }
+        if (!Objects.equals(original.getCompanyName(), modified.getCompanyName())) {
+            patch.companyName(modified.getCompanyName());
+        }
+        patch.diffCustomFields(orEmpty(original.getCustomFields()), orEmpty(modified.getCustomFields()));
+        long originalCompany = companyId(original);
+        long modifiedCompany = companyId(modified);
+        if (originalCompany != modifiedCompany) {
+            patch.company(modifiedCompany);
+        }
+        return patch;
+    }
+
+    public CustomerPatch firstName(@Nullable String firstName) {
+        return set("first_name", firstName);
+    }
+
+    public CustomerPatch lastName(@Nullable String lastName) {
+        return set("last_name", lastName);
+    }
+
+    public CustomerPatch title(@Nullable String title) {
+        return set("title", title);
+    }
+
+    public CustomerPatch background(@Nullable String background) {
+        return set("background", background);
+    }
+
+    public CustomerPatch language(@Nullable String language) {
+        return set("language", language);
+    }
+
+    public CustomerPatch companyName(@Nullable String companyName) {
+        return set("company_name", companyName);
+    }
+
+    /**
+     * Links the customer to the company
+     *
+     * @param companyId the company id or 0 to unlink the company
+     * @return this patch
+     */
+    public CustomerPatch company(long companyId) {
+        return link("company", "companies", "company", companyId);
+    }
+
+    @Override
+    CustomerPatch withChanges(JsonObject changes) {
+        return new CustomerPatch(changes);
+    }
+
+    private static long companyId(Customer customer) {
+        Link company = customer.getCompanyLink();
+        return company != null ? company.getLinkId() : 0;
+    }
+
+    static final class Adapter extends Patch.Adapter<CustomerPatch> {
+        @Override
+        CustomerPatch create(JsonObject changes) {
+            return new CustomerPatch(changes);
+        }
+    }
+}
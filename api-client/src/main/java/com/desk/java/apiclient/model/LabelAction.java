@@ -34,5 +34,8 @@ public enum LabelAction {
     APPEND,
 
     @SerializedName("replace")
-    REPLACE
+    REPLACE,
+
+    @SerializedName("remove")
+    REMOVE
 }
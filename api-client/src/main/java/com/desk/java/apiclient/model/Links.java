@@ -28,6 +28,7 @@ package com.desk.java.apiclient.model;
 
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
 
@@ -46,6 +47,10 @@ public class Links implements Serializable {
         return self == null ? new Link() : self;
     }
 
+    public void setSelf(@Nullable Link self) {
+        this.self = self;
+    }
+
     @NotNull
     public String getSelfUrl() {
         return self == null ? "" : self.getUrl();
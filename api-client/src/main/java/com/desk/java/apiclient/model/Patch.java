@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Base of the PATCH bodies which hold only the fields that were changed. The changes are kept as the JSON
+ *     object that is sent, so a field set to null is sent as an explicit null that clears it on the server
+ *     while fields that were never touched are left out.
+ * </p>
+ *
+ * <p>
+ *     Custom fields are sent per key and links as {@code _links} entries, so a patch never carries embedded data
+ *     or custom fields it did not change.
+ * </p>
+ *
+ * @param <P> the patch type returned by the chained setters
+ */
+abstract class Patch<P extends Patch<P>> {
+
+    static final String CUSTOM_FIELDS = "custom_fields";
+    static final String LINKS = "_links";
+
+    /** Writes explicit nulls, which the client's Gson would otherwise drop */
+    private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
+    final JsonObject changes;
+
+    Patch() {
+        this(new JsonObject());
+    }
+
+    Patch(JsonObject changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Whether nothing was changed, in which case there is no point in sending the patch
+     *
+     * @return true if the patch is empty
+     */
+    public boolean isEmpty() {
+        return changes.entrySet().isEmpty();
+    }
+
+    /**
+     * Gets the names of the changed fields as sent in the body, such as {@code subject},
+     * {@code custom_fields.level} or {@code _links.assigned_user}
+     *
+     * @return the changed field names
+     */
+    @NotNull
+    public Set<String> getChangedFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        for (Map.Entry<String, JsonElement> entry : changes.entrySet()) {
+            if (entry.getValue().isJsonObject()
+                    && (CUSTOM_FIELDS.equals(entry.getKey()) || LINKS.equals(entry.getKey()))) {
+                for (Map.Entry<String, JsonElement> nested : entry.getValue().getAsJsonObject().entrySet()) {
+                    fields.add(entry.getKey() + '.' + nested.getKey());
+                }
+            } else {
+                fields.add(entry.getKey());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Whether the later changes can be sent together with these in one update
+     *
+     * @param later the changes made after these
+     * @return true if {@link #merge(Patch)} can combine the patches
+     */
+    public boolean canMerge(@NotNull P later) {
+        return true;
+    }
+
+    /**
+     * Combines the patches into one with the same effect as sending this patch and then the later one. Neither
+     * patch is modified.
+     *
+     * @param later the changes made after these
+     * @return a new patch with the later values winning
+     * @throws IllegalStateException if the patches cannot be combined, see {@link #canMerge(Patch)}
+     */
+    @NotNull
+    public P merge(@NotNull P later) {
+        if (!canMerge(later)) {
+            throw new IllegalStateException("Cannot merge " + later + " into " + this);
+        }
+        P merged = withChanges(copy(changes).getAsJsonObject());
+        for (Map.Entry<String, JsonElement> entry : later.changes.entrySet()) {
+            merged.apply(later, entry.getKey(), entry.getValue());
+        }
+        return merged;
+    }
+
+    /**
+     * Sets a custom field, or clears it when the value is null
+     *
+     * @param key the custom field key
+     * @param value the value or null
+     * @return this patch
+     */
+    public P customField(@NotNull String key, @Nullable String value) {
+        nested(CUSTOM_FIELDS).add(key, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
+        return self();
+    }
+
+    @SuppressWarnings("unchecked")
+    final P self() {
+        return (P) this;
+    }
+
+    final P set(String name, @Nullable String value) {
+        changes.add(name, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
+        return self();
+    }
+
+    final P set(String name, @Nullable Object value) {
+        changes.add(name, value == null ? JsonNull.INSTANCE : GSON.toJsonTree(value));
+        return self();
+    }
+
+    /**
+     * Points the link at the entity with the id, or clears it when the id is 0
+     */
+    final P link(String name, String collection, String className, long id) {
+        JsonElement link = JsonNull.INSTANCE;
+        if (id > 0) {
+            JsonObject object = new JsonObject();
+            object.addProperty("href", "/api/v2/" + collection + "/" + id);
+            object.addProperty("class", className);
+            link = object;
+        }
+        nested(LINKS).add(name, link);
+        return self();
+    }
+
+    /**
+     * Creates a patch of the same type holding the given changes
+     */
+    abstract P withChanges(JsonObject changes);
+
+    /**
+     * Applies a field of a later patch, merging custom fields and links per key
+     */
+    void apply(P later, String name, JsonElement value) {
+        if ((CUSTOM_FIELDS.equals(name) || LINKS.equals(name)) && value.isJsonObject()) {
+            JsonObject target = nested(name);
+            for (Map.Entry<String, JsonElement> nested : value.getAsJsonObject().entrySet()) {
+                target.add(nested.getKey(), copy(nested.getValue()));
+            }
+        } else {
+            changes.add(name, copy(value));
+        }
+    }
+
+    static JsonElement copy(JsonElement element) {
+        return GSON.toJsonTree(element);
+    }
+
+    private JsonObject nested(String name) {
+        JsonElement nested = changes.get(name);
+        if (nested == null || !nested.isJsonObject()) {
+            nested = new JsonObject();
+            changes.add(name, nested);
+        }
+        return nested.getAsJsonObject();
+    }
+
+    /**
+     * Adds the custom fields whose values differ between the two maps, clearing those which were removed
+     */
+    final void diffCustomFields(Map<String, String> before, Map<String, String> after) {
+        Set<String> keys = new HashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            if (!Objects.equals(before.get(key), after.get(key))) {
+                customField(key, after.get(key));
+            }
+        }
+    }
+
+    static Map<String, String> orEmpty(@Nullable Map<String, String> map) {
+        return map != null ? map : Collections.<String, String>emptyMap();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o != null && getClass() == o.getClass() && changes.equals(((Patch<?>) o).changes));
+    }
+
+    @Override
+    public int hashCode() {
+        return changes.hashCode();
+    }
+
+    /**
+     * Gets the JSON body
+     *
+     * @return the JSON of the changes
+     */
+    @Override
+    public String toString() {
+        return GSON.toJson(changes);
+    }
+
+    /**
+     * Writes the changes as they are, including explicit nulls
+     *
+     * @param <P> the patch type
+     */
+    abstract static class Adapter<P extends Patch<P>> extends TypeAdapter<P> {
+
+        @Override
+        public void write(JsonWriter out, P patch) throws IOException {
+            if (patch == null) {
+                out.nullValue();
+            } else {
+                GSON.toJson(patch.changes, out);
+            }
+        }
+
+        @Override
+        public P read(JsonReader in) throws IOException {
+            JsonObject changes = GSON.fromJson(in, JsonObject.class);
+            return changes != null ? create(changes) : null;
+        }
+
+        abstract P create(JsonObject changes);
+    }
+}
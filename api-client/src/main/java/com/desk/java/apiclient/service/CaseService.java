@@ -31,12 +31,15 @@ import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.Attachment;
 import com.desk.java.apiclient.model.Case;
 import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.CasePatch;
 import com.desk.java.apiclient.model.Embed;
 import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.MacroResponse;
 import com.desk.java.apiclient.model.Message;
 import com.desk.java.apiclient.model.SortDirection;
 
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -44,6 +47,7 @@ import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * <p>
@@ -163,6 +167,66 @@ public interface CaseService {
                      @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
                      @Query("embed") Embed embed, @Query("fields") Fields fields);
 
+    /**
+     * Retrieves the raw json of a page of cases for a given filter without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param filterId the id of the filter
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(FILTERS_URI + "/{id}/" + CASES_URI)
+    Call<ResponseBody> getCasesByFilterRaw(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
+                                           @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                           @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of cases for a given customer without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param customerId the id of the customer
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(CASES_URI)
+    Call<ResponseBody> getCasesByCustomerRaw(@Query("customer_id") long customerId, @Query("per_page") int perPage, @Query("page") int page,
+                                             @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                             @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of cases matching a query without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param query the query to search for
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(CASES_URI + "/search")
+    Call<ResponseBody> searchCasesRaw(@Query("q") String query, @Query("per_page") int perPage, @Query("page") int page,
+                                      @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                      @Query("embed") Embed embed, @Query("fields") Fields fields);
+
     /**
      * Gets the case by id
      * @see <a href="http://dev.desk.com/API/cases/#show">http://dev.desk.com/API/cases/#show</a>
@@ -224,6 +288,31 @@ public interface CaseService {
     Call<Case> updateCase(@Path("id") long caseId, @Body Case updatedCase, @Query("embed") Embed embed,
                     @Query("fields") Fields fields);
 
+    /**
+     * Updates a case sending only the changed fields
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param patch the changes
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    Call<Case> updateCase(@Path("id") long caseId, @Body CasePatch patch);
+
+    /**
+     * Updates a case sending only the changed fields
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param patch the changes
+     * @param embed what to embed in the response
+     * @param fields the fields requested in the response
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    Call<Case> updateCase(@Path("id") long caseId, @Body CasePatch patch, @Query("embed") Embed embed,
+                    @Query("fields") Fields fields);
+
     /**
      * Creates a case
      * @param newCase the case to create
@@ -336,4 +425,15 @@ public interface CaseService {
      */
     @GET(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
     Call<ApiResponse<Attachment>> getAttachments(@Path("id") long caseId, @Query("per_page") int perPage, @Query("page") int page);
+
+    /**
+     * Creates an attachment on a case
+     * @see <a href="http://dev.desk.com/API/cases/#attachments-create">http://dev.desk.com/API/cases/#attachments-create</a>
+     *
+     * @param caseId the id of the case
+     * @param attachment the attachment json body, see {@link com.desk.java.apiclient.attachment.AttachmentRequestBody}
+     * @return the created attachment
+     */
+    @POST(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
+    Call<Attachment> createAttachment(@Path("id") long caseId, @Body RequestBody attachment);
 }
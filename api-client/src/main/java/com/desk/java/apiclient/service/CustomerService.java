@@ -29,11 +29,13 @@ package com.desk.java.apiclient.service;
 import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.Case;
 import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.CustomerPatch;
 import com.desk.java.apiclient.model.Embed;
 import com.desk.java.apiclient.model.FeatureCheck;
 import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.SortDirection;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -41,6 +43,7 @@ import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * <p>
@@ -106,6 +109,46 @@ public interface CustomerService {
                                                                  @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
                                                                  @Query("embed") Embed embed, @Query("fields") Fields fields);
 
+    /**
+     * Retrieves the raw json of a page of customers for a given filter without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param filterId the id of the filter
+     * @param perPage the total customers per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(FILTERS_URI + "/{id}/" + CUSTOMERS_URI)
+    Call<ResponseBody> getCustomersByFilterRaw(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
+                                               @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                               @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of customers matching a query without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param query the query to search for
+     * @param embed what to embed
+     * @param perPage the total customers per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(CUSTOMERS_URI + "/search")
+    Call<ResponseBody> searchCustomersRaw(@Query("q") String query, @Query("embed") Embed embed,
+                                          @Query("per_page") int perPage, @Query("page") int page,
+                                          @Query("sort_field") String sortField,
+                                          @Query("sort_direction") SortDirection sortDirection);
+
     /**
      * Retrieve a single customer
      * @see <a href="http://dev.desk.com/API/customers/#show">http://dev.desk.com/API/customers/#show</a>
@@ -128,6 +171,17 @@ public interface CustomerService {
     @PATCH(CUSTOMERS_URI + "/{id}")
     Call<Customer> updateCustomer(@Path("id") long customerId, @Body Customer updatedCustomer);
 
+    /**
+     * Updates a customer sending only the changed fields
+     * @see <a href="http://dev.desk.com/API/customers/#update">http://dev.desk.com/API/customers/#update</a>
+     *
+     * @param customerId the customer id
+     * @param patch the changes
+     * @return a customer
+     */
+    @PATCH(CUSTOMERS_URI + "/{id}")
+    Call<Customer> updateCustomer(@Path("id") long customerId, @Body CustomerPatch patch);
+
     /**
      * Creates a customer
      * @see <a href="http://dev.desk.com/API/customers/#create">http://dev.desk.com/API/customers/#create</a>
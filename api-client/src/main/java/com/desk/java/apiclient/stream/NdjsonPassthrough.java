@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.stream;
+
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CustomerService;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Streams the entries of paged API responses as newline delimited json (one entry object per line) without
+ *     binding them to models. Pages are requested through the raw {@code @Streaming} service methods such as
+ *     {@link CaseService#getCasesByFilterRaw}, scanned at the byte level and their entries moved to the output
+ *     segment by segment, so the throughput is bound by the network rather than json binding.
+ * </p>
+ *
+ * <p>
+ *     Paging continues while a page has entries and a {@code _links.next} href. The output can optionally be gzip
+ *     compressed. Output streams and channels passed in are flushed but not closed.
+ * </p>
+ */
+public final class NdjsonPassthrough {
+
+    /**
+     * Largest page size accepted by the API
+     */
+    public static final int MAX_PER_PAGE = 100;
+
+    private NdjsonPassthrough() {
+    }
+
+    /**
+     * Creates the call for a page
+     */
+    public interface PageRequest {
+
+        /**
+         * @param page the page number starting at 1
+         * @return the call retrieving the raw page
+         */
+        Call<ResponseBody> page(int page);
+    }
+
+    /**
+     * Summary of a passthrough run
+     */
+    public static final class Result {
+
+        private final long entryCount;
+        private final int pageCount;
+        private final long totalEntries;
+
+        Result(long entryCount, int pageCount, long totalEntries) {
+            this.entryCount = entryCount;
+            this.pageCount = pageCount;
+            this.totalEntries = totalEntries;
+        }
+
+        /**
+         * @return the number of entries written
+         */
+        public long getEntryCount() {
+            return entryCount;
+        }
+
+        /**
+         * @return the number of pages retrieved
+         */
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        /**
+         * @return the total entries reported by the last page or -1 if not reported
+         */
+        public long getTotalEntries() {
+            return totalEntries;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{entryCount=" + entryCount + ", pageCount=" + pageCount + ", totalEntries="
+                    + totalEntries + '}';
+        }
+    }
+
+    /**
+     * Streams all pages to an output stream
+     *
+     * @param pages creates the page calls
+     * @param out the output stream, flushed but not closed
+     * @param gzip whether to gzip the output
+     * @return the summary
+     * @throws IOException if a page cannot be retrieved or the output cannot be written
+     */
+    public static Result stream(PageRequest pages, OutputStream out, boolean gzip) throws IOException {
+        Sink sink = Okio.sink(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        BufferedSink output = Okio.buffer(gzip ? new GzipSink(sink) : sink);
+        try {
+            return stream(pages, output);
+        } finally {
+            // writes the gzip trailer, the wrapped stream is only flushed
+            output.close();
+        }
+    }
+
+    /**
+     * Streams all pages to a channel
+     *
+     * @param pages creates the page calls
+     * @param channel the channel, not closed
+     * @param gzip whether to gzip the output
+     * @return the summary
+     * @throws IOException if a page cannot be retrieved or the output cannot be written
+     */
+    public static Result stream(PageRequest pages, WritableByteChannel channel, boolean gzip) throws IOException {
+        return stream(pages, Channels.newOutputStream(channel), gzip);
+    }
+
+    /**
+     * Streams all pages to a sink, which is flushed after each page
+     *
+     * @param pages creates the page calls
+     * @param sink the sink
+     * @return the summary
+     * @throws IOException if a page cannot be retrieved or the output cannot be written
+     */
+    public static Result stream(PageRequest pages, BufferedSink sink) throws IOException {
+        long entryCount = 0;
+        long totalEntries = -1;
+        int page = 1;
+        while (true) {
+            Response<ResponseBody> response = pages.page(page).execute();
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                if (response.errorBody() != null) {
+                    response.errorBody().close();
+                }
+                throw new IOException("Retrieving page " + page + " failed with HTTP " + response.code());
+            }
+            PageScanner.Page scanned;
+            try {
+                scanned = PageScanner.scan(body.source(), sink);
+            } finally {
+                body.close();
+            }
+            sink.flush();
+            entryCount += scanned.entryCount;
+            totalEntries = scanned.totalEntries;
+            if (scanned.entryCount == 0 || scanned.next == null || scanned.next.isEmpty()) {
+                return new Result(entryCount, page, totalEntries);
+            }
+            page++;
+        }
+    }
+
+    /**
+     * @return the page request for the cases of a filter
+     */
+    public static PageRequest casesByFilter(final CaseService service, final long filterId,
+                                            @Nullable final Fields fields) {
+        return new PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return service.getCasesByFilterRaw(filterId, MAX_PER_PAGE, page, null, null, null, fields);
+            }
+        };
+    }
+
+    /**
+     * @return the page request for the cases of a customer
+     */
+    public static PageRequest casesByCustomer(final CaseService service, final long customerId,
+                                              @Nullable final Fields fields) {
+        return new PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return service.getCasesByCustomerRaw(customerId, MAX_PER_PAGE, page, null, null, null, fields);
+            }
+        };
+    }
+
+    /**
+     * @return the page request for the cases matching a query
+     */
+    public static PageRequest searchCases(final CaseService service, final String query,
+                                          @Nullable final Fields fields) {
+        return new PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return service.searchCasesRaw(query, MAX_PER_PAGE, page, null, null, null, fields);
+            }
+        };
+    }
+
+    /**
+     * @return the page request for the customers of a filter
+     */
+    public static PageRequest customersByFilter(final CustomerService service, final long filterId,
+                                                @Nullable final Fields fields) {
+        return new PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return service.getCustomersByFilterRaw(filterId, MAX_PER_PAGE, page, null, null, null, fields);
+            }
+        };
+    }
+
+    /**
+     * @return the page request for the customers matching a query
+     */
+    public static PageRequest searchCustomers(final CustomerService service, final String query) {
+        return new PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return service.searchCustomersRaw(query, null, MAX_PER_PAGE, page, null, null);
+            }
+        };
+    }
+}
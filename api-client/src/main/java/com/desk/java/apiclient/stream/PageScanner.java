@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * <p>
+ *     Scans a page of the Desk API at the byte level. Each object of {@code _embedded.entries} is moved to the sink
+ *     as one line, {@code total_entries} and the {@code _links.next} href are read and everything else is skipped.
+ * </p>
+ *
+ * <p>
+ *     Only structural characters are inspected, found with {@link BufferedSource#indexOfElement(ByteString, long)},
+ *     and entries are moved as whole segments, so the bytes of an entry are never decoded or copied into arrays.
+ *     Raw line breaks can only occur between tokens in valid JSON and are dropped from entries to keep one entry per
+ *     line.
+ * </p>
+ */
+final class PageScanner {
+
+    private static final ByteString STRUCTURE = ByteString.encodeUtf8("\"{}[]\r\n");
+    private static final ByteString STRING_END = ByteString.encodeUtf8("\"\\");
+    private static final ByteString VALUE_END = ByteString.encodeUtf8(",}] \t\r\n");
+    private static final ByteString LINE_BREAKS = ByteString.encodeUtf8("\r\n");
+
+    /**
+     * What was read from a page besides the entries
+     */
+    static final class Page {
+        long entryCount;
+        long totalEntries = -1;
+        String next;
+    }
+
+    private final BufferedSource source;
+    private final BufferedSink sink;
+    private final Page page = new Page();
+    private boolean lineBreaks;
+
+    private PageScanner(BufferedSource source, BufferedSink sink) {
+        this.source = source;
+        this.sink = sink;
+    }
+
+    /**
+     * Moves the entries of the page to the sink as newline delimited json
+     *
+     * @param source the page json
+     * @param sink the sink receiving one line per entry
+     * @return the page details
+     * @throws IOException if the page cannot be read or is not a json object
+     */
+    static Page scan(BufferedSource source, BufferedSink sink) throws IOException {
+        PageScanner scanner = new PageScanner(source, sink);
+        scanner.readObject(Level.PAGE);
+        return scanner.page;
+    }
+
+    private enum Level { PAGE, LINKS, NEXT, EMBEDDED }
+
+    private void readObject(Level level) throws IOException {
+        expect('{');
+        while (true) {
+            skipWhitespace();
+            byte b = peek();
+            if (b == '}') {
+                source.skip(1);
+                return;
+            } else if (b == ',') {
+                source.skip(1);
+                continue;
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            readValue(level, key);
+        }
+    }
+
+    private void readValue(Level level, String key) throws IOException {
+        byte b = peek();
+        if (level == Level.PAGE && "total_entries".equals(key) && b != 'n') {
+            page.totalEntries = Long.parseLong(source.readUtf8(valueEnd()));
+        } else if (level == Level.PAGE && "_links".equals(key) && b == '{') {
+            readObject(Level.LINKS);
+        } else if (level == Level.LINKS && "next".equals(key) && b == '{') {
+            readObject(Level.NEXT);
+        } else if (level == Level.NEXT && "href".equals(key) && b == '"') {
+            page.next = readString();
+        } else if (level == Level.PAGE && "_embedded".equals(key) && b == '{') {
+            readObject(Level.EMBEDDED);
+        } else if (level == Level.EMBEDDED && "entries".equals(key) && b == '[') {
+            readEntries();
+        } else {
+            source.skip(valueEnd());
+        }
+    }
+
+    private void readEntries() throws IOException {
+        expect('[');
+        while (true) {
+            skipWhitespace();
+            byte b = peek();
+            if (b == ']') {
+                source.skip(1);
+                return;
+            } else if (b == ',') {
+                source.skip(1);
+            } else if (b == '{') {
+                moveEntry();
+            } else {
+                source.skip(valueEnd());
+            }
+        }
+    }
+
+    private void moveEntry() throws IOException {
+        lineBreaks = false;
+        long length = containerEnd();
+        if (lineBreaks) {
+            Buffer entry = new Buffer();
+            source.readFully(entry, length);
+            for (long index; (index = entry.indexOfElement(LINE_BREAKS)) != -1; ) {
+                sink.write(entry, index);
+                entry.skip(1);
+            }
+            sink.write(entry, entry.size());
+        } else {
+            sink.write(source.buffer(), length);
+        }
+        sink.writeByte('\n');
+        sink.emitCompleteSegments();
+        page.entryCount++;
+    }
+
+    /**
+     * @return the length of the value starting at the head of the source
+     */
+    private long valueEnd() throws IOException {
+        byte b = peek();
+        if (b == '"') {
+            return stringEnd(1);
+        } else if (b == '{' || b == '[') {
+            return containerEnd();
+        }
+        long index = source.indexOfElement(VALUE_END, 1);
+        return index == -1 ? source.buffer().size() : index;
+    }
+
+    private long containerEnd() throws IOException {
+        int depth = 0;
+        long index = 0;
+        while (true) {
+            index = source.indexOfElement(STRUCTURE, index);
+            if (index == -1) {
+                throw new EOFException("Unterminated json value");
+            }
+            byte b = source.buffer().getByte(index);
+            if (b == '"') {
+                index = stringEnd(index + 1);
+                continue;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) {
+                    return index + 1;
+                }
+            } else {
+                lineBreaks = true;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * @return the index after the closing quote of a string whose content starts at the given index
+     */
+    private long stringEnd(long from) throws IOException {
+        long index = from;
+        while (true) {
+            index = source.indexOfElement(STRING_END, index);
+            if (index == -1) {
+                throw new EOFException("Unterminated json string");
+            }
+            if (source.buffer().getByte(index) == '\\') {
+                index += 2;
+            } else {
+                return index + 1;
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            long index = source.indexOfElement(STRING_END);
+            if (index == -1) {
+                throw new EOFException("Unterminated json string");
+            }
+            sb.append(source.readUtf8(index));
+            if (source.readByte() == '"') {
+                return sb.toString();
+            }
+            byte escaped = source.readByte();
+            switch (escaped) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u': sb.append((char) Integer.parseInt(source.readUtf8(4), 16)); break;
+                default: sb.append((char) escaped);
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (source.request(1)) {
+            byte b = source.buffer().getByte(0);
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return;
+            }
+            source.skip(1);
+        }
+    }
+
+    private byte peek() throws IOException {
+        source.require(1);
+        return source.buffer().getByte(0);
+    }
+
+    private void expect(char c) throws IOException {
+        skipWhitespace();
+        byte b = source.readByte();
+        if (b != c) {
+            throw new IOException("Expected '" + c + "' but was '" + (char) b + "'");
+        }
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.timeline;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     The interaction history of a customer across all of their cases, merged into one stream of messages ordered
+ *     by creation date.
+ * </p>
+ *
+ * <p>
+ *     Each case feed is a sorted stream and a heap of the stream heads picks the next message, which is emitted
+ *     as soon as no stream that has not been read yet could hold an earlier one. The cases are listed by the
+ *     date bounding their messages, the update date when the newest messages come first and the creation date
+ *     when the oldest do, so a stream only needs to be fetched once its bound can beat the current head. Feeds
+ *     are fetched concurrently, never more than the parallelism at a time, and nothing more is fetched once the
+ *     requested number of messages was consumed. Reading the newest few messages of a customer with hundreds of
+ *     cases therefore fetches the feeds of only the most recently updated cases.
+ * </p>
+ *
+ * <p>
+ *     Messages without a creation date sort as the oldest. Instances are immutable and safe to share across
+ *     threads, the cursors they open are not.
+ * </p>
+ */
+public class CustomerTimeline {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    static final int CASE_PAGE_SIZE = 100;
+    static final Fields CASE_FIELDS = Fields.include("id", "created_at", "updated_at");
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final CaseService cases;
+    private final int parallelism;
+    private final int pageSize;
+
+    /**
+     * Creates a timeline with the default parallelism and feed page size
+     *
+     * @param cases the case service
+     */
+    public CustomerTimeline(CaseService cases) {
+        this(cases, DEFAULT_PARALLELISM, DEFAULT_PAGE_SIZE);
+    }
+
+    private CustomerTimeline(CaseService cases, int parallelism, int pageSize) {
+        this.cases = cases;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns a timeline fetching at most the given number of feed pages at a time
+     *
+     * @param parallelism the maximum number of feed requests in flight
+     * @return the new timeline
+     */
+    public CustomerTimeline withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive but was " + parallelism);
+        }
+        return new CustomerTimeline(cases, parallelism, pageSize);
+    }
+
+    /**
+     * Returns a timeline requesting feed pages of the given size. Smaller pages fetch less that is never read
+     * when only a few messages are consumed.
+     *
+     * @param pageSize the feed page size
+     * @return the new timeline
+     */
+    public CustomerTimeline withPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive but was " + pageSize);
+        }
+        return new CustomerTimeline(cases, parallelism, pageSize);
+    }
+
+    /**
+     * Opens a cursor over the messages of the customer's cases
+     *
+     * @param customerId the id of the customer
+     * @param limit the maximum number of messages to read
+     * @param direction {@link SortDirection#DESC} for the newest messages first, {@link SortDirection#ASC} for the
+     *                  oldest first
+     * @return the cursor, which must be closed if it is not read to the end
+     */
+    public Cursor open(long customerId, int limit, SortDirection direction) {
+        return new Cursor(customerId, limit, direction);
+    }
+
+    /**
+     * Reads up to the given number of messages of the customer's cases
+     *
+     * @param customerId the id of the customer
+     * @param limit the maximum number of messages to read
+     * @param direction {@link SortDirection#DESC} for the newest messages first, {@link SortDirection#ASC} for the
+     *                  oldest first
+     * @return the messages in order
+     * @throws IOException if a request fails
+     */
+    public List<TimelineEvent> fetch(long customerId, int limit, SortDirection direction) throws IOException {
+        List<TimelineEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        try (Cursor cursor = open(customerId, limit, direction)) {
+            while (cursor.hasNext()) {
+                events.add(cursor.next());
+            }
+        }
+        return events;
+    }
+
+    private static long millis(Date date) {
+        return date != null ? date.getTime() : NO_DATE;
+    }
+
+    /**
+     * <p>
+     *     Reads the merged timeline one message at a time. Feed requests complete on the http client's threads
+     *     and are handed to the reading thread through a queue, so the merge state itself is only ever touched
+     *     by the thread calling {@link #hasNext()} and {@link #next()}.
+     * </p>
+     *
+     * <p>
+     *     Closing the cursor cancels the feed requests still in flight.
+     * </p>
+     */
+    public final class Cursor implements Closeable {
+
+        private final long customerId;
+        private final int limit;
+        private final SortDirection direction;
+        /** Orders keys so that the one to be emitted first compares lowest */
+        private final int sign;
+        private final PriorityQueue<CaseFeed> heads;
+        private final TreeSet<CaseFeed> pending;
+        private final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        private final List<CaseFeed> fetching = new ArrayList<>();
+
+        private int nextCasePage = 1;
+        private boolean moreCases = true;
+        /** The bound of the last listed case, no case listed later may beat it */
+        private long caseFrontier;
+        private int emitted;
+        private int requestCount;
+        private TimelineEvent peeked;
+        private boolean closed;
+
+        Cursor(long customerId, int limit, SortDirection direction) {
+            this.customerId = customerId;
+            this.limit = limit;
+            this.direction = direction;
+            this.sign = direction == SortDirection.ASC ? 1 : -1;
+            this.heads = new PriorityQueue<>(16, new Comparator<CaseFeed>() {
+                @Override
+                public int compare(CaseFeed a, CaseFeed b) {
+                    int result = compareKeys(a.headKey(), b.headKey());
+                    if (result == 0) {
+                        result = Long.compare(a.caseId, b.caseId);
+                    }
+                    return result != 0 ? result : Long.compare(a.buffer.peekFirst().getId(),
+                            b.buffer.peekFirst().getId());
+                }
+            });
+            this.pending = new TreeSet<>(new Comparator<CaseFeed>() {
+                @Override
+                public int compare(CaseFeed a, CaseFeed b) {
+                    int result = compareKeys(a.bound, b.bound);
+                    return result != 0 ? result : Long.compare(a.caseId, b.caseId);
+                }
+            });
+        }
+
+        /**
+         * Whether there is another message, waiting for feed requests if needed
+         *
+         * @return true if {@link #next()} returns a message
+         * @throws IOException if a request fails, which closes the cursor
+         */
+        public boolean hasNext() throws IOException {
+            if (peeked == null && !closed) {
+                try {
+                    peeked = advance();
+                } catch (IOException | RuntimeException e) {
+                    close();
+                    throw e;
+                }
+                if (peeked == null) {
+                    close();
+                }
+            }
+            return peeked != null;
+        }
+
+        /**
+         * Gets the next message
+         *
+         * @return the next message in order
+         * @throws IOException if a request fails, which closes the cursor
+         * @throws NoSuchElementException if there are no more messages
+         */
+        public TimelineEvent next() throws IOException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TimelineEvent event = peeked;
+            peeked = null;
+            return event;
+        }
+
+        /**
+         * Gets the number of case list and feed requests made so far
+         *
+         * @return the request count
+         */
+        public int getRequestCount() {
+            return requestCount;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (CaseFeed feed : fetching) {
+                feed.call.cancel();
+            }
+            fetching.clear();
+        }
+
+        private TimelineEvent advance() throws IOException {
+            while (emitted < limit) {
+                CaseFeed head = heads.peek();
+                CaseFeed blocker = pending.isEmpty() ? null : pending.first();
+                if (moreCases && !beatsUnlisted(head, blocker)) {
+                    // a case not listed yet could hold the next message
+                    listNextCases();
+                    continue;
+                }
+                if (blocker == null || (head != null && compareKeys(head.headKey(), blocker.bound) < 0)) {
+                    if (head == null) {
+                        return null;
+                    }
+                    return emit(heads.poll());
+                }
+                fetchBest();
+                awaitCompletion();
+            }
+            return null;
+        }
+
+        private boolean beatsUnlisted(CaseFeed head, CaseFeed blocker) {
+            if (nextCasePage == 1) {
+                return false;
+            }
+            return (head != null && compareKeys(head.headKey(), caseFrontier) < 0)
+                    || (blocker != null && compareKeys(blocker.bound, caseFrontier) < 0);
+        }
+
+        private TimelineEvent emit(CaseFeed feed) {
+            Message message = feed.buffer.pollFirst();
+            emitted++;
+            if (!feed.buffer.isEmpty()) {
+                heads.add(feed);
+            } else if (!feed.exhausted) {
+                // later pages of the feed hold nothing beyond the message just emitted
+                feed.bound = millis(message.getCreatedAt());
+                pending.add(feed);
+            }
+            return new TimelineEvent(feed.caseId, message);
+        }
+
+        private void listNextCases() throws IOException {
+            String sortField = direction == SortDirection.ASC ? "created_at" : "updated_at";
+            Response<ApiResponse<Case>> response = cases.getCasesByCustomer(customerId, CASE_PAGE_SIZE,
+                    nextCasePage, sortField, direction, null, CASE_FIELDS).execute();
+            requestCount++;
+            if (!response.isSuccessful()) {
+                throw new IOException("Listing the cases of customer " + customerId + " failed with HTTP "
+                        + response.code());
+            }
+            List<Case> page = response.body().getEntriesAsList();
+            for (Case deskCase : page) {
+                long bound = direction == SortDirection.ASC
+                        ? millis(deskCase.getCreatedAt())
+                        : (deskCase.getUpdatedAt() != null ? deskCase.getUpdatedAt().getTime() : Long.MAX_VALUE);
+                pending.add(new CaseFeed(deskCase.getId(), bound));
+                caseFrontier = bound;
+            }
+            nextCasePage++;
+            moreCases = response.body().hasNextPage() && !page.isEmpty();
+        }
+
+        /**
+         * Starts feed requests for the pending streams with the best bounds until the parallelism is used up. The
+         * first pending stream is the one blocking the merge, the others are prefetched.
+         */
+        private void fetchBest() {
+            for (final CaseFeed feed : pending) {
+                if (fetching.size() >= parallelism) {
+                    return;
+                }
+                if (feed.call != null) {
+                    continue;
+                }
+                Call<ApiResponse<Message>> call = cases.getCaseFeed(feed.caseId, pageSize, feed.nextPage, direction);
+                feed.call = call;
+                fetching.add(feed);
+                requestCount++;
+                call.enqueue(new Callback<ApiResponse<Message>>() {
+                    @Override
+                    public void onResponse(Call<ApiResponse<Message>> call, Response<ApiResponse<Message>> response) {
+                        completions.add(new Completion(feed, response, null));
+                    }
+
+                    @Override
+                    public void onFailure(Call<ApiResponse<Message>> call, Throwable t) {
+                        completions.add(new Completion(feed, null, t));
+                    }
+                });
+            }
+        }
+
+        private void awaitCompletion() throws IOException {
+            Completion completion;
+            try {
+                completion = completions.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted reading the timeline of customer " + customerId);
+            }
+            CaseFeed feed = completion.feed;
+            fetching.remove(feed);
+            feed.call = null;
+            if (completion.failure != null) {
+                if (completion.failure instanceof IOException) {
+                    throw (IOException) completion.failure;
+                }
+                throw new IOException(completion.failure);
+            }
+            Response<ApiResponse<Message>> response = completion.response;
+            if (!response.isSuccessful()) {
+                throw new IOException("Reading the feed of case " + feed.caseId + " failed with HTTP "
+                        + response.code());
+            }
+            List<Message> page = new ArrayList<>(response.body().getEntriesAsList());
+            Collections.sort(page, new Comparator<Message>() {
+                @Override
+                public int compare(Message a, Message b) {
+                    return compareKeys(millis(a.getCreatedAt()), millis(b.getCreatedAt()));
+                }
+            });
+            pending.remove(feed);
+            feed.nextPage++;
+            feed.exhausted = page.isEmpty() || !response.body().hasNextPage();
+            if (!page.isEmpty()) {
+                feed.buffer.addAll(page);
+                heads.add(feed);
+            }
+        }
+
+        /**
+         * Compares two keys in emission order, negative when the first is emitted first
+         */
+        private int compareKeys(long a, long b) {
+            return sign * Long.compare(a, b);
+        }
+    }
+
+    /**
+     * The feed of one case, either pending with a bound on what it may still hold, fetching, or buffering the
+     * messages of its last page
+     */
+    private static final class CaseFeed {
+
+        final long caseId;
+        final ArrayDeque<Message> buffer = new ArrayDeque<>();
+        long bound;
+        int nextPage = 1;
+        boolean exhausted;
+        Call<ApiResponse<Message>> call;
+
+        CaseFeed(long caseId, long bound) {
+            this.caseId = caseId;
+            this.bound = bound;
+        }
+
+        long headKey() {
+            return millis(buffer.peekFirst().getCreatedAt());
+        }
+    }
+
+    private static final class Completion {
+
+        final CaseFeed feed;
+        final Response<ApiResponse<Message>> response;
+        final Throwable failure;
+
+        Completion(CaseFeed feed, Response<ApiResponse<Message>> response, Throwable failure) {
+            this.feed = feed;
+            this.response = response;
+            this.failure = failure;
+        }
+    }
+}
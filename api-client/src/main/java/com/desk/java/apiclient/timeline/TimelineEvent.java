@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.timeline;
+
+import com.desk.java.apiclient.model.Message;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Date;
+
+/**
+ * One message of a {@link CustomerTimeline} together with the case it belongs to.
+ */
+public final class TimelineEvent {
+
+    private final long caseId;
+    private final Message message;
+
+    TimelineEvent(long caseId, @NotNull Message message) {
+        this.caseId = caseId;
+        this.message = message;
+    }
+
+    /**
+     * Gets the id of the case the message belongs to
+     *
+     * @return the case id
+     */
+    public long getCaseId() {
+        return caseId;
+    }
+
+    /**
+     * Gets the message
+     *
+     * @return the message
+     */
+    @NotNull
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the creation date the timeline is ordered by
+     *
+     * @return the creation date of the message
+     */
+    public Date getCreatedAt() {
+        return message.getCreatedAt();
+    }
+
+    @Override
+    public String toString() {
+        return "TimelineEvent{caseId=" + caseId + ", messageId=" + message.getId()
+                + ", createdAt=" + message.getCreatedAt() + '}';
+    }
+}
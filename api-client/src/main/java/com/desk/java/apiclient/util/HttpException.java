@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+import retrofit2.Response;
+
+/**
+ * The failure of a request that completed with an HTTP error status, shared by the client flavors that turn
+ * error responses into exceptions
+ */
+public class HttpException extends IOException {
+
+    private static final long serialVersionUID = 5129618213770415526L;
+
+    private final int code;
+    private final transient Response<?> response;
+
+    public HttpException(@NotNull Response<?> response) {
+        super("HTTP " + response.code() + " " + response.message());
+        this.code = response.code();
+        this.response = response;
+    }
+
+    /**
+     * @return the HTTP status code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the response, whose error body has not been read, or null if the exception was deserialized
+     */
+    public Response<?> getResponse() {
+        return response;
+    }
+}
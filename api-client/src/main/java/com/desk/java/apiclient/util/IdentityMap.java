@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Holds one canonical instance per entity type and id. While a map is active on the current thread, entities
+ *     embedded in the deserialized responses are replaced with the canonical instance for their id, so a page of
+ *     cases that embeds the same user many times references a single {@code User}. The entity a response is about,
+ *     and the entries of a page, are never replaced.
+ * </p>
+ *
+ * <p>
+ *     Within one response the first instance seen for an id is canonical. When a map shared across responses sees
+ *     the id again in a later response, the canonical instance is kept if the newer one holds the same values.
+ *     Otherwise the newer instance becomes canonical, after the fields it was read without were copied into it
+ *     from the previous canonical instance, so a partial read does not lose what a full fetch returned while a
+ *     field changing to {@code null}, {@code false} or 0 is followed.
+ * </p>
+ *
+ * <p>
+ *     Canonical instances are never modified by the map, since other threads may be reading them. Objects
+ *     converted before an update keep referencing the instance they were converted with.
+ * </p>
+ *
+ * <p>
+ *     Canonical instances are weakly held and dropped once nothing else references them, which bounds a shared
+ *     map by the entities the application still uses.
+ * </p>
+ */
+public class IdentityMap {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, Entry> entities = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong mergeCount = new AtomicLong();
+
+    /**
+     * Returns the canonical instance for the type and id, registering the provided instance if there is none yet.
+     * Outside of the response being converted on the current thread, the provided instance is taken as newer and
+     * replaces a canonical instance it differs from. Its null fields are taken as not read.
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param instance the newly deserialized instance
+     * @param <T> the entity type
+     * @return the canonical instance
+     */
+    @NotNull
+    public <T> T canonicalize(@NotNull Class<T> type, long id, @NotNull T instance) {
+        return canonicalize(type, id, instance, null);
+    }
+
+    /**
+     * Returns the canonical instance like {@link #canonicalize(Class, long, Object)}, knowing which fields the
+     * instance was read with
+     *
+     * @param read the fields the instance was read with or null to take its non-null fields
+     */
+    @NotNull
+    <T> T canonicalize(@NotNull Class<T> type, long id, @NotNull T instance, @Nullable Read read) {
+        Scope current = CURRENT.get();
+        Object scope = current != null && current.map == this ? current : null;
+        expungeCollected();
+        Key key = new Key(type, id);
+        while (true) {
+            Entry entry = entities.get(key);
+            Object existing = entry != null ? entry.get() : null;
+            if (existing == null) {
+                Entry created = new Entry(key, instance, scope, collected);
+                boolean registered = entry == null
+                        ? entities.putIfAbsent(key, created) == null
+                        : entities.replace(key, entry, created);
+                if (registered) {
+                    return instance;
+                }
+                continue;
+            }
+            if (existing == instance || (scope != null && entry.scope == scope)
+                    || !changes(existing, instance, read)) {
+                entry.scope = scope;
+                hitCount.incrementAndGet();
+                return type.cast(existing);
+            }
+            complete(instance, existing, read);
+            if (entities.replace(key, entry, new Entry(key, instance, scope, collected))) {
+                mergeCount.incrementAndGet();
+                return instance;
+            }
+        }
+    }
+
+    /**
+     * Gets the canonical instance for the type and id
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param <T> the entity type
+     * @return the canonical instance or null if none has been registered or it was collected
+     */
+    @Nullable
+    public <T> T get(@NotNull Class<T> type, long id) {
+        Entry entry = entities.get(new Key(type, id));
+        return entry != null ? type.cast(entry.get()) : null;
+    }
+
+    /**
+     * @return the number of canonical instances held
+     */
+    public int size() {
+        expungeCollected();
+        return entities.size();
+    }
+
+    /**
+     * @return the number of deserialized instances that were replaced by a canonical instance
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of newer instances which replaced a canonical instance they differed from
+     */
+    public long getMergeCount() {
+        return mergeCount.get();
+    }
+
+    /**
+     * Removes all canonical instances
+     */
+    public void clear() {
+        entities.clear();
+    }
+
+    /**
+     * @return the map active on the current thread or null
+     */
+    @Nullable
+    static IdentityMap current() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.map : null;
+    }
+
+    /**
+     * Makes the map active on the current thread for the conversion of one response
+     *
+     * @param map the map to activate
+     * @return the previously active map which must be passed to {@link #restore(Object)}
+     */
+    @Nullable
+    static Object activate(@Nullable IdentityMap map) {
+        Scope previous = CURRENT.get();
+        CURRENT.set(map != null ? new Scope(map) : null);
+        return previous;
+    }
+
+    /**
+     * Restores the map that was active before {@link #activate(IdentityMap)}
+     *
+     * @param previous the value returned by {@link #activate(IdentityMap)}
+     */
+    static void restore(@Nullable Object previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set((Scope) previous);
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = (Entry) reference;
+            entities.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Whether the newer instance holds a value the canonical instance does not
+     */
+    private static boolean changes(Object canonical, Object instance, @Nullable Read read) {
+        if (canonical.getClass() != instance.getClass()) {
+            return true;
+        }
+        if (read != null) {
+            return !read.matches(canonical);
+        }
+        try {
+            for (Field field : fieldsOf(instance.getClass())) {
+                Object value = field.get(instance);
+                if (value != null && !Objects.deepEquals(value, field.get(canonical))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot compare " + instance.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Copies the fields the newer instance was read without from the canonical instance it replaces. The newer
+     * instance is not published yet.
+     */
+    private static void complete(Object instance, Object canonical, @Nullable Read read) {
+        if (canonical.getClass() != instance.getClass()) {
+            return;
+        }
+        try {
+            for (Field field : fieldsOf(instance.getClass())) {
+                boolean present = read != null ? read.contains(field) : field.get(instance) != null;
+                if (!present) {
+                    field.set(instance, field.get(canonical));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot complete " + instance.getClass().getName(), e);
+        }
+    }
+
+    private static Field[] fieldsOf(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields == null) {
+            List<Field> list = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                            && !Modifier.isFinal(modifiers) && !field.isSynthetic()) {
+                        field.setAccessible(true);
+                        list.add(field);
+                    }
+                }
+            }
+            fields = list.toArray(new Field[list.size()]);
+            FIELDS.putIfAbsent(type, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * The fields a newly deserialized instance was read with
+     */
+    interface Read {
+
+        /**
+         * @return true if the field was read, even if it was read as null or a default value
+         */
+        boolean contains(Field field);
+
+        /**
+         * @return true if the canonical instance holds the values of every field read
+         */
+        boolean matches(Object canonical);
+    }
+
+    /**
+     * The conversion of one response with the map active
+     */
+    private static final class Scope {
+
+        final IdentityMap map;
+
+        Scope(IdentityMap map) {
+            this.map = map;
+        }
+    }
+
+    private static final class Entry extends WeakReference<Object> {
+
+        final Key key;
+        // the conversion which registered or last saw the instance
+        volatile Object scope;
+
+        Entry(Key key, Object instance, Object scope, ReferenceQueue<Object> queue) {
+            super(instance, queue);
+            this.key = key;
+            this.scope = scope;
+        }
+    }
+
+    private static final class Key {
+
+        private final Class<?> type;
+        private final long id;
+
+        Key(Class<?> type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return id == key.id && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + (int) (id ^ (id >>> 32));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     Wraps a converter factory so an {@link IdentityMap} is active while each response body is converted. The map
+ *     is either shared by all responses or created for every response.
+ * </p>
+ */
+public class IdentityMapConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+    private final IdentityMap sharedMap;
+
+    /**
+     * @param delegate the factory creating the converters
+     * @param sharedMap the map shared by all responses, or null to use a new map per response
+     */
+    public IdentityMapConverterFactory(Converter.Factory delegate, @Nullable IdentityMap sharedMap) {
+        this.delegate = delegate;
+        this.sharedMap = sharedMap;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        return converter == null ? null : new ScopedConverter<>(converter, sharedMap);
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations, Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+
+    private static final class ScopedConverter<T> implements Converter<ResponseBody, T> {
+
+        private final Converter<ResponseBody, T> delegate;
+        private final IdentityMap sharedMap;
+
+        ScopedConverter(Converter<ResponseBody, T> delegate, IdentityMap sharedMap) {
+            this.delegate = delegate;
+            this.sharedMap = sharedMap;
+        }
+
+        @Override
+        public T convert(ResponseBody value) throws IOException {
+            Object previous = IdentityMap.activate(sharedMap != null ? sharedMap : new IdentityMap());
+            try {
+                return delegate.convert(value);
+            } finally {
+                IdentityMap.restore(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.User;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *     Replaces users, groups, customers and companies embedded in another entity with the canonical instance held
+ *     by the {@link IdentityMap} active on the current thread. The entity at the root of a response and the entries
+ *     of a page are left as read. Does nothing when no map is active.
+ * </p>
+ *
+ * <p>
+ *     Embedded entities are read as a JSON tree first so the map learns which fields the response had. Entities
+ *     embedded in an embedded entity are read from that tree and left as read.
+ * </p>
+ */
+public class IdentityMapTypeAdapterFactory implements TypeAdapterFactory {
+
+    /** JSON paths of the entities a response is about rather than embeds */
+    private static final Pattern TOP_LEVEL = Pattern.compile("\\$(\\._embedded\\.entries\\[\\d+\\])?");
+
+    private final FieldNamingStrategy fieldNaming;
+    /** The field name of each JSON name per entity type */
+    private final ConcurrentMap<Class<?>, Map<String, String>> fieldNames = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a factory for a Gson instance naming fields with lower case and underscores, like the one of
+     * {@link com.desk.java.apiclient.DeskClient}
+     */
+    public IdentityMapTypeAdapterFactory() {
+        this(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
+    }
+
+    /**
+     * Creates a factory
+     *
+     * @param fieldNaming the field naming strategy of the Gson instance the factory is registered with
+     */
+    public IdentityMapTypeAdapterFactory(FieldNamingStrategy fieldNaming) {
+        this.fieldNaming = fieldNaming;
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType != User.class && rawType != Group.class && rawType != Customer.class && rawType != Company.class) {
+            return null;
+        }
+        return new CanonicalizingAdapter<>(gson.getDelegateAdapter(this, type), gson.getAdapter(JsonElement.class));
+    }
+
+    /**
+     * Gets the field name of each JSON name of the type, the way the reflective adapter of Gson names them
+     */
+    private Map<String, String> fieldNames(Class<?> type) {
+        Map<String, String> names = fieldNames.get(type);
+        if (names == null) {
+            names = new HashMap<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                        continue;
+                    }
+                    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                    if (serializedName == null) {
+                        names.put(fieldNaming.translateName(field), field.getName());
+                        continue;
+                    }
+                    names.put(serializedName.value(), field.getName());
+                    for (String alternate : serializedName.alternate()) {
+                        names.put(alternate, field.getName());
+                    }
+                }
+            }
+            fieldNames.putIfAbsent(type, names);
+        }
+        return names;
+    }
+
+    private static long idOf(Object entity) {
+        if (entity instanceof User) {
+            return ((User) entity).getId();
+        } else if (entity instanceof Group) {
+            return ((Group) entity).getId();
+        } else if (entity instanceof Customer) {
+            return ((Customer) entity).getId();
+        } else if (entity instanceof Company) {
+            return ((Company) entity).getId();
+        }
+        return 0L;
+    }
+
+    private final class CanonicalizingAdapter<T> extends TypeAdapter<T> {
+
+        private final TypeAdapter<T> delegate;
+        private final TypeAdapter<JsonElement> elements;
+
+        CanonicalizingAdapter(TypeAdapter<T> delegate, TypeAdapter<JsonElement> elements) {
+            this.delegate = delegate;
+            this.elements = elements;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(JsonReader in) throws IOException {
+            IdentityMap map = IdentityMap.current();
+            if (map == null || TOP_LEVEL.matcher(in.getPath()).matches()) {
+                return delegate.read(in);
+            }
+            JsonElement json = elements.read(in);
+            T value = delegate.fromJsonTree(json);
+            if (value == null || !json.isJsonObject()) {
+                return value;
+            }
+            long id = idOf(value);
+            if (id == 0L) {
+                return value;
+            }
+            Read read = new Read(json.getAsJsonObject(), fieldNames(value.getClass()));
+            return map.canonicalize((Class<T>) value.getClass(), id, value, read);
+        }
+
+        /**
+         * The fields of an entity read from a JSON object
+         */
+        private final class Read implements IdentityMap.Read {
+
+            private final JsonObject json;
+            private final Map<String, String> names;
+            private final Set<String> fields = new HashSet<>();
+
+            Read(JsonObject json, Map<String, String> names) {
+                this.json = json;
+                this.names = names;
+                for (Map.Entry<String, JsonElement> member : json.entrySet()) {
+                    String field = names.get(member.getKey());
+                    if (field != null) {
+                        fields.add(field);
+                    }
+                }
+            }
+
+            @Override
+            public boolean contains(Field field) {
+                return fields.contains(field.getName());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean matches(Object canonical) {
+                JsonElement tree = delegate.toJsonTree((T) canonical);
+                if (!tree.isJsonObject()) {
+                    return false;
+                }
+                JsonObject current = tree.getAsJsonObject();
+                for (Map.Entry<String, JsonElement> member : json.entrySet()) {
+                    if (!names.containsKey(member.getKey())) {
+                        // not a field of the entity
+                        continue;
+                    }
+                    JsonElement value = current.get(member.getKey());
+                    if (!member.getValue().equals(value != null ? value : JsonNull.INSTANCE)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+}
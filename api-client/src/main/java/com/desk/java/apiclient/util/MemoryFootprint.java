@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ *     Estimates the retained heap size of object graphs, for instance to compare the regular models with their
+ *     compact variants. Objects reachable from several roots are counted once.
+ * </p>
+ *
+ * <p>
+ *     The estimate assumes a 64 bit VM with compressed oops (12 byte object headers, 16 byte array headers, 4 byte
+ *     references and 8 byte alignment) and compact strings. Application classes are walked reflectively while
+ *     strings, dates, maps and collections use fixed layouts since their internals are not accessible on every
+ *     runtime. Enum constants and instances passed to {@link #exclude(Object...)} are treated as shared.
+ * </p>
+ *
+ * <p>
+ *     Instances are not thread safe.
+ * </p>
+ */
+public final class MemoryFootprint {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+    static final int ALIGNMENT = 8;
+
+    private static final int STRING_SIZE = align(OBJECT_HEADER + REFERENCE + 4 + 1 + 1);
+    private static final int DATE_SIZE = align(OBJECT_HEADER + 8 + REFERENCE);
+    private static final int MAP_SIZE = 48;
+    private static final int MAP_ENTRY_SIZE = 32;
+    private static final int COLLECTION_SIZE = 24;
+
+    private static final ConcurrentMap<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    private long bytes;
+    private long objectCount;
+    private long rootCount;
+
+    /**
+     * Marks instances as shared so that they and everything only reachable through them is not counted
+     *
+     * @param shared the shared instances
+     * @return this instance
+     */
+    public MemoryFootprint exclude(Object... shared) {
+        Collections.addAll(visited, shared);
+        return this;
+    }
+
+    /**
+     * Adds the retained size of the object graph rooted at the given object
+     *
+     * @param root the root object
+     * @return this instance
+     */
+    public MemoryFootprint add(Object root) {
+        rootCount++;
+        Deque<Object> pending = new ArrayDeque<>();
+        push(pending, root);
+        while (!pending.isEmpty()) {
+            measure(pending.pop(), pending);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the retained size of each object graph rooted at the given objects
+     *
+     * @param roots the root objects
+     * @return this instance
+     */
+    public MemoryFootprint addAll(Iterable<?> roots) {
+        for (Object root : roots) {
+            add(root);
+        }
+        return this;
+    }
+
+    /**
+     * @return the estimated retained size in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of objects counted, including arrays
+     */
+    public long getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * @return the number of roots added
+     */
+    public long getRootCount() {
+        return rootCount;
+    }
+
+    /**
+     * Compares the footprint of two representations of the same instances
+     *
+     * @param name the name of the compared instances
+     * @param regular the regular representation
+     * @param compact the compact representation
+     * @param shared instances shared by the compact representation that should not be counted
+     * @return the report
+     */
+    public static Report compare(String name, Iterable<?> regular, Iterable<?> compact, Object... shared) {
+        MemoryFootprint before = new MemoryFootprint().addAll(regular);
+        MemoryFootprint after = new MemoryFootprint().exclude(shared).addAll(compact);
+        return new Report(name, before, after);
+    }
+
+    private void push(Deque<Object> pending, Object o) {
+        if (o != null && !(o instanceof Enum) && !(o instanceof Class) && visited.add(o)) {
+            pending.push(o);
+        }
+    }
+
+    private void measure(Object o, Deque<Object> pending) {
+        objectCount++;
+        Class<?> type = o.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(o);
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                bytes += align(ARRAY_HEADER + (long) length * primitiveSize(component));
+            } else {
+                bytes += align(ARRAY_HEADER + (long) length * REFERENCE);
+                for (Object element : (Object[]) o) {
+                    push(pending, element);
+                }
+            }
+        } else if (o instanceof String) {
+            String s = (String) o;
+            objectCount++;
+            bytes += STRING_SIZE + align(ARRAY_HEADER + (long) s.length() * (isLatin1(s) ? 1 : 2));
+        } else if (o instanceof Date) {
+            bytes += DATE_SIZE;
+        } else if (o instanceof Map && isPlatformClass(type)) {
+            Map<?, ?> map = (Map<?, ?>) o;
+            bytes += MAP_SIZE;
+            if (!map.isEmpty()) {
+                objectCount += 1 + map.size();
+                bytes += align(ARRAY_HEADER + (long) tableSize(map.size()) * REFERENCE)
+                        + (long) map.size() * MAP_ENTRY_SIZE;
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                push(pending, entry.getKey());
+                push(pending, entry.getValue());
+            }
+        } else if (o instanceof Collection && isPlatformClass(type)) {
+            Collection<?> collection = (Collection<?>) o;
+            bytes += COLLECTION_SIZE;
+            if (!collection.isEmpty()) {
+                objectCount++;
+                bytes += align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+            }
+            for (Object element : collection) {
+                push(pending, element);
+            }
+        } else {
+            Layout layout = layout(type);
+            bytes += layout.shallowSize;
+            for (Field field : layout.references) {
+                try {
+                    push(pending, field.get(o));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private static Layout layout(Class<?> type) {
+        Layout layout = LAYOUTS.get(type);
+        if (layout == null) {
+            layout = new Layout(type);
+            Layout existing = LAYOUTS.putIfAbsent(type, layout);
+            if (existing != null) {
+                layout = existing;
+            }
+        }
+        return layout;
+    }
+
+    private static boolean isPlatformClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || name.startsWith("jdk.");
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0, length = s.length(); i < length; i++) {
+            if (s.charAt(i) > 0xff) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tableSize(int size) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Shallow size and accessible reference fields of a class. Fields of platform classes are sized but not
+     * followed.
+     */
+    private static final class Layout {
+
+        final long shallowSize;
+        final Field[] references;
+
+        Layout(Class<?> type) {
+            long size = OBJECT_HEADER;
+            List<Field> references = new ArrayList<>();
+            boolean follow = !isPlatformClass(type);
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    Class<?> fieldType = field.getType();
+                    size += fieldType.isPrimitive() ? primitiveSize(fieldType) : REFERENCE;
+                    if (follow && !fieldType.isPrimitive()) {
+                        field.setAccessible(true);
+                        references.add(field);
+                    }
+                }
+            }
+            this.shallowSize = align(size);
+            this.references = references.toArray(new Field[references.size()]);
+        }
+    }
+
+    /**
+     * Footprint of a regular and a compact representation of the same instances
+     */
+    public static final class Report {
+
+        private final String name;
+        private final long count;
+        private final long regularBytes;
+        private final long compactBytes;
+
+        Report(String name, MemoryFootprint regular, MemoryFootprint compact) {
+            this.name = name;
+            this.count = regular.getRootCount();
+            this.regularBytes = regular.getBytes();
+            this.compactBytes = compact.getBytes();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getRegularBytes() {
+            return regularBytes;
+        }
+
+        public long getCompactBytes() {
+            return compactBytes;
+        }
+
+        public long getSavedBytes() {
+            return regularBytes - compactBytes;
+        }
+
+        /**
+         * @return the saved fraction of the regular footprint between 0 and 1
+         */
+        public double getSavedRatio() {
+            return regularBytes == 0 ? 0 : (double) getSavedBytes() / regularBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d instances, %d -> %d bytes (%.1f%% saved, %d -> %d bytes each)",
+                    name, count, regularBytes, compactBytes, getSavedRatio() * 100,
+                    count == 0 ? 0 : regularBytes / count, count == 0 ? 0 : compactBytes / count);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * <p>
+ *     Signs requests with OAuth 1.0a HMAC-SHA1 signatures in the Authorization header.
+ * </p>
+ *
+ * <p>
+ *     Unlike signpost, the request body is only read when it is form encoded since no other body takes part in
+ *     the signature, the signing key is computed once and each thread reuses its own {@link Mac}. Instances are
+ *     thread safe and do not lock.
+ * </p>
+ */
+public class OAuthSigner {
+
+    static final String AUTHORIZATION_HEADER = "Authorization";
+    static final String SIGNATURE_METHOD = "HMAC-SHA1";
+    static final String VERSION = "1.0";
+
+    private static final String HMAC_SHA1 = "HmacSHA1";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final MediaType FORM_URL_ENCODED = MediaType.parse("application/x-www-form-urlencoded");
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Orders encoded {@code name=value} pairs by name and then by value. Encoded names never contain '='.
+     */
+    private static final Comparator<String> PARAMETER_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int aSeparator = a.indexOf('=');
+            int bSeparator = b.indexOf('=');
+            int result = a.substring(0, aSeparator).compareTo(b.substring(0, bSeparator));
+            return result != 0 ? result : a.substring(aSeparator + 1).compareTo(b.substring(bSeparator + 1));
+        }
+    };
+
+    private final String encodedConsumerKey;
+    private final String encodedToken;
+    private final SecretKeySpec signingKey;
+    private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                Mac mac = Mac.getInstance(HMAC_SHA1);
+                mac.init(signingKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(HMAC_SHA1 + " is not available", e);
+            }
+        }
+    };
+
+    /**
+     * Creates a signer for the given consumer and access token
+     *
+     * @param consumerKey the Desk API consumer key
+     * @param consumerSecret the Desk API consumer secret
+     * @param accessToken the oauth access token
+     * @param accessTokenSecret the oauth access token secret
+     */
+    public OAuthSigner(String consumerKey, String consumerSecret, String accessToken, String accessTokenSecret) {
+        this.encodedConsumerKey = percentEncode(consumerKey);
+        this.encodedToken = percentEncode(accessToken);
+        String key = percentEncode(consumerSecret) + '&' + percentEncode(accessTokenSecret);
+        this.signingKey = new SecretKeySpec(key.getBytes(UTF_8), HMAC_SHA1);
+    }
+
+    /**
+     * Returns a copy of the request with the OAuth Authorization header set
+     *
+     * @param request the request to sign
+     * @return the signed request
+     * @throws IOException if a form encoded body cannot be read
+     */
+    public Request sign(Request request) throws IOException {
+        String nonce = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        long timestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        return request.newBuilder()
+                .header(AUTHORIZATION_HEADER, authorizationHeader(request, nonce, timestamp))
+                .build();
+    }
+
+    /**
+     * Builds the Authorization header value for the request using the given nonce and timestamp
+     */
+    String authorizationHeader(Request request, String nonce, long timestamp) throws IOException {
+        String encodedNonce = percentEncode(nonce);
+        String encodedTimestamp = Long.toString(timestamp);
+
+        List<String> parameters = new ArrayList<>();
+        parameters.add("oauth_consumer_key=" + encodedConsumerKey);
+        parameters.add("oauth_nonce=" + encodedNonce);
+        parameters.add("oauth_signature_method=" + SIGNATURE_METHOD);
+        parameters.add("oauth_timestamp=" + encodedTimestamp);
+        parameters.add("oauth_token=" + encodedToken);
+        parameters.add("oauth_version=" + VERSION);
+        addQueryParameters(request.url(), parameters);
+        addFormParameters(request.body(), parameters);
+        Collections.sort(parameters, PARAMETER_ORDER);
+
+        String signature = signature(signatureBaseString(request, parameters));
+
+        return new StringBuilder(256)
+                .append("OAuth oauth_consumer_key=\"").append(encodedConsumerKey)
+                .append("\", oauth_nonce=\"").append(encodedNonce)
+                .append("\", oauth_signature=\"").append(percentEncode(signature))
+                .append("\", oauth_signature_method=\"").append(SIGNATURE_METHOD)
+                .append("\", oauth_timestamp=\"").append(encodedTimestamp)
+                .append("\", oauth_token=\"").append(encodedToken)
+                .append("\", oauth_version=\"").append(VERSION)
+                .append('"')
+                .toString();
+    }
+
+    private String signature(String baseString) {
+        Mac mac = macs.get();
+        return ByteString.of(mac.doFinal(baseString.getBytes(UTF_8))).base64();
+    }
+
+    private static String signatureBaseString(Request request, List<String> sortedParameters) {
+        StringBuilder normalized = new StringBuilder(256);
+        for (int i = 0; i < sortedParameters.size(); i++) {
+            if (i > 0) {
+                normalized.append('&');
+            }
+            normalized.append(sortedParameters.get(i));
+        }
+        return request.method().toUpperCase() + '&'
+                + percentEncode(normalizedUrl(request.url())) + '&'
+                + percentEncode(normalized.toString());
+    }
+
+    private static String normalizedUrl(HttpUrl url) {
+        StringBuilder sb = new StringBuilder(64)
+                .append(url.scheme())
+                .append("://")
+                .append(url.host());
+        if (url.port() != HttpUrl.defaultPort(url.scheme())) {
+            sb.append(':').append(url.port());
+        }
+        return sb.append(url.encodedPath()).toString();
+    }
+
+    private static void addQueryParameters(HttpUrl url, List<String> parameters) {
+        for (int i = 0, size = url.querySize(); i < size; i++) {
+            String value = url.queryParameterValue(i);
+            parameters.add(percentEncode(url.queryParameterName(i)) + '=' + percentEncode(value == null ? "" : value));
+        }
+    }
+
+    private static void addFormParameters(RequestBody body, List<String> parameters) throws IOException {
+        if (body == null) {
+            return;
+        }
+        if (body instanceof FormBody) {
+            FormBody form = (FormBody) body;
+            for (int i = 0, size = form.size(); i < size; i++) {
+                parameters.add(percentEncode(form.name(i)) + '=' + percentEncode(form.value(i)));
+            }
+            return;
+        }
+        MediaType contentType = body.contentType();
+        if (contentType == null || !FORM_URL_ENCODED.type().equals(contentType.type())
+                || !FORM_URL_ENCODED.subtype().equals(contentType.subtype())) {
+            // only form encoded bodies take part in the signature
+            return;
+        }
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        HttpUrl form = HttpUrl.parse("http://localhost/?" + buffer.readUtf8());
+        if (form != null) {
+            addQueryParameters(form, parameters);
+        }
+    }
+
+    /**
+     * Percent encodes the value as specified by RFC 3986 section 2.1, leaving only unreserved characters as is
+     *
+     * @param value the value to encode
+     * @return the encoded value
+     */
+    static String percentEncode(String value) {
+        if (value == null) {
+            return "";
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                return percentEncode(value, i);
+            }
+        }
+        return value;
+    }
+
+    private static String percentEncode(String value, int firstReserved) {
+        byte[] bytes = value.substring(firstReserved).getBytes(UTF_8);
+        StringBuilder sb = new StringBuilder(value.length() + bytes.length * 2);
+        sb.append(value, 0, firstReserved);
+        for (byte b : bytes) {
+            char c = (char) (b & 0xff);
+            if (isUnreserved(c)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
@@ -38,7 +38,8 @@ import oauth.signpost.exception.OAuthMessageSignerException;
 
 /**
  * <p>
- *     An {@link Interceptor} used to sign requests using an {@link RetrofitHttpOAuthConsumer}.
+ *     An {@link Interceptor} used to sign requests using an {@link OAuthSigner} or an
+ *     {@link RetrofitHttpOAuthConsumer}.
  * </p>
  *
  * Created by Jerrell Mardis
@@ -47,12 +48,22 @@ import oauth.signpost.exception.OAuthMessageSignerException;
 public class OAuthSigningInterceptor implements Interceptor {
 
     private final RetrofitHttpOAuthConsumer oAuthConsumer;
+    private final OAuthSigner signer;
 
     public OAuthSigningInterceptor(RetrofitHttpOAuthConsumer consumer) {
         oAuthConsumer = consumer;
+        signer = null;
+    }
+
+    public OAuthSigningInterceptor(OAuthSigner signer) {
+        this.oAuthConsumer = null;
+        this.signer = signer;
     }
 
     public Response intercept(Chain chain) throws IOException {
+        if (signer != null) {
+            return chain.proceed(signer.sign(chain.request()));
+        }
         Request authorizedRequest = chain.request();
         try {
             HttpRequestAdapter signedAdapter = (HttpRequestAdapter) oAuthConsumer.sign(chain.request());
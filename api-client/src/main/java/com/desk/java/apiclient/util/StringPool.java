@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     A bounded, thread safe pool of canonical strings. Once the pool holds {@code maxSize} strings, strings that
+ *     are not already pooled are returned as is.
+ * </p>
+ *
+ * <p>
+ *     The client consults the pool for fields with few distinct values such as labels, priorities, custom field
+ *     names and link classes, so large numbers of cached models share one instance of each value.
+ * </p>
+ */
+public class StringPool {
+
+    /**
+     * Approximate size of a string's object header, fields and array header in bytes
+     */
+    static final int STRING_OVERHEAD = 40;
+
+    public static final int DEFAULT_MAX_SIZE = 16384;
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Creates a pool holding at most {@link #DEFAULT_MAX_SIZE} strings
+     */
+    public StringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a pool holding at most {@code maxSize} strings
+     *
+     * @param maxSize the maximum number of strings to pool
+     */
+    public StringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive.");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the pooled instance equal to the provided string, pooling it if there is room
+     *
+     * @param value the string
+     * @return the pooled string, or the provided string if it is not pooled
+     */
+    @Nullable
+    public String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        lookupCount.incrementAndGet();
+        String pooled = strings.get(value);
+        if (pooled != null) {
+            if (pooled != value) {
+                hitCount.incrementAndGet();
+                bytesSaved.addAndGet(STRING_OVERHEAD + 2L * value.length());
+            }
+            return pooled;
+        }
+        if (strings.size() >= maxSize) {
+            return value;
+        }
+        pooled = strings.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    /**
+     * Interns every element of the array in place
+     *
+     * @param values the strings
+     */
+    public void internAll(@Nullable String[] values) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = intern(values[i]);
+        }
+    }
+
+    /**
+     * @return the number of pooled strings
+     */
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * @return the number of lookups
+     */
+    public long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    /**
+     * @return the number of lookups that returned an already pooled instance in place of a duplicate
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the share of lookups that returned an already pooled instance, between 0 and 1
+     */
+    public double getHitRate() {
+        long lookups = lookupCount.get();
+        return lookups == 0 ? 0d : (double) hitCount.get() / lookups;
+    }
+
+    /**
+     * Returns an estimate of the heap no longer retained by duplicates, assuming duplicates are otherwise kept
+     * and two bytes per character
+     *
+     * @return the estimated number of bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /**
+     * Removes all pooled strings and resets the statistics
+     */
+    public void clear() {
+        strings.clear();
+        lookupCount.set(0);
+        hitCount.set(0);
+        bytesSaved.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool{size=" + size() + ", lookups=" + getLookupCount() + ", hitRate=" + getHitRate()
+                + ", bytesSaved=" + getBytesSaved() + "}";
+    }
+}
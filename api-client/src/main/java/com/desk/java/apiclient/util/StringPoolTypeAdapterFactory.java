@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.Message;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * <p>
+ *     Interns repetitive strings through a {@link StringPool} while models are deserialized: custom field names,
+ *     case labels and priorities, link classes and message types and client types.
+ * </p>
+ */
+public class StringPoolTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeToken<HashMap<String, String>> CUSTOM_FIELDS = new TypeToken<HashMap<String, String>>() {};
+
+    private final StringPool pool;
+
+    public StringPoolTypeAdapterFactory(StringPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (CUSTOM_FIELDS.equals(type)) {
+            return (TypeAdapter<T>) new CustomFieldsAdapter(gson.getDelegateAdapter(this, CUSTOM_FIELDS),
+                    gson.getAdapter(String.class), pool);
+        }
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Link.class || rawType == Case.class || rawType == Message.class) {
+            return new InterningAdapter<>(gson.getDelegateAdapter(this, type), pool);
+        }
+        return null;
+    }
+
+    private static final class InterningAdapter<T> extends TypeAdapter<T> {
+
+        private final TypeAdapter<T> delegate;
+        private final StringPool pool;
+
+        InterningAdapter(TypeAdapter<T> delegate, StringPool pool) {
+            this.delegate = delegate;
+            this.pool = pool;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            T value = delegate.read(in);
+            if (value instanceof Link) {
+                Link link = (Link) value;
+                link.setClassName(pool.intern(link.getClassName()));
+            } else if (value instanceof Case) {
+                Case c = (Case) value;
+                c.setPriority(pool.intern(c.getPriority()));
+                pool.internAll(c.getLabels());
+            } else if (value instanceof Message) {
+                Message message = (Message) value;
+                message.setType(pool.intern(message.getType()));
+                message.setClientType(pool.intern(message.getClientType()));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Reads custom field maps interning the field names
+     */
+    private static final class CustomFieldsAdapter extends TypeAdapter<HashMap<String, String>> {
+
+        private final TypeAdapter<HashMap<String, String>> delegate;
+        private final TypeAdapter<String> valueAdapter;
+        private final StringPool pool;
+
+        CustomFieldsAdapter(TypeAdapter<HashMap<String, String>> delegate, TypeAdapter<String> valueAdapter,
+                            StringPool pool) {
+            this.delegate = delegate;
+            this.valueAdapter = valueAdapter;
+            this.pool = pool;
+        }
+
+        @Override
+        public void write(JsonWriter out, HashMap<String, String> value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        public HashMap<String, String> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            HashMap<String, String> fields = new HashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                fields.put(pool.intern(in.nextName()), valueAdapter.read(in));
+            }
+            in.endObject();
+            return fields;
+        }
+    }
+}
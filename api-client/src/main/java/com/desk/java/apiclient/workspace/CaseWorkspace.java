@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.workspace;
+
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.Macro;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.User;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Everything an agent sees when opening a case, as loaded by {@link CaseWorkspaceLoader}.
+ * </p>
+ *
+ * <p>
+ *     Parts which did not arrive before the deadline or failed are null or empty. {@link #isPartial()} tells
+ *     whether anything is missing and {@link #getTimedOut()} and {@link #getFailures()} tell what and why.
+ * </p>
+ */
+public final class CaseWorkspace {
+
+    /**
+     * The independently loaded parts of a workspace
+     */
+    public enum Part {
+        /** The case with its customer, assigned user and group, message and draft embedded */
+        CASE,
+        /** The first page of the case feed */
+        FEED,
+        /** The first page of the case attachments */
+        ATTACHMENTS,
+        /** The first page of macros of the user */
+        MACROS,
+        /** The company of the customer, loaded once the case arrived */
+        COMPANY
+    }
+
+    private final Case deskCase;
+    private final Company company;
+    private final List<Message> feed;
+    private final List<Attachment> attachments;
+    private final List<Macro> macros;
+    private final Set<Part> timedOut;
+    private final Map<Part, Throwable> failures;
+    private final long elapsedMillis;
+
+    CaseWorkspace(Case deskCase, Company company, List<Message> feed, List<Attachment> attachments,
+                  List<Macro> macros, Set<Part> timedOut, Map<Part, Throwable> failures, long elapsedMillis) {
+        this.deskCase = deskCase;
+        this.company = company;
+        this.feed = feed == null ? Collections.<Message>emptyList() : feed;
+        this.attachments = attachments == null ? Collections.<Attachment>emptyList() : attachments;
+        this.macros = macros == null ? Collections.<Macro>emptyList() : macros;
+        this.timedOut = timedOut.isEmpty()
+                ? Collections.<Part>emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(timedOut));
+        this.failures = failures.isEmpty()
+                ? Collections.<Part, Throwable>emptyMap()
+                : Collections.unmodifiableMap(new EnumMap<>(failures));
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the case
+     *
+     * @return the case or null if it timed out or failed
+     */
+    @Nullable
+    public Case getCase() {
+        return deskCase;
+    }
+
+    /**
+     * Gets the customer embedded in the case
+     *
+     * @return the customer or null if the case has none or did not load
+     */
+    @Nullable
+    public Customer getCustomer() {
+        return deskCase != null ? deskCase.getEmbedded().getCustomer() : null;
+    }
+
+    /**
+     * Gets the company of the customer
+     *
+     * @return the company or null if the customer has none or it did not load
+     */
+    @Nullable
+    public Company getCompany() {
+        return company;
+    }
+
+    /**
+     * Gets the draft embedded in the case
+     *
+     * @return the draft or null if the case has none or did not load
+     */
+    @Nullable
+    public Message getDraft() {
+        return deskCase != null ? deskCase.getEmbedded().getDraft() : null;
+    }
+
+    /**
+     * Gets the original message embedded in the case
+     *
+     * @return the message or null if the case did not load
+     */
+    @Nullable
+    public Message getMessage() {
+        return deskCase != null ? deskCase.getEmbedded().getMessage() : null;
+    }
+
+    /**
+     * Gets the user the case is assigned to
+     *
+     * @return the user or null if the case is unassigned or did not load
+     */
+    @Nullable
+    public User getAssignedUser() {
+        return deskCase != null ? deskCase.getEmbedded().getAssignedUser() : null;
+    }
+
+    /**
+     * Gets the group the case is assigned to
+     *
+     * @return the group or null if the case is unassigned or did not load
+     */
+    @Nullable
+    public Group getAssignedGroup() {
+        return deskCase != null ? deskCase.getEmbedded().getAssignedGroup() : null;
+    }
+
+    /**
+     * Gets the first page of the case feed
+     *
+     * @return the feed, empty if it did not load
+     */
+    @NotNull
+    public List<Message> getFeed() {
+        return feed;
+    }
+
+    /**
+     * Gets the first page of the case attachments
+     *
+     * @return the attachments, empty if they did not load
+     */
+    @NotNull
+    public List<Attachment> getAttachments() {
+        return attachments;
+    }
+
+    /**
+     * Gets the first page of the user's macros
+     *
+     * @return the macros, empty if they did not load
+     */
+    @NotNull
+    public List<Macro> getMacros() {
+        return macros;
+    }
+
+    /**
+     * Whether any part timed out or failed
+     *
+     * @return true if the workspace is incomplete
+     */
+    public boolean isPartial() {
+        return !timedOut.isEmpty() || !failures.isEmpty();
+    }
+
+    /**
+     * Whether the part arrived
+     *
+     * @param part the part
+     * @return true if the part neither timed out nor failed
+     */
+    public boolean isLoaded(Part part) {
+        return !timedOut.contains(part) && !failures.containsKey(part);
+    }
+
+    /**
+     * Gets the parts which were still in flight when the deadline passed and were cancelled
+     *
+     * @return the timed out parts
+     */
+    @NotNull
+    public Set<Part> getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Gets the parts which failed with the cause of each
+     *
+     * @return the failures
+     */
+    @NotNull
+    public Map<Part, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets how long loading took
+     *
+     * @return the elapsed milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
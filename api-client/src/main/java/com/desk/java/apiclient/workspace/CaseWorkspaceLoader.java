@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.workspace;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.Macro;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CompanyService;
+import com.desk.java.apiclient.service.MacroService;
+import com.desk.java.apiclient.workspace.CaseWorkspace.Part;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Loads the {@link CaseWorkspace} of a case, issuing every independent request at once so that loading takes
+ *     about as long as the slowest request rather than the sum of all of them.
+ * </p>
+ *
+ * <p>
+ *     The case is fetched with its customer, assigned user and group, message and draft embedded, which saves the
+ *     separate customer and draft requests. The first pages of the feed, the attachments and the user's macros are
+ *     requested alongside it, and the company is requested as soon as the case names the customer's company. When
+ *     the deadline passes the requests still in flight are cancelled and the workspace is returned with those
+ *     parts marked as timed out.
+ * </p>
+ *
+ * <p>
+ *     Instances are immutable and safe to share across threads.
+ * </p>
+ */
+public class CaseWorkspaceLoader {
+
+    public static final long DEFAULT_DEADLINE_MILLIS = 5000;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final Embed CASE_EMBED = Embed.fields("customer", "assigned_user", "assigned_group", "message", "draft");
+
+    private final CaseService cases;
+    private final CompanyService companies;
+    private final MacroService macros;
+    private final long deadlineMillis;
+    private final int pageSize;
+
+    /**
+     * Creates a loader using the services of the client
+     *
+     * @param client the desk client
+     */
+    public CaseWorkspaceLoader(DeskClient client) {
+        this(client.cases(), client.companies(), client.macros());
+    }
+
+    /**
+     * Creates a loader with the default deadline and page size
+     *
+     * @param cases the case service
+     * @param companies the company service
+     * @param macros the macro service
+     */
+    public CaseWorkspaceLoader(CaseService cases, CompanyService companies, MacroService macros) {
+        this(cases, companies, macros, DEFAULT_DEADLINE_MILLIS, DEFAULT_PAGE_SIZE);
+    }
+
+    private CaseWorkspaceLoader(CaseService cases, CompanyService companies, MacroService macros,
+                                long deadlineMillis, int pageSize) {
+        this.cases = cases;
+        this.companies = companies;
+        this.macros = macros;
+        this.deadlineMillis = deadlineMillis;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns a loader giving up on outstanding requests after the given time
+     *
+     * @param deadline the overall time allowed for loading a workspace
+     * @param unit the unit of the deadline
+     * @return the new loader
+     */
+    public CaseWorkspaceLoader withDeadline(long deadline, TimeUnit unit) {
+        if (deadline <= 0) {
+            throw new IllegalArgumentException("deadline must be positive but was " + deadline);
+        }
+        return new CaseWorkspaceLoader(cases, companies, macros, unit.toMillis(deadline), pageSize);
+    }
+
+    /**
+     * Returns a loader requesting pages of the given size for the feed, attachments and macros
+     *
+     * @param pageSize the page size
+     * @return the new loader
+     */
+    public CaseWorkspaceLoader withPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive but was " + pageSize);
+        }
+        return new CaseWorkspaceLoader(cases, companies, macros, deadlineMillis, pageSize);
+    }
+
+    /**
+     * Loads the workspace of the case, blocking until every part arrived or the deadline passed
+     *
+     * @param caseId the id of the case
+     * @param userId the id of the user whose macros are loaded
+     * @return the workspace, which may be partial
+     * @throws InterruptedException if the calling thread is interrupted, in which case the requests in flight
+     *                              are cancelled
+     */
+    public CaseWorkspace load(long caseId, long userId) throws InterruptedException {
+        long start = System.nanoTime();
+        Load load = new Load();
+        load.start(Part.CASE, cases.getCaseById(caseId, CASE_EMBED, null));
+        load.start(Part.FEED, cases.getCaseFeed(caseId, pageSize, 1, null));
+        load.start(Part.ATTACHMENTS, cases.getAttachments(caseId, pageSize, 1));
+        load.start(Part.MACROS, macros.getMacrosByUser(userId, pageSize, 1));
+        return load.await(start, start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+    }
+
+    private static long companyId(Case deskCase) {
+        Customer customer = deskCase != null ? deskCase.getEmbedded().getCustomer() : null;
+        Link company = customer != null ? customer.getCompanyLink() : null;
+        return company != null ? company.getLinkId() : 0;
+    }
+
+    private static <T extends Serializable> List<T> entries(Object page) {
+        @SuppressWarnings("unchecked")
+        ApiResponse<T> response = (ApiResponse<T>) page;
+        return response != null ? new ArrayList<>(response.getEntriesAsList()) : null;
+    }
+
+    /**
+     * The state of one workspace being loaded. Results are guarded by the lock since callbacks arrive on the
+     * dispatcher threads, and once closed by the waiting thread late callbacks are ignored.
+     */
+    private final class Load {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition settled = lock.newCondition();
+        private final Map<Part, Call<?>> inFlight = new EnumMap<>(Part.class);
+        private final Map<Part, Throwable> failures = new EnumMap<>(Part.class);
+        private final Map<Part, Object> results = new EnumMap<>(Part.class);
+        private boolean closed;
+
+        <T> void start(Part part, Call<T> call) {
+            if (register(part, call)) {
+                enqueue(part, call);
+            }
+        }
+
+        private boolean register(Part part, Call<?> call) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                inFlight.put(part, call);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private <T> void enqueue(final Part part, Call<T> call) {
+            call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    if (response.isSuccessful()) {
+                        complete(part, response.body(), null);
+                    } else {
+                        complete(part, null, new IOException("Loading the " + part + " of the case workspace failed "
+                                + "with HTTP " + response.code()));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    complete(part, null, t);
+                }
+            });
+        }
+
+        private void complete(Part part, Object body, Throwable failure) {
+            Call<Company> companyCall = null;
+            lock.lock();
+            try {
+                if (closed || inFlight.remove(part) == null) {
+                    return;
+                }
+                if (failure != null) {
+                    failures.put(part, failure);
+                } else {
+                    results.put(part, body);
+                }
+                if (part == Part.CASE && failure == null) {
+                    long companyId = companyId((Case) body);
+                    if (companyId > 0) {
+                        // registered before waking the waiter so that it never sees the load as settled too early
+                        companyCall = companies.getCompany(companyId);
+                        inFlight.put(Part.COMPANY, companyCall);
+                    }
+                }
+                settled.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (companyCall != null) {
+                enqueue(Part.COMPANY, companyCall);
+            }
+        }
+
+        CaseWorkspace await(long startNanos, long deadlineNanos) throws InterruptedException {
+            List<Call<?>> stragglers = new ArrayList<>();
+            lock.lock();
+            try {
+                long remaining = deadlineNanos - System.nanoTime();
+                while (!inFlight.isEmpty() && remaining > 0) {
+                    remaining = settled.awaitNanos(remaining);
+                }
+                EnumSet<Part> timedOut = close(stragglers);
+                return new CaseWorkspace(
+                        (Case) results.get(Part.CASE),
+                        (Company) results.get(Part.COMPANY),
+                        CaseWorkspaceLoader.<Message>entries(results.get(Part.FEED)),
+                        CaseWorkspaceLoader.<Attachment>entries(results.get(Part.ATTACHMENTS)),
+                        CaseWorkspaceLoader.<Macro>entries(results.get(Part.MACROS)),
+                        timedOut,
+                        failures,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            } finally {
+                if (!closed) {
+                    close(stragglers);
+                }
+                lock.unlock();
+                cancel(stragglers);
+            }
+        }
+
+        /**
+         * Stops accepting results, collecting the calls still in flight
+         *
+         * @return the parts still in flight
+         */
+        private EnumSet<Part> close(List<Call<?>> stragglers) {
+            closed = true;
+            EnumSet<Part> timedOut = EnumSet.noneOf(Part.class);
+            timedOut.addAll(inFlight.keySet());
+            stragglers.addAll(inFlight.values());
+            inFlight.clear();
+            return timedOut;
+        }
+    }
+
+    private static void cancel(List<Call<?>> calls) {
+        for (Call<?> call : calls) {
+            call.cancel();
+        }
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.write;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CasePatch;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.CustomerPatch;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CustomerService;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Buffers case, customer and draft updates and sends the writes made to the same entity within a short window
+ *     as one request. Automation setting the status, a label and a custom field of a case in quick succession
+ *     costs one rate limited request instead of three.
+ * </p>
+ *
+ * <p>
+ *     The window starts with the first write to an entity, so a steady stream of writes is still sent once per
+ *     window. Case and customer patches are merged into one patch, and a patch which cannot be merged, such as one
+ *     removing labels after one adding labels, starts the next write. Drafts are last write wins: a newer draft
+ *     replaces the pending one, and callers whose draft save is in flight when a newer draft arrives are completed
+ *     by the newer save since theirs no longer reflects the draft. The save in flight is not cancelled, as a
+ *     cancelled request may still reach the server after the newer one.
+ * </p>
+ *
+ * <p>
+ *     Writes to one entity are sent one at a time in the order they were made and the futures complete in that
+ *     order. A failed write fails the futures of the callers it carried and the following writes are still sent.
+ *     Writes to different entities are independent. Instances are thread safe.
+ * </p>
+ */
+public class WriteCoalescer implements Closeable {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 100;
+
+    enum Type {
+        CASE, CUSTOMER, DRAFT
+    }
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "desk-write-coalescer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final Writer<CasePatch, Case> caseWriter;
+    private final Writer<CustomerPatch, Customer> customerWriter;
+    private final Writer<Message, Message> draftWriter;
+    private final long windowNanos;
+    private final ScheduledExecutorService timer;
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    // guarded by this
+    private final Map<Key, Entity<?, ?>> entities = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates a coalescer with the default window
+     *
+     * @param cases the case service, used for case and draft updates
+     * @param customers the customer service
+     */
+    public WriteCoalescer(CaseService cases, CustomerService customers) {
+        this(cases, customers, DEFAULT_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a coalescer
+     *
+     * @param cases the case service, used for case and draft updates
+     * @param customers the customer service
+     * @param window how long writes to an entity are collected before they are sent, 0 to only merge writes
+     *               made while an earlier write to the entity is in flight
+     * @param unit the unit of the window
+     */
+    public WriteCoalescer(final CaseService cases, final CustomerService customers, long window, TimeUnit unit) {
+        if (window < 0) {
+            throw new IllegalArgumentException("window must not be negative but was " + window);
+        }
+        this.windowNanos = unit.toNanos(window);
+        this.timer = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        this.caseWriter = new Writer<CasePatch, Case>() {
+            @Override
+            boolean canMerge(CasePatch pending, CasePatch later) {
+                return pending.canMerge(later);
+            }
+
+            @Override
+            CasePatch merge(CasePatch pending, CasePatch later) {
+                return pending.merge(later);
+            }
+
+            @Override
+            Call<Case> call(long id, CasePatch patch) {
+                return cases.updateCase(id, patch);
+            }
+        };
+        this.customerWriter = new Writer<CustomerPatch, Customer>() {
+            @Override
+            boolean canMerge(CustomerPatch pending, CustomerPatch later) {
+                return pending.canMerge(later);
+            }
+
+            @Override
+            CustomerPatch merge(CustomerPatch pending, CustomerPatch later) {
+                return pending.merge(later);
+            }
+
+            @Override
+            Call<Customer> call(long id, CustomerPatch patch) {
+                return customers.updateCustomer(id, patch);
+            }
+        };
+        this.draftWriter = new Writer<Message, Message>() {
+            @Override
+            boolean canMerge(Message pending, Message later) {
+                return true;
+            }
+
+            @Override
+            Message merge(Message pending, Message later) {
+                return later;
+            }
+
+            @Override
+            Call<Message> call(long id, Message draft) {
+                return cases.updateDraft(id, draft);
+            }
+
+            @Override
+            boolean supersedes() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Updates the case once the window closes, together with the other changes made to it meanwhile. The patch
+     * must not be modified afterwards.
+     *
+     * @param caseId the case id
+     * @param patch the changes
+     * @return a future completing with the case returned by the write carrying the changes
+     * @throws IllegalStateException if the coalescer is closed
+     */
+    @NotNull
+    public Future<Case> updateCase(long caseId, @NotNull CasePatch patch) {
+        return submit(Type.CASE, caseId, caseWriter, patch);
+    }
+
+    /**
+     * Updates the customer once the window closes, together with the other changes made to it meanwhile. The
+     * patch must not be modified afterwards.
+     *
+     * @param customerId the customer id
+     * @param patch the changes
+     * @return a future completing with the customer returned by the write carrying the changes
+     * @throws IllegalStateException if the coalescer is closed
+     */
+    @NotNull
+    public Future<Customer> updateCustomer(long customerId, @NotNull CustomerPatch patch) {
+        return submit(Type.CUSTOMER, customerId, customerWriter, patch);
+    }
+
+    /**
+     * Saves the draft of the case once the window closes unless a newer draft replaces it first. The draft must
+     * not be modified afterwards.
+     *
+     * @param caseId the case id
+     * @param draft the draft
+     * @return a future completing with the draft returned by the save of this or a newer draft
+     * @throws IllegalStateException if the coalescer is closed
+     */
+    @NotNull
+    public Future<Message> updateDraft(long caseId, @NotNull Message draft) {
+        return submit(Type.DRAFT, caseId, draftWriter, draft);
+    }
+
+    /**
+     * Sends the buffered writes without waiting for their windows to close. Writes to an entity with a write in
+     * flight are still sent after it.
+     */
+    public void flush() {
+        List<Entity<?, ?>> flushed;
+        synchronized (this) {
+            for (Entity<?, ?> entity : entities.values()) {
+                entity.markDue();
+            }
+            flushed = new ArrayList<>(entities.values());
+        }
+        for (Entity<?, ?> entity : flushed) {
+            sendNext(entity);
+        }
+    }
+
+    /**
+     * Flushes the buffered writes and stops accepting new ones. Writes in flight still complete their futures.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdown();
+    }
+
+    /**
+     * Gets the number of writes submitted
+     *
+     * @return the write count
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Gets the number of requests sent, at most the number of writes
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    private <B, T> Future<T> submit(Type type, long id, Writer<B, T> writer, B body) {
+        WriteFuture<T> future = new WriteFuture<>();
+        Entity<B, T> entity;
+        Pending<B, T> started = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The write coalescer is closed");
+            }
+            Key key = new Key(type, id);
+            @SuppressWarnings("unchecked")
+            Entity<B, T> existing = (Entity<B, T>) entities.get(key);
+            entity = existing;
+            if (entity == null) {
+                entity = new Entity<>(key, writer);
+                entities.put(key, entity);
+            }
+            Pending<B, T> last = entity.pending.peekLast();
+            if (last != null && writer.canMerge(last.body, body)) {
+                last.body = writer.merge(last.body, body);
+            } else {
+                last = new Pending<>(body);
+                entity.pending.addLast(last);
+                started = last;
+            }
+            last.futures.add(future);
+        }
+        writeCount.incrementAndGet();
+        if (started != null) {
+            schedule(entity, started);
+        }
+        return future;
+    }
+
+    private <B, T> void schedule(final Entity<B, T> entity, final Pending<B, T> write) {
+        if (windowNanos == 0) {
+            due(entity, write);
+            return;
+        }
+        afterWindow(new Runnable() {
+            @Override
+            public void run() {
+                due(entity, write);
+            }
+        }, windowNanos);
+    }
+
+    /**
+     * Runs the task once the window closed
+     */
+    void afterWindow(Runnable task, long windowNanos) {
+        timer.schedule(task, windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private <B, T> void due(Entity<B, T> entity, Pending<B, T> write) {
+        synchronized (this) {
+            write.due = true;
+        }
+        sendNext(entity);
+    }
+
+    /**
+     * Sends the oldest pending write of the entity if its window closed and no write to the entity is in flight
+     */
+    private <B, T> void sendNext(final Entity<B, T> entity) {
+        final Pending<B, T> write;
+        synchronized (this) {
+            if (entity.inFlight != null) {
+                return;
+            }
+            write = entity.pending.peekFirst();
+            if (write == null) {
+                // the window of a write sent by a flush may close after a later write created a new entity
+                if (entities.get(entity.key) == entity) {
+                    entities.remove(entity.key);
+                }
+                return;
+            }
+            if (!write.due) {
+                return;
+            }
+            entity.pending.removeFirst();
+            entity.inFlight = write;
+        }
+        requestCount.incrementAndGet();
+        Call<T> call;
+        try {
+            call = entity.writer.call(entity.key.id, write.body);
+        } catch (RuntimeException e) {
+            complete(entity, write, null, e);
+            return;
+        }
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    complete(entity, write, response.body(), null);
+                } else {
+                    complete(entity, write, null, new IOException("Updating " + entity.key + " failed with HTTP "
+                            + response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                complete(entity, write, null, t);
+            }
+        });
+    }
+
+    private <B, T> void complete(Entity<B, T> entity, Pending<B, T> write, T result, Throwable failure) {
+        List<WriteFuture<T>> completed = write.futures;
+        synchronized (this) {
+            entity.inFlight = null;
+            Pending<B, T> next = entity.pending.peekFirst();
+            if (next != null && entity.writer.supersedes()) {
+                // the next write carries what these callers wrote and more
+                next.futures.addAll(0, write.futures);
+                completed = Collections.emptyList();
+            }
+        }
+        for (WriteFuture<T> future : completed) {
+            if (failure == null) {
+                future.set(result);
+            } else {
+                future.setException(failure);
+            }
+        }
+        sendNext(entity);
+    }
+
+    /**
+     * Sends the writes of one type of entity
+     *
+     * @param <B> the body type
+     * @param <T> the result type
+     */
+    private abstract static class Writer<B, T> {
+
+        abstract boolean canMerge(B pending, B later);
+
+        abstract B merge(B pending, B later);
+
+        abstract Call<T> call(long id, B body);
+
+        /**
+         * Whether a newer write makes the one in flight obsolete so that its callers wait for the newer one
+         */
+        boolean supersedes() {
+            return false;
+        }
+    }
+
+    static final class Key {
+        final Type type;
+        final long id;
+
+        Key(Type type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return id == key.id && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + (int) (id ^ (id >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return type.name().toLowerCase() + " " + id;
+        }
+    }
+
+    /**
+     * The writes to one entity, guarded by the coalescer
+     */
+    private static final class Entity<B, T> {
+        final Key key;
+        final Writer<B, T> writer;
+        final Deque<Pending<B, T>> pending = new ArrayDeque<>();
+        Pending<B, T> inFlight;
+
+        Entity(Key key, Writer<B, T> writer) {
+            this.key = key;
+            this.writer = writer;
+        }
+
+        void markDue() {
+            for (Pending<B, T> write : pending) {
+                write.due = true;
+            }
+        }
+    }
+
+    /**
+     * A write and the callers waiting for it, guarded by the coalescer
+     */
+    private static final class Pending<B, T> {
+        B body;
+        boolean due;
+        final List<WriteFuture<T>> futures = new ArrayList<>();
+
+        Pending(B body) {
+            this.body = body;
+        }
+    }
+}
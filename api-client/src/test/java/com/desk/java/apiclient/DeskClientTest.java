@@ -29,12 +29,41 @@ package com.desk.java.apiclient;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.desk.java.apiclient.cache.CachingCaseService;
+import com.desk.java.apiclient.cache.CachingCustomerService;
+import com.desk.java.apiclient.cache.CachingUserService;
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import org.jetbrains.annotations.NotNull;
+
+import retrofit2.Call;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
 
 import static com.desk.java.apiclient.DeskClientBuilder.PROTOCOL_CONNECT;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -153,4 +182,138 @@ public class DeskClientTest {
     public void getUrlReturnsCorrectUrl() throws Exception {
         assertEquals(PROTOCOL_CONNECT + TEST_HOST_NAME + "/testpath", apiTokenDeskClient.getUrl("/testpath"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void servicesAreCreatedOnce() throws Exception {
+        assertSame(apiTokenDeskClient.cases(), apiTokenDeskClient.cases());
+        assertSame(apiTokenDeskClient.users(), apiTokenDeskClient.users());
+    }
+
+    @Test
+    public void concurrentFirstUseReturnsSameService() throws Exception {
+        final DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234"));
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(new Callable<CaseService>() {
+                    @Override
+                    public CaseService call() throws Exception {
+                        start.await();
+                        return client.cases();
+                    }
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                assertSame(client.cases(), future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void validateEagerlyCreatesAllServices() throws Exception {
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .validateEagerly(true));
+        // created by the constructor, before any getter was called
+        assertEquals(DeskClient.SERVICES.length, client.getCreatedServices().size());
+        for (Class<?> service : DeskClient.SERVICES) {
+            assertTrue(client.getCreatedServices().contains(service));
+        }
+        assertSame(client.getService(CaseService.class), client.cases());
+    }
+
+    @Test
+    public void servicesAreCreatedLazilyWithoutValidateEagerly() throws Exception {
+        // only the case service the attachments need
+        assertEquals(1, apiTokenDeskClient.getCreatedServices().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void validateEagerlyRejectsInvalidServiceMethodsAtBuildTime() throws Exception {
+        new InvalidServiceDeskClient(new DeskClientBuilder(TEST_HOST_NAME, "1234").validateEagerly(true));
+    }
+
+    @Test
+    public void invalidServiceMethodsAreNotParsedWithoutValidateEagerly() throws Exception {
+        assertNotNull(new InvalidServiceDeskClient(new DeskClientBuilder(TEST_HOST_NAME, "1234")));
+    }
+
+    @Test
+    public void primeTypeAdaptersCachesBodyAdapters() throws Exception {
+        TypeToken<?> cases = new TypeToken<ApiResponse<Case>>() {};
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .primeTypeAdapters(true));
+        Map<TypeToken<?>, TypeAdapter<?>> cache = typeAdapterCache(client.getGson());
+        assertNotNull(cache.get(cases));
+        assertNotNull(cache.get(TypeToken.get(Case.class)));
+        assertSame(cache.get(cases), client.getGson().getAdapter(cases));
+
+        assertNull(typeAdapterCache(apiTokenDeskClient.getGson()).get(cases));
+    }
+
+    @Test
+    public void eventListenerFactorySeesConstructedClient() throws Exception {
+        final DeskClient[] seen = new DeskClient[1];
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .offHeapCache(1024 * 1024)
+                .eventListener(new DeskEventListener.Factory() {
+                    @NotNull
+                    @Override
+                    public DeskEventListener create(@NotNull DeskClient client) {
+                        assertNotNull(client.getOkHttpClient());
+                        assertNotNull(client.getOffHeapCache());
+                        assertNotNull(client.attachments());
+                        seen[0] = client;
+                        return new DeskEventListener() {
+                        };
+                    }
+                }));
+        assertSame(client, seen[0]);
+        assertNotSame(DeskEventListener.NONE, client.getEventListener());
+    }
+
+    @Test
+    public void offHeapCacheWrapsEntityServices() throws Exception {
+        assertNull(apiTokenDeskClient.getOffHeapCache());
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .offHeapCache(4 * 1024 * 1024));
+        assertNotNull(client.getOffHeapCache());
+        assertTrue(client.cases() instanceof CachingCaseService);
+        assertTrue(client.customers() instanceof CachingCustomerService);
+        assertTrue(client.users() instanceof CachingUserService);
+        assertFalse(client.groups() instanceof CachingUserService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<TypeToken<?>, TypeAdapter<?>> typeAdapterCache(Gson gson) throws Exception {
+        Field field = Gson.class.getDeclaredField("typeTokenCache");
+        field.setAccessible(true);
+        return (Map<TypeToken<?>, TypeAdapter<?>>) field.get(gson);
+    }
+
+    interface InvalidService {
+        @GET("cases/{id}")
+        Call<Case> getCase(@Path("caseId") long caseId);
+    }
+
+    /**
+     * Client warming up a service whose path parameter does not match its URL
+     */
+    static final class InvalidServiceDeskClient extends DeskClient {
+        InvalidServiceDeskClient(DeskClientBuilder builder) {
+            super(builder);
+            warmUp(InvalidService.class);
+        }
+    }
+
+    @Test
+    public void attachmentsShareTheSigningClient() throws Exception {
+        assertNotNull(apiTokenDeskClient.attachments());
+        assertSame(apiTokenDeskClient.attachments(), apiTokenDeskClient.attachments());
+        assertTrue(apiTokenDeskClient.getOkHttpClient().interceptors().get(0) instanceof ApiTokenSigningInterceptor);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.analytics;
+
+import com.desk.java.apiclient.analytics.CaseAggregations.Age;
+import com.desk.java.apiclient.analytics.CaseAggregations.GroupBy;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.CaseType;
+import com.desk.java.apiclient.model.Link;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link CaseAggregations}
+ */
+public class CaseAggregationsTest {
+
+    private static final int ROWS = 10000;
+    private static final long NOW = 1500000000000L;
+
+    private final CaseAggregations aggregations = new CaseAggregations(new ForkJoinPool(4), 64);
+    private Case[] cases;
+    private CaseColumns columns;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        cases = new Case[ROWS];
+        CaseColumns.Builder builder = new CaseColumns.Builder();
+        for (int i = 0; i < ROWS; i++) {
+            Case c = new Case();
+            c.setId(i + 1);
+            c.setStatus(CaseStatus.values()[random.nextInt(CaseStatus.values().length)]);
+            c.setType(i % 10 == 0 ? null : CaseType.values()[random.nextInt(CaseType.values().length)]);
+            c.setCreatedAt(i % 7 == 0 ? null : new Date(NOW - random.nextInt(1000000)));
+            c.setUpdatedAt(new Date(NOW - random.nextInt(1000)));
+            c.setAssignedGroupLink(new Link("/api/v2/groups/" + (1000 + random.nextInt(50))));
+            c.setLabelIds(random.nextBoolean() ? new long[] { 1, random.nextInt(20) + 2 } : new long[0]);
+            cases[i] = c;
+            builder.add(c);
+        }
+        columns = builder.build();
+    }
+
+    @Test
+    public void countByStatusMatchesNaiveCount() throws Exception {
+        EnumMap<CaseStatus, Long> expected = new EnumMap<>(CaseStatus.class);
+        for (Case c : cases) {
+            Long count = expected.get(c.getStatus());
+            expected.put(c.getStatus(), count == null ? 1 : count + 1);
+        }
+        assertEquals(expected, aggregations.countByStatus(columns, null));
+    }
+
+    @Test
+    public void countByTypeSkipsRowsWithoutType() throws Exception {
+        long total = 0;
+        for (Long count : aggregations.countByType(columns, null).values()) {
+            total += count;
+        }
+        assertEquals(ROWS - ROWS / 10, total);
+    }
+
+    @Test
+    public void countByGroupRespectsSelection() throws Exception {
+        BitSet open = columns.rowsWithStatus(CaseStatus.OPEN);
+        Map<Long, Long> expected = new HashMap<>();
+        for (Case c : cases) {
+            if (c.getStatus() == CaseStatus.OPEN) {
+                Long count = expected.get(c.getAssignedGroupId());
+                expected.put(c.getAssignedGroupId(), count == null ? 1 : count + 1);
+            }
+        }
+        assertEquals(expected, aggregations.countBy(columns, GroupBy.ASSIGNED_GROUP, open));
+        assertEquals(open.cardinality(), aggregations.count(columns, open));
+    }
+
+    @Test
+    public void countByLabelMatchesBitSets() throws Exception {
+        Map<Long, Long> counts = aggregations.countByLabel(columns, null);
+        assertEquals((long) columns.rowsWithLabel(1).cardinality(), (long) counts.get(1L));
+        BitSet closed = columns.rowsWithStatus(CaseStatus.CLOSED);
+        BitSet expected = columns.rowsWithLabel(5);
+        expected.and(closed);
+        assertEquals((long) expected.cardinality(), (long) aggregations.countByLabel(columns, closed).get(5L));
+    }
+
+    @Test
+    public void percentilesUseNearestRank() throws Exception {
+        long[] ages = new long[ROWS];
+        int count = 0;
+        for (Case c : cases) {
+            if (c.getCreatedAt() != null) {
+                ages[count++] = NOW - c.getCreatedAt().getTime();
+            }
+        }
+        ages = Arrays.copyOf(ages, count);
+        Arrays.sort(ages);
+        long[] percentiles = aggregations.percentiles(columns, Age.SINCE_CREATED, NOW, null, 0, 50, 90, 100);
+        assertArrayEquals(new long[] {
+                ages[0], ages[(int) Math.ceil(0.5 * count) - 1], ages[(int) Math.ceil(0.9 * count) - 1],
+                ages[count - 1] }, percentiles);
+    }
+
+    @Test
+    public void percentilesByGroupCoverEveryGroup() throws Exception {
+        Map<Long, long[]> byStatus = aggregations.percentilesBy(columns, GroupBy.STATUS, Age.SINCE_UPDATED, NOW,
+                null, 50, 100);
+        assertEquals(CaseStatus.values().length, byStatus.size());
+        BitSet open = columns.rowsWithStatus(CaseStatus.OPEN);
+        assertArrayEquals(aggregations.percentiles(columns, Age.SINCE_UPDATED, NOW, open, 50, 100),
+                byStatus.get((long) CaseStatus.OPEN.ordinal()));
+    }
+
+    @Test
+    public void percentilesOfEmptySelectionHaveNoValue() throws Exception {
+        assertArrayEquals(new long[] { CaseAggregations.NO_VALUE },
+                aggregations.percentiles(columns, Age.CREATED_TO_UPDATED, NOW, new BitSet(), 50));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.analytics;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.CaseType;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.TestUtils;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Date;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CaseColumns}
+ */
+@SuppressWarnings("unchecked")
+public class CaseColumnsTest {
+
+    private static final Type CASES = new TypeToken<ApiResponse<Case>>() {}.getType();
+
+    @Test
+    public void builderFillsColumns() throws Exception {
+        Case c = new Case();
+        c.setId(10);
+        c.setStatus(CaseStatus.PENDING);
+        c.setType(CaseType.PHONE);
+        c.setCreatedAt(new Date(1000));
+        c.setLabelIds(new long[] { 5, 3 });
+        c.setAssignedGroupLink(new Link("/api/v2/groups/4"));
+        c.setAssignedUserLink(new Link("/api/v2/users/8"));
+
+        CaseColumns columns = new CaseColumns.Builder().add(c).add(new Case()).build();
+        assertEquals(2, columns.size());
+        assertEquals(10, columns.getId(0));
+        assertEquals(CaseStatus.PENDING, columns.getStatus(0));
+        assertEquals(CaseType.PHONE, columns.getType(0));
+        assertEquals(1000, columns.getCreatedAt(0));
+        assertEquals(CaseColumns.NO_DATE, columns.getUpdatedAt(0));
+        assertEquals(4, columns.getAssignedGroupId(0));
+        assertEquals(8, columns.getAssignedUserId(0));
+        assertArrayEquals(new long[] { 3, 5 }, columns.getLabelIds());
+        assertTrue(columns.hasLabel(0, 5));
+        assertFalse(columns.hasLabel(1, 5));
+        assertFalse(columns.hasLabel(0, 6));
+        assertNull(columns.getStatus(1));
+        assertEquals(CaseColumns.NO_ORDINAL, columns.getTypeOrdinal(1));
+        assertEquals(1, columns.rowsWithStatus(CaseStatus.PENDING).cardinality());
+        assertEquals(1, columns.rowsWithAssignedGroup(0).cardinality());
+    }
+
+    @Test
+    public void builderGrowsPastInitialCapacity() throws Exception {
+        CaseColumns.Builder builder = new CaseColumns.Builder();
+        for (int i = 0; i < 5000; i++) {
+            Case c = new Case();
+            c.setId(i);
+            builder.add(c);
+        }
+        CaseColumns columns = builder.build();
+        assertEquals(5000, columns.size());
+        assertEquals(4999, columns.getId(4999));
+    }
+
+    @Test
+    public void fromFilterStreamsAllPages() throws Exception {
+        ApiResponse<Case> first = TestUtils.getDeskClientGson().fromJson("{\"total_entries\":3,"
+                + "\"_links\":{\"next\":{\"href\":\"/api/v2/filters/1/cases?page=2\"}},"
+                + "\"_embedded\":{\"entries\":[{\"id\":1,\"status\":\"open\"},{\"id\":2,\"status\":\"open\"}]}}",
+                CASES);
+        ApiResponse<Case> second = TestUtils.getDeskClientGson().fromJson("{\"total_entries\":3,"
+                + "\"_embedded\":{\"entries\":[{\"id\":3,\"status\":\"closed\"}]}}",
+                CASES);
+        Call<ApiResponse<Case>> firstCall = mock(Call.class);
+        when(firstCall.execute()).thenReturn(Response.success(first));
+        Call<ApiResponse<Case>> secondCall = mock(Call.class);
+        when(secondCall.execute()).thenReturn(Response.success(second));
+        CaseService service = mock(CaseService.class);
+        when(service.getCasesByFilter(eq(1L), eq(CaseColumns.MAX_PER_PAGE), anyInt(), (String) isNull(),
+                any(SortDirection.class), any(Embed.class),
+                any(Fields.class))).thenReturn(firstCall, secondCall);
+
+        CaseColumns columns = CaseColumns.fromFilter(service, 1);
+        assertEquals(3, columns.size());
+        assertEquals(3, columns.getId(2));
+        assertEquals(CaseStatus.CLOSED, columns.getStatus(2));
+    }
+}
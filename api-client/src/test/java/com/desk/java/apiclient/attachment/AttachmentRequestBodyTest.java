@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.attachment;
+
+import com.desk.java.apiclient.util.OAuthSigner;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import okhttp3.Request;
+import okio.Buffer;
+import okio.ByteString;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link AttachmentRequestBody}
+ */
+public class AttachmentRequestBodyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void bodyIsTheBase64EncodedFileInJson() throws Exception {
+        Random random = new Random(7);
+        // every padding case and sizes either side of the read buffer
+        for (int size : new int[] {0, 1, 2, 3, 4, 5, 48 * 1024 - 1, 48 * 1024, 48 * 1024 + 1, 200000}) {
+            byte[] content = new byte[size];
+            random.nextBytes(content);
+            Path file = folder.getRoot().toPath().resolve("file-" + size + ".bin");
+            Files.write(file, content);
+
+            AttachmentRequestBody body = AttachmentRequestBody.create(file, "application/octet-stream");
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+
+            assertEquals("size " + size, body.contentLength(), buffer.size());
+            JsonObject json = new JsonParser().parse(buffer.readUtf8()).getAsJsonObject();
+            assertEquals("file-" + size + ".bin", json.get("file_name").getAsString());
+            assertEquals("application/octet-stream", json.get("content_type").getAsString());
+            assertEquals("size " + size, ByteString.of(content).base64(), json.get("content").getAsString());
+        }
+    }
+
+    @Test
+    public void fileNameIsEscaped() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("a.txt");
+        Files.write(file, "hello".getBytes("UTF-8"));
+
+        AttachmentRequestBody body = AttachmentRequestBody.create(file, "quote \" and caf\u00e9.txt", "text/plain");
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+
+        assertEquals(body.contentLength(), buffer.size());
+        JsonObject json = new JsonParser().parse(buffer.readUtf8()).getAsJsonObject();
+        assertEquals("quote \" and caf\u00e9.txt", json.get("file_name").getAsString());
+        assertEquals("aGVsbG8=", json.get("content").getAsString());
+    }
+
+    @Test
+    public void bodyCanBeWrittenMoreThanOnce() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("a.txt");
+        Files.write(file, "retry me".getBytes("UTF-8"));
+        AttachmentRequestBody body = AttachmentRequestBody.create(file, "text/plain");
+
+        Buffer first = new Buffer();
+        body.writeTo(first);
+        Buffer second = new Buffer();
+        body.writeTo(second);
+
+        assertEquals(first.readByteString(), second.readByteString());
+    }
+
+    @Test
+    public void fileChangingSizeFailsTheWrite() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("a.txt");
+        Files.write(file, "short".getBytes("UTF-8"));
+        AttachmentRequestBody body = AttachmentRequestBody.create(file, "text/plain");
+        Files.write(file, "much longer now".getBytes("UTF-8"));
+
+        try {
+            body.writeTo(new Buffer());
+            fail("expected the size change to fail the write");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void oauthSigningDoesNotReadTheBody() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("a.txt");
+        Files.write(file, "secret".getBytes("UTF-8"));
+        AttachmentRequestBody body = AttachmentRequestBody.create(file, "text/plain");
+        // reading the body now would fail
+        Files.delete(file);
+
+        Request request = new Request.Builder()
+                .url("https://test.desk.com/api/v2/cases/1/attachments")
+                .post(body)
+                .build();
+        Request signed = new OAuthSigner("key", "secret", "token", "tokenSecret").sign(request);
+
+        assertNotNull(signed.header("Authorization"));
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.attachment;
+
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Call;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link Attachments}
+ */
+@SuppressWarnings("unchecked")
+public class AttachmentsTest {
+
+    private static final HttpUrl BASE_URL = HttpUrl.parse("https://test.desk.com/api/v2/");
+    private static final String FILE_URL = "https://files.desk.com/attachments/1/report.pdf";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private FakeServer server;
+    private Path target;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[10000];
+        new Random(42).nextBytes(content);
+        server = new FakeServer(content);
+        target = folder.getRoot().toPath().resolve("report.pdf");
+    }
+
+    @Test
+    public void largeFileIsDownloadedInParallelRanges() throws Exception {
+        Attachments attachments = attachments(1024, 4);
+
+        assertEquals(target, attachments.download(attachment(content.length), target));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(10, server.ranges().size());
+        assertTrue(server.ranges().contains("bytes=9216-9999"));
+        assertNoLeftovers();
+    }
+
+    @Test
+    public void smallFileIsDownloadedInOneRequest() throws Exception {
+        attachments(16384, 4).download(attachment(content.length), target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(Collections.singletonList((String) null), server.ranges());
+    }
+
+    @Test
+    public void failedChunksAreResumed() throws Exception {
+        Attachments attachments = attachments(1024, 2);
+        server.failRangeStart = 3072;
+        try {
+            attachments.download(attachment(content.length), target);
+            fail("expected the failing chunk to fail the download");
+        } catch (IOException expected) {
+        }
+        assertFalse(Files.exists(target));
+        List<String> served = new ArrayList<>(server.served);
+
+        server.failRangeStart = -1;
+        server.requests.clear();
+        attachments.download(attachment(content.length), target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertTrue(server.ranges().contains("bytes=3072-4095"));
+        for (String range : server.ranges()) {
+            assertFalse(range + " was downloaded twice", served.contains(range));
+        }
+        for (Request request : server.requests) {
+            assertEquals(FakeServer.ETAG, request.header("If-Range"));
+        }
+        assertNoLeftovers();
+    }
+
+    @Test
+    public void interruptedSingleRequestResumesFromPartLength() throws Exception {
+        Attachments attachments = attachments(1024, 1);
+        server.truncateAfter = 4000;
+        try {
+            attachments.download(attachment(content.length), target);
+            fail("expected the broken connection to fail the download");
+        } catch (IOException expected) {
+        }
+
+        server.truncateAfter = -1;
+        server.requests.clear();
+        attachments.download(attachment(content.length), target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(Collections.singletonList("bytes=4000-"), server.ranges());
+        assertEquals(FakeServer.ETAG, server.requests.get(0).header("If-Range"));
+        assertNoLeftovers();
+    }
+
+    @Test
+    public void serverIgnoringRangesFallsBackToOneRequest() throws Exception {
+        server.supportsRanges = false;
+
+        attachments(1024, 4).download(attachment(content.length), target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertNull(server.requests.get(server.requests.size() - 1).header("Range"));
+        assertNoLeftovers();
+    }
+
+    @Test
+    public void sizeMismatchFailsAndDiscardsPart() throws Exception {
+        try {
+            attachments(16384, 4).download(attachment(content.length + 1), target);
+            fail("expected the size mismatch to fail the download");
+        } catch (IOException expected) {
+        }
+        assertFalse(Files.exists(target));
+        assertNoLeftovers();
+    }
+
+    @Test
+    public void existingTargetIsReplaced() throws Exception {
+        Files.write(target, new byte[] {1, 2, 3});
+
+        attachments(1024, 4).download(attachment(content.length), target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void relativeUrlResolvesAgainstBaseUrl() throws Exception {
+        attachments(16384, 1).download("/attachments/1/report.pdf", content.length, target);
+
+        assertEquals("https://test.desk.com/attachments/1/report.pdf", server.requests.get(0).url().toString());
+    }
+
+    @Test
+    public void offHostUrlIsFetchedWithoutAuthorization() throws Exception {
+        signedAttachments().download(FILE_URL, content.length, target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertNull(server.requests.get(0).header("Authorization"));
+    }
+
+    @Test
+    public void apiHostUrlIsSigned() throws Exception {
+        signedAttachments().download("/attachments/1/report.pdf", content.length, target);
+
+        assertEquals("Bearer token", server.requests.get(0).header("Authorization"));
+    }
+
+    @Test
+    public void contentRangeStartIsParsed() throws Exception {
+        assertEquals(1024, Attachments.contentRangeStart(response("bytes 1024-2047/10000")));
+        assertEquals(0, Attachments.contentRangeStart(response("bytes 0-0/*")));
+        assertEquals(-1, Attachments.contentRangeStart(response("items 1-2/3")));
+        assertEquals(-1, Attachments.contentRangeStart(response(null)));
+    }
+
+    @Test
+    public void uploadCreatesAttachmentWithStreamingBody() throws Exception {
+        CaseService cases = mock(CaseService.class);
+        Call<Attachment> call = mock(Call.class);
+        when(cases.createAttachment(eq(12L), any(AttachmentRequestBody.class))).thenReturn(call);
+        Files.write(target, content);
+
+        Attachments attachments = new Attachments(new OkHttpClient(), BASE_URL, cases);
+
+        assertSame(call, attachments.uploadAttachment(12, target, "application/pdf"));
+        assertSame(call, attachments.withChunking(1024, 2).uploadAttachment(12, target, "application/pdf"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void uploadNeedsCaseService() throws Exception {
+        Files.write(target, content);
+        attachments(1024, 4).uploadAttachment(12, target, "application/pdf");
+    }
+
+    private Attachments attachments(long chunkSize, int parallelism) {
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(server).build();
+        return new Attachments(client, BASE_URL, chunkSize, parallelism);
+    }
+
+    private Attachments signedAttachments() {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new ApiTokenSigningInterceptor("token"))
+                .addInterceptor(server)
+                .build();
+        return new Attachments(client, BASE_URL, 16384, 1);
+    }
+
+    private static Attachment attachment(int size) {
+        Attachment attachment = new Attachment();
+        attachment.setFileName("report.pdf");
+        attachment.setUrl(FILE_URL);
+        attachment.setSize(size);
+        return attachment;
+    }
+
+    private void assertNoLeftovers() {
+        assertFalse(Files.exists(target.resolveSibling(target.getFileName() + Attachments.PART_SUFFIX)));
+        assertFalse(Files.exists(target.resolveSibling(target.getFileName() + Attachments.STATE_SUFFIX)));
+    }
+
+    private static Response response(String contentRange) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url(FILE_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(206);
+        if (contentRange != null) {
+            builder.header("Content-Range", contentRange);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Serves a file with byte range support from an application interceptor
+     */
+    private static class FakeServer implements Interceptor {
+
+        static final String ETAG = "\"v1\"";
+        static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+        final byte[] content;
+        final List<Request> requests = Collections.synchronizedList(new ArrayList<Request>());
+        final List<String> served = Collections.synchronizedList(new ArrayList<String>());
+        volatile boolean supportsRanges = true;
+        volatile long failRangeStart = -1;
+        volatile long truncateAfter = -1;
+
+        FakeServer(byte[] content) {
+            this.content = content;
+        }
+
+        List<String> ranges() {
+            List<String> ranges = new ArrayList<>();
+            synchronized (requests) {
+                for (Request request : requests) {
+                    ranges.add(request.header("Range"));
+                }
+            }
+            return ranges;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            requests.add(request);
+            Response.Builder response = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .header("ETag", ETAG);
+
+            String range = request.header("Range");
+            String ifRange = request.header("If-Range");
+            if (range == null || !supportsRanges || (ifRange != null && !ifRange.equals(ETAG))) {
+                return response.code(200).body(body(0, content.length)).build();
+            }
+
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            long start = Long.parseLong(bounds[0]);
+            long end = bounds[1].isEmpty() ? content.length - 1 : Long.parseLong(bounds[1]);
+            if (start == failRangeStart) {
+                return response.code(500).body(ResponseBody.create(OCTET_STREAM, new byte[0])).build();
+            }
+            if (start >= content.length) {
+                return response.code(416).body(ResponseBody.create(OCTET_STREAM, new byte[0])).build();
+            }
+            served.add(range);
+            return response.code(206)
+                    .header("Content-Range", "bytes " + start + "-" + end + "/" + content.length)
+                    .body(body((int) start, (int) (end + 1)))
+                    .build();
+        }
+
+        private ResponseBody body(int from, int to) {
+            final Buffer buffer = new Buffer().write(Arrays.copyOfRange(content, from, to));
+            final long limit = truncateAfter;
+            if (limit < 0) {
+                return ResponseBody.create(OCTET_STREAM, buffer.size(), buffer);
+            }
+            BufferedSource broken = Okio.buffer(new ForwardingSource(buffer) {
+                private long read;
+
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    if (read >= limit) {
+                        throw new IOException("connection reset");
+                    }
+                    long result = super.read(sink, Math.min(byteCount, limit - read));
+                    read += result;
+                    return result;
+                }
+            });
+            return ResponseBody.create(OCTET_STREAM, to - from, broken);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.batch;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.TestCalls;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CaseBatchReader}
+ */
+public class CaseBatchReaderTest {
+
+    private static final ResponseBody ERROR = ResponseBody.create(MediaType.parse("application/json"), "{}");
+
+    private CaseService cases;
+    /** Ids of cases which exist */
+    private final Set<Long> existing = Collections.synchronizedSet(new HashSet<Long>());
+    /** Ids of existing cases the search index does not know yet */
+    private final Set<Long> unindexed = Collections.synchronizedSet(new HashSet<Long>());
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+    private final List<Long> singleReads = Collections.synchronizedList(new ArrayList<Long>());
+    /** The status searches fail with, 0 if they succeed */
+    private volatile int searchError;
+
+    @Before
+    public void setUp() {
+        cases = mock(CaseService.class);
+        when(cases.searchCases(anyString(), anyInt(), anyInt(), anyString(), any(SortDirection.class),
+                any(Embed.class), any(Fields.class))).thenAnswer(new Answer<Call<ApiResponse<Case>>>() {
+            @Override
+            public Call<ApiResponse<Case>> answer(InvocationOnMock invocation) {
+                String query = (String) invocation.getArguments()[0];
+                queries.add(query);
+                if (searchError != 0) {
+                    return TestCalls.immediate(Response.<ApiResponse<Case>>error(searchError, ERROR));
+                }
+                List<Case> matches = new ArrayList<>();
+                for (String id : query.substring(CaseBatchReader.QUERY_PREFIX.length()).split(",")) {
+                    long caseId = Long.parseLong(id);
+                    if (existing.contains(caseId) && !unindexed.contains(caseId)) {
+                        matches.add(deskCase(caseId));
+                    }
+                }
+                // the index returns hits in its own order
+                Collections.reverse(matches);
+                Entries<Case> entries = new Entries<>();
+                entries.setEntries(matches.toArray(new Case[matches.size()]));
+                ApiResponse<Case> page = new ApiResponse<>();
+                page.setEmbeddedList(entries);
+                return TestCalls.immediate(Response.success(page));
+            }
+        });
+        when(cases.getCaseById(anyLong(), any(Embed.class), any(Fields.class))).thenAnswer(new Answer<Call<Case>>() {
+            @Override
+            public Call<Case> answer(InvocationOnMock invocation) {
+                long id = (Long) invocation.getArguments()[0];
+                singleReads.add(id);
+                return TestCalls.immediate(existing.contains(id)
+                        ? Response.success(deskCase(id)) : Response.<Case>error(404, ERROR));
+            }
+        });
+    }
+
+    @Test
+    public void casesAreReadWithFewSearchesInInputOrder() throws Exception {
+        long[] ids = new long[5000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000000 + (i * 7919L) % 5000;
+            if (i % 10 != 3) {
+                existing.add(ids[i]);
+            }
+        }
+
+        CaseBatch batch = new CaseBatchReader(cases).getCasesByIds(ids, null, null);
+
+        assertEquals(50, batch.getRequestCount());
+        assertTrue(singleReads.isEmpty());
+        List<Case> found = batch.getCases();
+        assertEquals(4500, found.size());
+        int next = 0;
+        for (long id : ids) {
+            if (existing.contains(id)) {
+                assertEquals(id, found.get(next++).getId());
+            }
+        }
+        assertEquals(500, batch.getMissingIds().length);
+        assertFalse(batch.isComplete());
+        assertNull(batch.get(ids[3]));
+    }
+
+    @Test
+    public void duplicatesAreReadOnce() throws Exception {
+        existing.addAll(Arrays.asList(1L, 2L));
+
+        CaseBatch batch = new CaseBatchReader(cases).getCasesByIds(new long[] {2, 1, 2}, null, null);
+
+        assertEquals(Collections.singletonList("case_id:2,1"), queries);
+        assertEquals(3, batch.getCases().size());
+        assertEquals(2, batch.getCases().get(2).getId());
+        assertTrue(batch.isComplete());
+    }
+
+    @Test
+    public void longIdsAreSplitByQueryLength() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            ids.add(1000000000000000000L + i);
+        }
+
+        List<long[]> chunks = CaseBatchReader.chunk(ids);
+
+        assertTrue(chunks.size() > 1);
+        int total = 0;
+        for (long[] chunk : chunks) {
+            String encoded = CaseBatchReader.query(chunk).replace(",", "%2C");
+            assertTrue(encoded.length() <= CaseBatchReader.MAX_QUERY_LENGTH);
+            total += chunk.length;
+        }
+        assertEquals(100, total);
+    }
+
+    @Test
+    public void rejectedSearchFallsBackToSingleReads() throws Exception {
+        existing.addAll(Arrays.asList(1L, 2L, 3L));
+        searchError = 400;
+
+        CaseBatch batch = new CaseBatchReader(cases).getCasesByIds(new long[] {3, 4, 1, 2}, null, null);
+
+        assertEquals(1 + 4, batch.getRequestCount());
+        assertEquals(4, singleReads.size());
+        assertEquals(3, batch.getCases().get(0).getId());
+        assertArrayEquals(new long[] {4}, batch.getMissingIds());
+    }
+
+    @Test
+    public void rateLimitedOrFailingSearchFailsTheBatch() throws Exception {
+        existing.addAll(Arrays.asList(1L, 2L, 3L));
+        for (int code : new int[] {429, 500, 503}) {
+            searchError = code;
+            try {
+                new CaseBatchReader(cases).getCasesByIds(new long[] {3, 4, 1, 2}, null, null);
+                fail("expected HTTP " + code + " to fail the batch");
+            } catch (IOException expected) {
+            }
+        }
+        assertTrue(singleReads.isEmpty());
+    }
+
+    @Test
+    public void missingIdsCanBeRechecked() throws Exception {
+        existing.addAll(Arrays.asList(1L, 2L, 3L));
+        unindexed.add(3L);
+
+        CaseBatch batch = new CaseBatchReader(cases).withMissingRecheck(true)
+                .getCasesByIds(new long[] {1, 2, 3, 4}, null, null);
+
+        assertEquals(Arrays.asList(3L, 4L), singleReads);
+        assertEquals(3, batch.getCases().size());
+        assertArrayEquals(new long[] {4}, batch.getMissingIds());
+    }
+
+    @Test(expected = IOException.class)
+    public void failedReadFailsTheBatch() throws Exception {
+        when(cases.getCaseById(anyLong(), any(Embed.class), any(Fields.class)))
+                .thenReturn(TestCalls.immediate(Response.<Case>error(500, ERROR)));
+        searchError = 400;
+
+        new CaseBatchReader(cases).getCasesByIds(new long[] {1}, null, null);
+    }
+
+    private static Case deskCase(long id) {
+        Case deskCase = new Case();
+        deskCase.setId(id);
+        return deskCase;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.TestUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CachingCaseService}
+ */
+@SuppressWarnings("unchecked")
+public class CachingCaseServiceTest {
+
+    private CaseService delegate;
+    private OffHeapCache cache;
+    private CachingCaseService service;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = mock(CaseService.class);
+        cache = new OffHeapCache(1024 * 1024, 64 * 1024, new GsonEntryCodec(TestUtils.getDeskClientGson()));
+        service = new CachingCaseService(delegate, cache);
+    }
+
+    @Test
+    public void getCaseByIdReadsThroughCache() throws Exception {
+        Case c = new Case();
+        c.setId(1);
+        c.setSubject("subject");
+        Call<Case> first = mock(Call.class);
+        when(first.execute()).thenReturn(Response.success(c));
+        Call<Case> second = mock(Call.class);
+        when(delegate.getCaseById(1, null, null)).thenReturn(first, second);
+
+        assertEquals("subject", service.getCaseById(1, null, null).execute().body().getSubject());
+        assertEquals("subject", service.getCaseById(1, null, null).execute().body().getSubject());
+        verify(second, never()).execute();
+        assertEquals(1, cache.getMetrics().getHitCount());
+    }
+
+    @Test
+    public void getCaseByIdWithEmbedsBypassesCache() throws Exception {
+        Embed embed = Embed.fields("customer");
+        Call<Case> call = mock(Call.class);
+        when(delegate.getCaseById(1, embed, null)).thenReturn(call);
+        assertSame(call, service.getCaseById(1, embed, null));
+    }
+
+    @Test
+    public void failedResponsesAreNotCached() throws Exception {
+        Call<Case> call = mock(Call.class);
+        when(call.execute()).thenReturn(Response.<Case>error(404, ResponseBody.create(null, "")));
+        when(delegate.getCaseById(1, null, null)).thenReturn(call);
+        assertFalse(service.getCaseById(1, null, null).execute().isSuccessful());
+        assertFalse(cache.contains(Case.class, 1));
+    }
+
+    @Test
+    public void updateCaseInvalidatesCachedCase() throws Exception {
+        Case c = new Case();
+        c.setId(1);
+        cache.put(Case.class, 1, c);
+        Call<Case> call = mock(Call.class);
+        when(call.execute()).thenReturn(Response.success(c));
+        when(delegate.updateCase(1, c)).thenReturn(call);
+        assertTrue(cache.contains(Case.class, 1));
+        service.updateCase(1, c).execute();
+        assertFalse(cache.contains(Case.class, 1));
+    }
+
+    @Test
+    public void readRacingAnUpdateDoesNotCacheTheOldCase() throws Exception {
+        final Case before = new Case();
+        before.setId(1);
+        before.setSubject("before");
+        final Case after = new Case();
+        after.setId(1);
+        after.setSubject("after");
+        Call<Case> update = mock(Call.class);
+        when(update.execute()).thenReturn(Response.success(after));
+        when(delegate.updateCase(1, after)).thenReturn(update);
+        Call<Case> read = mock(Call.class);
+        when(read.execute()).thenAnswer(new Answer<Response<Case>>() {
+            @Override
+            public Response<Case> answer(InvocationOnMock invocation) throws Throwable {
+                // the update completes while the read, which saw the old case, is still in flight
+                service.updateCase(1, after).execute();
+                return Response.success(before);
+            }
+        });
+        when(delegate.getCaseById(1, null, null)).thenReturn(read);
+
+        assertEquals("before", service.getCaseById(1, null, null).execute().body().getSubject());
+        assertFalse(cache.contains(Case.class, 1));
+        assertEquals(1, cache.getMetrics().getStalePutCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cachedCallCanOnlyBeExecutedOnce() throws Exception {
+        Case c = new Case();
+        c.setId(1);
+        cache.put(Case.class, 1, c);
+        Call<Case> call = service.getCaseById(1, null, null);
+        call.execute();
+        call.execute();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.cache;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.util.TestUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link OffHeapCache}
+ */
+public class OffHeapCacheTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Stores strings as is so entry sizes are predictable
+     */
+    private static final EntryCodec STRING_CODEC = new EntryCodec() {
+        @Override
+        public byte[] encode(Object value) throws IOException {
+            return ((String) value).getBytes(UTF_8);
+        }
+
+        @Override
+        public <T> T decode(Class<T> type, byte[] bytes) throws IOException {
+            return type.cast(new String(bytes, UTF_8));
+        }
+    };
+
+    private OffHeapCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        // two slabs of 1024 bytes, 100 byte entries use 104 byte chunks, 9 per slab
+        cache = new OffHeapCache(2048, 1024, STRING_CODEC);
+    }
+
+    @Test
+    public void entitiesRoundTripThroughGson() throws Exception {
+        OffHeapCache gsonCache = new OffHeapCache(1024 * 1024, 64 * 1024,
+                new GsonEntryCodec(TestUtils.getDeskClientGson()));
+        Case c = new Case();
+        c.setId(5);
+        c.setSubject("Printer on fire");
+        c.setStatus(CaseStatus.OPEN);
+        c.setCreatedAt(new Date(1466000000000L));
+        assertTrue(gsonCache.put(Case.class, 5, c));
+
+        Case cached = gsonCache.get(Case.class, 5);
+        assertNotSame(c, cached);
+        assertEquals("Printer on fire", cached.getSubject());
+        assertEquals(CaseStatus.OPEN, cached.getStatus());
+        assertEquals(c.getCreatedAt(), cached.getCreatedAt());
+        assertNull(gsonCache.get(Customer.class, 5));
+    }
+
+    @Test
+    public void putReplacesExistingEntry() throws Exception {
+        cache.put(String.class, 1, "first");
+        cache.put(String.class, 1, "second");
+        assertEquals("second", cache.get(String.class, 1));
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getEntryCount());
+        assertEquals(6, metrics.getStoredBytes());
+        assertEquals(SlabAllocator.MIN_CHUNK_SIZE, metrics.getUsedBytes());
+    }
+
+    @Test
+    public void entriesLargerThanSlabAreRejected() throws Exception {
+        assertFalse(cache.put(String.class, 1, value(1025, 'x')));
+        assertEquals(1, cache.getMetrics().getRejectionCount());
+        assertTrue(cache.put(String.class, 1, value(1024, 'x')));
+    }
+
+    @Test
+    public void fullSizeClassAdmitsOnlyMoreFrequentEntries() throws Exception {
+        for (int id = 1; id <= 18; id++) {
+            assertTrue(cache.put(String.class, id, value(100, 'a')));
+        }
+        assertEquals(2048, cache.getMetrics().getAllocatedBytes());
+
+        // seen once, as often as the least recently used entry
+        assertFalse(cache.put(String.class, 19, value(100, 'b')));
+        assertTrue(cache.contains(String.class, 1));
+
+        cache.get(String.class, 20);
+        cache.get(String.class, 20);
+        assertTrue(cache.put(String.class, 20, value(100, 'c')));
+        assertFalse(cache.contains(String.class, 1));
+        assertEquals(value(100, 'c'), cache.get(String.class, 20));
+
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(18, metrics.getEntryCount());
+        assertEquals(1, metrics.getEvictionCount());
+        assertEquals(1, metrics.getRejectionCount());
+        assertEquals(18 * 104, metrics.getUsedBytes());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+        for (int id = 1; id <= 18; id++) {
+            cache.put(String.class, id, value(100, 'a'));
+        }
+        cache.get(String.class, 1);
+        cache.get(String.class, 30);
+        cache.get(String.class, 30);
+        cache.get(String.class, 30);
+        assertTrue(cache.put(String.class, 30, value(100, 'b')));
+        assertTrue(cache.contains(String.class, 1));
+        assertFalse(cache.contains(String.class, 2));
+    }
+
+    @Test
+    public void sizeClassWithoutSlabTakesOverLeastRecentlyUsedSlab() throws Exception {
+        for (int id = 1; id <= 18; id++) {
+            assertTrue(cache.put(String.class, id, value(100, 'a')));
+        }
+
+        // seen once, as often as the least recently used entry
+        assertFalse(cache.put(String.class, 50, value(300, 'b')));
+
+        cache.get(String.class, 50);
+        cache.get(String.class, 50);
+        assertTrue(cache.put(String.class, 50, value(300, 'b')));
+        assertEquals(value(300, 'b'), cache.get(String.class, 50));
+        // the first slab held the oldest entries
+        for (int id = 1; id <= 18; id++) {
+            assertEquals(id > 9, cache.contains(String.class, id));
+        }
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(9, metrics.getEvictionCount());
+        assertEquals(2048, metrics.getAllocatedBytes());
+
+        // the slab serves the new size class from now on
+        assertTrue(cache.put(String.class, 51, value(300, 'c')));
+        assertEquals(9, cache.getMetrics().getEvictionCount());
+    }
+
+    @Test
+    public void emptySlabsMoveToOtherSizeClassesWithoutEvictions() throws Exception {
+        for (int id = 1; id <= 18; id++) {
+            cache.put(String.class, id, value(100, 'a'));
+        }
+        cache.clear();
+
+        // 300 byte entries use 352 byte chunks, 2 per slab
+        for (int id = 1; id <= 4; id++) {
+            assertTrue(cache.put(String.class, id, value(300, 'b')));
+        }
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(4, metrics.getEntryCount());
+        assertEquals(0, metrics.getEvictionCount());
+        assertEquals(0, metrics.getRejectionCount());
+    }
+
+    @Test
+    public void invalidateAndClearFreeChunks() throws Exception {
+        cache.put(String.class, 1, "one");
+        cache.put(String.class, 2, "two");
+        cache.invalidate(String.class, 1);
+        assertNull(cache.get(String.class, 1));
+        assertEquals(1, cache.getMetrics().getEntryCount());
+        cache.clear();
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(0, metrics.getEntryCount());
+        assertEquals(0, metrics.getUsedBytes());
+        assertEquals(2, metrics.getInvalidationCount());
+        assertEquals(0.0, metrics.getOccupancy(), 0.0);
+    }
+
+    @Test
+    public void metricsCountHitsAndMisses() throws Exception {
+        cache.put(String.class, 1, "one");
+        cache.get(String.class, 1);
+        cache.get(String.class, 2);
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(0.5, metrics.getHitRate(), 0.0);
+        assertEquals(64.0 / 2048, metrics.getOccupancy(), 0.0);
+    }
+
+    @Test
+    public void putIsDroppedWhenKeyWasInvalidatedSinceGeneration() throws Exception {
+        long generation = cache.generation(String.class, 1);
+        cache.invalidate(String.class, 1);
+        assertFalse(cache.put(String.class, 1, "stale", generation));
+        assertNull(cache.get(String.class, 1));
+        assertEquals(1, cache.getMetrics().getStalePutCount());
+
+        assertTrue(cache.put(String.class, 1, "fresh", cache.generation(String.class, 1)));
+        assertEquals("fresh", cache.get(String.class, 1));
+    }
+
+    @Test
+    public void clearAdvancesAllGenerations() throws Exception {
+        long generation = cache.generation(String.class, 1);
+        cache.clear();
+        assertFalse(cache.put(String.class, 1, "stale", generation));
+    }
+
+    @Test
+    public void entriesOlderThanMaxAgeExpire() throws Exception {
+        final long[] now = {0};
+        cache = new OffHeapCache(2048, 1024, STRING_CODEC) {
+            @Override
+            long nanoTime() {
+                return now[0];
+            }
+        };
+        cache.setMaxAge(10, TimeUnit.SECONDS);
+        cache.put(String.class, 1, "one");
+        now[0] = TimeUnit.SECONDS.toNanos(10);
+        assertEquals("one", cache.get(String.class, 1));
+        now[0]++;
+        assertNull(cache.get(String.class, 1));
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getExpirationCount());
+        assertEquals(0, metrics.getEntryCount());
+        assertEquals(0, metrics.getUsedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustHoldOneSlab() throws Exception {
+        new OffHeapCache(512, 1024, STRING_CODEC);
+    }
+
+    private static String value(int length, char c) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.TestCalls;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CaseLockManagerTest {
+
+    private static final long LEASE = 10000;
+    private static final long MARGIN = 2000;
+    private static final Link USER = new Link("/api/v2/users/1");
+
+    /** The lock requests sent, as their JSON bodies */
+    private final List<JsonObject> requests = new ArrayList<>();
+    /** Outcomes of the next requests, a response or an IOException, success when empty */
+    private final Deque<Object> outcomes = new ArrayDeque<>();
+
+    private long now = 1000000;
+    private CaseLockManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        CaseService cases = mock(CaseService.class);
+        when(cases.updateCaseLock(anyLong(), any(CaseLock.class))).thenAnswer(new Answer<Call<Case>>() {
+            @Override
+            public Call<Case> answer(InvocationOnMock invocation) throws Throwable {
+                CaseLock lock = (CaseLock) invocation.getArguments()[1];
+                JsonObject body = new JsonParser().parse(CaseLock.TYPE_ADAPTER.toJson(lock)).getAsJsonObject();
+                body.addProperty("case_id", (Long) invocation.getArguments()[0]);
+                requests.add(body);
+                Object outcome = outcomes.isEmpty() ? Response.success(new Case()) : outcomes.poll();
+                if (outcome instanceof IOException) {
+                    return TestCalls.failing((IOException) outcome);
+                }
+                @SuppressWarnings("unchecked")
+                Response<Case> response = (Response<Case>) outcome;
+                return TestCalls.immediate(response);
+            }
+        });
+        manager = new CaseLockManager(cases, USER, LEASE, MARGIN, null) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void acquireLocksTheCaseForTheLease() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        assertTrue(lease.isHeld());
+        assertEquals(now + LEASE, lease.getLockedUntil().getTime());
+        assertEquals(1, requests.size());
+        assertEquals(5, requests.get(0).get("case_id").getAsLong());
+        assertFalse(requests.get(0).get("locked_until").isJsonNull());
+        assertEquals("/api/v2/users/1",
+                requests.get(0).getAsJsonObject("_links").getAsJsonObject("locked_by").get("href").getAsString());
+        assertSame(lease, manager.acquire(5));
+        assertEquals("a held case is not locked again", 1, requests.size());
+        assertEquals(1, manager.getMetrics().getHeldCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void acquireFailsWhenLockedByAnotherUser() throws Exception {
+        Case locked = new Case();
+        locked.setLockedByLink(new Link("/api/v2/users/2"));
+        outcomes.add(Response.success(locked));
+        manager.acquire(5);
+    }
+
+    @Test
+    public void leaseIsRenewedWithinTheJitteredWindowBeforeExpiry() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        long until = now + LEASE;
+
+        manager.tick(until - MARGIN - MARGIN / 2 - CaseLockManager.TICK_MILLIS);
+        assertEquals(1, requests.size());
+
+        now = until - MARGIN;
+        manager.tick(now);
+        assertEquals(2, requests.size());
+        assertEquals(now + LEASE, lease.getLockedUntil().getTime());
+        assertTrue(lease.isHeld());
+        assertEquals(1, manager.getMetrics().getRenewalCount());
+        assertEquals(0, manager.getMetrics().getMissCount());
+    }
+
+    @Test
+    public void leasesAcquiredTogetherRenewAcrossSeveralTicks() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            manager.acquire(i);
+        }
+        long until = now + LEASE;
+        Set<Integer> renewingTicks = new HashSet<>();
+        for (long t = until - 2 * MARGIN; t <= until - MARGIN; t += CaseLockManager.TICK_MILLIS) {
+            int before = requests.size();
+            now = t;
+            manager.tick(t);
+            if (requests.size() > before) {
+                renewingTicks.add((int) (t / CaseLockManager.TICK_MILLIS));
+            }
+        }
+        assertEquals(200, requests.size());
+        assertTrue("renewals should be spread, were in " + renewingTicks.size() + " ticks",
+                renewingTicks.size() > 3);
+    }
+
+    @Test
+    public void refusedRenewalLosesTheLease() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        outcomes.add(Response.error(409, ResponseBody.create(MediaType.parse("application/json"), "{}")));
+        now += LEASE - MARGIN;
+        manager.tick(now);
+        assertFalse(lease.isHeld());
+        assertNull(lease.getLockedUntil());
+        assertNull(manager.getLease(5));
+        LeaseMetrics metrics = manager.getMetrics();
+        assertEquals(1, metrics.getLostCount());
+        assertEquals(0, metrics.getMissCount());
+        assertEquals(0, metrics.getHeldCount());
+    }
+
+    @Test
+    public void failedRenewalIsRetriedWhileTheLockLasts() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        outcomes.add(new IOException("connection reset"));
+        now += LEASE - MARGIN;
+        manager.tick(now);
+        assertTrue(lease.isHeld());
+        assertEquals(2, requests.size());
+
+        now += CaseLockManager.MAX_RETRY_DELAY_MILLIS;
+        manager.tick(now);
+        assertEquals(3, requests.size());
+        assertEquals(now + LEASE, lease.getLockedUntil().getTime());
+        LeaseMetrics metrics = manager.getMetrics();
+        assertEquals(1, metrics.getRenewalFailureCount());
+        assertEquals(1, metrics.getRenewalCount());
+    }
+
+    @Test
+    public void renewalFailingUntilExpiryIsAMiss() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        long until = now + LEASE;
+        for (int i = 0; i < 50; i++) {
+            outcomes.add(new IOException("unreachable"));
+        }
+        for (now = until - 2 * MARGIN; now <= until; now += CaseLockManager.TICK_MILLIS) {
+            manager.tick(now);
+        }
+        assertFalse(lease.isHeld());
+        LeaseMetrics metrics = manager.getMetrics();
+        assertEquals(1, metrics.getLostCount());
+        assertEquals(1, metrics.getMissCount());
+    }
+
+    @Test
+    public void releaseUnlocksTheCaseAndStopsRenewing() throws Exception {
+        CaseLease lease = manager.acquire(5);
+        lease.release();
+        assertFalse(lease.isHeld());
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(1).get("locked_until").isJsonNull());
+        assertTrue(requests.get(1).getAsJsonObject("_links").get("locked_by").isJsonNull());
+
+        now += LEASE;
+        manager.tick(now);
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void closeUnlocksEveryHeldCase() throws Exception {
+        manager.acquire(1);
+        manager.acquire(2);
+        manager.acquire(3).release();
+        manager.close();
+        assertEquals(6, requests.size());
+        assertEquals(0, manager.getMetrics().getHeldCount());
+        try {
+            manager.acquire(4);
+            fail("expected the closed manager to reject leases");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
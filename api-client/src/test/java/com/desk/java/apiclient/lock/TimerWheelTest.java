@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.lock;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    @Test
+    public void timeoutFiresOnFirstTickAtOrAfterDeadline() throws Exception {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 1000);
+        wheel.schedule("a", 1250);
+        assertTrue(wheel.advance(1299).isEmpty());
+        assertEquals(Collections.singletonList("a"), wheel.advance(1300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void deadlineInThePastFiresOnNextTick() throws Exception {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 1000);
+        wheel.schedule("late", 500);
+        assertTrue(wheel.advance(1099).isEmpty());
+        assertEquals(Collections.singletonList("late"), wheel.advance(1100));
+    }
+
+    @Test
+    public void deadlinesBeyondOneTurnWaitExtraTurns() throws Exception {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("near", 300);
+        wheel.schedule("far", 300 + 2 * 800);
+        assertEquals(Collections.singletonList("near"), wheel.advance(300));
+        assertTrue(wheel.advance(1100).isEmpty());
+        assertTrue(wheel.advance(1800).isEmpty());
+        assertEquals(Collections.singletonList("far"), wheel.advance(1900));
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotFire() throws Exception {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        TimerWheel.Timeout<String> a = wheel.schedule("a", 200);
+        wheel.schedule("b", 200);
+        TimerWheel.Timeout<String> c = wheel.schedule("c", 200);
+        assertTrue(wheel.cancel(a));
+        assertTrue(wheel.cancel(c));
+        assertFalse(wheel.cancel(c));
+        assertEquals(Collections.singletonList("b"), wheel.advance(200));
+    }
+
+    @Test
+    public void advancingFarFiresEverythingDue() throws Exception {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 4, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(i, i * 10);
+        }
+        List<Integer> expired = wheel.advance(100);
+        Collections.sort(expired);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), expired);
+        assertEquals(10, wheel.size());
+        assertEquals(10, wheel.advance(1000).size());
+    }
+
+    @Test
+    public void slotCountIsRoundedToPowerOfTwo() throws Exception {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 5, 0);
+        wheel.schedule("x", 8);
+        assertTrue(wheel.advance(7).isEmpty());
+        assertEquals(Collections.singletonList("x"), wheel.advance(8));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CasePatch;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.OkHttpClient;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+import static org.junit.Assert.*;
+
+public class EndpointMetricsTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String CASE = "{\"id\":1,\"subject\":\"Printer on fire\"}";
+
+    private EndpointMetrics metrics;
+    private CaseService cases;
+
+    @Before
+    public void setUp() {
+        metrics = new EndpointMetrics();
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new FakeServer()))
+                .metrics(metrics));
+        cases = client.cases();
+    }
+
+    @Test
+    public void recordsCallsPerTemplate() throws Exception {
+        cases.getCaseById(1, null, null).execute();
+        cases.getCaseById(2, null, null).execute();
+
+        CallMetrics byId = endpoint("GET", "cases/{id}");
+        assertEquals(2, byId.getCallCount());
+        assertEquals(Long.valueOf(2), byId.getStatusCounts().get(200));
+        assertEquals(2, byId.getLatency().getCount());
+        assertEquals(2 * CASE.length(), byId.getResponseBytes());
+        assertEquals(1, metrics.getEndpointMetrics().size());
+    }
+
+    @Test
+    public void recordsErrorStatusesAndFailures() throws Exception {
+        cases.getCaseById(404, null, null).execute();
+        try {
+            cases.getCaseById(0, null, null).execute();
+            fail("expected the call to fail");
+        } catch (IOException expected) {
+            // the fake server fails case 0
+        }
+        CallMetrics byId = endpoint("GET", "cases/{id}");
+        assertEquals(2, byId.getCallCount());
+        assertEquals(1, byId.getFailureCount());
+        assertEquals(1, byId.getErrorStatusCount());
+        assertEquals(Long.valueOf(1), byId.getStatusCounts().get(404));
+    }
+
+    @Test
+    public void recordsRequestBytes() throws Exception {
+        CasePatch patch = new CasePatch().subject("Printer on fire");
+        cases.updateCase(1, patch).execute();
+        assertEquals(patch.toString().length(), endpoint("PATCH", "cases/{id}").getRequestBytes());
+    }
+
+    @Test
+    public void countsCloneExecutedAfterFailureAsRetry() throws Exception {
+        Call<Case> failing = cases.getCaseById(0, null, null);
+        for (Call<Case> attempt : Arrays.asList(failing, failing.clone(), failing.clone())) {
+            try {
+                attempt.execute();
+                fail("expected the call to fail");
+            } catch (IOException expected) {
+                // the fake server fails case 0
+            }
+        }
+        CallMetrics byId = endpoint("GET", "cases/{id}");
+        assertEquals(3, byId.getCallCount());
+        assertEquals(2, byId.getRetryCount());
+    }
+
+    @Test
+    public void repeatingSuccessfulCallIsNotRetry() throws Exception {
+        // as an RxJava observable subscribed again or a poll does
+        Call<Case> call = cases.getCaseById(1, null, null);
+        call.execute();
+        call.clone().execute();
+        call.clone().clone().execute();
+        Call<Case> notFound = cases.getCaseById(404, null, null);
+        notFound.execute();
+        notFound.clone().execute();
+
+        CallMetrics byId = endpoint("GET", "cases/{id}");
+        assertEquals(5, byId.getCallCount());
+        assertEquals(0, byId.getRetryCount());
+    }
+
+    @Test
+    public void aggregatesPerService() throws Exception {
+        cases.getCaseById(1, null, null).execute();
+        cases.updateCase(1, new CasePatch().subject("s")).execute();
+        Map<String, CallMetrics> services = metrics.getServiceMetrics();
+        assertEquals(Collections.singleton("CaseService"), services.keySet());
+        assertEquals(2, services.get("CaseService").getCallCount());
+    }
+
+    @Test
+    public void attributesIdenticalMethodsOfDifferentServices() throws Exception {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("https://test.desk.com/api/v2/")
+                .client(new OkHttpClient.Builder().addInterceptor(new FakeServer()).build())
+                .addCallAdapterFactory(metrics.getCallAdapterFactory())
+                .build();
+        metrics.register(FirstService.class);
+        metrics.register(SecondService.class);
+        retrofit.create(FirstService.class).get(1).execute();
+        retrofit.create(SecondService.class).get(1).execute();
+        retrofit.create(SecondService.class).get(2).execute();
+
+        Map<String, CallMetrics> services = metrics.getServiceMetrics();
+        assertEquals(1, services.get("FirstService").getCallCount());
+        assertEquals(2, services.get("SecondService").getCallCount());
+        assertFalse(services.containsKey("unknown"));
+    }
+
+    interface FirstService {
+        @GET("cases/{id}")
+        Call<ResponseBody> get(@Path("id") long id);
+    }
+
+    interface SecondService {
+        @GET("cases/{id}")
+        Call<ResponseBody> get(@Path("id") long id);
+    }
+
+    private CallMetrics endpoint(String httpMethod, String template) {
+        for (Map.Entry<Endpoint, CallMetrics> entry : metrics.getEndpointMetrics().entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            if (endpoint.getHttpMethod().equals(httpMethod) && endpoint.getTemplate().equals(template)) {
+                assertEquals(CaseService.class, endpoint.getService());
+                return entry.getValue();
+            }
+        }
+        throw new AssertionError("no metrics for " + httpMethod + " " + template + " in "
+                + metrics.getEndpointMetrics().keySet());
+    }
+
+    /**
+     * Answers case reads and updates, failing case 0 and returning 404 for case 404
+     */
+    private static final class FakeServer implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            if (path.endsWith("/cases/0")) {
+                throw new IOException("connection reset");
+            }
+            int code = path.endsWith("/cases/404") ? 404 : 200;
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .header("Content-Length", String.valueOf(CASE.length()))
+                    .body(ResponseBody.create(JSON, CASE))
+                    .build();
+        }
+    }
+}
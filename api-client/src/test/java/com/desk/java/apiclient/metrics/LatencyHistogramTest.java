@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguousAndTight() {
+        long previousHighest = -1;
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long highest = LatencyHistogram.highestValue(index);
+            long lowest = previousHighest + 1;
+            assertEquals(index, LatencyHistogram.index(lowest));
+            assertEquals(index, LatencyHistogram.index(highest));
+            assertTrue("bucket " + index + " is too wide", highest - lowest <= Math.max(0, lowest / 64));
+            previousHighest = highest;
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500.0, snapshot.getMeanMicros(), 0.001);
+        assertEquals(1000000, snapshot.getMaxMicros());
+        assertWithin(500000, snapshot.getPercentileMicros(50));
+        assertWithin(990000, snapshot.getPercentileMicros(99));
+        assertEquals(1000000, snapshot.getPercentileMicros(100));
+        assertWithin(1000, snapshot.getPercentileMicros(0));
+    }
+
+    @Test
+    public void clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getPercentileMicros(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, snapshot.getMaxMicros());
+    }
+
+    @Test
+    public void mergeAddsCounts() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(30);
+        LatencySnapshot merged = a.snapshot().merge(b.snapshot());
+        assertEquals(3, merged.getCount());
+        assertEquals(30, merged.getMaxMicros());
+        assertEquals(20, merged.getPercentileMicros(50));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final AtomicLong values = new AtomicLong();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(values.incrementAndGet() % 5000);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.snapshot().getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected " + expected + " within 1.6% but was " + actual,
+                actual >= expected && actual <= expected + expected / 64);
+    }
+}
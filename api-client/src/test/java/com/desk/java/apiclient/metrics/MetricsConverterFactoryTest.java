@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class MetricsConverterFactoryTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String CASE = "{\"id\":1,\"subject\":\"Printer on fire\"}";
+    private static final String PAGE = "{\"total_entries\":2,\"page\":1,\"_embedded\":{\"entries\":["
+            + CASE + "," + CASE + "]}}";
+
+    private EndpointMetrics metrics;
+    private CaseService cases;
+
+    @Before
+    public void setUp() {
+        metrics = new EndpointMetrics(true);
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new FakeServer()))
+                .metrics(metrics));
+        cases = client.cases();
+    }
+
+    @Test
+    public void recordsPerResponseType() throws Exception {
+        cases.getCaseById(1, null, null).execute();
+        cases.getCaseById(2, null, null).execute();
+        cases.getCasesByFilter(1, 50, 1, null, null, null, null).execute();
+
+        Map<String, DeserializationMetrics> byType = metrics.getDeserializationMetrics();
+        assertEquals(Arrays.asList("ApiResponse<Case>", "Case"), Arrays.asList(byType.keySet().toArray()));
+
+        DeserializationMetrics single = byType.get("Case");
+        assertEquals(2, single.getCount());
+        assertEquals(2 * CASE.length(), single.getBytes());
+        assertEquals(2, single.getEntryCount());
+        assertEquals(2, single.getLatency().getCount());
+
+        DeserializationMetrics page = byType.get("ApiResponse<Case>");
+        assertEquals(1, page.getCount());
+        assertEquals(PAGE.length(), page.getBytes());
+        assertEquals(2, page.getEntryCount());
+        assertTrue(page.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    public void doesNotRecordUnlessEnabled() throws Exception {
+        EndpointMetrics callsOnly = new EndpointMetrics();
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new FakeServer()))
+                .metrics(callsOnly));
+        client.cases().getCaseById(1, null, null).execute();
+        assertTrue(callsOnly.getDeserializationMetrics().isEmpty());
+        assertEquals(1, callsOnly.getEndpointMetrics().size());
+    }
+
+    @Test
+    public void namesTypesWithSimpleNames() throws Exception {
+        Type page = CaseService.class.getMethod("getCasesByFilter", long.class, int.class, int.class, String.class,
+                SortDirection.class, Embed.class, Fields.class).getGenericReturnType();
+        assertEquals("Call<ApiResponse<Case>>", MetricsConverterFactory.typeName(page));
+        assertEquals("Case[]", MetricsConverterFactory.typeName(Case[].class));
+    }
+
+    @Test
+    public void countsEntries() {
+        ApiResponse<Case> empty = new ApiResponse<>();
+        List<Case> list = Arrays.asList(new Case(), new Case(), new Case());
+        assertEquals(0, MetricsConverterFactory.entryCount(null));
+        assertEquals(0, MetricsConverterFactory.entryCount(empty));
+        assertEquals(3, MetricsConverterFactory.entryCount(list));
+        assertEquals(1, MetricsConverterFactory.entryCount(new Case()));
+    }
+
+    /**
+     * Answers case reads with a case and filter reads with a page of two cases
+     */
+    private static final class FakeServer implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String body = request.url().encodedPath().contains("/filters/") ? PAGE : CASE;
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .body(ResponseBody.create(JSON, body))
+                    .build();
+        }
+    }
+}
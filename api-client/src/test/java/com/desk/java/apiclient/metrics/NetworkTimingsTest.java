@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class NetworkTimingsTest {
+
+    private static final String BODY = "{\"id\":1}";
+
+    private ServerSocket server;
+    private Thread serverThread;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void recordsPhasesAndConnectionReuse() throws Exception {
+        NetworkTimings timings = new NetworkTimings();
+        OkHttpClient client = timings.install(new OkHttpClient.Builder()).build();
+
+        execute(client).body().string();
+        Response second = execute(client);
+        assertEquals(BODY, second.body().string());
+
+        NetworkTimingSnapshot snapshot = timings.snapshot();
+        assertEquals(2, snapshot.getExchangeCount());
+        assertEquals(1, snapshot.getNewConnectionCount());
+        assertEquals(1, snapshot.getReusedConnectionCount());
+        assertEquals(0.5, snapshot.getReuseRatio(), 0.0001);
+        assertEquals(1, snapshot.getConnect().getCount());
+        assertEquals(0, snapshot.getTls().getCount());
+        assertEquals(2, snapshot.getTimeToFirstByte().getCount());
+        assertEquals(2, snapshot.getTotal().getCount());
+        assertNull(second.header(NetworkTimings.TIMING_HEADER));
+    }
+
+    @Test
+    public void bodyIsRecordedOnceConsumed() throws Exception {
+        NetworkTimings timings = new NetworkTimings();
+        OkHttpClient client = timings.install(new OkHttpClient.Builder()).build();
+
+        Response response = execute(client);
+        assertEquals(0, timings.snapshot().getExchangeCount());
+
+        response.body().string();
+        assertEquals(1, timings.snapshot().getBody().getCount());
+    }
+
+    @Test
+    public void attachesTimingHeader() throws Exception {
+        NetworkTimings timings = new NetworkTimings(true);
+        OkHttpClient client = timings.install(new OkHttpClient.Builder()).build();
+
+        Response first = execute(client);
+        first.body().string();
+        Response second = execute(client);
+        second.body().string();
+
+        assertTrue(first.header(NetworkTimings.TIMING_HEADER).matches(
+                "dns;dur=[0-9.]+, connect;dur=[0-9.]+, tls;dur=0\\.000, ttfb;dur=[0-9.]+, reused;desc=false"));
+        assertTrue(second.header(NetworkTimings.TIMING_HEADER).endsWith("reused;desc=true"));
+    }
+
+    @Test
+    public void countsFailures() throws Exception {
+        NetworkTimings timings = new NetworkTimings();
+        OkHttpClient client = timings.install(new OkHttpClient.Builder()).build();
+        server.close();
+
+        try {
+            execute(client);
+            fail("expected the connection to be refused");
+        } catch (IOException expected) {
+            // the server is gone
+        }
+        assertEquals(1, timings.snapshot().getFailureCount());
+        assertEquals(0, timings.snapshot().getExchangeCount());
+    }
+
+    private Response execute(OkHttpClient client) throws IOException {
+        return client.newCall(new Request.Builder()
+                .url("http://127.0.0.1:" + server.getLocalPort() + "/api/v2/cases/1")
+                .build()).execute();
+    }
+
+    /**
+     * Answers every request on a connection with the same keep alive response until the client closes it
+     */
+    private void serve() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: "
+                                + BODY.length() + "\r\n\r\n" + BODY).getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // closed by the client or the test
+            }
+        }
+    }
+}
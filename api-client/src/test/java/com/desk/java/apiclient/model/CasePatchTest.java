@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.util.TestUtils;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+public class CasePatchTest {
+
+    private final Gson gson = TestUtils.getDeskClientGson();
+
+    @Test
+    public void emptyPatchSerializesToEmptyObject() throws Exception {
+        CasePatch patch = new CasePatch();
+        assertTrue(patch.isEmpty());
+        assertEquals("{}", gson.toJson(patch));
+    }
+
+    @Test
+    public void patchSerializesOnlyChangedFields() throws Exception {
+        CasePatch patch = new CasePatch().subject("new subject").status(CaseStatus.RESOLVED).priority(8);
+        assertEquals("{\"subject\":\"new subject\",\"status\":\"resolved\",\"priority\":8}", gson.toJson(patch));
+    }
+
+    @Test
+    public void clearedFieldsAreSentAsNull() throws Exception {
+        CasePatch patch = new CasePatch().description(null).customField("level", null).assignUser(0);
+        assertEquals("{\"description\":null,\"custom_fields\":{\"level\":null},\"_links\":{\"assigned_user\":null}}",
+                gson.toJson(patch));
+    }
+
+    @Test
+    public void assignUserSendsLink() throws Exception {
+        CasePatch patch = new CasePatch().assignUser(42).assignGroup(7);
+        assertEquals("{\"_links\":{\"assigned_user\":{\"href\":\"/api/v2/users/42\",\"class\":\"user\"},"
+                + "\"assigned_group\":{\"href\":\"/api/v2/groups/7\",\"class\":\"group\"}}}", gson.toJson(patch));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("_links.assigned_user", "_links.assigned_group")),
+                patch.getChangedFields());
+    }
+
+    @Test
+    public void labelsOfOneActionAccumulate() throws Exception {
+        CasePatch patch = new CasePatch().addLabels("a").addLabels("b").addLabelIds(3);
+        assertEquals(LabelAction.APPEND, patch.getLabelAction());
+        assertEquals("{\"label_action\":\"append\",\"labels\":[\"a\",\"b\"],\"label_ids\":[3]}", gson.toJson(patch));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mixingLabelActionsThrows() throws Exception {
+        new CasePatch().addLabels("a").removeLabels("b");
+    }
+
+    @Test
+    public void betweenEqualCasesIsEmpty() throws Exception {
+        assertTrue(CasePatch.between(newCase(), newCase()).isEmpty());
+    }
+
+    @Test
+    public void betweenDiffsChangedFields() throws Exception {
+        Case original = newCase();
+        Case modified = newCase();
+        modified.setSubject("changed");
+        modified.setPriority("9");
+        modified.setCustomField("level", "gold");
+        modified.getCustomFields().remove("region");
+        modified.setAssignedUserLink(new Link("/api/v2/users/5"));
+
+        CasePatch patch = CasePatch.between(original, modified);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("subject", "priority", "custom_fields.level",
+                "custom_fields.region", "_links.assigned_user")), new LinkedHashSet<>(patch.getChangedFields()));
+        assertEquals(new CasePatch().subject("changed").priority(9).customField("level", "gold")
+                .customField("region", null).assignUser(5).getChangedFields(), patch.getChangedFields());
+    }
+
+    @Test
+    public void betweenPicksLabelAction() throws Exception {
+        Case original = newCase();
+        Case modified = newCase();
+        modified.setLabels(new String[] { "a", "b", "c" });
+        assertEquals("{\"label_action\":\"append\",\"labels\":[\"c\"]}",
+                gson.toJson(CasePatch.between(original, modified)));
+
+        modified.setLabels(new String[] { "b" });
+        assertEquals("{\"label_action\":\"remove\",\"labels\":[\"a\"]}",
+                gson.toJson(CasePatch.between(original, modified)));
+
+        modified.setLabels(new String[] { "b", "c" });
+        assertEquals("{\"label_action\":\"replace\",\"labels\":[\"b\",\"c\"]}",
+                gson.toJson(CasePatch.between(original, modified)));
+    }
+
+    @Test
+    public void mergeLetsLaterValuesWinAndKeepsNestedFields() throws Exception {
+        CasePatch first = new CasePatch().subject("one").customField("level", "gold").addLabels("a");
+        CasePatch second = new CasePatch().subject("two").customField("region", "emea").addLabels("b");
+        CasePatch merged = first.merge(second);
+        assertEquals("{\"subject\":\"two\",\"custom_fields\":{\"level\":\"gold\",\"region\":\"emea\"},"
+                + "\"label_action\":\"append\",\"labels\":[\"a\",\"b\"]}", gson.toJson(merged));
+        assertEquals("{\"subject\":\"one\",\"custom_fields\":{\"level\":\"gold\"},"
+                + "\"label_action\":\"append\",\"labels\":[\"a\"]}", gson.toJson(first));
+    }
+
+    @Test
+    public void patchesWithDifferentLabelActionsCannotMerge() throws Exception {
+        CasePatch add = new CasePatch().addLabels("a");
+        assertFalse(add.canMerge(new CasePatch().removeLabels("a")));
+        assertTrue(add.canMerge(new CasePatch().subject("s")));
+        CasePatch replaceIds = gson.fromJson("{\"label_action\":\"replace\",\"label_ids\":[3]}", CasePatch.class);
+        assertFalse(new CasePatch().replaceLabels("a").canMerge(replaceIds));
+        assertTrue(new CasePatch().replaceLabels("a").canMerge(new CasePatch().replaceLabels("b")));
+    }
+
+    @Test
+    public void patchRoundTrips() throws Exception {
+        CasePatch patch = new CasePatch().subject(null).replaceLabels("x").assignGroup(3);
+        assertEquals(patch, gson.fromJson(gson.toJson(patch), CasePatch.class));
+    }
+
+    private static Case newCase() {
+        Case c = new Case();
+        c.setId(1);
+        c.setSubject("subject");
+        c.setPriority("4");
+        c.setStatus(CaseStatus.OPEN);
+        c.setType(CaseType.EMAIL);
+        c.setLabels(new String[] { "a", "b" });
+        HashMap<String, String> customFields = new HashMap<>();
+        customFields.put("level", "silver");
+        customFields.put("region", "emea");
+        c.setCustomFields(customFields);
+        return c;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.util.MemoryFootprint;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CompactCase} and {@link CustomFieldSchema}
+ */
+public class CompactCaseTest {
+
+    private static final String CUSTOM_FIELDS = "["
+            + "{\"name\":\"region\",\"type\":\"ticket\",\"active\":true},"
+            + "{\"name\":\"tier\",\"type\":\"ticket\",\"active\":true},"
+            + "{\"name\":\"retired\",\"type\":\"ticket\",\"active\":false},"
+            + "{\"name\":\"segment\",\"type\":\"customer\",\"active\":true}]";
+
+    private CustomFieldSchema schema;
+
+    @Before
+    public void setUp() throws Exception {
+        Gson gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
+        List<CustomField> fields = gson.fromJson(CUSTOM_FIELDS, new TypeToken<List<CustomField>>() {}.getType());
+        schema = CustomFieldSchema.from(fields, CustomFieldType.TICKET);
+    }
+
+    @Test
+    public void schemaKeepsActiveFieldsOfType() throws Exception {
+        assertEquals(2, schema.size());
+        assertEquals(0, schema.indexOf("region"));
+        assertEquals(1, schema.indexOf("tier"));
+        assertEquals(-1, schema.indexOf("retired"));
+        assertEquals(-1, schema.indexOf("segment"));
+        assertEquals(schema, CustomFieldSchema.of("region", "tier", "region"));
+    }
+
+    @Test
+    public void roundTripRetainsFields() throws Exception {
+        Case c = newCase(42);
+        CompactCase compact = CompactCase.from(c, schema);
+        Case copy = compact.toCase();
+
+        assertEquals(42, copy.getId());
+        assertEquals("Subject 42", copy.getSubject());
+        assertEquals("4", copy.getPriority());
+        assertEquals("Jane", copy.getCustomerName());
+        assertEquals(CaseType.EMAIL, copy.getType());
+        assertEquals(CaseStatus.OPEN, copy.getStatus());
+        assertEquals(c.getCreatedAt(), copy.getCreatedAt());
+        assertEquals(c.getUpdatedAt(), copy.getUpdatedAt());
+        assertNull(copy.getLockedUntil());
+        assertArrayEquals(c.getLabels(), copy.getLabels());
+        assertArrayEquals(c.getLabelIds(), copy.getLabelIds());
+        assertEquals(7, copy.getCustomerId());
+        assertEquals(3, copy.getAssignedUserId());
+        assertEquals(Case.NO_ID, copy.getAssignedGroupId());
+        assertEquals("/api/v2/cases/42", copy.getSelfLink());
+        assertEquals("emea", copy.getCustomFields().get("region"));
+        assertFalse(copy.getCustomFields().containsKey("unknown"));
+        assertEquals(compact, CompactCase.from(copy, schema));
+    }
+
+    @Test
+    public void accessorsDoNotNeedConversion() throws Exception {
+        CompactCase compact = CompactCase.from(newCase(1), schema);
+        assertEquals(7, compact.getCustomerId());
+        assertEquals(3, compact.getAssignedUserId());
+        assertEquals(CompactCase.NO_DATE, compact.getLockedUntil());
+        assertTrue(compact.hasLabel("VIP"));
+        assertTrue(compact.hasLabelId(11));
+        assertFalse(compact.hasLabelId(12));
+        assertEquals("emea", compact.getCustomField("region"));
+        assertNull(compact.getCustomField("tier"));
+        assertNull(compact.getCustomField("unknown"));
+    }
+
+    @Test
+    public void emptyCaseRoundTrips() throws Exception {
+        CompactCase compact = CompactCase.from(new Case(), CustomFieldSchema.EMPTY);
+        assertNull(compact.getType());
+        assertNull(compact.getStatus());
+        assertEquals(0, compact.getLabels().length);
+        assertTrue(compact.getCustomFields().isEmpty());
+        Case copy = compact.toCase();
+        assertNull(copy.getCreatedAt());
+        assertEquals(0, copy.getLabels().length);
+        assertEquals(Case.NO_ID, copy.getCustomerId());
+    }
+
+    @Test
+    public void compactCasesUseLessMemory() throws Exception {
+        List<Case> cases = new ArrayList<>();
+        List<CompactCase> compact = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            Case c = newCase(i);
+            cases.add(c);
+            compact.add(CompactCase.from(c, schema));
+        }
+        MemoryFootprint.Report report = MemoryFootprint.compare("cases", cases, compact, schema);
+        assertEquals(100, report.getCount());
+        assertTrue(report.toString(), report.getCompactBytes() < report.getRegularBytes() / 2);
+    }
+
+    private static Case newCase(long id) {
+        Case c = new Case();
+        c.setId(id);
+        c.setSubject("Subject " + id);
+        c.setPriority("4");
+        c.setCustomerName("Jane");
+        c.setType(CaseType.EMAIL);
+        c.setStatus(CaseStatus.OPEN);
+        c.setCreatedAt(new Date(1466000000000L + id));
+        c.setUpdatedAt(new Date(1466000500000L + id));
+        c.setLabels(new String[] { "VIP", "Billing" });
+        c.setLabelIds(new long[] { 11, 13 });
+        HashMap<String, String> customFields = new HashMap<>();
+        customFields.put("region", "emea");
+        customFields.put("unknown", "dropped");
+        c.setCustomFields(customFields);
+        c.getLinks().setSelf(new Link("/api/v2/cases/" + id));
+        c.getLinks().setCustomer(new Link("/api/v2/customers/7"));
+        c.getLinks().setAssignedUser(new Link("/api/v2/users/3"));
+        return c;
+    }
+}
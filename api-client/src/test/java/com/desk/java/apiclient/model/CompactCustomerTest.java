@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link CompactCustomer}
+ */
+public class CompactCustomerTest {
+
+    private final CustomFieldSchema schema = CustomFieldSchema.of("segment");
+
+    @Test
+    public void roundTripRetainsFields() throws Exception {
+        Customer customer = new Customer();
+        customer.setId(7);
+        customer.setFirstName("Jane");
+        customer.setLastName("Doe");
+        customer.setEmails(new CustomerContact("work", "jane@example.com"), new CustomerContact("home", "j@example.com"));
+        customer.setPhoneNumbers(new CustomerContact("mobile", "555-0100"));
+        customer.setAddresses(new CustomerContact("work", "1 Main St"));
+        HashMap<String, String> customFields = new HashMap<>();
+        customFields.put("segment", "smb");
+        customer.setCustomFields(customFields);
+        CustomerLinks links = new CustomerLinks();
+        links.setCompany(new Link("/api/v2/companies/9"));
+        customer.setLinks(links);
+
+        CompactCustomer compact = CompactCustomer.from(customer, schema);
+        assertEquals(9, compact.getCompanyId());
+        assertEquals(Case.NO_ID, compact.getLockedById());
+        assertEquals("jane@example.com", compact.getFirstEmail());
+        assertEquals("555-0100", compact.getFirstPhone());
+        assertEquals("smb", compact.getCustomField("segment"));
+
+        Customer copy = compact.toCustomer();
+        assertEquals("Jane Doe", copy.getName());
+        assertEquals(2, copy.getEmails().length);
+        assertEquals("home", copy.getEmails()[1].getType());
+        assertEquals("j@example.com", copy.getEmails()[1].getValue());
+        assertEquals("mobile", copy.getPhoneNumbers()[0].getType());
+        assertEquals("1 Main St", copy.getAddresses()[0].getValue());
+        assertEquals("/api/v2/companies/9", copy.getCompanyLink().getUrl());
+        assertNull(copy.getLinks().getLockedBy());
+        assertEquals("smb", copy.getCustomFields().get("segment"));
+        assertEquals(compact, CompactCustomer.from(copy, schema));
+    }
+
+    @Test
+    public void customerWithoutContactsHasNoFirstEmailOrPhone() throws Exception {
+        CompactCustomer compact = CompactCustomer.from(new Customer(), schema);
+        assertNull(compact.getFirstEmail());
+        assertNull(compact.getFirstPhone());
+        assertEquals(0, compact.getAddresses().length);
+        assertEquals(0, compact.toCustomer().getEmails().length);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.util.TestUtils;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CustomerPatchTest {
+
+    private final Gson gson = TestUtils.getDeskClientGson();
+
+    @Test
+    public void patchSerializesOnlyChangedFields() throws Exception {
+        CustomerPatch patch = new CustomerPatch().firstName("Jane").title(null).company(12);
+        assertEquals("{\"first_name\":\"Jane\",\"title\":null,"
+                + "\"_links\":{\"company\":{\"href\":\"/api/v2/companies/12\",\"class\":\"company\"}}}",
+                gson.toJson(patch));
+    }
+
+    @Test
+    public void betweenDiffsChangedFields() throws Exception {
+        Customer original = gson.fromJson("{\"first_name\":\"Jane\",\"last_name\":\"Doe\","
+                + "\"custom_fields\":{\"tier\":\"1\"},"
+                + "\"_links\":{\"company\":{\"href\":\"/api/v2/companies/12\",\"class\":\"company\"}}}",
+                Customer.class);
+        Customer modified = gson.fromJson("{\"first_name\":\"Jane\",\"last_name\":\"Smith\","
+                + "\"custom_fields\":{\"tier\":\"2\"}}", Customer.class);
+        assertEquals("{\"last_name\":\"Smith\",\"custom_fields\":{\"tier\":\"2\"},\"_links\":{\"company\":null}}",
+                gson.toJson(CustomerPatch.between(original, modified)));
+    }
+
+    @Test
+    public void betweenEqualCustomersIsEmpty() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Jane");
+        Customer same = new Customer();
+        same.setFirstName("Jane");
+        assertTrue(CustomerPatch.between(customer, same).isEmpty());
+    }
+}
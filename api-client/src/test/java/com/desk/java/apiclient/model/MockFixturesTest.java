@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.util.TestUtils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the entity fixtures the benchmarks build their pages from map onto the models
+ */
+public class MockFixturesTest {
+
+    @Test
+    public void caseFixtureParses() {
+        Case fixture = TestUtils.readMockJsonFile(Case.class, "mock_case.json");
+        assertNotNull(fixture);
+        assertEquals(1, fixture.getId());
+        assertEquals(CaseStatus.OPEN, fixture.getStatus());
+        assertEquals(CaseType.EMAIL, fixture.getType());
+        assertEquals(2, fixture.getLabels().length);
+        assertEquals("gold", fixture.getCustomFields().get("level"));
+        assertEquals(481, fixture.getLinks().getCustomer().getLinkId());
+        assertNotNull(fixture.getUpdatedAt());
+    }
+
+    @Test
+    public void customerFixtureParses() {
+        Customer fixture = TestUtils.readMockJsonFile(Customer.class, "mock_customer.json");
+        assertNotNull(fixture);
+        assertEquals(481, fixture.getId());
+        assertEquals("Ada", fixture.getFirstName());
+        assertEquals(2, fixture.getEmails().length);
+        assertEquals(37, fixture.getLinks().getCompany().getLinkId());
+    }
+
+    @Test
+    public void articleFixtureParses() {
+        Article fixture = TestUtils.readMockJsonFile(Article.class, "mock_article.json");
+        assertNotNull(fixture);
+        assertEquals(73, fixture.getId());
+        assertNotNull(fixture.getBodyTwitter());
+        assertTrue(fixture.isInSupportCenter());
+        assertNotNull(fixture.getPublishAt());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.stream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.Okio;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NdjsonPassthrough}
+ */
+@SuppressWarnings("unchecked")
+public class NdjsonPassthroughTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private static final String FIRST_PAGE = "{\"total_entries\":3,\"page\":1,"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases?page=1\",\"class\":\"page\"},"
+            + "\"next\":{\"href\":\"/api/v2/cases?page=2\",\"class\":\"page\"},\"previous\":null},"
+            + "\"_embedded\":{\"entries\":["
+            + "{\"id\":1,\"subject\":\"braces {[ and \\\"quotes\\\" \\\\\",\"labels\":[\"a\",\"b\"],"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases/1\"}}},"
+            + "{\"id\":2,\"subject\":\"caf\u00e9\",\"custom_fields\":{\"tier\":null,\"n\":-1.5e3}}]}}";
+
+    // pretty printed with entries before links
+    private static final String SECOND_PAGE = "{\n  \"_embedded\": {\n    \"entries\": [\n"
+            + "      {\n        \"id\": 3,\n        \"blurb\": \"line\\nbreak\"\n      }\n    ]\n  },\n"
+            + "  \"_links\": {\n    \"next\": null\n  },\n  \"total_entries\": 3\n}";
+
+    @Test
+    public void entriesAreWrittenOnePerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonPassthrough.Result result = NdjsonPassthrough.stream(pages(FIRST_PAGE, SECOND_PAGE), out, false);
+
+        assertEquals(3, result.getEntryCount());
+        assertEquals(2, result.getPageCount());
+        assertEquals(3, result.getTotalEntries());
+
+        List<String> lines = lines(out.toString("UTF-8"));
+        assertEquals(3, lines.size());
+        JsonArray expected = new JsonParser().parse(FIRST_PAGE).getAsJsonObject()
+                .getAsJsonObject("_embedded").getAsJsonArray("entries");
+        assertEquals(expected.get(0), new JsonParser().parse(lines.get(0)));
+        assertEquals(expected.get(1), new JsonParser().parse(lines.get(1)));
+        JsonObject third = new JsonParser().parse(lines.get(2)).getAsJsonObject();
+        assertEquals(3, third.get("id").getAsInt());
+        assertEquals("line\nbreak", third.get("blurb").getAsString());
+    }
+
+    @Test
+    public void gzipOutputToChannel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonPassthrough.stream(pages(FIRST_PAGE, SECOND_PAGE), Channels.newChannel(out), true);
+        Buffer unzipped = new Buffer();
+        unzipped.writeAll(Okio.source(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+        assertEquals(3, lines(unzipped.readUtf8()).size());
+    }
+
+    @Test
+    public void largePagesSpanningSegmentsAreCopiedIntact() throws Exception {
+        StringBuilder page = new StringBuilder("{\"_embedded\":{\"entries\":[");
+        char[] padding = new char[700];
+        Arrays.fill(padding, 'x');
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append("{\"id\":").append(i).append(",\"description\":\"").append(padding).append("\"}");
+        }
+        page.append("]},\"total_entries\":2000}");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonPassthrough.Result result = NdjsonPassthrough.stream(pages(page.toString()), out, false);
+        assertEquals(2000, result.getEntryCount());
+        assertEquals(1, result.getPageCount());
+        List<String> lines = lines(out.toString("UTF-8"));
+        assertEquals(2000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonElement entry = new JsonParser().parse(lines.get(i));
+            assertEquals(i, entry.getAsJsonObject().get("id").getAsInt());
+        }
+    }
+
+    @Test
+    public void pagingStopsWithoutEntries() throws Exception {
+        NdjsonPassthrough.Result result = NdjsonPassthrough.stream(pages(
+                "{\"total_entries\":0,\"_links\":{\"next\":{\"href\":\"/next\"}},\"_embedded\":{\"entries\":[]}}"),
+                new ByteArrayOutputStream(), false);
+        assertEquals(0, result.getEntryCount());
+        assertEquals(1, result.getPageCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void errorResponsesFail() throws Exception {
+        final Call<ResponseBody> call = mock(Call.class);
+        when(call.execute()).thenReturn(Response.<ResponseBody>error(500, ResponseBody.create(JSON, "{}")));
+        NdjsonPassthrough.stream(new NdjsonPassthrough.PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return call;
+            }
+        }, new ByteArrayOutputStream(), false);
+    }
+
+    private static NdjsonPassthrough.PageRequest pages(final String... pages) throws IOException {
+        final List<Call<ResponseBody>> calls = new ArrayList<>();
+        for (String page : pages) {
+            Call<ResponseBody> call = mock(Call.class);
+            when(call.execute()).thenReturn(Response.success(ResponseBody.create(JSON, page)));
+            calls.add(call);
+        }
+        return new NdjsonPassthrough.PageRequest() {
+            @Override
+            public Call<ResponseBody> page(int page) {
+                return calls.get(page - 1);
+            }
+        };
+    }
+
+    private static List<String> lines(String ndjson) {
+        List<String> lines = new ArrayList<>(Arrays.asList(ndjson.split("\n", -1)));
+        assertEquals("", lines.remove(lines.size() - 1));
+        return lines;
+    }
+}
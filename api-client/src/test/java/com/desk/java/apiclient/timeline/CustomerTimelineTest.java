@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.timeline;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.util.TestCalls;
+import com.desk.java.apiclient.util.TestUtils;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CustomerTimeline}
+ */
+public class CustomerTimelineTest {
+
+    private static final long CUSTOMER_ID = 9;
+
+    private CaseService cases;
+    /** The feed of each case by case id, in case list order */
+    private Map<Long, List<Message>> feeds;
+    private List<Case> caseList;
+    private Set<Long> fetchedFeeds;
+    private volatile int failingCase = -1;
+
+    @Before
+    public void setUp() {
+        cases = mock(CaseService.class);
+        feeds = new LinkedHashMap<>();
+        caseList = new ArrayList<>();
+        fetchedFeeds = Collections.synchronizedSet(new HashSet<Long>());
+
+        when(cases.getCasesByCustomer(anyLong(), anyInt(), anyInt(), anyString(), any(SortDirection.class),
+                any(Embed.class), any(Fields.class))).thenAnswer(new Answer<Call<ApiResponse<Case>>>() {
+            @Override
+            public Call<ApiResponse<Case>> answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                final String sortField = (String) args[3];
+                final SortDirection direction = (SortDirection) args[4];
+                List<Case> sorted = new ArrayList<>(caseList);
+                Collections.sort(sorted, new Comparator<Case>() {
+                    @Override
+                    public int compare(Case a, Case b) {
+                        Date x = "updated_at".equals(sortField) ? a.getUpdatedAt() : a.getCreatedAt();
+                        Date y = "updated_at".equals(sortField) ? b.getUpdatedAt() : b.getCreatedAt();
+                        return direction == SortDirection.ASC ? x.compareTo(y) : y.compareTo(x);
+                    }
+                });
+                return TestCalls.immediate(page(sorted, (Integer) args[1], (Integer) args[2]));
+            }
+        });
+        when(cases.getCaseFeed(anyLong(), anyInt(), anyInt(), any(SortDirection.class)))
+                .thenAnswer(new Answer<Call<ApiResponse<Message>>>() {
+                    @Override
+                    public Call<ApiResponse<Message>> answer(InvocationOnMock invocation) {
+                        Object[] args = invocation.getArguments();
+                        long caseId = (Long) args[0];
+                        fetchedFeeds.add(caseId);
+                        if (caseId == failingCase) {
+                            ResponseBody error = ResponseBody.create(MediaType.parse("application/json"), "{}");
+                            return TestCalls.immediate(Response.<ApiResponse<Message>>error(500, error));
+                        }
+                        List<Message> feed = new ArrayList<>(feeds.get(caseId));
+                        if (args[3] == SortDirection.DESC) {
+                            Collections.reverse(feed);
+                        }
+                        return TestCalls.immediate(page(feed, (Integer) args[1], (Integer) args[2]));
+                    }
+                });
+    }
+
+    @Test
+    public void feedsAreMergedNewestFirst() throws Exception {
+        List<Message> all = randomCases(12, 7);
+
+        List<TimelineEvent> events = new CustomerTimeline(cases).withPageSize(3)
+                .fetch(CUSTOMER_ID, Integer.MAX_VALUE, SortDirection.DESC);
+
+        Collections.reverse(all);
+        assertEquals(all, messages(events));
+    }
+
+    @Test
+    public void feedsAreMergedOldestFirst() throws Exception {
+        List<Message> all = randomCases(12, 7);
+
+        List<TimelineEvent> events = new CustomerTimeline(cases).withPageSize(4).withParallelism(2)
+                .fetch(CUSTOMER_ID, Integer.MAX_VALUE, SortDirection.ASC);
+
+        assertEquals(all, messages(events));
+    }
+
+    @Test
+    public void eventsKnowTheirCase() throws Exception {
+        randomCases(3, 2);
+
+        for (TimelineEvent event : new CustomerTimeline(cases).fetch(CUSTOMER_ID, 100, SortDirection.DESC)) {
+            assertTrue(feeds.get(event.getCaseId()).contains(event.getMessage()));
+        }
+    }
+
+    @Test
+    public void readingFewEventsFetchesFewFeeds() throws Exception {
+        // 250 cases, each one newer than the next, so the newest messages all belong to the first case
+        long time = 1000000000L;
+        for (long id = 250; id >= 1; id--) {
+            List<Message> feed = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                feed.add(message(id * 10 + i, time += 1000));
+            }
+            addCase(id, feed);
+        }
+
+        CustomerTimeline.Cursor cursor = new CustomerTimeline(cases).withParallelism(2).withPageSize(5)
+                .open(CUSTOMER_ID, 3, SortDirection.DESC);
+        List<Long> ids = new ArrayList<>();
+        while (cursor.hasNext()) {
+            ids.add(cursor.next().getMessage().getId());
+        }
+
+        assertEquals(Arrays.asList(14L, 13L, 12L), ids);
+        // one page of cases, the newest case and at most one prefetched
+        assertTrue("made " + cursor.getRequestCount() + " requests", cursor.getRequestCount() <= 3);
+        assertTrue(fetchedFeeds.size() <= 2);
+    }
+
+    @Test
+    public void failedFeedFailsTheCursor() throws Exception {
+        randomCases(5, 3);
+        failingCase = 3;
+
+        try {
+            new CustomerTimeline(cases).withParallelism(1).fetch(CUSTOMER_ID, 100, SortDirection.DESC);
+            fail("expected the failing feed to fail the timeline");
+        } catch (IOException expected) {
+        }
+    }
+
+    /**
+     * Creates cases whose messages interleave in time
+     *
+     * @return every message in creation order
+     */
+    private List<Message> randomCases(int caseCount, int maxMessages) {
+        Random random = new Random(3);
+        List<Message> all = new ArrayList<>();
+        long messageId = 1;
+        for (long id = 1; id <= caseCount; id++) {
+            List<Message> feed = new ArrayList<>();
+            long time = 1000000000L + random.nextInt(100000) * 1000L;
+            for (int i = 0, count = 1 + random.nextInt(maxMessages); i < count; i++) {
+                time += 1000 + random.nextInt(50000) * 1000L;
+                feed.add(message(messageId++, time));
+            }
+            addCase(id, feed);
+            all.addAll(feed);
+        }
+        Collections.sort(all, new Comparator<Message>() {
+            @Override
+            public int compare(Message a, Message b) {
+                return a.getCreatedAt().compareTo(b.getCreatedAt());
+            }
+        });
+        return all;
+    }
+
+    private void addCase(long id, List<Message> feed) {
+        Case deskCase = new Case();
+        deskCase.setId(id);
+        deskCase.setCreatedAt(feed.get(0).getCreatedAt());
+        deskCase.setUpdatedAt(feed.get(feed.size() - 1).getCreatedAt());
+        caseList.add(deskCase);
+        feeds.put(id, feed);
+    }
+
+    private static Message message(long id, long time) {
+        Message message = new Message();
+        message.setId(id);
+        message.setCreatedAt(new Date(time));
+        return message;
+    }
+
+    private static List<Message> messages(List<TimelineEvent> events) {
+        List<Message> messages = new ArrayList<>();
+        for (TimelineEvent event : events) {
+            messages.add(event.getMessage());
+        }
+        return messages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Serializable> Response<ApiResponse<T>> page(List<T> all, int perPage, int page) {
+        int from = Math.min(all.size(), (page - 1) * perPage);
+        int to = Math.min(all.size(), from + perPage);
+        String next = to < all.size() ? "{\"href\":\"/api/v2/next?page=" + (page + 1) + "\"}" : "null";
+        Type type = new TypeToken<ApiResponse<Message>>() {}.getType();
+        ApiResponse<T> response = TestUtils.getDeskClientGson()
+                .fromJson("{\"total_entries\":" + all.size() + ",\"_links\":{\"next\":" + next + "}}", type);
+        Entries<T> entries = new Entries<>();
+        entries.setEntries((T[]) all.subList(from, to).toArray(new Serializable[0]));
+        response.setEmbeddedList(entries);
+        return Response.success(response);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.User;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Date;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link IdentityMap}, {@link IdentityMapTypeAdapterFactory} and {@link IdentityMapConverterFactory}
+ */
+public class IdentityMapTest {
+
+    private static final Type CASES = new TypeToken<ApiResponse<Case>>() {}.getType();
+    private static final String PAGE = "{\"total_entries\":3,\"_embedded\":{\"entries\":["
+            + "{\"id\":1,\"_embedded\":{\"assigned_user\":{\"id\":7,\"name\":\"Jane\"},\"assigned_group\":{\"id\":3,\"name\":\"Tier 1\"}}},"
+            + "{\"id\":2,\"_embedded\":{\"assigned_user\":{\"id\":7,\"name\":\"Jane\"},\"assigned_group\":{\"id\":3,\"name\":\"Tier 1\"}}},"
+            + "{\"id\":3,\"_embedded\":{\"assigned_user\":{\"id\":8,\"name\":\"John\"}}}"
+            + "]}}";
+
+    private static final String UPDATED_PAGE = "{\"total_entries\":1,\"_embedded\":{\"entries\":["
+            + "{\"id\":4,\"_embedded\":{\"assigned_user\":{\"id\":7,\"name\":\"Jane Doe\",\"email\":\"jane@example.com\"}}}"
+            + "]}}";
+    private static final String PARTIAL_PAGE = "{\"total_entries\":1,\"_embedded\":{\"entries\":["
+            + "{\"id\":5,\"_embedded\":{\"assigned_user\":{\"id\":7}}}"
+            + "]}}";
+    private static final String CLEARED_PAGE = "{\"total_entries\":1,\"_embedded\":{\"entries\":["
+            + "{\"id\":6,\"_embedded\":{\"assigned_user\":{\"id\":7,\"email\":null}}}"
+            + "]}}";
+
+    private Gson gson;
+
+    @Before
+    public void setUp() throws Exception {
+        gson = new GsonBuilder()
+                .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
+                .registerTypeAdapterFactory(new IdentityMapTypeAdapterFactory())
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .create();
+    }
+
+    @Test
+    public void canonicalizeReturnsFirstInstance() throws Exception {
+        IdentityMap map = new IdentityMap();
+        User first = new User();
+        User second = new User();
+        assertSame(first, map.canonicalize(User.class, 1, first));
+        assertSame(first, map.canonicalize(User.class, 1, second));
+        assertSame(first, map.get(User.class, 1));
+        assertNull(map.get(User.class, 2));
+        assertEquals(1, map.size());
+        assertEquals(1, map.getHitCount());
+    }
+
+    @Test
+    public void perResponseMapDeduplicatesWithinResponse() throws Exception {
+        ApiResponse<Case> first = convert(null);
+        Case[] cases = first.getEntries();
+        assertSame(cases[0].getAssignedUser(), cases[1].getAssignedUser());
+        assertSame(cases[0].getAssignedGroup(), cases[1].getAssignedGroup());
+        assertNotSame(cases[0].getAssignedUser(), cases[2].getAssignedUser());
+
+        ApiResponse<Case> second = convert(null);
+        assertNotSame(cases[0].getAssignedUser(), second.getEntries()[0].getAssignedUser());
+    }
+
+    @Test
+    public void sharedMapDeduplicatesAcrossResponses() throws Exception {
+        IdentityMap map = new IdentityMap();
+        ApiResponse<Case> first = convert(map);
+        ApiResponse<Case> second = convert(map);
+        assertSame(first.getEntries()[0].getAssignedUser(), second.getEntries()[1].getAssignedUser());
+        assertSame(first.getEntries()[0].getAssignedGroup(), map.get(Group.class, 3));
+        assertSame(second.getEntries()[2].getAssignedUser(), map.get(User.class, 8));
+    }
+
+    @Test
+    public void laterResponsesReplaceChangedInstance() throws Exception {
+        IdentityMap map = new IdentityMap();
+        User user = cases(map, PAGE).getEntries()[0].getAssignedUser();
+
+        User updated = cases(map, UPDATED_PAGE).getEntries()[0].getAssignedUser();
+        assertNotSame(user, updated);
+        assertSame(updated, map.get(User.class, 7));
+        assertEquals("Jane Doe", updated.getName());
+        assertEquals("jane@example.com", updated.getEmail());
+        // instances already handed out are never modified
+        assertEquals("Jane", user.getName());
+        assertNull(user.getEmail());
+
+        // an instance read with fewer fields holds nothing new
+        assertSame(updated, cases(map, PARTIAL_PAGE).getEntries()[0].getAssignedUser());
+        assertEquals(1, map.getMergeCount());
+    }
+
+    @Test
+    public void fieldsReadAsNullReplaceTheCanonicalValue() throws Exception {
+        IdentityMap map = new IdentityMap();
+        User updated = cases(map, UPDATED_PAGE).getEntries()[0].getAssignedUser();
+
+        User cleared = cases(map, CLEARED_PAGE).getEntries()[0].getAssignedUser();
+        assertNotSame(updated, cleared);
+        assertNull(cleared.getEmail());
+        // fields missing from the response are completed from the previous instance
+        assertEquals("Jane Doe", cleared.getName());
+        assertEquals("jane@example.com", updated.getEmail());
+    }
+
+    @Test
+    public void defaultValuesReplaceTheCanonicalValue() throws Exception {
+        IdentityMap map = new IdentityMap();
+        Agent available = new Agent(true, 3);
+        map.canonicalize(Agent.class, 1, available);
+
+        Agent away = map.canonicalize(Agent.class, 1, new Agent(false, 0));
+        assertNotSame(available, away);
+        assertFalse(away.available);
+        assertEquals(0, away.openCases);
+        assertSame(away, map.get(Agent.class, 1));
+        assertSame(away, map.canonicalize(Agent.class, 1, new Agent(false, 0)));
+    }
+
+    @Test
+    public void topLevelEntitiesAreNotCanonicalized() throws Exception {
+        IdentityMap map = new IdentityMap();
+        User embedded = cases(map, PAGE).getEntries()[0].getAssignedUser();
+        User fetched = convert(map, "{\"id\":7,\"name\":\"Jane Doe\"}", User.class);
+        assertNotSame(embedded, fetched);
+        assertEquals("Jane", embedded.getName());
+
+        Type users = new TypeToken<ApiResponse<User>>() {}.getType();
+        ApiResponse<User> page = convert(map, "{\"_embedded\":{\"entries\":[{\"id\":7},{\"id\":8}]}}", users);
+        assertNotSame(embedded, page.getEntries()[0]);
+        assertNotSame(page.getEntries()[1], map.get(User.class, 8));
+        assertSame(embedded, map.get(User.class, 7));
+    }
+
+    @Test
+    public void unreferencedInstancesAreDropped() throws Exception {
+        IdentityMap map = new IdentityMap();
+        convert(map);
+        assertEquals(2, map.getHitCount());
+        for (int i = 0; i < 100 && map.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void noActiveMapDoesNotDeduplicate() throws Exception {
+        ApiResponse<Case> response = gson.fromJson(PAGE, CASES);
+        assertNotSame(response.getEntries()[0].getAssignedUser(), response.getEntries()[1].getAssignedUser());
+    }
+
+    private static final class Agent {
+
+        boolean available;
+        int openCases;
+
+        Agent(boolean available, int openCases) {
+            this.available = available;
+            this.openCases = openCases;
+        }
+    }
+
+    private ApiResponse<Case> convert(IdentityMap sharedMap) throws Exception {
+        return cases(sharedMap, PAGE);
+    }
+
+    private ApiResponse<Case> cases(IdentityMap sharedMap, String json) throws Exception {
+        return convert(sharedMap, json, CASES);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T convert(IdentityMap sharedMap, String json, Type type) throws Exception {
+        IdentityMapConverterFactory factory = new IdentityMapConverterFactory(GsonConverterFactory.create(gson), sharedMap);
+        Converter<ResponseBody, ?> converter = factory.responseBodyConverter(type, new Annotation[0], null);
+        return (T) converter.convert(ResponseBody.create(MediaType.parse("application/json"), json));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MemoryFootprint}
+ */
+public class MemoryFootprintTest {
+
+    @SuppressWarnings("unused")
+    private static class Node {
+        long id;
+        String name;
+        Node next;
+    }
+
+    @Test
+    public void primitiveArraysAreAligned() throws Exception {
+        assertEquals(16, new MemoryFootprint().add(new long[0]).getBytes());
+        assertEquals(24, new MemoryFootprint().add(new long[1]).getBytes());
+        assertEquals(24, new MemoryFootprint().add(new byte[5]).getBytes());
+    }
+
+    @Test
+    public void stringsUseCompactLayout() throws Exception {
+        assertEquals(24 + 24, new MemoryFootprint().add("abcdefgh").getBytes());
+        assertEquals(24 + 24, new MemoryFootprint().add("\u0100bc").getBytes());
+    }
+
+    @Test
+    public void sharedObjectsAreCountedOnce() throws Exception {
+        Node first = new Node();
+        first.name = "name";
+        Node second = new Node();
+        second.name = first.name;
+        second.next = first;
+
+        MemoryFootprint footprint = new MemoryFootprint().add(first).add(second);
+        assertEquals(2, footprint.getRootCount());
+        // two nodes of 12 + 8 + 4 + 4 bytes and one string
+        assertEquals(2 * 32 + 24 + 24, footprint.getBytes());
+        assertEquals(4, footprint.getObjectCount());
+    }
+
+    @Test
+    public void excludedObjectsAreNotCounted() throws Exception {
+        Node node = new Node();
+        node.name = "shared";
+        assertEquals(32, new MemoryFootprint().exclude(node.name).add(node).getBytes());
+    }
+
+    @Test
+    public void platformTypesUseFixedLayouts() throws Exception {
+        assertEquals(24, new MemoryFootprint().add(new Date()).getBytes());
+        HashMap<String, String> map = new HashMap<>();
+        assertEquals(48, new MemoryFootprint().add(map).getBytes());
+        map.put("a", "a");
+        // map, table of 16, entry and one string
+        assertEquals(48 + 80 + 32 + 48, new MemoryFootprint().add(map).getBytes());
+    }
+}
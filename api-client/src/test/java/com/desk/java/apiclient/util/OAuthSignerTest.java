@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import oauth.signpost.http.HttpParameters;
+import okhttp3.FormBody;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Unit tests for {@link OAuthSigner}
+ */
+public class OAuthSignerTest {
+
+    private static final String CONSUMER_KEY = "consumer key";
+    private static final String CONSUMER_SECRET = "consumer&secret";
+    private static final String TOKEN = "token";
+    private static final String SECRET = "s3cr~t";
+    private static final String NONCE = "5a1bd2f3c0ffee";
+    private static final long TIMESTAMP = 1466000000L;
+    private static final Pattern HEADER_ELEMENT = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+
+    private OAuthSigner signer;
+    private RetrofitHttpOAuthConsumer consumer;
+
+    @Before
+    public void setUp() throws Exception {
+        signer = new OAuthSigner(CONSUMER_KEY, CONSUMER_SECRET, TOKEN, SECRET);
+        consumer = new RetrofitHttpOAuthConsumer(CONSUMER_KEY, CONSUMER_SECRET);
+        consumer.setTokenWithSecret(TOKEN, SECRET);
+        HttpParameters parameters = new HttpParameters();
+        parameters.put("oauth_nonce", NONCE);
+        parameters.put("oauth_timestamp", Long.toString(TIMESTAMP));
+        consumer.setAdditionalParameters(parameters);
+    }
+
+    @Test
+    public void getRequestMatchesSignpost() throws Exception {
+        Request request = new Request.Builder()
+                .url("https://test.desk.com/api/v2/cases/search?q=subject:hello world&per_page=50&page=2&embed=customer,assigned_user")
+                .build();
+        assertSameAsSignpost(request);
+    }
+
+    @Test
+    public void nonDefaultPortAndUnicodeMatchesSignpost() throws Exception {
+        Request request = new Request.Builder()
+                .url("http://test.desk.com:8080/api/v2/customers/search?first_name=J%C3%BCrgen&a-=1&a=2&a=1")
+                .build();
+        assertSameAsSignpost(request);
+    }
+
+    @Test
+    public void jsonBodyMatchesSignpost() throws Exception {
+        Request request = new Request.Builder()
+                .url("https://test.desk.com/api/v2/cases/1")
+                .patch(RequestBody.create(MediaType.parse("application/json; charset=UTF-8"), "{\"subject\":\"a=b&c\"}"))
+                .build();
+        assertSameAsSignpost(request);
+    }
+
+    @Test
+    public void formBodyMatchesSignpost() throws Exception {
+        Request request = new Request.Builder()
+                .url("https://test.desk.com/api/v2/cases?x=1")
+                .post(new FormBody.Builder().add("subject", "a b+c").add("status", "open").build())
+                .build();
+        assertSameAsSignpost(request);
+    }
+
+    @Test
+    public void signatureDependsOnBodyOnlyWhenFormEncoded() throws Exception {
+        Request first = new Request.Builder().url("https://test.desk.com/api/v2/cases")
+                .post(RequestBody.create(MediaType.parse("application/json"), "{\"a\":1}")).build();
+        Request second = new Request.Builder().url("https://test.desk.com/api/v2/cases")
+                .post(RequestBody.create(MediaType.parse("application/json"), "{\"a\":2}")).build();
+        assertEquals(signer.authorizationHeader(first, NONCE, TIMESTAMP),
+                signer.authorizationHeader(second, NONCE, TIMESTAMP));
+
+        Request firstForm = new Request.Builder().url("https://test.desk.com/api/v2/cases")
+                .post(RequestBody.create(MediaType.parse("application/x-www-form-urlencoded"), "a=1")).build();
+        Request secondForm = new Request.Builder().url("https://test.desk.com/api/v2/cases")
+                .post(RequestBody.create(MediaType.parse("application/x-www-form-urlencoded"), "a=2")).build();
+        assertNotEquals(signer.authorizationHeader(firstForm, NONCE, TIMESTAMP),
+                signer.authorizationHeader(secondForm, NONCE, TIMESTAMP));
+    }
+
+    @Test
+    public void percentEncodeEncodesReservedCharacters() throws Exception {
+        assertEquals("abc-._~", OAuthSigner.percentEncode("abc-._~"));
+        assertEquals("a%20b%2Bc%2A%26%3D", OAuthSigner.percentEncode("a b+c*&="));
+        assertEquals("J%C3%BCrgen", OAuthSigner.percentEncode("J\u00fcrgen"));
+    }
+
+    private void assertSameAsSignpost(Request request) throws Exception {
+        Request expected = (Request) consumer.sign(request).unwrap();
+        Map<String, String> expectedElements = headerElements(expected.header(OAuthSigner.AUTHORIZATION_HEADER));
+        Map<String, String> actualElements = headerElements(signer.authorizationHeader(request, NONCE, TIMESTAMP));
+        assertEquals(expectedElements, actualElements);
+    }
+
+    private static Map<String, String> headerElements(String header) {
+        Map<String, String> elements = new HashMap<>();
+        Matcher matcher = HEADER_ELEMENT.matcher(header);
+        while (matcher.find()) {
+            elements.put(matcher.group(1), matcher.group(2));
+        }
+        return elements;
+    }
+}
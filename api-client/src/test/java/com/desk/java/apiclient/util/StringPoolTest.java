@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link StringPool} and {@link StringPoolTypeAdapterFactory}
+ */
+public class StringPoolTest {
+
+    private static final Type CASES = new TypeToken<ApiResponse<Case>>() {}.getType();
+    private static final String PAGE = "{\"_embedded\":{\"entries\":["
+            + "{\"id\":1,\"priority\":\"4\",\"labels\":[\"Billing\",\"VIP\"],\"custom_fields\":{\"region\":\"emea\",\"tier\":null},"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases/1\",\"class\":\"case\"}}},"
+            + "{\"id\":2,\"priority\":\"4\",\"labels\":[\"VIP\"],\"custom_fields\":{\"region\":\"amer\",\"tier\":true},"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases/2\",\"class\":\"case\"}}}"
+            + "]}}";
+
+    @Test
+    public void internReturnsPooledInstance() throws Exception {
+        StringPool pool = new StringPool();
+        String first = new String("open");
+        String second = new String("open");
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+        assertEquals(2, pool.getLookupCount());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(0.5d, pool.getHitRate(), 0d);
+        assertEquals(StringPool.STRING_OVERHEAD + 8, pool.getBytesSaved());
+    }
+
+    @Test
+    public void internStopsPoolingWhenFull() throws Exception {
+        StringPool pool = new StringPool(1);
+        pool.intern("a");
+        String b = new String("b");
+        assertSame(b, pool.intern(b));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void deserializationInternsKnownFields() throws Exception {
+        StringPool pool = new StringPool();
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
+                .registerTypeAdapterFactory(new StringPoolTypeAdapterFactory(pool))
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .create();
+        ApiResponse<Case> response = gson.fromJson(PAGE, CASES);
+        Case first = response.getEntries()[0];
+        Case second = response.getEntries()[1];
+
+        assertSame(first.getPriority(), second.getPriority());
+        assertSame(first.getLabels()[1], second.getLabels()[0]);
+        assertSame(first.getLinks().getSelf().getClassName(), second.getLinks().getSelf().getClassName());
+        assertSame(keyOf(first.getCustomFields(), "region"), keyOf(second.getCustomFields(), "region"));
+        assertEquals("emea", first.getCustomFields().get("region"));
+        assertNull(first.getCustomFields().get("tier"));
+        assertEquals("true", second.getCustomFields().get("tier"));
+        assertTrue(pool.getHitCount() >= 5);
+        assertTrue(pool.getBytesSaved() > 0);
+    }
+
+    private static String keyOf(Map<String, String> map, String key) {
+        for (String k : map.keySet()) {
+            if (k.equals(key)) {
+                return k;
+            }
+        }
+        return null;
+    }
+}
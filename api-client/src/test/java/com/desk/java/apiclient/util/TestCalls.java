@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Fake {@link Call}s for stubbing service methods in unit tests.
+ * </p>
+ */
+public class TestCalls {
+
+    private TestCalls() {
+    }
+
+    /**
+     * Creates a call returning the response when executed and completing with it on enqueue, on the calling
+     * thread
+     *
+     * @param response the response
+     * @param <T> the body type
+     * @return the call
+     */
+    public static <T> TestCall<T> immediate(Response<T> response) {
+        return new ImmediateCall<>(response, null);
+    }
+
+    /**
+     * Creates a call throwing the failure when executed and failing with it on enqueue, on the calling thread
+     *
+     * @param failure the failure
+     * @param <T> the body type
+     * @return the call
+     */
+    public static <T> TestCall<T> failing(IOException failure) {
+        return new ImmediateCall<>(null, failure);
+    }
+
+    /**
+     * Creates a call which only completes when the test completes it
+     *
+     * @param <T> the body type
+     * @return the call
+     */
+    public static <T> PendingCall<T> pending() {
+        return new PendingCall<>();
+    }
+
+    /**
+     * Creates a call which counts the gate down on enqueue and completes on the dispatcher once the gate opened,
+     * failing if it did not open within a second
+     *
+     * @param response the response
+     * @param gate the gate shared by the calls which must be in flight together
+     * @param dispatcher the executor completing the call
+     * @param <T> the body type
+     * @return the call
+     */
+    public static <T> TestCall<T> gated(Response<T> response, CountDownLatch gate, Executor dispatcher) {
+        return new GatedCall<>(response, gate, dispatcher);
+    }
+
+    /**
+     * A fake call which cannot be executed synchronously unless overridden
+     */
+    public abstract static class TestCall<T> implements Call<T> {
+
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        @Override
+        public Response<T> execute() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            executed = true;
+            dispatch(callback);
+        }
+
+        abstract void dispatch(Callback<T> callback);
+
+        void executed() {
+            executed = true;
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public abstract TestCall<T> clone();
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://test.desk.com/api/v2/").build();
+        }
+    }
+
+    /**
+     * A call completed by hand through {@link #respond(Response)} or {@link #fail(Throwable)}
+     */
+    public static final class PendingCall<T> extends TestCall<T> {
+
+        private volatile Callback<T> callback;
+
+        @Override
+        void dispatch(Callback<T> callback) {
+            this.callback = callback;
+        }
+
+        /**
+         * Completes the enqueued call with the response
+         */
+        public void respond(Response<T> response) {
+            callback.onResponse(this, response);
+        }
+
+        /**
+         * Fails the enqueued call
+         */
+        public void fail(Throwable failure) {
+            callback.onFailure(this, failure);
+        }
+
+        @Override
+        public PendingCall<T> clone() {
+            return new PendingCall<>();
+        }
+    }
+
+    private static final class ImmediateCall<T> extends TestCall<T> {
+
+        private final Response<T> response;
+        private final IOException failure;
+
+        ImmediateCall(Response<T> response, IOException failure) {
+            this.response = response;
+            this.failure = failure;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            executed();
+            if (failure != null) {
+                throw failure;
+            }
+            return response;
+        }
+
+        @Override
+        void dispatch(Callback<T> callback) {
+            if (failure != null) {
+                callback.onFailure(this, failure);
+            } else {
+                callback.onResponse(this, response);
+            }
+        }
+
+        @Override
+        public ImmediateCall<T> clone() {
+            return new ImmediateCall<>(response, failure);
+        }
+    }
+
+    private static final class GatedCall<T> extends TestCall<T> {
+
+        private final Response<T> response;
+        private final CountDownLatch gate;
+        private final Executor dispatcher;
+
+        GatedCall(Response<T> response, CountDownLatch gate, Executor dispatcher) {
+            this.response = response;
+            this.gate = gate;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        void dispatch(final Callback<T> callback) {
+            gate.countDown();
+            dispatcher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!gate.await(1, TimeUnit.SECONDS)) {
+                            callback.onFailure(GatedCall.this, new IOException("requests were not concurrent"));
+                            return;
+                        }
+                        callback.onResponse(GatedCall.this, response);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public GatedCall<T> clone() {
+            return new GatedCall<>(response, gate, dispatcher);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.workspace;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.Macro;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.SortDirection;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CompanyService;
+import com.desk.java.apiclient.service.MacroService;
+import com.desk.java.apiclient.util.TestCalls;
+import com.desk.java.apiclient.util.TestCalls.PendingCall;
+import com.desk.java.apiclient.workspace.CaseWorkspace.Part;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CaseWorkspaceLoader}
+ */
+public class CaseWorkspaceLoaderTest {
+
+    private ExecutorService dispatcher;
+    private CaseService cases;
+    private CompanyService companies;
+    private MacroService macros;
+    private CaseWorkspaceLoader loader;
+    private Case deskCase;
+    private Company company;
+
+    @Before
+    public void setUp() {
+        dispatcher = Executors.newCachedThreadPool();
+        cases = mock(CaseService.class);
+        companies = mock(CompanyService.class);
+        macros = mock(MacroService.class);
+        loader = new CaseWorkspaceLoader(cases, companies, macros).withDeadline(2, TimeUnit.SECONDS);
+
+        Customer customer = new Customer();
+        customer.getLinks().setCompany(new Link("/api/v2/companies/7"));
+        deskCase = new Case();
+        deskCase.getEmbedded().setCustomer(customer);
+        deskCase.getEmbedded().setDraft(new Message());
+        company = new Company();
+        company.setId(7);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    public void independentRequestsAreInFlightTogether() throws Exception {
+        // nothing responds before all four requests were enqueued, a sequential loader would time out
+        CountDownLatch enqueued = new CountDownLatch(4);
+        when(cases.getCaseById(eq(1L), same(CaseWorkspaceLoader.CASE_EMBED), any(Fields.class)))
+                .thenReturn(TestCalls.gated(Response.success(deskCase), enqueued, dispatcher));
+        when(cases.getCaseFeed(eq(1L), anyInt(), eq(1), any(SortDirection.class)))
+                .thenReturn(TestCalls.gated(Response.success(page(new Message())), enqueued, dispatcher));
+        when(cases.getAttachments(eq(1L), anyInt(), eq(1)))
+                .thenReturn(TestCalls.gated(Response.success(page(new Attachment(), new Attachment())), enqueued,
+                        dispatcher));
+        when(macros.getMacrosByUser(eq(2L), anyInt(), eq(1)))
+                .thenReturn(TestCalls.gated(Response.success(page(new Macro())), enqueued, dispatcher));
+        when(companies.getCompany(7L)).thenReturn(TestCalls.immediate(Response.success(company)));
+
+        CaseWorkspace workspace = loader.load(1, 2);
+
+        assertFalse(workspace.isPartial());
+        assertSame(deskCase, workspace.getCase());
+        assertSame(deskCase.getEmbedded().getCustomer(), workspace.getCustomer());
+        assertSame(deskCase.getEmbedded().getDraft(), workspace.getDraft());
+        assertSame(company, workspace.getCompany());
+        assertEquals(1, workspace.getFeed().size());
+        assertEquals(2, workspace.getAttachments().size());
+        assertEquals(1, workspace.getMacros().size());
+    }
+
+    @Test
+    public void stragglersAreCancelledAtTheDeadline() throws Exception {
+        stubAll();
+        PendingCall<ApiResponse<Message>> feed = TestCalls.pending();
+        when(cases.getCaseFeed(anyLong(), anyInt(), anyInt(), any(SortDirection.class))).thenReturn(feed);
+
+        CaseWorkspace workspace = loader.withDeadline(100, TimeUnit.MILLISECONDS).load(1, 2);
+
+        assertTrue(workspace.isPartial());
+        assertEquals(EnumSet.of(Part.FEED), workspace.getTimedOut());
+        assertFalse(workspace.isLoaded(Part.FEED));
+        assertTrue(workspace.getFeed().isEmpty());
+        assertTrue(workspace.isLoaded(Part.CASE));
+        assertSame(company, workspace.getCompany());
+        assertTrue(feed.isCanceled());
+    }
+
+    @Test
+    public void failuresAreReportedPerPart() throws Exception {
+        stubAll();
+        ResponseBody error = ResponseBody.create(MediaType.parse("application/json"), "{}");
+        when(macros.getMacrosByUser(anyLong(), anyInt(), anyInt()))
+                .thenReturn(TestCalls.immediate(Response.<ApiResponse<Macro>>error(500, error)));
+
+        CaseWorkspace workspace = loader.load(1, 2);
+
+        assertTrue(workspace.isPartial());
+        assertTrue(workspace.getTimedOut().isEmpty());
+        assertEquals(EnumSet.of(Part.MACROS), workspace.getFailures().keySet());
+        assertTrue(workspace.getFailures().get(Part.MACROS) instanceof IOException);
+        assertSame(deskCase, workspace.getCase());
+    }
+
+    @Test
+    public void companyIsSkippedWithoutCustomerCompany() throws Exception {
+        stubAll();
+        deskCase.getEmbedded().getCustomer().getLinks().setCompany(null);
+
+        CaseWorkspace workspace = loader.load(1, 2);
+
+        assertFalse(workspace.isPartial());
+        assertNull(workspace.getCompany());
+        verify(companies, never()).getCompany(anyLong());
+    }
+
+    private void stubAll() {
+        when(cases.getCaseById(anyLong(), same(CaseWorkspaceLoader.CASE_EMBED), any(Fields.class)))
+                .thenReturn(TestCalls.immediate(Response.success(deskCase)));
+        when(cases.getCaseFeed(anyLong(), anyInt(), anyInt(), any(SortDirection.class)))
+                .thenReturn(TestCalls.immediate(Response.success(page(new Message()))));
+        when(cases.getAttachments(anyLong(), anyInt(), anyInt()))
+                .thenReturn(TestCalls.immediate(Response.success(page(new Attachment()))));
+        when(macros.getMacrosByUser(anyLong(), anyInt(), anyInt()))
+                .thenReturn(TestCalls.immediate(Response.success(page(new Macro()))));
+        when(companies.getCompany(anyLong())).thenReturn(TestCalls.immediate(Response.success(company)));
+    }
+
+    @SafeVarargs
+    private static <T extends Serializable> ApiResponse<T> page(T... entries) {
+        Entries<T> embedded = new Entries<>();
+        embedded.setEntries(entries);
+        ApiResponse<T> response = new ApiResponse<>();
+        response.setEmbeddedList(embedded);
+        return response;
+    }
+}
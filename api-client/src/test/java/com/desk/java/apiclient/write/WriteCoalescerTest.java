@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.write;
+
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CasePatch;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.CustomerPatch;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CustomerService;
+import com.desk.java.apiclient.util.TestCalls;
+import com.desk.java.apiclient.util.TestCalls.PendingCall;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WriteCoalescerTest {
+
+    private final List<PendingCall<?>> calls = new ArrayList<>();
+    private final List<Object> bodies = new ArrayList<>();
+
+    private CaseService cases;
+    private CustomerService customers;
+    private WriteCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        cases = mock(CaseService.class);
+        customers = mock(CustomerService.class);
+        when(cases.updateCase(anyLong(), any(CasePatch.class))).thenAnswer(new Recording<Case>());
+        when(cases.updateDraft(anyLong(), any(Message.class))).thenAnswer(new Recording<Message>());
+        when(customers.updateCustomer(anyLong(), any(CustomerPatch.class))).thenAnswer(new Recording<Customer>());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    @Test
+    public void writesWithinWindowAreSentAsOneRequest() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 1, TimeUnit.HOURS);
+        Future<Case> status = coalescer.updateCase(1, new CasePatch().status(CaseStatus.PENDING));
+        Future<Case> labels = coalescer.updateCase(1, new CasePatch().addLabels("vip"));
+        Future<Case> field = coalescer.updateCase(1, new CasePatch().customField("level", "gold"));
+        assertTrue(calls.isEmpty());
+
+        coalescer.flush();
+        assertEquals(1, calls.size());
+        assertEquals(new CasePatch().status(CaseStatus.PENDING).addLabels("vip").customField("level", "gold"),
+                bodies.get(0));
+
+        Case updated = new Case();
+        succeed(0, updated);
+        assertSame(updated, status.get());
+        assertSame(updated, labels.get());
+        assertSame(updated, field.get());
+        assertEquals(3, coalescer.getWriteCount());
+        assertEquals(1, coalescer.getRequestCount());
+    }
+
+    @Test
+    public void windowClosingSendsTheWrite() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 10, TimeUnit.MILLISECONDS);
+        Future<Customer> future = coalescer.updateCustomer(4, new CustomerPatch().firstName("Jane"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (callCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, callCount());
+        Customer customer = new Customer();
+        succeed(0, customer);
+        assertSame(customer, future.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void windowOfFlushedWriteDoesNotEndLaterWrites() throws Exception {
+        final List<Runnable> windows = new ArrayList<>();
+        coalescer = new WriteCoalescer(cases, customers, 1, TimeUnit.HOURS) {
+            @Override
+            void afterWindow(Runnable task, long windowNanos) {
+                windows.add(task);
+            }
+        };
+        coalescer.updateCase(1, new CasePatch().subject("a"));
+        coalescer.flush();
+        succeed(0, new Case());
+
+        coalescer.updateCase(1, new CasePatch().status(CaseStatus.PENDING));
+        // the window of the flushed write closes
+        windows.get(0).run();
+        coalescer.updateCase(1, new CasePatch().addLabels("vip"));
+        assertEquals(1, callCount());
+
+        windows.get(1).run();
+        assertEquals(2, callCount());
+        assertEquals(new CasePatch().status(CaseStatus.PENDING).addLabels("vip"), bodies.get(1));
+        assertEquals(2, windows.size());
+    }
+
+    @Test
+    public void writesToDifferentEntitiesAreNotMerged() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 1, TimeUnit.HOURS);
+        coalescer.updateCase(1, new CasePatch().subject("a"));
+        coalescer.updateCase(2, new CasePatch().subject("b"));
+        coalescer.updateCustomer(1, new CustomerPatch().title("c"));
+        coalescer.flush();
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    public void writesWhileInFlightAreSentAfterInOrder() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 0, TimeUnit.MILLISECONDS);
+        Future<Case> first = coalescer.updateCase(1, new CasePatch().subject("one"));
+        Future<Case> second = coalescer.updateCase(1, new CasePatch().subject("two"));
+        Future<Case> third = coalescer.updateCase(1, new CasePatch().description("three"));
+        assertEquals(1, calls.size());
+
+        Case firstResult = new Case();
+        succeed(0, firstResult);
+        assertSame(firstResult, first.get());
+        assertFalse(second.isDone());
+        assertEquals(2, calls.size());
+        assertEquals(new CasePatch().subject("two").description("three"), bodies.get(1));
+
+        Case secondResult = new Case();
+        succeed(1, secondResult);
+        assertSame(secondResult, second.get());
+        assertSame(secondResult, third.get());
+    }
+
+    @Test
+    public void conflictingLabelActionsAreSentSeparately() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 1, TimeUnit.HOURS);
+        Future<Case> add = coalescer.updateCase(1, new CasePatch().addLabels("a"));
+        Future<Case> remove = coalescer.updateCase(1, new CasePatch().removeLabels("b"));
+        coalescer.flush();
+        assertEquals(1, calls.size());
+        assertEquals(new CasePatch().addLabels("a"), bodies.get(0));
+
+        succeed(0, new Case());
+        assertTrue(add.isDone());
+        assertEquals(2, calls.size());
+        assertEquals(new CasePatch().removeLabels("b"), bodies.get(1));
+        succeed(1, new Case());
+        assertTrue(remove.isDone());
+    }
+
+    @Test
+    public void newerDraftSupersedesDraftInFlight() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 0, TimeUnit.MILLISECONDS);
+        Future<Message> first = coalescer.updateDraft(1, draft("h"));
+        Future<Message> second = coalescer.updateDraft(1, draft("he"));
+        Message latest = draft("hel");
+        Future<Message> third = coalescer.updateDraft(1, latest);
+        assertEquals(1, calls.size());
+
+        succeed(0, draft("h"));
+        assertFalse("a superseded save waits for the newer one", first.isDone());
+        assertEquals(2, calls.size());
+        assertSame(latest, bodies.get(1));
+
+        Message saved = draft("hel");
+        succeed(1, saved);
+        assertSame(saved, first.get());
+        assertSame(saved, second.get());
+        assertSame(saved, third.get());
+        assertEquals(2, coalescer.getRequestCount());
+    }
+
+    @Test
+    public void failedWriteFailsItsCallersAndLaterWritesProceed() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 0, TimeUnit.MILLISECONDS);
+        Future<Case> failed = coalescer.updateCase(1, new CasePatch().subject("one"));
+        Future<Case> next = coalescer.updateCase(1, new CasePatch().subject("two"));
+        respondWithError(0, 422);
+        try {
+            failed.get();
+            fail("expected the write to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getMessage().contains("422"));
+        }
+        assertEquals(2, calls.size());
+        Case result = new Case();
+        succeed(1, result);
+        assertSame(result, next.get());
+    }
+
+    @Test
+    public void closeFlushesAndRejectsNewWrites() throws Exception {
+        coalescer = new WriteCoalescer(cases, customers, 1, TimeUnit.HOURS);
+        coalescer.updateCase(1, new CasePatch().subject("one"));
+        coalescer.close();
+        assertEquals(1, calls.size());
+        try {
+            coalescer.updateCase(1, new CasePatch().subject("two"));
+            fail("expected the closed coalescer to reject writes");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private synchronized int callCount() {
+        return calls.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void succeed(int index, T body) {
+        PendingCall<T> call;
+        synchronized (this) {
+            call = (PendingCall<T>) calls.get(index);
+        }
+        call.respond(Response.success(body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respondWithError(int index, int code) {
+        PendingCall<Object> call;
+        synchronized (this) {
+            call = (PendingCall<Object>) calls.get(index);
+        }
+        call.respond(Response.error(code,
+                ResponseBody.create(MediaType.parse("application/json"), "{}")));
+    }
+
+    private static Message draft(String body) {
+        Message message = new Message();
+        message.setBody(body);
+        return message;
+    }
+
+    private class Recording<T> implements Answer<Call<T>> {
+        @Override
+        public Call<T> answer(InvocationOnMock invocation) throws Throwable {
+            PendingCall<T> call = TestCalls.pending();
+            synchronized (WriteCoalescerTest.this) {
+                calls.add(call);
+                bodies.add(invocation.getArguments()[1]);
+            }
+            return call;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient;
+
+import com.desk.java.apiclient.async.CompletableFutureCallAdapterFactory;
+import com.desk.java.apiclient.service.*;
+import org.jetbrains.annotations.NotNull;
+import retrofit2.CallAdapter.Factory;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ *     Client which interfaces with the Desk API and exposes services returning {@link CompletableFuture}s, see
+ *     {@link CompletableFutureCallAdapterFactory}. Use {@link com.desk.java.apiclient.async.AsyncPages} to fan
+ *     out over pages and ids with bounded concurrency.
+ * </p>
+ *
+ * <p>
+ *     Requests run on the threads of the OkHttp dispatcher, which by default runs at most 64 requests at once and
+ *     5 per host. Pass a {@link okhttp3.Dispatcher} with other limits to
+ *     {@link DeskClientBuilder#dispatcher(okhttp3.Dispatcher)} to change that.
+ * </p>
+ */
+public class AsyncDeskClient extends DeskClient {
+
+    /**
+     * The Retrofit service interfaces exposed by {@link AsyncDeskClient}
+     */
+    static final Class<?>[] ASYNC_SERVICES = {
+            AsyncUserService.class,
+            AsyncSiteService.class,
+            AsyncLabelService.class,
+            AsyncCustomFieldsService.class,
+            AsyncGroupService.class,
+            AsyncMacroService.class,
+            AsyncOutboundMailboxService.class,
+            AsyncFilterService.class,
+            AsyncCaseService.class,
+            AsyncCompanyService.class,
+            AsyncCustomerService.class,
+            AsyncPermissionService.class,
+            AsyncTwitterUserService.class,
+            AsyncTopicService.class,
+            AsyncArticleService.class,
+            AsyncInboundMailboxService.class,
+            AsyncOpportunityStageService.class,
+            AsyncOpportunityService.class,
+            AsyncTwitterAccountService.class,
+            AsyncJobService.class
+    };
+
+    /**
+     * Creates an {@link AsyncDeskClient} using the builder provided and adds a
+     * {@link CompletableFutureCallAdapterFactory}.
+     *
+     * @param builder the builder to use to build the {@link AsyncDeskClient}
+     * @return an {@link AsyncDeskClient}
+     */
+    public static AsyncDeskClient create(DeskClientBuilder builder) {
+        if (builder == null) {
+            throw new IllegalStateException("DeskClientBuilder cannot be null.");
+        }
+        builder.callAdapters(Collections.singletonList((Factory) CompletableFutureCallAdapterFactory.create()));
+        return new AsyncDeskClient(builder);
+    }
+
+    private AsyncDeskClient(DeskClientBuilder builder) {
+        super(builder);
+        warmUp(ASYNC_SERVICES);
+    }
+
+    @NotNull
+    public AsyncUserService usersAsync() {
+        return getService(AsyncUserService.class);
+    }
+
+    @NotNull
+    public AsyncSiteService sitesAsync() {
+        return getService(AsyncSiteService.class);
+    }
+
+    @NotNull
+    public AsyncLabelService labelsAsync() {
+        return getService(AsyncLabelService.class);
+    }
+
+    @NotNull
+    public AsyncCustomFieldsService customFieldsAsync() {
+        return getService(AsyncCustomFieldsService.class);
+    }
+
+    @NotNull
+    public AsyncGroupService groupsAsync() {
+        return getService(AsyncGroupService.class);
+    }
+
+    @NotNull
+    public AsyncMacroService macrosAsync() {
+        return getService(AsyncMacroService.class);
+    }
+
+    @NotNull
+    public AsyncOutboundMailboxService outboundMailboxesAsync() {
+        return getService(AsyncOutboundMailboxService.class);
+    }
+
+    @NotNull
+    public AsyncFilterService filtersAsync() {
+        return getService(AsyncFilterService.class);
+    }
+
+    @NotNull
+    public AsyncCaseService casesAsync() {
+        return getService(AsyncCaseService.class);
+    }
+
+    @NotNull
+    public AsyncCompanyService companiesAsync() {
+        return getService(AsyncCompanyService.class);
+    }
+
+    @NotNull
+    public AsyncCustomerService customersAsync() {
+        return getService(AsyncCustomerService.class);
+    }
+
+    @NotNull
+    public AsyncPermissionService permissionsAsync() {
+        return getService(AsyncPermissionService.class);
+    }
+
+    @NotNull
+    public AsyncTwitterUserService twitterUsersAsync() {
+        return getService(AsyncTwitterUserService.class);
+    }
+
+    @NotNull
+    public AsyncTopicService topicsAsync() {
+        return getService(AsyncTopicService.class);
+    }
+
+    @NotNull
+    public AsyncArticleService articlesAsync() {
+        return getService(AsyncArticleService.class);
+    }
+
+    @NotNull
+    public AsyncInboundMailboxService inboundMailboxesAsync() {
+        return getService(AsyncInboundMailboxService.class);
+    }
+
+    @NotNull
+    public AsyncOpportunityStageService opportunityStagesAsync() {
+        return getService(AsyncOpportunityStageService.class);
+    }
+
+    @NotNull
+    public AsyncOpportunityService opportunitiesAsync() {
+        return getService(AsyncOpportunityService.class);
+    }
+
+    @NotNull
+    public AsyncTwitterAccountService twitterAccountsAsync() {
+        return getService(AsyncTwitterAccountService.class);
+    }
+
+    @NotNull
+    public AsyncJobService jobsAsync() {
+        return getService(AsyncJobService.class);
+    }
+}
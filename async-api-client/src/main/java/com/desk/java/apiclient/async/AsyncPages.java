@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.async;
+
+import com.desk.java.apiclient.model.ApiResponse;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ *     Combinators running many asynchronous requests with a bound on how many are in flight. Requests are started
+ *     from the completion of earlier ones, so no thread waits for them; how many threads run the requests
+ *     themselves is up to the OkHttp {@link okhttp3.Dispatcher} of the client.
+ * </p>
+ *
+ * <p>
+ *     The combined future fails with the first failure and then cancels the requests still in flight. Cancelling
+ *     the combined future cancels them too.
+ * </p>
+ */
+public final class AsyncPages {
+
+    private AsyncPages() {
+    }
+
+    /**
+     * Reads every page of a listing. The first page is read alone to learn the number of entries, then the other
+     * pages are read concurrently.
+     *
+     * @param perPage the page size the page function requests
+     * @param maxConcurrency the most pages read at once
+     * @param page reads the page with the given 1 based number
+     * @param <T> the entry type
+     * @return a future of the entries of all pages in page order
+     */
+    @NotNull
+    public static <T extends Serializable> CompletableFuture<List<T>> allPages(
+            int perPage, int maxConcurrency, @NotNull IntFunction<CompletableFuture<ApiResponse<T>>> page) {
+        checkPositive("perPage", perPage);
+        checkPositive("maxConcurrency", maxConcurrency);
+        return page.apply(1).thenCompose(first -> {
+            int pageCount = (first.getTotalEntries() + perPage - 1) / perPage;
+            if (pageCount <= 1) {
+                return CompletableFuture.completedFuture(first.getEntriesAsList());
+            }
+            List<Integer> rest = new ArrayList<>(pageCount - 1);
+            for (int i = 2; i <= pageCount; i++) {
+                rest.add(i);
+            }
+            return fanOut(rest, maxConcurrency, page::apply).thenApply(pages -> {
+                List<T> entries = new ArrayList<>(first.getEntriesAsList());
+                for (ApiResponse<T> response : pages) {
+                    entries.addAll(response.getEntriesAsList());
+                }
+                return entries;
+            });
+        });
+    }
+
+    /**
+     * Runs the call for every input with at most the given number in flight
+     *
+     * @param inputs the inputs
+     * @param maxConcurrency the most calls in flight
+     * @param call starts the asynchronous call for an input
+     * @param <I> the input type
+     * @param <R> the result type
+     * @return a future of the results in the order of the inputs
+     */
+    @NotNull
+    public static <I, R> CompletableFuture<List<R>> fanOut(
+            @NotNull List<I> inputs, int maxConcurrency,
+            @NotNull Function<? super I, ? extends CompletableFuture<? extends R>> call) {
+        checkPositive("maxConcurrency", maxConcurrency);
+        return new FanOut<I, R>(inputs, maxConcurrency, call).start();
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+    }
+
+    private static final class FanOut<I, R> {
+
+        private final List<I> inputs;
+        private final Function<? super I, ? extends CompletableFuture<? extends R>> call;
+        private final AtomicReferenceArray<R> results;
+        private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+        private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger permits;
+        private final AtomicInteger remaining;
+        /** Requests to drain, only the thread raising it from 0 launches calls */
+        private final AtomicInteger drains = new AtomicInteger();
+        private int next;
+
+        FanOut(List<I> inputs, int maxConcurrency,
+               Function<? super I, ? extends CompletableFuture<? extends R>> call) {
+            this.inputs = inputs;
+            this.call = call;
+            this.results = new AtomicReferenceArray<>(inputs.size());
+            this.permits = new AtomicInteger(maxConcurrency);
+            this.remaining = new AtomicInteger(inputs.size());
+        }
+
+        CompletableFuture<List<R>> start() {
+            if (inputs.isEmpty()) {
+                result.complete(Collections.emptyList());
+                return result;
+            }
+            result.whenComplete((values, failure) -> {
+                if (failure != null) {
+                    for (CompletableFuture<?> future : inFlight) {
+                        future.cancel(true);
+                    }
+                }
+            });
+            drain();
+            return result;
+        }
+
+        /**
+         * Launches calls while permits are left, looping rather than recursing when calls complete immediately
+         */
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (next < inputs.size() && !result.isDone() && permits.get() > 0) {
+                    permits.decrementAndGet();
+                    launch(next++);
+                }
+            } while (drains.decrementAndGet() != 0);
+        }
+
+        private void launch(int index) {
+            CompletableFuture<? extends R> future;
+            try {
+                future = call.apply(inputs.get(index));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            inFlight.add(future);
+            future.whenComplete((value, failure) -> {
+                inFlight.remove(future);
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                    return;
+                }
+                results.set(index, value);
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(toList());
+                } else {
+                    permits.incrementAndGet();
+                    drain();
+                }
+            });
+            if (result.isDone()) {
+                // failed or cancelled while this call was being started
+                future.cancel(true);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<R> toList() {
+            Object[] values = new Object[results.length()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = results.get(i);
+            }
+            return (List<R>) Arrays.asList(values);
+        }
+
+        private static Throwable unwrap(Throwable failure) {
+            return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        }
+    }
+}
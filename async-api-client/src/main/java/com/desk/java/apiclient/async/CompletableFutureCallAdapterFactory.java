@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.async;
+
+import com.desk.java.apiclient.util.HttpException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     {@link CallAdapter.Factory} for service methods returning {@link CompletableFuture}. The request is enqueued
+ *     when the method is called and never blocks the caller.
+ * </p>
+ *
+ * <p>
+ *     A {@code CompletableFuture<T>} completes with the body of a successful response and fails with an
+ *     {@link HttpException} otherwise, a {@code CompletableFuture<Response<T>>} completes with every response and
+ *     only fails when the request does. Cancelling the future returned by the service cancels the OkHttp call;
+ *     futures derived from it with {@code thenApply} and the like do not pass cancellation back.
+ * </p>
+ */
+public final class CompletableFutureCallAdapterFactory extends CallAdapter.Factory {
+
+    public static CompletableFutureCallAdapterFactory create() {
+        return new CompletableFutureCallAdapterFactory();
+    }
+
+    private CompletableFutureCallAdapterFactory() {
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != CompletableFuture.class) {
+            return null;
+        }
+        if (!(returnType instanceof ParameterizedType)) {
+            throw new IllegalStateException("CompletableFuture return type must be parameterized as "
+                    + "CompletableFuture<Foo> or CompletableFuture<? extends Foo>");
+        }
+        Type innerType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        if (getRawType(innerType) != Response.class) {
+            return new BodyCallAdapter(innerType);
+        }
+        if (!(innerType instanceof ParameterizedType)) {
+            throw new IllegalStateException("Response must be parameterized as Response<Foo> or "
+                    + "Response<? extends Foo>");
+        }
+        return new ResponseCallAdapter(getParameterUpperBound(0, (ParameterizedType) innerType));
+    }
+
+    private static final class BodyCallAdapter implements CallAdapter<CompletableFuture<?>> {
+
+        private final Type responseType;
+
+        BodyCallAdapter(Type responseType) {
+            this.responseType = responseType;
+        }
+
+        @Override
+        public Type responseType() {
+            return responseType;
+        }
+
+        @Override
+        public <R> CompletableFuture<R> adapt(Call<R> call) {
+            CallFuture<R> future = new CallFuture<>(call);
+            call.enqueue(new Callback<R>() {
+                @Override
+                public void onResponse(Call<R> call, Response<R> response) {
+                    if (response.isSuccessful()) {
+                        future.complete(response.body());
+                    } else {
+                        future.completeExceptionally(new HttpException(response));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<R> call, Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+            return future;
+        }
+    }
+
+    private static final class ResponseCallAdapter implements CallAdapter<CompletableFuture<?>> {
+
+        private final Type responseType;
+
+        ResponseCallAdapter(Type responseType) {
+            this.responseType = responseType;
+        }
+
+        @Override
+        public Type responseType() {
+            return responseType;
+        }
+
+        @Override
+        public <R> CompletableFuture<Response<R>> adapt(Call<R> call) {
+            CallFuture<Response<R>> future = new CallFuture<>(call);
+            call.enqueue(new Callback<R>() {
+                @Override
+                public void onResponse(Call<R> call, Response<R> response) {
+                    future.complete(response);
+                }
+
+                @Override
+                public void onFailure(Call<R> call, Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+            return future;
+        }
+    }
+
+    /**
+     * Cancels the call when cancelled
+     */
+    private static final class CallFuture<T> extends CompletableFuture<T> {
+
+        private final Call<?> call;
+
+        CallFuture(Call<?> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                call.cancel();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.service;
+
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Attachment;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.CasePatch;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.MacroResponse;
+import com.desk.java.apiclient.model.Message;
+import com.desk.java.apiclient.model.SortDirection;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.desk.java.apiclient.service.CaseService.ATTACHMENTS_URI;
+import static com.desk.java.apiclient.service.CaseService.CASES_URI;
+import static com.desk.java.apiclient.service.CaseService.DRAFT_URI;
+import static com.desk.java.apiclient.service.CaseService.FILTERS_URI;
+import static com.desk.java.apiclient.service.CaseService.MACROS_URI;
+import static com.desk.java.apiclient.service.CaseService.NOTE_URI;
+import static com.desk.java.apiclient.service.CaseService.REPLIES_URI;
+
+/**
+ * <p>
+ *     Service interfacing with the Desk Cases endpoint. {@link #createCaseAsync(Case, Embed, Fields)}
+ *     &amp; {@link #createCaseAsync(Case, Embed, Fields)} support
+ *     {@link DeskClientBuilder.AuthType#API_TOKEN} authentication
+ * </p>
+ *
+ * @see <a href="http://dev.desk.com/API/cases/">http://dev.desk.com/API/cases/</a>
+ */
+public interface AsyncCaseService {
+
+    /**
+     * Retrieves cases for a given filter
+     * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/cases/#list</a>
+     *
+     * @param filterId the id of the filter
+     * @param perPage the total filters per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return a case api response
+     */
+    @GET(FILTERS_URI + "/{id}/" + CASES_URI)
+    CompletableFuture<ApiResponse<Case>> getCasesByFilterAsync(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
+                                                               @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                               @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves cases for a given customer
+     * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/cases/#list</a>
+     *
+     * @param customerId the id of the customer
+     * @param perPage the total filters per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return a case api response
+     */
+    @GET(CASES_URI)
+    CompletableFuture<ApiResponse<Case>> getCasesByCustomerAsync(@Query("customer_id") long customerId, @Query("per_page") int perPage, @Query("page") int page,
+                                                               @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                               @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves cases for a given company
+     * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/cases/#list</a>
+     *
+     * @param companyId the id of the company
+     * @param perPage the total filters per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return a case api response
+     */
+    @GET(CASES_URI)
+    CompletableFuture<ApiResponse<Case>> getCasesByCompanyAsync(@Query("company_id") long companyId, @Query("per_page") int perPage, @Query("page") int page,
+                                                               @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                               @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Searches for cases provided a query
+     * @see <a href="http://dev.desk.com/API/cases/#search">http://dev.desk.com/API/cases/#search</a>
+     *
+     * @param query the query to search for
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return a case api response
+     */
+    @GET(CASES_URI + "/search")
+    CompletableFuture<ApiResponse<Case>> searchCasesAsync(@Query("q") String query, @Query("per_page") int perPage, @Query("page") int page,
+                                       @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                       @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of cases for a given filter without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param filterId the id of the filter
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(FILTERS_URI + "/{id}/" + CASES_URI)
+    CompletableFuture<ResponseBody> getCasesByFilterRawAsync(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
+                                                             @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                             @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of cases for a given customer without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param customerId the id of the customer
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(CASES_URI)
+    CompletableFuture<ResponseBody> getCasesByCustomerRawAsync(@Query("customer_id") long customerId, @Query("per_page") int perPage, @Query("page") int page,
+                                                               @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                               @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Retrieves the raw json of a page of cases matching a query without binding it to models. The body is
+     * streamed and must be closed by the caller.
+     * @see com.desk.java.apiclient.stream.NdjsonPassthrough
+     *
+     * @param query the query to search for
+     * @param perPage the total cases per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the raw response body
+     */
+    @Streaming
+    @GET(CASES_URI + "/search")
+    CompletableFuture<ResponseBody> searchCasesRawAsync(@Query("q") String query, @Query("per_page") int perPage, @Query("page") int page,
+                                                        @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                                        @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Gets the case by id
+     * @see <a href="http://dev.desk.com/API/cases/#show">http://dev.desk.com/API/cases/#show</a>
+     *
+     * @param caseId the id of the case
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return a case
+     */
+    @GET(CASES_URI + "/{id}")
+    CompletableFuture<Case> getCaseByIdAsync(@Path("id") long caseId, @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Locks or unlocks a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param caseLock the case lock
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseLockAsync(@Path("id") long caseId, @Body CaseLock caseLock);
+
+    /**
+     * Locks or unlocks a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param caseLock the case lock
+     * @param embed  what to embed
+     * @param fields the fields requested
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseLockAsync(@Path("id") long caseId, @Body CaseLock caseLock, @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Updates a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param updatedCase the updated case
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseAsync(@Path("id") long caseId, @Body Case updatedCase);
+
+    /**
+     * Updates a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param updatedCase the updated case
+     * @param embed what to embed in the response
+     * @param fields the fields requested in the response
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseAsync(@Path("id") long caseId, @Body Case updatedCase, @Query("embed") Embed embed,
+                                      @Query("fields") Fields fields);
+
+    /**
+     * Updates a case sending only the changed fields
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param patch the changes
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseAsync(@Path("id") long caseId, @Body CasePatch patch);
+
+    /**
+     * Updates a case sending only the changed fields
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     *
+     * @param caseId the id of the case
+     * @param patch the changes
+     * @param embed what to embed in the response
+     * @param fields the fields requested in the response
+     * @return a case
+     */
+    @PATCH(CASES_URI + "/{id}")
+    CompletableFuture<Case> updateCaseAsync(@Path("id") long caseId, @Body CasePatch patch, @Query("embed") Embed embed,
+                                      @Query("fields") Fields fields);
+
+    /**
+     * Creates a case
+     * @param newCase the case to create
+     * @param embed the fields to embed in the case response
+     * @param fields the fields to return in the case response
+     * @return the created case
+     */
+    @POST(CASES_URI)
+    CompletableFuture<Case> createCaseAsync(@Body Case newCase, @Query("embed") Embed embed, @Query("fields") Fields fields);
+
+    /**
+     * Updates a case message
+     * @see <a href="http://dev.desk.com/API/cases/#message-update">http://dev.desk.com/API/cases/#message-update</a>
+     *
+     * @param caseId the id of the case
+     * @param updatedMessage the updated message
+     * @return a message
+     */
+    @PATCH(CASES_URI + "/{id}/message")
+    CompletableFuture<Message> updateCaseMessageAsync(@Path("id") long caseId, @Body Message updatedMessage);
+
+    /**
+     * Updates a case reply
+     * @see <a href="http://dev.desk.com/API/cases/#replies-update">http://dev.desk.com/API/cases/#replies-update</a>
+     *
+     * @param caseId the id of the case
+     * @param replyId the id of the reply
+     * @param updatedReply the updated reply
+     * @return a message
+     */
+    @PATCH(CASES_URI + "/{caseId}/" + REPLIES_URI + "/{replyId}")
+    CompletableFuture<Message> updateCaseReplyAsync(@Path("caseId") long caseId, @Path("replyId") long replyId, @Body Message updatedReply);
+
+    /**
+     * Retrieves a case's feed
+     * @see <a href="http://dev.desk.com/API/cases/#feed">http://dev.desk.com/API/cases/#feed</a>
+     *
+     * @param caseId the id of the case
+     * @param perPage the total filters per page
+     * @param page the page requested
+     * @param sortDirection the direction to sort
+     * @return a response
+     */
+    @GET(CASES_URI + "/{id}/feed")
+    CompletableFuture<ApiResponse<Message>> getCaseFeedAsync(@Path("id") long caseId, @Query("per_page") int perPage, @Query("page") int page,
+                                       @Query("sort_direction") SortDirection sortDirection);
+
+    /**
+     * Retrieves a draft for a case if it exists
+     * @see <a href="http://dev.desk.com/API/cases/#drafts-show">http://dev.desk.com/API/cases/#drafts-show</a>
+     *
+     * @param caseId the id of the case
+     * @param embed what to embed
+     * @return a message
+     */
+    @GET(CASES_URI + "/{id}/" + DRAFT_URI)
+    CompletableFuture<Message> getDraftAsync(@Path("id") long caseId, @Query("embed") Embed embed);
+
+    /**
+     * Creates a draft
+     * @see <a href="http://dev.desk.com/API/cases/#drafts-create">http://dev.desk.com/API/cases/#drafts-create</a>
+     *
+     * @param caseId the id of the case
+     * @return a message
+     */
+    @POST(CASES_URI + "/{id}/" + DRAFT_URI)
+    CompletableFuture<Message> createDraftAsync(@Path("id") long caseId);
+
+    /**
+     * Updates a draft
+     * @see <a href="http://dev.desk.com/API/cases/#drafts-update">http://dev.desk.com/API/cases/#drafts-update</a>
+     *
+     * @param caseId the id of the case
+     * @param draft the updated draft
+     * @return a message
+     */
+    @PATCH(CASES_URI + "/{id}/" + DRAFT_URI)
+    CompletableFuture<Message> updateDraftAsync(@Path("id") long caseId, @Body Message draft);
+
+    /**
+     * Creates a note
+     * @see <a href="http://dev.desk.com/API/cases/#notes-create">http://dev.desk.com/API/cases/#notes-create</a>
+     *
+     * @param caseId the id of the case
+     * @param note the note to create
+     * @return a message
+     */
+    @POST(CASES_URI + "/{id}/" + NOTE_URI)
+    CompletableFuture<Message> createNoteAsync(@Path("id") long caseId, @Body Message note);
+
+    /**
+     * Retrieves a preview for applying a set of macros to a case
+     * @see <a href="http://dev.desk.com/API/cases/#macros-preview">http://dev.desk.com/API/cases/#macros-preview</a>
+     *
+     * @param caseId the id of the case
+     * @param body the desk case body
+     * @return a macro response
+     */
+    @POST(CASES_URI + "/{id}/" + MACROS_URI + "/preview")
+    CompletableFuture<MacroResponse> previewMacroAsync(@Path("id") long caseId, @Body Case body);
+
+    /**
+     * Retrieves a paginated list of all attachments for a case
+     * @see <a href="http://dev.desk.com/API/cases/#attachments-list">http://dev.desk.com/API/cases/#attachments-list</a>
+     *
+     * @param caseId the id of the case
+     * @param perPage the total attachments per page
+     * @param page the page requested
+     * @return an attachment api response
+     */
+    @GET(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
+    CompletableFuture<ApiResponse<Attachment>> getAttachmentsAsync(@Path("id") long caseId, @Query("per_page") int perPage, @Query("page") int page);
+
+    /**
+     * Creates an attachment on a case
+     * @see <a href="http://dev.desk.com/API/cases/#attachments-create">http://dev.desk.com/API/cases/#attachments-create</a>
+     *
+     * @param caseId the id of the case
+     * @param attachment the attachment json body, see {@link com.desk.java.apiclient.attachment.AttachmentRequestBody}
+     * @return the created attachment
+     */
+    @POST(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
+    CompletableFuture<Attachment> createAttachmentAsync(@Path("id") long caseId, @Body RequestBody attachment);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.service;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.BulkCaseUpdateRequest;
+import com.desk.java.apiclient.model.Job;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.desk.java.apiclient.service.JobService.JOBS_URI;
+
+/**
+ * <p>
+ *   Service interfacing with the Desk Jobs endpoint.
+ * </p>
+ *
+ * @see <a href="http://dev.desk.com/API/jobs/">http://dev.desk.com/API/jobs/</a>
+ */
+
+public interface AsyncJobService {
+
+  /**
+   * Retrieve a single job
+   * @see <a href="http://dev.desk.com/API/jobs/#show">http://dev.desk.com/API/jobs/#show</a>
+   *
+   * @param jobId the id of the job
+   * @return the job
+   */
+  @GET(JOBS_URI + "/{id}")
+  CompletableFuture<Job> getJobByIdAsync(@Path("id") long jobId);
+
+  /**
+   * Retrieves a paginated list of all jobs
+   * @see <a href="http://dev.desk.com/API/jobs/#list">http://dev.desk.com/API/jobs/#list</a>
+   *
+   * @param perPage the total jobs per page
+   * @param page the page requested
+   * @return a job api response
+   */
+  @GET(JOBS_URI)
+  CompletableFuture<ApiResponse<Job>> getJobsAsync(@Query("per_page") int perPage, @Query("page") int page);
+
+  /**
+   * Create a bulk case update background job
+   * @see <a href="http://dev.desk.com/API/jobs/#create">http://dev.desk.com/API/jobs/#create</a>
+   *
+   * @param request the bulk case update request
+   * @return the job
+   */
+  @POST(JOBS_URI)
+  CompletableFuture<Job> createBulkCaseUpdateJobAsync(@Body BulkCaseUpdateRequest request);
+}
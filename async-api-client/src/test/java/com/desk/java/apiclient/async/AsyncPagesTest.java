@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.async;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Label;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class AsyncPagesTest {
+
+    @Test
+    public void fanOutKeepsInputOrder() throws Exception {
+        Map<Integer, CompletableFuture<String>> started = new ConcurrentHashMap<>();
+        CompletableFuture<List<String>> result = AsyncPages.fanOut(Arrays.asList(1, 2, 3), 3, i -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            started.put(i, future);
+            return future;
+        });
+        started.get(3).complete("c");
+        started.get(1).complete("a");
+        assertFalse(result.isDone());
+        started.get(2).complete("b");
+        assertEquals(Arrays.asList("a", "b", "c"), result.get());
+    }
+
+    @Test
+    public void fanOutBoundsCallsInFlight() throws Exception {
+        List<CompletableFuture<Integer>> started = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<List<Integer>> result = AsyncPages.fanOut(Arrays.asList(0, 1, 2, 3, 4), 2, i -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            started.add(future);
+            return future;
+        });
+        assertEquals(2, started.size());
+        started.get(0).complete(0);
+        assertEquals(3, started.size());
+        started.get(1).complete(1);
+        started.get(2).complete(2);
+        assertEquals(5, started.size());
+        started.get(3).complete(3);
+        started.get(4).complete(4);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), result.get());
+    }
+
+    @Test
+    public void fanOutOfImmediateResultsDoesNotRecurse() throws Exception {
+        List<Integer> inputs = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+        List<Integer> results = AsyncPages.fanOut(inputs, 4, CompletableFuture::completedFuture).get();
+        assertEquals(inputs, results);
+    }
+
+    @Test
+    public void firstFailureFailsAndCancelsTheRest() throws Exception {
+        List<CompletableFuture<Integer>> started = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<List<Integer>> result = AsyncPages.fanOut(Arrays.asList(0, 1, 2, 3), 2, i -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            started.add(future);
+            return future;
+        });
+        started.get(0).completeExceptionally(new IOException("boom"));
+        try {
+            result.get();
+            fail("expected the fan out to fail");
+        } catch (ExecutionException e) {
+            assertEquals("boom", e.getCause().getMessage());
+        }
+        assertTrue(started.get(1).isCancelled());
+        assertEquals("no calls start after a failure", 2, started.size());
+    }
+
+    @Test
+    public void cancellingTheResultCancelsCallsInFlight() throws Exception {
+        List<CompletableFuture<Integer>> started = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<List<Integer>> result = AsyncPages.fanOut(Arrays.asList(0, 1), 2, i -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            started.add(future);
+            return future;
+        });
+        result.cancel(true);
+        assertTrue(started.get(0).isCancelled());
+        assertTrue(started.get(1).isCancelled());
+    }
+
+    @Test
+    public void allPagesReadsRemainingPagesAfterTheFirst() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CompletableFuture<List<Label>> result = AsyncPages.allPages(2, 4, page -> {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture(page(5, page == 3 ? new String[] { "e" }
+                    : new String[] { "p" + page + "a", "p" + page + "b" }));
+        });
+        List<String> names = result.get(5, TimeUnit.SECONDS).stream().map(Label::getName)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("p1a", "p1b", "p2a", "p2b", "e"), names);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void allPagesOfSinglePageListing() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        List<Label> labels = AsyncPages.allPages(50, 4, page -> {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture(page(1, new String[] { "only" }));
+        }).get();
+        assertEquals(1, labels.size());
+        assertEquals(1, requests.get());
+    }
+
+    private static ApiResponse<Label> page(int totalEntries, String[] names) {
+        Label[] labels = new Label[names.length];
+        for (int i = 0; i < names.length; i++) {
+            labels[i] = new Label();
+            labels[i].setName(names[i]);
+        }
+        Entries<Label> entries = new Entries<>();
+        entries.setEntries(labels);
+        ApiResponse<Label> response = new ApiResponse<>();
+        response.setTotalEntries(totalEntries);
+        response.setEmbeddedList(entries);
+        return response;
+    }
+}
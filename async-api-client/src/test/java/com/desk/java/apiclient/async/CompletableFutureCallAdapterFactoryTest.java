@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.async;
+
+import com.desk.java.apiclient.AsyncDeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.service.AsyncCaseService;
+import com.desk.java.apiclient.util.HttpException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CompletableFutureCallAdapterFactoryTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private volatile int code;
+    private volatile String body;
+    private Interceptor server;
+    private AsyncCaseService cases;
+
+    @Before
+    public void setUp() throws Exception {
+        server = chain -> new okhttp3.Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .body(ResponseBody.create(JSON, body))
+                .build();
+        AsyncDeskClient client = AsyncDeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.singletonList(server)));
+        cases = client.casesAsync();
+    }
+
+    @Test
+    public void futureCompletesWithBody() throws Exception {
+        code = 200;
+        body = "{\"id\":7,\"subject\":\"Hello\"}";
+        Case c = cases.getCaseByIdAsync(7, null, null).get(5, TimeUnit.SECONDS);
+        assertEquals(7, c.getId());
+        assertEquals("Hello", c.getSubject());
+    }
+
+    @Test
+    public void errorStatusFailsWithHttpException() throws Exception {
+        code = 404;
+        body = "{\"message\":\"Resource Not Found\"}";
+        try {
+            cases.getCaseByIdAsync(7, null, null).get(5, TimeUnit.SECONDS);
+            fail("expected the future to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof HttpException);
+            assertEquals(404, ((HttpException) e.getCause()).getCode());
+        }
+    }
+
+    @Test
+    public void responseFutureCompletesWithErrorResponse() throws Exception {
+        code = 404;
+        body = "{}";
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("https://test.desk.com/api/v2/")
+                .client(new OkHttpClient.Builder().addInterceptor(server).build())
+                .addConverterFactory(GsonConverterFactory.create())
+                .addCallAdapterFactory(CompletableFutureCallAdapterFactory.create())
+                .build();
+        Response<Case> response = retrofit.create(Cases.class).getCase(7).get(5, TimeUnit.SECONDS);
+        assertEquals(404, response.code());
+        assertNull(response.body());
+    }
+
+    @Test
+    public void cancellingTheFutureCancelsTheCall() throws Exception {
+        @SuppressWarnings("unchecked")
+        Call<Object> call = mock(Call.class);
+        CallAdapter<?> adapter = CompletableFutureCallAdapterFactory.create()
+                .get(returnType("bodyOf"), new Annotation[0], null);
+        CompletableFuture<?> future = (CompletableFuture<?>) adapter.adapt(call);
+        assertTrue(future.cancel(true));
+        verify(call).cancel();
+    }
+
+    @Test
+    public void otherReturnTypesAreNotAdapted() throws Exception {
+        assertNull(CompletableFutureCallAdapterFactory.create().get(Case.class, new Annotation[0], null));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rawFutureIsRejected() throws Exception {
+        CompletableFutureCallAdapterFactory.create().get(CompletableFuture.class, new Annotation[0], null);
+    }
+
+    private static Type returnType(String method) throws NoSuchMethodException {
+        return Signatures.class.getDeclaredMethod(method).getGenericReturnType();
+    }
+
+    private interface Signatures {
+        CompletableFuture<Case> bodyOf();
+    }
+
+    private interface Cases {
+        @GET("cases/{id}")
+        CompletableFuture<Response<Case>> getCase(@Path("id") long id);
+    }
+}
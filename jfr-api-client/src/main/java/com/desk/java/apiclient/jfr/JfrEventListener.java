@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.jfr;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.metrics.Endpoint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+
+import jdk.jfr.EventType;
+
+/**
+ * <p>
+ *     Emits the activity of a client as Java Flight Recorder events, so Desk calls show up on the same timeline
+ *     as garbage collections, lock contention and socket reads:
+ * </p>
+ *
+ * <ul>
+ *     <li>{@code com.desk.ApiCall} for every call with its endpoint template, status, sizes and whether it was
+ *     a retry</li>
+ *     <li>{@code com.desk.Deserialization} for every response body converted, with the entity type and bytes</li>
+ *     <li>{@code com.desk.RateLimitWait} for every request delayed by a rate budget</li>
+ *     <li>{@code com.desk.CacheLookup} for every hit or miss of the off heap cache</li>
+ * </ul>
+ *
+ * <p>
+ *     Every event carries the hostname of the client. Install it with
+ *     {@code builder.eventListener(JfrEventListener.FACTORY)}. While no recording enables an event type the
+ *     listener returns before allocating anything, so the cost is a field read per call.
+ * </p>
+ */
+public class JfrEventListener extends DeskEventListener {
+
+    /** Creates a listener per client carrying its hostname */
+    public static final DeskEventListener.Factory FACTORY = client -> new JfrEventListener(client.getHostname());
+
+    private static final EventType CALL = EventType.getEventType(DeskCallEvent.class);
+    private static final EventType DESERIALIZATION = EventType.getEventType(DeskDeserializationEvent.class);
+    private static final EventType RATE_LIMIT_WAIT = EventType.getEventType(DeskRateLimitWaitEvent.class);
+    private static final EventType CACHE = EventType.getEventType(DeskCacheEvent.class);
+
+    private final String hostname;
+
+    /**
+     * @param hostname the hostname carried by the events
+     */
+    public JfrEventListener(@NotNull String hostname) {
+        this.hostname = hostname;
+    }
+
+    @Nullable
+    @Override
+    public Object callStart(@NotNull Endpoint endpoint) {
+        if (!CALL.isEnabled()) {
+            return null;
+        }
+        DeskCallEvent event = new DeskCallEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void callEnd(@Nullable Object call, @NotNull Endpoint endpoint, int status, long requestBytes,
+                        long responseBytes, boolean retry) {
+        if (call instanceof DeskCallEvent) {
+            DeskCallEvent event = (DeskCallEvent) call;
+            event.end();
+            if (event.shouldCommit()) {
+                fill(event, endpoint, retry);
+                event.status = status;
+                event.requestBytes = requestBytes;
+                event.responseBytes = responseBytes;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void callFailed(@Nullable Object call, @NotNull Endpoint endpoint, @NotNull Throwable error,
+                           boolean retry) {
+        if (call instanceof DeskCallEvent) {
+            DeskCallEvent event = (DeskCallEvent) call;
+            event.end();
+            if (event.shouldCommit()) {
+                fill(event, endpoint, retry);
+                event.failure = error.toString();
+                event.commit();
+            }
+        }
+    }
+
+    private void fill(DeskCallEvent event, Endpoint endpoint, boolean retry) {
+        event.hostname = hostname;
+        event.endpoint = endpoint.getHttpMethod() + ' ' + endpoint.getTemplate();
+        event.retry = retry;
+    }
+
+    @Nullable
+    @Override
+    public Object deserializeStart(@NotNull Type type) {
+        if (!DESERIALIZATION.isEnabled()) {
+            return null;
+        }
+        DeskDeserializationEvent event = new DeskDeserializationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void deserializeEnd(@Nullable Object deserialization, @NotNull Type type, long bytes) {
+        if (deserialization instanceof DeskDeserializationEvent) {
+            DeskDeserializationEvent event = (DeskDeserializationEvent) deserialization;
+            event.end();
+            if (event.shouldCommit()) {
+                event.hostname = hostname;
+                event.entityType = type.getTypeName();
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void rateLimitWait(long waitNanos) {
+        if (RATE_LIMIT_WAIT.isEnabled()) {
+            DeskRateLimitWaitEvent event = new DeskRateLimitWaitEvent();
+            event.hostname = hostname;
+            event.wait = waitNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void cacheHit(@NotNull Class<?> type, long id) {
+        cacheLookup(type, id, true);
+    }
+
+    @Override
+    public void cacheMiss(@NotNull Class<?> type, long id) {
+        cacheLookup(type, id, false);
+    }
+
+    private void cacheLookup(Class<?> type, long id, boolean hit) {
+        if (CACHE.isEnabled()) {
+            DeskCacheEvent event = new DeskCacheEvent();
+            event.hostname = hostname;
+            event.entityType = type.getName();
+            event.id = id;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.jfr;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class JfrEventListenerTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String CASE = "{\"id\":1,\"subject\":\"Printer on fire\"}";
+
+    private DeskClient client;
+
+    @Before
+    public void setUp() {
+        client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new FakeServer()))
+                .eventListener(JfrEventListener.FACTORY));
+    }
+
+    @Test
+    public void recordsCallsAndDeserialization() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            client.cases().getCaseById(1, null, null).execute();
+            client.cases().getCaseById(404, null, null).execute();
+        });
+
+        List<RecordedEvent> calls = ofType(events, "com.desk.ApiCall");
+        assertEquals(2, calls.size());
+        RecordedEvent call = calls.get(0);
+        assertEquals("test.desk.com", call.getString("hostname"));
+        assertEquals("GET cases/{id}", call.getString("endpoint"));
+        assertEquals(200, call.getInt("status"));
+        assertEquals(CASE.length(), call.getLong("responseBytes"));
+        assertFalse(call.getBoolean("retry"));
+        assertEquals(404, calls.get(1).getInt("status"));
+
+        List<RecordedEvent> deserializations = ofType(events, "com.desk.Deserialization");
+        assertEquals(1, deserializations.size());
+        assertEquals(Case.class.getName(), deserializations.get(0).getString("entityType"));
+        assertEquals(CASE.length(), deserializations.get(0).getLong("bytes"));
+    }
+
+    @Test
+    public void recordsFailuresAndRetries() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            retrofit2.Call<Case> call = client.cases().getCaseById(0, null, null);
+            try {
+                call.execute();
+                fail("expected the call to fail");
+            } catch (IOException expected) {
+                // the fake server fails case 0
+            }
+            try {
+                call.clone().execute();
+                fail("expected the retry to fail");
+            } catch (IOException expected) {
+                // the fake server fails case 0
+            }
+        });
+
+        List<RecordedEvent> calls = ofType(events, "com.desk.ApiCall");
+        assertEquals(2, calls.size());
+        assertEquals("java.io.IOException: connection reset", calls.get(0).getString("failure"));
+        assertFalse(calls.get(0).getBoolean("retry"));
+        assertTrue(calls.get(1).getBoolean("retry"));
+    }
+
+    @Test
+    public void recordsRateLimitWaitsAndCacheLookups() throws Exception {
+        final DeskEventListener listener = client.getEventListener();
+        List<RecordedEvent> events = record(() -> {
+            listener.rateLimitWait(1000000);
+            listener.cacheHit(Case.class, 1);
+            listener.cacheMiss(Case.class, 2);
+        });
+
+        RecordedEvent wait = ofType(events, "com.desk.RateLimitWait").get(0);
+        assertEquals(1, wait.getDuration("wait").toMillis());
+        List<RecordedEvent> lookups = ofType(events, "com.desk.CacheLookup");
+        assertEquals(2, lookups.size());
+        assertTrue(lookups.get(0).getBoolean("hit"));
+        assertEquals(2, lookups.get(1).getLong("id"));
+        assertFalse(lookups.get(1).getBoolean("hit"));
+    }
+
+    @Test
+    public void skipsBookkeepingWhileNotRecording() {
+        assertNull(client.getEventListener().callStart(null));
+        assertNull(client.getEventListener().deserializeStart(Case.class));
+    }
+
+    private interface Activity {
+        void run() throws Exception;
+    }
+
+    private static List<RecordedEvent> record(Activity activity) throws Exception {
+        Path file = Files.createTempFile("desk", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.desk.ApiCall").withoutThreshold();
+            recording.enable("com.desk.Deserialization").withoutThreshold();
+            recording.enable("com.desk.RateLimitWait");
+            recording.enable("com.desk.CacheLookup");
+            recording.start();
+            activity.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                matching.add(event);
+            }
+        }
+        matching.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        return matching;
+    }
+
+    /**
+     * Answers case reads, failing case 0 and returning 404 for case 404
+     */
+    private static final class FakeServer implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            if (path.endsWith("/cases/0")) {
+                throw new IOException("connection reset");
+            }
+            int code = path.endsWith("/cases/404") ? 404 : 200;
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .header("Content-Length", String.valueOf(CASE.length()))
+                    .body(ResponseBody.create(JSON, CASE))
+                    .build();
+        }
+    }
+}
@@ -26,11 +26,19 @@
 
 package com.desk.java.apiclient;
 
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.rx.RxBatchConfig;
+import com.desk.java.apiclient.rx.RxCaseBatch;
+import com.desk.java.apiclient.rx.RxCustomerBatch;
+import com.desk.java.apiclient.rx.RxPages;
 import com.desk.java.apiclient.service.*;
 import org.jetbrains.annotations.NotNull;
 import retrofit2.CallAdapter.Factory;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import rx.Observable;
+import rx.functions.Func1;
 
+import java.io.Serializable;
 import java.util.Collections;
 
 /**
@@ -43,26 +51,34 @@ import java.util.Collections;
  */
 public class RxDeskClient extends DeskClient {
 
-    private RxUserService rxUserService;
-    private RxSiteService rxSiteService;
-    private RxLabelService rxLabelService;
-    private RxCustomFieldsService rxCustomFieldsService;
-    private RxGroupService rxGroupService;
-    private RxMacroService rxMacroService;
-    private RxOutboundMailboxService rxOutboundMailboxService;
-    private RxFilterService rxFilterService;
-    private RxCaseService rxCaseService;
-    private RxCompanyService rxCompanyService;
-    private RxCustomerService rxCustomerService;
-    private RxPermissionService rxPermissionService;
-    private RxTwitterUserService rxTwitterUserService;
-    private RxTopicService rxTopicService;
-    private RxArticleService rxArticleService;
-    private RxInboundMailboxService rxInboundMailboxService;
-    private RxOpportunityStageService rxOpportunityStageService;
-    private RxOpportunityService rxOpportunityService;
-    private RxTwitterAccountService rxTwitterAccountService;
-    private RxJobService rxJobService;
+    /**
+     * The Retrofit service interfaces exposed by {@link RxDeskClient}
+     */
+    static final Class<?>[] RX_SERVICES = {
+            RxUserService.class,
+            RxSiteService.class,
+            RxLabelService.class,
+            RxCustomFieldsService.class,
+            RxGroupService.class,
+            RxMacroService.class,
+            RxOutboundMailboxService.class,
+            RxFilterService.class,
+            RxCaseService.class,
+            RxCompanyService.class,
+            RxCustomerService.class,
+            RxPermissionService.class,
+            RxTwitterUserService.class,
+            RxTopicService.class,
+            RxArticleService.class,
+            RxInboundMailboxService.class,
+            RxOpportunityStageService.class,
+            RxOpportunityService.class,
+            RxTwitterAccountService.class,
+            RxJobService.class
+    };
+
+    private final RxBatchConfig batchConfig;
+
 
     /**
      * Creates a {@link RxDeskClient} using the builder provided and adds a {@link RxJavaCallAdapterFactory}.
@@ -71,174 +87,171 @@ public class RxDeskClient extends DeskClient {
      * @return a {@link RxDeskClient}
      */
     public static RxDeskClient create(DeskClientBuilder builder) {
+        return create(builder, new RxBatchConfig());
+    }
+
+    /**
+     * Creates a {@link RxDeskClient} using the builder provided and adds a {@link RxJavaCallAdapterFactory}. The
+     * service observables still run on the subscribing thread, the batch operators such as
+     * {@link #caseBatchRx()} use the schedulers and rate budget of the config.
+     *
+     * @param builder the builder to use to build the {@link RxDeskClient}
+     * @param batchConfig the settings of the batch operators
+     * @return a {@link RxDeskClient}
+     */
+    public static RxDeskClient create(DeskClientBuilder builder, RxBatchConfig batchConfig) {
         if (builder == null) {
             throw new IllegalStateException("DeskClientBuilder cannot be null.");
         }
+        if (batchConfig == null) {
+            throw new IllegalStateException("RxBatchConfig cannot be null.");
+        }
         builder.callAdapters(Collections.singletonList((Factory) RxJavaCallAdapterFactory.create()));
-        return new RxDeskClient(builder);
+        return new RxDeskClient(builder, batchConfig);
     }
 
-    private RxDeskClient(DeskClientBuilder builder) {
+    private RxDeskClient(DeskClientBuilder builder, RxBatchConfig batchConfig) {
         super(builder);
+        this.batchConfig = batchConfig;
+        warmUp(RX_SERVICES);
     }
 
     @NotNull
     public RxUserService usersRx() {
-        if (rxUserService == null) {
-            rxUserService = getRestAdapter().create(RxUserService.class);
-        }
-        return rxUserService;
+        return getService(RxUserService.class);
     }
 
     @NotNull
     public RxSiteService sitesRx() {
-        if (rxSiteService == null) {
-            rxSiteService = getRestAdapter().create(RxSiteService.class);
-        }
-        return rxSiteService;
+        return getService(RxSiteService.class);
     }
 
     @NotNull
     public RxLabelService labelsRx() {
-        if (rxLabelService == null) {
-            rxLabelService = getRestAdapter().create(RxLabelService.class);
-        }
-        return rxLabelService;
+        return getService(RxLabelService.class);
     }
 
     @NotNull
     public RxCustomFieldsService customFieldsRx() {
-        if (rxCustomFieldsService == null) {
-            rxCustomFieldsService = getRestAdapter().create(RxCustomFieldsService.class);
-        }
-        return rxCustomFieldsService;
+        return getService(RxCustomFieldsService.class);
     }
 
     @NotNull
     public RxGroupService groupsRx() {
-        if (rxGroupService == null) {
-            rxGroupService = getRestAdapter().create(RxGroupService.class);
-        }
-        return rxGroupService;
+        return getService(RxGroupService.class);
     }
 
     @NotNull
     public RxMacroService macrosRx() {
-        if (rxMacroService == null) {
-            rxMacroService = getRestAdapter().create(RxMacroService.class);
-        }
-        return rxMacroService;
+        return getService(RxMacroService.class);
     }
 
     @NotNull
     public RxOutboundMailboxService outboundMailboxesRx() {
-        if (rxOutboundMailboxService == null) {
-            rxOutboundMailboxService = getRestAdapter().create(RxOutboundMailboxService.class);
-        }
-        return rxOutboundMailboxService;
+        return getService(RxOutboundMailboxService.class);
     }
 
     @NotNull
     public RxFilterService filtersRx() {
-        if (rxFilterService == null) {
-            rxFilterService = getRestAdapter().create(RxFilterService.class);
-        }
-        return rxFilterService;
+        return getService(RxFilterService.class);
     }
 
     @NotNull
     public RxCaseService casesRx() {
-        if (rxCaseService == null) {
-            rxCaseService = getRestAdapter().create(RxCaseService.class);
-        }
-        return rxCaseService;
+        return getService(RxCaseService.class);
     }
 
     @NotNull
     public RxCompanyService companiesRx() {
-        if (rxCompanyService == null) {
-            rxCompanyService = getRestAdapter().create(RxCompanyService.class);
-        }
-        return rxCompanyService;
+        return getService(RxCompanyService.class);
     }
 
     @NotNull
     public RxCustomerService customersRx() {
-        if (rxCustomerService == null) {
-            rxCustomerService = getRestAdapter().create(RxCustomerService.class);
-        }
-        return rxCustomerService;
+        return getService(RxCustomerService.class);
     }
 
     @NotNull
     public RxPermissionService permissionsRx() {
-        if (rxPermissionService == null) {
-            rxPermissionService = getRestAdapter().create(RxPermissionService.class);
-        }
-        return rxPermissionService;
+        return getService(RxPermissionService.class);
     }
 
     @NotNull
     public RxTwitterUserService twitterUsersRx() {
-        if (rxTwitterUserService == null) {
-            rxTwitterUserService = getRestAdapter().create(RxTwitterUserService.class);
-        }
-        return rxTwitterUserService;
+        return getService(RxTwitterUserService.class);
     }
 
     @NotNull
     public RxTopicService topicsRx() {
-        if (rxTopicService == null) {
-            rxTopicService = getRestAdapter().create(RxTopicService.class);
-        }
-        return rxTopicService;
+        return getService(RxTopicService.class);
     }
 
     @NotNull
     public RxArticleService articlesRx() {
-        if (rxArticleService == null) {
-            rxArticleService = getRestAdapter().create(RxArticleService.class);
-        }
-        return rxArticleService;
+        return getService(RxArticleService.class);
     }
 
     @NotNull
     public RxInboundMailboxService inboundMailboxesRx() {
-        if (rxInboundMailboxService == null) {
-            rxInboundMailboxService = getRestAdapter().create(RxInboundMailboxService.class);
-        }
-        return rxInboundMailboxService;
+        return getService(RxInboundMailboxService.class);
     }
 
     @NotNull
     public RxOpportunityStageService opportunityStagesRx() {
-        if (rxOpportunityStageService == null) {
-            rxOpportunityStageService = getRestAdapter().create(RxOpportunityStageService.class);
-        }
-        return rxOpportunityStageService;
+        return getService(RxOpportunityStageService.class);
     }
 
     @NotNull
     public RxOpportunityService opportunitiesRx() {
-        if (rxOpportunityService == null) {
-            rxOpportunityService = getRestAdapter().create(RxOpportunityService.class);
-        }
-        return rxOpportunityService;
+        return getService(RxOpportunityService.class);
     }
 
     @NotNull
     public RxTwitterAccountService twitterAccountsRx() {
-        if (rxTwitterAccountService == null) {
-            rxTwitterAccountService = getRestAdapter().create(RxTwitterAccountService.class);
-        }
-        return rxTwitterAccountService;
+        return getService(RxTwitterAccountService.class);
     }
 
     @NotNull
     public RxJobService jobsRx() {
-        if (rxJobService == null) {
-            rxJobService = getRestAdapter().create(RxJobService.class);
-        }
-        return rxJobService;
+        return getService(RxJobService.class);
+    }
+
+    /**
+     * Gets the batch operators over {@link #casesRx()}, such as reading many cases by id
+     *
+     * @return the case batch operators
+     */
+    @NotNull
+    public RxCaseBatch caseBatchRx() {
+        return new RxCaseBatch(casesRx(), batchConfig.getScheduler(RxCaseService.class),
+                batchConfig.getRateBudget(), getEventListener());
+    }
+
+    /**
+     * Gets the batch operators over {@link #customersRx()}, such as creating many customers
+     *
+     * @return the customer batch operators
+     */
+    @NotNull
+    public RxCustomerBatch customerBatchRx() {
+        return new RxCustomerBatch(customersRx(), batchConfig.getScheduler(RxCustomerService.class),
+                batchConfig.getRateBudget(), getEventListener());
+    }
+
+    /**
+     * Exposes a paged endpoint as an observable of its entries which reads pages as downstream demand arrives,
+     * such as {@code casesRx().getCasesByFilterObservable(filterId, perPage, page, ...)} for each page number.
+     * See {@link RxPages}.
+     *
+     * @param perPage the page size the page function requests
+     * @param maxConcurrency the most pages read or buffered at once
+     * @param page creates the observable of the page with the given 1 based number
+     * @param <T> the entry type
+     * @return the observable of the entries in page order
+     */
+    @NotNull
+    public <T extends Serializable> Observable<T> entries(int perPage, int maxConcurrency,
+                                                          @NotNull Func1<Integer, Observable<ApiResponse<T>>> page) {
+        return RxPages.entries(perPage, maxConcurrency, page);
     }
 }
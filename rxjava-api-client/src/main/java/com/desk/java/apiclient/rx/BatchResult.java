@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of one item of a batch operator, either the value of its request or the error it failed with
+ *
+ * @param <I> the input type, such as the id read or the entity created
+ * @param <T> the value type
+ */
+public final class BatchResult<I, T> {
+
+    private final I input;
+    private final T value;
+    private final Throwable error;
+
+    private BatchResult(I input, T value, Throwable error) {
+        this.input = input;
+        this.value = value;
+        this.error = error;
+    }
+
+    static <I, T> BatchResult<I, T> success(I input, T value) {
+        return new BatchResult<>(input, value, null);
+    }
+
+    static <I, T> BatchResult<I, T> failure(I input, Throwable error) {
+        return new BatchResult<>(input, null, error);
+    }
+
+    /**
+     * @return the input the request was made for
+     */
+    @NotNull
+    public I getInput() {
+        return input;
+    }
+
+    /**
+     * @return the value or null if the request failed
+     */
+    @Nullable
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the error, such as a {@link retrofit2.adapter.rxjava.HttpException}, or null if the request succeeded
+     */
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? input + " -> " + value : input + " failed: " + error;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     A token bucket spreading requests so a client stays within the Desk API rate limit. Callers reserve a slot
+ *     and wait for the returned delay before sending; reservations are handed out in order, so later callers wait
+ *     longer rather than racing for the next free slot.
+ * </p>
+ *
+ * <p>
+ *     Up to {@code burst} requests go out at once after the budget was idle, after that one request per
+ *     {@code period / requests}. One budget is shared by all operators of a client.
+ * </p>
+ */
+public class RateBudget {
+
+    private static final RateBudget UNLIMITED = new RateBudget(0L, 1);
+
+    private final long intervalNanos;
+    private final int burst;
+
+    /** When the next request may be sent, guarded by this */
+    private long nextFreeNanos;
+    private boolean started;
+
+    /**
+     * Creates a budget sending requests evenly at the given rate, one at a time
+     *
+     * @param requests the requests allowed per minute
+     * @return the budget
+     */
+    public static RateBudget perMinute(int requests) {
+        return new RateBudget(requests, TimeUnit.MINUTES, 1);
+    }
+
+    /**
+     * Gets a budget which never delays requests
+     *
+     * @return the unlimited budget
+     */
+    public static RateBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Creates a budget
+     *
+     * @param requests the requests allowed per time unit
+     * @param unit the time unit
+     * @param burst the requests which may go out at once after the budget was idle
+     */
+    public RateBudget(int requests, TimeUnit unit, int burst) {
+        this(unit.toNanos(1) / checkPositive("requests", requests), checkPositive("burst", burst));
+    }
+
+    private RateBudget(long intervalNanos, int burst) {
+        this.intervalNanos = intervalNanos;
+        this.burst = burst;
+    }
+
+    /**
+     * Reserves a slot for one request
+     *
+     * @return how long to wait before sending the request, in nanoseconds
+     */
+    public long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        synchronized (this) {
+            long now = nanoTime();
+            long earliest = now - (burst - 1) * intervalNanos;
+            if (!started || nextFreeNanos - earliest < 0) {
+                nextFreeNanos = earliest;
+                started = true;
+            }
+            long wait = Math.max(0, nextFreeNanos - now);
+            nextFreeNanos += intervalNanos;
+            return wait;
+        }
+    }
+
+    /**
+     * Gets the current time, overridden by tests
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private static int checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * Runs a request per input with bounded concurrency, turning failures into {@link BatchResult}s
+ */
+final class RxBatch {
+
+    private RxBatch() {
+    }
+
+    /**
+     * Subscribes to at most {@code maxConcurrency} requests at once on the scheduler, each after the delay its
+     * rate budget reservation asks for, which is reported to the listener. Results arrive in completion order.
+     */
+    static <I, R> Observable<BatchResult<I, R>> run(Observable<I> inputs, int maxConcurrency,
+                                                    final Scheduler scheduler, final RateBudget rateBudget,
+                                                    final DeskEventListener listener,
+                                                    final Func1<? super I, Observable<R>> request) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive but was " + maxConcurrency);
+        }
+        return inputs.flatMap(new Func1<I, Observable<BatchResult<I, R>>>() {
+            @Override
+            public Observable<BatchResult<I, R>> call(final I input) {
+                return Observable.defer(new Func0<Observable<R>>() {
+                    @Override
+                    public Observable<R> call() {
+                        Observable<R> call = request.call(input);
+                        long wait = rateBudget.reserve();
+                        if (wait > 0) {
+                            listener.rateLimitWait(wait);
+                        }
+                        return wait > 0 ? call.delaySubscription(wait, TimeUnit.NANOSECONDS, scheduler) : call;
+                    }
+                }).subscribeOn(scheduler).map(new Func1<R, BatchResult<I, R>>() {
+                    @Override
+                    public BatchResult<I, R> call(R value) {
+                        return BatchResult.success(input, value);
+                    }
+                }).onErrorReturn(new Func1<Throwable, BatchResult<I, R>>() {
+                    @Override
+                    public BatchResult<I, R> call(Throwable error) {
+                        return BatchResult.failure(input, error);
+                    }
+                });
+            }
+        }, maxConcurrency);
+    }
+}
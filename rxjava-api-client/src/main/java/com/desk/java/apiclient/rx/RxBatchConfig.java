@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Settings of the batch operators of {@link com.desk.java.apiclient.RxDeskClient}: the schedulers their requests
+ * execute on, per service if needed, and the rate budget they share.
+ */
+public class RxBatchConfig {
+
+    private Scheduler scheduler = Schedulers.io();
+    private final Map<Class<?>, Scheduler> serviceSchedulers = new HashMap<>();
+    private RateBudget rateBudget = RateBudget.unlimited();
+
+    /**
+     * Sets the scheduler of services without their own, {@link Schedulers#io()} by default
+     *
+     * @param scheduler the scheduler
+     * @return the config instance
+     */
+    public RxBatchConfig scheduler(@NotNull Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Sets the scheduler of the operators of a service
+     *
+     * @param service the Rx service interface, such as {@link com.desk.java.apiclient.service.RxCaseService}
+     * @param scheduler the scheduler
+     * @return the config instance
+     */
+    public RxBatchConfig scheduler(@NotNull Class<?> service, @NotNull Scheduler scheduler) {
+        serviceSchedulers.put(service, scheduler);
+        return this;
+    }
+
+    /**
+     * Sets the budget spreading the requests of all operators, {@link RateBudget#unlimited()} by default
+     *
+     * @param rateBudget the rate budget
+     * @return the config instance
+     */
+    public RxBatchConfig rateBudget(@NotNull RateBudget rateBudget) {
+        this.rateBudget = rateBudget;
+        return this;
+    }
+
+    @NotNull
+    public Scheduler getScheduler(@NotNull Class<?> service) {
+        Scheduler serviceScheduler = serviceSchedulers.get(service);
+        return serviceScheduler != null ? serviceScheduler : scheduler;
+    }
+
+    @NotNull
+    public RateBudget getRateBudget() {
+        return rateBudget;
+    }
+}
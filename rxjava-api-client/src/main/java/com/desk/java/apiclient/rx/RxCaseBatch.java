@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.RxCaseService;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+/**
+ * <p>
+ *     Batch operators over {@link RxCaseService} which run at most a given number of requests at once on the
+ *     configured scheduler, within the client's {@link RateBudget}.
+ * </p>
+ *
+ * <p>
+ *     A failing item is reported as a failed {@link BatchResult} and the other items carry on. Results arrive in
+ *     completion order and carry the input they belong to.
+ * </p>
+ */
+public class RxCaseBatch {
+
+    private final RxCaseService cases;
+    private final Scheduler scheduler;
+    private final RateBudget rateBudget;
+    private final DeskEventListener listener;
+
+    public RxCaseBatch(@NotNull RxCaseService cases, @NotNull Scheduler scheduler, @NotNull RateBudget rateBudget) {
+        this(cases, scheduler, rateBudget, DeskEventListener.NONE);
+    }
+
+    /**
+     * @param cases the service the requests are sent with
+     * @param scheduler the scheduler the requests are subscribed on
+     * @param rateBudget the budget delaying requests
+     * @param listener the listener told about every delay
+     */
+    public RxCaseBatch(@NotNull RxCaseService cases, @NotNull Scheduler scheduler, @NotNull RateBudget rateBudget,
+                       @NotNull DeskEventListener listener) {
+        this.cases = cases;
+        this.scheduler = scheduler;
+        this.rateBudget = rateBudget;
+        this.listener = listener;
+    }
+
+    /**
+     * Reads the case of every id
+     *
+     * @param ids the case ids
+     * @param maxConcurrency the most requests in flight
+     * @return the observable of the results
+     */
+    @NotNull
+    public Observable<BatchResult<Long, Case>> byIds(@NotNull Observable<Long> ids, int maxConcurrency) {
+        return byIds(ids, maxConcurrency, null, null);
+    }
+
+    /**
+     * Reads the case of every id
+     *
+     * @param ids the case ids
+     * @param maxConcurrency the most requests in flight
+     * @param embed what to embed
+     * @param fields the fields requested
+     * @return the observable of the results
+     */
+    @NotNull
+    public Observable<BatchResult<Long, Case>> byIds(@NotNull Observable<Long> ids, int maxConcurrency,
+                                                     @Nullable final Embed embed, @Nullable final Fields fields) {
+        return RxBatch.run(ids, maxConcurrency, scheduler, rateBudget, listener,
+                new Func1<Long, Observable<Case>>() {
+                    @Override
+                    public Observable<Case> call(Long id) {
+                        return cases.getCaseByIdObservable(id, embed, fields);
+                    }
+                });
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Embed;
+import com.desk.java.apiclient.service.RxCustomerService;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+/**
+ * Batch operators over {@link RxCustomerService}, which behave like those of {@link RxCaseBatch}
+ */
+public class RxCustomerBatch {
+
+    private final RxCustomerService customers;
+    private final Scheduler scheduler;
+    private final RateBudget rateBudget;
+    private final DeskEventListener listener;
+
+    public RxCustomerBatch(@NotNull RxCustomerService customers, @NotNull Scheduler scheduler,
+                           @NotNull RateBudget rateBudget) {
+        this(customers, scheduler, rateBudget, DeskEventListener.NONE);
+    }
+
+    /**
+     * @param customers the service the requests are sent with
+     * @param scheduler the scheduler the requests are subscribed on
+     * @param rateBudget the budget delaying requests
+     * @param listener the listener told about every delay
+     */
+    public RxCustomerBatch(@NotNull RxCustomerService customers, @NotNull Scheduler scheduler, @NotNull RateBudget rateBudget,
+                           @NotNull DeskEventListener listener) {
+        this.customers = customers;
+        this.scheduler = scheduler;
+        this.rateBudget = rateBudget;
+        this.listener = listener;
+    }
+
+    /**
+     * Reads the customer of every id
+     *
+     * @param ids the customer ids
+     * @param maxConcurrency the most requests in flight
+     * @param embed what to embed
+     * @return the observable of the results
+     */
+    @NotNull
+    public Observable<BatchResult<Long, Customer>> byIds(@NotNull Observable<Long> ids, int maxConcurrency,
+                                                         @Nullable final Embed embed) {
+        return RxBatch.run(ids, maxConcurrency, scheduler, rateBudget, listener,
+                new Func1<Long, Observable<Customer>>() {
+                    @Override
+                    public Observable<Customer> call(Long id) {
+                        return customers.getCustomerObservable(id, embed);
+                    }
+                });
+    }
+
+    /**
+     * Creates every customer. A customer which cannot be created, such as for a duplicate email, fails only its
+     * own result.
+     *
+     * @param newCustomers the customers to create
+     * @param maxConcurrency the most requests in flight
+     * @return the observable of the results, whose values are the created customers
+     */
+    @NotNull
+    public Observable<BatchResult<Customer, Customer>> createAll(@NotNull Observable<Customer> newCustomers,
+                                                                 int maxConcurrency) {
+        return RxBatch.run(newCustomers, maxConcurrency, scheduler, rateBudget, listener,
+                new Func1<Customer, Observable<Customer>>() {
+                    @Override
+                    public Observable<Customer> call(Customer customer) {
+                        return customers.createCustomerObservable(customer);
+                    }
+                });
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.model.ApiResponse;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.exceptions.Exceptions;
+import rx.exceptions.OnErrorThrowable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+/**
+ * <p>
+ *     Exposes a paged listing as an {@link Observable} of its entries which honours backpressure. Pages are only
+ *     requested once downstream demand is not covered by the entries already read or in flight, at most
+ *     {@code maxConcurrency} pages are read or buffered at once, and entries are emitted in page order however
+ *     the pages complete, as {@code concatMapEager} would.
+ * </p>
+ *
+ * <p>
+ *     The first page is read alone to learn the number of entries. Unsubscribing unsubscribes from the pages in
+ *     flight, which cancels their HTTP calls. The first failing page fails the observable right away.
+ * </p>
+ */
+public final class RxPages {
+
+    private RxPages() {
+    }
+
+    /**
+     * Reads the entries of every page, subscribing to the pages on {@link Schedulers#io()}
+     *
+     * @param perPage the page size the page function requests
+     * @param maxConcurrency the most pages read or buffered at once
+     * @param page creates the observable of the page with the given 1 based number
+     * @param <T> the entry type
+     * @return the observable of the entries in page order
+     */
+    @NotNull
+    public static <T extends Serializable> Observable<T> entries(
+            int perPage, int maxConcurrency, @NotNull Func1<Integer, Observable<ApiResponse<T>>> page) {
+        return entries(perPage, maxConcurrency, Schedulers.io(), page);
+    }
+
+    /**
+     * Reads the entries of every page
+     *
+     * @param perPage the page size the page function requests
+     * @param maxConcurrency the most pages read or buffered at once
+     * @param scheduler the scheduler the pages are subscribed on, which is where their calls execute
+     * @param page creates the observable of the page with the given 1 based number
+     * @param <T> the entry type
+     * @return the observable of the entries in page order
+     */
+    @NotNull
+    public static <T extends Serializable> Observable<T> entries(
+            final int perPage, final int maxConcurrency, @NotNull final Scheduler scheduler,
+            @NotNull final Func1<Integer, Observable<ApiResponse<T>>> page) {
+        checkPositive("perPage", perPage);
+        checkPositive("maxConcurrency", maxConcurrency);
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                PageProducer<T> producer = new PageProducer<>(child, perPage, maxConcurrency, scheduler, page);
+                child.add(producer);
+                child.setProducer(producer);
+            }
+        });
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+    }
+
+    /**
+     * Reads pages as demand arrives. Demand, cancellation and page completions only record what happened and
+     * call {@link #drain()}, the pages themselves are only touched by the one thread draining.
+     */
+    private static final class PageProducer<T extends Serializable> implements Producer, Subscription {
+
+        private final Subscriber<? super T> child;
+        private final int perPage;
+        private final int maxConcurrency;
+        private final Scheduler scheduler;
+        private final Func1<Integer, Observable<ApiResponse<T>>> page;
+        private final AtomicLong requested = new AtomicLong();
+        /** Requests to drain, only the thread raising it from 0 drains */
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        private final Deque<Page<T>> pages = new ArrayDeque<>();
+        private int nextPage = 1;
+        private int pageCount = -1;
+        private boolean terminated;
+
+        PageProducer(Subscriber<? super T> child, int perPage, int maxConcurrency, Scheduler scheduler,
+                     Func1<Integer, Observable<ApiResponse<T>>> page) {
+            this.child = child;
+            this.perPage = perPage;
+            this.maxConcurrency = maxConcurrency;
+            this.scheduler = scheduler;
+            this.page = page;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("n >= 0 required but it was " + n);
+            }
+            if (n == 0) {
+                return;
+            }
+            for (;;) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void unsubscribe() {
+            cancelled = true;
+            drain();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return cancelled;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    step();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void step() {
+            if (cancelled || child.isUnsubscribed()) {
+                cancelPages();
+                return;
+            }
+            for (Page<T> pending : pages) {
+                if (pending.error != null) {
+                    cancelPages();
+                    child.onError(pending.error);
+                    return;
+                }
+            }
+            Page<T> head = pages.peekFirst();
+            if (pageCount < 0 && head != null && head.number == 1 && head.done) {
+                pageCount = Math.max(1, (head.totalEntries + perPage - 1) / perPage);
+            }
+            if (!emit()) {
+                return;
+            }
+            launch();
+            if (pageCount >= 0 && nextPage > pageCount && pages.isEmpty()) {
+                terminated = true;
+                child.onCompleted();
+            }
+        }
+
+        /**
+         * Emits the entries of the completed pages at the head in order while there is demand
+         *
+         * @return false if the observable terminated
+         */
+        private boolean emit() {
+            long demand = requested.get();
+            long emitted = 0;
+            for (;;) {
+                Page<T> head = pages.peekFirst();
+                if (head == null || !head.done) {
+                    break;
+                }
+                if (head.index == head.entries.size()) {
+                    pages.pollFirst();
+                    continue;
+                }
+                if (emitted == demand) {
+                    break;
+                }
+                T entry = head.entries.get(head.index++);
+                try {
+                    child.onNext(entry);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    cancelPages();
+                    child.onError(OnErrorThrowable.addValueAsLastCause(e, entry));
+                    return false;
+                }
+                emitted++;
+                if (cancelled || child.isUnsubscribed()) {
+                    cancelPages();
+                    return false;
+                }
+            }
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            return true;
+        }
+
+        /**
+         * Starts reading pages while their entries are needed to cover the outstanding demand. Until the first
+         * page arrives the number of pages is unknown, so only the first one is read.
+         */
+        private void launch() {
+            long covered = 0;
+            for (Page<T> pending : pages) {
+                covered += pending.done ? pending.entries.size() - pending.index : perPage;
+            }
+            while (pages.size() < maxConcurrency && covered < requested.get()
+                    && (nextPage == 1 || (pageCount >= 0 && nextPage <= pageCount))) {
+                Page<T> next = new Page<>(nextPage++, this);
+                pages.addLast(next);
+                covered += perPage;
+                page.call(next.number).subscribeOn(scheduler).subscribe(next);
+            }
+        }
+
+        private void cancelPages() {
+            terminated = true;
+            for (Page<T> pending : pages) {
+                pending.unsubscribe();
+            }
+            pages.clear();
+        }
+    }
+
+    /**
+     * A page being read. The response fields are written before {@link #done} or {@link #error} is set and read
+     * by the draining thread after it sees them.
+     */
+    private static final class Page<T extends Serializable> extends Subscriber<ApiResponse<T>> {
+
+        final int number;
+        private final PageProducer<T> producer;
+        private ApiResponse<T> response;
+        List<T> entries = Collections.emptyList();
+        int totalEntries;
+        int index;
+        volatile boolean done;
+        volatile Throwable error;
+
+        Page(int number, PageProducer<T> producer) {
+            this.number = number;
+            this.producer = producer;
+        }
+
+        @Override
+        public void onNext(ApiResponse<T> response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onCompleted() {
+            if (response != null) {
+                entries = response.getEntriesAsList();
+                totalEntries = response.getTotalEntries();
+            }
+            done = true;
+            producer.drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+            producer.drain();
+        }
+    }
+}
@@ -31,12 +31,14 @@ import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.Attachment;
 import com.desk.java.apiclient.model.Case;
 import com.desk.java.apiclient.model.CaseLock;
+import com.desk.java.apiclient.model.CasePatch;
 import com.desk.java.apiclient.model.Embed;
 import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.MacroResponse;
 import com.desk.java.apiclient.model.Message;
 import com.desk.java.apiclient.model.SortDirection;
 
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -202,6 +204,31 @@ public interface RxCaseService {
     Observable<Case> updateCaseObservable(@Path("id") long caseId, @Body Case updatedCase, @Query("embed") Embed embed,
                                           @Query("fields") Fields fields);
 
+    /**
+     * Updates a case sending only the changed fields
+     *
+     * @param caseId the id of the case
+     * @param patch  the changes
+     * @return a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     */
+    @PATCH(CASES_URI + "/{id}")
+    Observable<Case> updateCaseObservable(@Path("id") long caseId, @Body CasePatch patch);
+
+    /**
+     * Updates a case sending only the changed fields
+     *
+     * @param caseId the id of the case
+     * @param patch  the changes
+     * @param embed  what to embed in the response
+     * @param fields the fields requested in the response
+     * @return a case
+     * @see <a href="http://dev.desk.com/API/cases/#update">http://dev.desk.com/API/cases/#update</a>
+     */
+    @PATCH(CASES_URI + "/{id}")
+    Observable<Case> updateCaseObservable(@Path("id") long caseId, @Body CasePatch patch, @Query("embed") Embed embed,
+                                          @Query("fields") Fields fields);
+
     /**
      * Creates a case
      *
@@ -315,4 +342,15 @@ public interface RxCaseService {
      */
     @GET(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
     Observable<ApiResponse<Attachment>> getAttachmentsObservable(@Path("id") long caseId, @Query("per_page") int perPage, @Query("page") int page);
+
+    /**
+     * Creates an attachment on a case
+     *
+     * @param caseId     the id of the case
+     * @param attachment the attachment json body, see {@link com.desk.java.apiclient.attachment.AttachmentRequestBody}
+     * @return the created attachment
+     * @see <a href="http://dev.desk.com/API/cases/#attachments-create">http://dev.desk.com/API/cases/#attachments-create</a>
+     */
+    @POST(CASES_URI + "/{id}/" + ATTACHMENTS_URI)
+    Observable<Attachment> createAttachmentObservable(@Path("id") long caseId, @Body RequestBody attachment);
 }
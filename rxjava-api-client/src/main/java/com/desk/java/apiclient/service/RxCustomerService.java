@@ -29,6 +29,7 @@ package com.desk.java.apiclient.service;
 import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.Case;
 import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.CustomerPatch;
 import com.desk.java.apiclient.model.Embed;
 import com.desk.java.apiclient.model.FeatureCheck;
 import com.desk.java.apiclient.model.Fields;
@@ -106,6 +107,17 @@ public interface RxCustomerService {
     @PATCH(CUSTOMERS_URI + "/{id}")
     Observable<Customer> updateCustomerObservable(@Path("id") long customerId, @Body Customer updatedCustomer);
 
+    /**
+     * Updates a customer sending only the changed fields
+     *
+     * @param customerId the customer id
+     * @param patch      the changes
+     * @return a customer
+     * @see <a href="http://dev.desk.com/API/customers/#update">http://dev.desk.com/API/customers/#update</a>
+     */
+    @PATCH(CUSTOMERS_URI + "/{id}")
+    Observable<Customer> updateCustomerObservable(@Path("id") long customerId, @Body CustomerPatch patch);
+
     /**
      * Creates a customer
      *
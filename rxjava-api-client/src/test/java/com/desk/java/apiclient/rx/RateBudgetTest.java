@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RateBudgetTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now = 1000 * SECOND;
+
+    @Test
+    public void spreadsRequestsEvenly() {
+        RateBudget budget = budget(60, TimeUnit.MINUTES, 1);
+        assertEquals(0, budget.reserve());
+        assertEquals(SECOND, budget.reserve());
+        assertEquals(2 * SECOND, budget.reserve());
+    }
+
+    @Test
+    public void allowsBurstAfterIdle() {
+        RateBudget budget = budget(10, TimeUnit.SECONDS, 3);
+        long interval = SECOND / 10;
+        assertEquals(0, budget.reserve());
+        assertEquals(0, budget.reserve());
+        assertEquals(0, budget.reserve());
+        assertEquals(interval, budget.reserve());
+
+        now += 10 * SECOND;
+        assertEquals("idle time does not save up more than the burst", 0, budget.reserve());
+        assertEquals(0, budget.reserve());
+        assertEquals(0, budget.reserve());
+        assertEquals(interval, budget.reserve());
+    }
+
+    @Test
+    public void waitShrinksAsTimePasses() {
+        RateBudget budget = budget(60, TimeUnit.MINUTES, 1);
+        budget.reserve();
+        now += SECOND / 4;
+        assertEquals(3 * SECOND / 4, budget.reserve());
+    }
+
+    @Test
+    public void unlimitedNeverWaits() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, RateBudget.unlimited().reserve());
+        }
+    }
+
+    private RateBudget budget(int requests, TimeUnit unit, int burst) {
+        return new RateBudget(requests, unit, burst) {
+            @Override
+            long nanoTime() {
+                return now;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.metrics.DeskEventListener;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.*;
+
+public class RxBatchTest {
+
+    @Test
+    public void reportsFailedItemsWithoutEndingTheStream() {
+        TestSubscriber<BatchResult<Long, String>> subscriber = new TestSubscriber<>();
+        RxBatch.run(Observable.just(1L, 2L, 3L), 2, Schedulers.immediate(), RateBudget.unlimited(),
+                DeskEventListener.NONE,
+                new Func1<Long, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(Long id) {
+                        return id == 2 ? Observable.<String>error(new IOException("boom"))
+                                : Observable.just("case " + id);
+                    }
+                }).subscribe(subscriber);
+        subscriber.assertNoErrors();
+        subscriber.assertCompleted();
+        List<BatchResult<Long, String>> results = subscriber.getOnNextEvents();
+        assertEquals(3, results.size());
+        assertEquals("case 1", results.get(0).getValue());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(Long.valueOf(2), results.get(1).getInput());
+        assertEquals("boom", results.get(1).getError().getMessage());
+        assertEquals("case 3", results.get(2).getValue());
+    }
+
+    @Test
+    public void boundsRequestsInFlight() {
+        final List<PublishSubject<String>> started = new ArrayList<>();
+        TestSubscriber<BatchResult<Long, String>> subscriber = new TestSubscriber<>();
+        RxBatch.run(Observable.just(1L, 2L, 3L, 4L), 2, Schedulers.immediate(), RateBudget.unlimited(),
+                DeskEventListener.NONE,
+                new Func1<Long, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(Long id) {
+                        PublishSubject<String> subject = PublishSubject.create();
+                        started.add(subject);
+                        return subject;
+                    }
+                }).subscribe(subscriber);
+        assertEquals(2, started.size());
+        started.get(1).onNext("b");
+        started.get(1).onCompleted();
+        assertEquals(3, started.size());
+        started.get(0).onError(new IOException("boom"));
+        assertEquals(4, started.size());
+        started.get(2).onCompleted();
+        started.get(3).onCompleted();
+        subscriber.assertCompleted();
+        assertEquals(2, subscriber.getOnNextEvents().size());
+    }
+
+    @Test
+    public void delaysRequestsByTheRateBudget() {
+        TestScheduler scheduler = new TestScheduler();
+        final Set<Long> subscribed = Collections.synchronizedSet(new HashSet<Long>());
+        final AtomicLong waited = new AtomicLong();
+        DeskEventListener listener = new DeskEventListener() {
+            @Override
+            public void rateLimitWait(long waitNanos) {
+                waited.addAndGet(waitNanos);
+            }
+        };
+        TestSubscriber<BatchResult<Long, Long>> subscriber = new TestSubscriber<>();
+        RxBatch.run(Observable.just(1L, 2L), 2, scheduler, RateBudget.perMinute(60), listener,
+                new Func1<Long, Observable<Long>>() {
+                    @Override
+                    public Observable<Long> call(final Long id) {
+                        return Observable.just(id).doOnSubscribe(new Action0() {
+                            @Override
+                            public void call() {
+                                subscribed.add(id);
+                            }
+                        });
+                    }
+                }).subscribe(subscriber);
+        scheduler.triggerActions();
+        assertEquals(Collections.singleton(1L), subscribed);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(2, subscribed.size());
+        subscriber.assertCompleted();
+        assertTrue(waited.get() > 0);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.rx;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Label;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.*;
+
+public class RxPagesTest {
+
+    private final List<Integer> requestedPages = Collections.synchronizedList(new ArrayList<Integer>());
+    private final List<Integer> unsubscribedPages = Collections.synchronizedList(new ArrayList<Integer>());
+    private final Map<Integer, PublishSubject<ApiResponse<Label>>> pending = new HashMap<>();
+
+    @Test
+    public void emitsEntriesOfAllPagesInOrder() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 4, Schedulers.immediate(), immediatePages(5)).subscribe(subscriber);
+        subscriber.assertNoErrors();
+        subscriber.assertCompleted();
+        assertEquals(Arrays.asList("p1a", "p1b", "p2a", "p2b", "p3a"), names(subscriber));
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+    }
+
+    @Test
+    public void emptyListingCompletesAfterTheFirstPage() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 4, Schedulers.immediate(), immediatePages(0)).subscribe(subscriber);
+        subscriber.assertCompleted();
+        subscriber.assertNoValues();
+        assertEquals(Collections.singletonList(1), requestedPages);
+    }
+
+    @Test
+    public void readsPagesOnlyAsDemandArrives() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>(0);
+        RxPages.entries(2, 4, Schedulers.immediate(), immediatePages(6)).subscribe(subscriber);
+        assertTrue(requestedPages.isEmpty());
+
+        subscriber.requestMore(1);
+        assertEquals(Collections.singletonList("p1a"), names(subscriber));
+        assertEquals("the rest of the first page covers the next request", Collections.singletonList(1),
+                requestedPages);
+
+        subscriber.requestMore(2);
+        assertEquals(Arrays.asList("p1a", "p1b", "p2a"), names(subscriber));
+        assertEquals(Arrays.asList(1, 2), requestedPages);
+        subscriber.assertNotCompleted();
+
+        subscriber.requestMore(Long.MAX_VALUE);
+        subscriber.assertCompleted();
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+    }
+
+    @Test
+    public void emitsInPageOrderWhenPagesCompleteOutOfOrder() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 3, Schedulers.immediate(), pendingPages()).subscribe(subscriber);
+        complete(1, 6);
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+
+        complete(3, 6);
+        assertEquals(Arrays.asList("p1a", "p1b"), names(subscriber));
+        complete(2, 6);
+        assertEquals(Arrays.asList("p1a", "p1b", "p2a", "p2b", "p3a", "p3b"), names(subscriber));
+        subscriber.assertCompleted();
+    }
+
+    @Test
+    public void boundsPagesReadAtOnce() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 2, Schedulers.immediate(), pendingPages()).subscribe(subscriber);
+        complete(1, 10);
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+        complete(2, 10);
+        assertEquals(Arrays.asList(1, 2, 3, 4), requestedPages);
+    }
+
+    @Test
+    public void unsubscribingCancelsPagesInFlight() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 3, Schedulers.immediate(), pendingPages()).subscribe(subscriber);
+        complete(1, 10);
+        assertEquals(Arrays.asList(1, 2, 3, 4), requestedPages);
+        unsubscribedPages.clear();
+        subscriber.unsubscribe();
+        assertEquals(Arrays.asList(2, 3, 4), unsubscribedPages);
+        complete(2, 10);
+        assertEquals(Arrays.asList("p1a", "p1b"), names(subscriber));
+    }
+
+    @Test
+    public void failingPageFailsRightAway() {
+        TestSubscriber<Label> subscriber = new TestSubscriber<>();
+        RxPages.entries(2, 3, Schedulers.immediate(), pendingPages()).subscribe(subscriber);
+        complete(1, 10);
+        unsubscribedPages.clear();
+        pending.get(3).onError(new IOException("boom"));
+        subscriber.assertError(IOException.class);
+        assertTrue(unsubscribedPages.containsAll(Arrays.asList(2, 4)));
+    }
+
+    private Func1<Integer, Observable<ApiResponse<Label>>> immediatePages(final int totalEntries) {
+        return new Func1<Integer, Observable<ApiResponse<Label>>>() {
+            @Override
+            public Observable<ApiResponse<Label>> call(Integer page) {
+                requestedPages.add(page);
+                return Observable.just(page(page, 2, totalEntries));
+            }
+        };
+    }
+
+    private Func1<Integer, Observable<ApiResponse<Label>>> pendingPages() {
+        return new Func1<Integer, Observable<ApiResponse<Label>>>() {
+            @Override
+            public Observable<ApiResponse<Label>> call(final Integer page) {
+                requestedPages.add(page);
+                PublishSubject<ApiResponse<Label>> subject = PublishSubject.create();
+                pending.put(page, subject);
+                return subject.doOnUnsubscribe(new Action0() {
+                    @Override
+                    public void call() {
+                        unsubscribedPages.add(page);
+                    }
+                });
+            }
+        };
+    }
+
+    private void complete(int page, int totalEntries) {
+        PublishSubject<ApiResponse<Label>> subject = pending.get(page);
+        subject.onNext(page(page, 2, totalEntries));
+        subject.onCompleted();
+    }
+
+    private static ApiResponse<Label> page(int page, int perPage, int totalEntries) {
+        int size = Math.max(0, Math.min(perPage, totalEntries - (page - 1) * perPage));
+        Label[] labels = new Label[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = new Label();
+            labels[i].setName("p" + page + (char) ('a' + i));
+        }
+        Entries<Label> entries = new Entries<>();
+        entries.setEntries(labels);
+        ApiResponse<Label> response = new ApiResponse<>();
+        response.setTotalEntries(totalEntries);
+        response.setEmbeddedList(entries);
+        return response;
+    }
+
+    private static List<String> names(TestSubscriber<Label> subscriber) {
+        List<String> names = new ArrayList<>();
+        for (Label label : subscriber.getOnNextEvents()) {
+            names.add(label.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient;
+
+import com.desk.java.apiclient.vthread.StructuredFanOut;
+import com.desk.java.apiclient.vthread.VirtualThreads;
+
+/**
+ * <p>
+ *     Client which interfaces with the Desk API from virtual threads. Write plain blocking code with
+ *     {@link retrofit2.Call#execute()} or {@link com.desk.java.apiclient.vthread.Calls#execute(retrofit2.Call)} on
+ *     a virtual thread, and use {@link StructuredFanOut} to read many pages or ids at once.
+ * </p>
+ *
+ * <p>
+ *     Unless the builder already has a dispatcher, calls enqueued asynchronously run on the virtual threads of
+ *     {@link VirtualThreads#dispatcher()} instead of the cached thread pool OkHttp creates by default.
+ * </p>
+ *
+ * <p>
+ *     Needs Java 21 started with {@code --enable-preview} for {@link StructuredFanOut} and
+ *     {@code --add-opens java.base/sun.security.ssl=ALL-UNNAMED}, without which OkHttp 3.2 fails to read the
+ *     platform trust manager when the client is created.
+ * </p>
+ */
+public class VirtualThreadDeskClient extends DeskClient {
+
+    /**
+     * Creates a {@link VirtualThreadDeskClient} using the builder provided
+     *
+     * @param builder the builder to use to build the {@link VirtualThreadDeskClient}
+     * @return a {@link VirtualThreadDeskClient}
+     */
+    public static VirtualThreadDeskClient create(DeskClientBuilder builder) {
+        if (builder == null) {
+            throw new IllegalStateException("DeskClientBuilder cannot be null.");
+        }
+        if (builder.dispatcher == null) {
+            builder.dispatcher(VirtualThreads.dispatcher());
+        }
+        return new VirtualThreadDeskClient(builder);
+    }
+
+    private VirtualThreadDeskClient(DeskClientBuilder builder) {
+        super(builder);
+    }
+}
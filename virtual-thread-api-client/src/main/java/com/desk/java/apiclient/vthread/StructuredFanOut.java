@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.vthread;
+
+import com.desk.java.apiclient.model.ApiResponse;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     Blocking fan-outs over pages and ids which execute every call on its own virtual thread inside a
+ *     {@link StructuredTaskScope}. The calling thread waits for all of them, so the calls never outlive the method
+ *     that started them.
+ * </p>
+ *
+ * <p>
+ *     The first failure shuts the scope down, which interrupts the other calls. A virtual thread interrupted while
+ *     blocked on a socket closes it, so requests in flight are abandoned rather than read to the end. A semaphore
+ *     rather than a pool bounds how many requests run at once; waiting for a permit only parks a virtual thread.
+ * </p>
+ *
+ * <p>
+ *     {@link StructuredTaskScope} is a preview API in Java 21, run with {@code --enable-preview}.
+ * </p>
+ */
+public final class StructuredFanOut {
+
+    private StructuredFanOut() {
+    }
+
+    /**
+     * Reads every page of a listing. The first page is read on the calling thread to learn the number of entries,
+     * then the other pages are read concurrently.
+     *
+     * @param perPage the page size the page function requests
+     * @param maxConcurrency the most pages read at once
+     * @param page creates the call reading the page with the given 1 based number
+     * @param <T> the entry type
+     * @return the entries of all pages in page order
+     * @throws IOException the first failure of a page
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    @NotNull
+    public static <T extends Serializable> List<T> allPages(
+            int perPage, int maxConcurrency, @NotNull IntFunction<? extends Call<ApiResponse<T>>> page)
+            throws IOException, InterruptedException {
+        checkPositive("perPage", perPage);
+        checkPositive("maxConcurrency", maxConcurrency);
+        ApiResponse<T> first = Calls.execute(page.apply(1));
+        int pageCount = (first.getTotalEntries() + perPage - 1) / perPage;
+        if (pageCount <= 1) {
+            return first.getEntriesAsList();
+        }
+        List<Integer> rest = new ArrayList<>(pageCount - 1);
+        for (int i = 2; i <= pageCount; i++) {
+            rest.add(i);
+        }
+        List<T> entries = new ArrayList<>(first.getEntriesAsList());
+        for (ApiResponse<T> response : fanOut(rest, maxConcurrency, page::apply)) {
+            entries.addAll(response.getEntriesAsList());
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the entity of every id, such as with {@code id -> client.cases().getCaseById(id, null, null)}
+     *
+     * @param ids the ids
+     * @param maxConcurrency the most calls in flight
+     * @param call creates the call reading the entity of an id
+     * @param <R> the entity type
+     * @return the entities in the order of the ids
+     * @throws IOException the first failure of a call
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    @NotNull
+    public static <R> List<R> byIds(@NotNull long[] ids, int maxConcurrency,
+                                    @NotNull LongFunction<? extends Call<? extends R>> call)
+            throws IOException, InterruptedException {
+        List<Long> inputs = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            inputs.add(id);
+        }
+        return fanOut(inputs, maxConcurrency, call::apply);
+    }
+
+    /**
+     * Executes the call for every input with at most the given number in flight
+     *
+     * @param inputs the inputs
+     * @param maxConcurrency the most calls in flight
+     * @param call creates the call for an input, invoked on the calling thread
+     * @param <I> the input type
+     * @param <R> the result type
+     * @return the results in the order of the inputs
+     * @throws IOException the first failure of a call
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    @NotNull
+    public static <I, R> List<R> fanOut(@NotNull List<I> inputs, int maxConcurrency,
+                                        @NotNull Function<? super I, ? extends Call<? extends R>> call)
+            throws IOException, InterruptedException {
+        return fanOut(inputs, maxConcurrency, null, call);
+    }
+
+    /**
+     * Executes the call for every input with at most the given number in flight, giving up at the deadline
+     *
+     * @param inputs the inputs
+     * @param maxConcurrency the most calls in flight
+     * @param deadline when to interrupt the calls still running, or null to wait for them
+     * @param call creates the call for an input, invoked on the calling thread
+     * @param <I> the input type
+     * @param <R> the result type
+     * @return the results in the order of the inputs
+     * @throws InterruptedIOException if the calls did not finish by the deadline
+     * @throws IOException the first failure of a call
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    @NotNull
+    public static <I, R> List<R> fanOut(@NotNull List<I> inputs, int maxConcurrency, @Nullable Instant deadline,
+                                        @NotNull Function<? super I, ? extends Call<? extends R>> call)
+            throws IOException, InterruptedException {
+        checkPositive("maxConcurrency", maxConcurrency);
+        if (inputs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<StructuredTaskScope.Subtask<R>> subtasks = new ArrayList<>(inputs.size());
+        try (StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (I input : inputs) {
+                Call<? extends R> request = call.apply(input);
+                Callable<R> task = () -> {
+                    permits.acquire();
+                    try {
+                        return Calls.execute(request);
+                    } finally {
+                        permits.release();
+                    }
+                };
+                subtasks.add(scope.fork(task));
+            }
+            if (deadline == null) {
+                scope.join();
+            } else {
+                try {
+                    scope.joinUntil(deadline);
+                } catch (TimeoutException e) {
+                    throw new InterruptedIOException("Fan out of " + inputs.size() + " calls did not finish by "
+                            + deadline);
+                }
+            }
+            try {
+                scope.throwIfFailed();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        List<R> results = new ArrayList<>(subtasks.size());
+        for (StructuredTaskScope.Subtask<R> subtask : subtasks) {
+            results.add(subtask.get());
+        }
+        return results;
+    }
+
+    private static IOException rethrow(Throwable failure) {
+        if (failure instanceof IOException) {
+            return (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return new IOException(failure);
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.vthread;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import okhttp3.Dispatcher;
+
+/**
+ * <p>
+ *     Factories of virtual threads for the client.
+ * </p>
+ *
+ * <p>
+ *     OkHttp 3 still holds monitors around connection pool bookkeeping, which pins a virtual thread to its carrier
+ *     for that short while, but socket reads and writes happen outside of them, so a parked request does not
+ *     occupy a carrier thread.
+ * </p>
+ */
+public final class VirtualThreads {
+
+    /**
+     * Requests run at once by {@link #dispatcher()}. With a thread per call the threads no longer bound
+     * concurrency, so the dispatcher limits are the only thing keeping a burst from overwhelming the site.
+     */
+    public static final int DEFAULT_MAX_REQUESTS = 256;
+
+    /**
+     * Requests run at once per host by {@link #dispatcher()}, all of them go to the one Desk site
+     */
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 64;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates a thread factory of virtual threads named {@code desk-virtual-<n>}
+     *
+     * @return the thread factory
+     */
+    @NotNull
+    public static ThreadFactory threadFactory() {
+        return Thread.ofVirtual().name("desk-virtual-", 0).factory();
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task
+     *
+     * @return the executor, closing it waits for the tasks to finish
+     */
+    @NotNull
+    public static ExecutorService executor() {
+        return Executors.newThreadPerTaskExecutor(threadFactory());
+    }
+
+    /**
+     * Creates a dispatcher running asynchronous calls on virtual threads with {@link #DEFAULT_MAX_REQUESTS} and
+     * {@link #DEFAULT_MAX_REQUESTS_PER_HOST}
+     *
+     * @return the dispatcher
+     */
+    @NotNull
+    public static Dispatcher dispatcher() {
+        return dispatcher(DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Creates a dispatcher running asynchronous calls on virtual threads
+     *
+     * @param maxRequests the most requests run at once
+     * @param maxRequestsPerHost the most requests run at once per host
+     * @return the dispatcher
+     */
+    @NotNull
+    public static Dispatcher dispatcher(int maxRequests, int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher(executor());
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return dispatcher;
+    }
+}
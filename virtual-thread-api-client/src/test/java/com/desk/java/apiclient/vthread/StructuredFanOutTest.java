@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.vthread;
+
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Entries;
+import com.desk.java.apiclient.model.Label;
+import com.desk.java.apiclient.util.HttpException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+public class StructuredFanOutTest {
+
+    @Test
+    public void fanOutKeepsInputOrder() throws Exception {
+        List<String> results = StructuredFanOut.fanOut(Arrays.asList(30, 10, 20), 3, millis -> call(() -> {
+            Thread.sleep(millis);
+            return Response.success("slept " + millis);
+        }));
+        assertEquals(Arrays.asList("slept 30", "slept 10", "slept 20"), results);
+    }
+
+    @Test
+    public void fanOutRunsCallsOnVirtualThreads() throws Exception {
+        List<Boolean> virtual = StructuredFanOut.fanOut(Arrays.asList(1, 2), 2,
+                i -> call(() -> Response.success(Thread.currentThread().isVirtual())));
+        assertEquals(Arrays.asList(true, true), virtual);
+    }
+
+    @Test
+    public void fanOutBoundsCallsInFlight() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> inputs = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        List<Integer> results = StructuredFanOut.fanOut(inputs, 3, i -> call(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return Response.success(i);
+        }));
+        assertEquals(inputs, results);
+        assertTrue("at most 3 calls run at once but " + maxRunning.get() + " did", maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void firstFailureInterruptsTheRest() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        try {
+            StructuredFanOut.fanOut(Arrays.asList(0, 1, 2), 3, i -> call(() -> {
+                if (i == 1) {
+                    throw new IOException("boom");
+                }
+                never.await();
+                completed.incrementAndGet();
+                return Response.success(i);
+            }));
+            fail("expected the fan out to fail");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals("the waiting calls were interrupted", 0, completed.get());
+    }
+
+    @Test
+    public void errorStatusFailsWithHttpException() throws Exception {
+        try {
+            StructuredFanOut.byIds(new long[] { 1, 2 }, 2, id -> call(() -> id == 2
+                    ? Response.<String>error(404, ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                    : Response.success("case " + id)));
+            fail("expected the fan out to fail");
+        } catch (HttpException e) {
+            assertEquals(404, e.getCode());
+        }
+    }
+
+    @Test
+    public void deadlineInterruptsSlowCalls() throws Exception {
+        long start = System.nanoTime();
+        try {
+            StructuredFanOut.fanOut(Arrays.asList(0, 1), 2, Instant.now().plus(Duration.ofMillis(100)),
+                    i -> call(() -> {
+                        Thread.sleep(i == 0 ? 0 : 60000);
+                        return Response.success(i);
+                    }));
+            fail("expected the fan out to time out");
+        } catch (InterruptedIOException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+        }
+    }
+
+    @Test
+    public void allPagesReadsRemainingPagesAfterTheFirst() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        List<Label> labels = StructuredFanOut.allPages(2, 4, page -> call(() -> {
+            requests.incrementAndGet();
+            return Response.success(page(5, page == 3 ? new String[] { "e" }
+                    : new String[] { "p" + page + "a", "p" + page + "b" }));
+        }));
+        assertEquals(Arrays.asList("p1a", "p1b", "p2a", "p2b", "e"),
+                labels.stream().map(Label::getName).collect(Collectors.toList()));
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void allPagesOfSinglePageListing() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        List<Label> labels = StructuredFanOut.allPages(50, 4, page -> call(() -> {
+            requests.incrementAndGet();
+            return Response.success(page(1, new String[] { "only" }));
+        }));
+        assertEquals(1, labels.size());
+        assertEquals(1, requests.get());
+    }
+
+    private static ApiResponse<Label> page(int totalEntries, String[] names) {
+        Label[] labels = new Label[names.length];
+        for (int i = 0; i < names.length; i++) {
+            labels[i] = new Label();
+            labels[i].setName(names[i]);
+        }
+        Entries<Label> entries = new Entries<>();
+        entries.setEntries(labels);
+        ApiResponse<Label> response = new ApiResponse<>();
+        response.setTotalEntries(totalEntries);
+        response.setEmbeddedList(entries);
+        return response;
+    }
+
+    private static <T> Call<T> call(Callable<Response<T>> response) {
+        return new BlockingCall<>(response);
+    }
+
+    /**
+     * A call producing its response on the executing thread
+     */
+    private static final class BlockingCall<T> implements Call<T> {
+
+        private final Callable<Response<T>> response;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        BlockingCall(Callable<Response<T>> response) {
+            this.response = response;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            executed = true;
+            try {
+                return response.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted");
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new BlockingCall<>(response);
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://test.desk.com/api/v2/").build();
+        }
+    }
+}